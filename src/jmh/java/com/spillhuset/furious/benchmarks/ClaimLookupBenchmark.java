@@ -0,0 +1,83 @@
+package com.spillhuset.furious.benchmarks;
+
+import com.spillhuset.furious.utils.ChunkClaimTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GuildService.getClaimOwner before and after the claim table: the old nested
+ * worldUUID -> x -> z -> guildId maps against the per-world ChunkClaimTable with interned guilds.
+ * Lookups hit a mix of claimed and unclaimed chunks, like block and entity events do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ClaimLookupBenchmark {
+    @Param({"1000", "20000"})
+    public int claims;
+
+    private static final int GUILDS = 200;
+    private static final int LOOKUPS = 1024;
+
+    private final UUID world = UUID.randomUUID();
+    private Map<UUID, Map<Integer, Map<Integer, UUID>>> nested;
+    private Map<UUID, ChunkClaimTable> tables;
+    private List<UUID> guildByIndex;
+    private int[] xs;
+    private int[] zs;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        UUID[] guilds = new UUID[GUILDS];
+        for (int i = 0; i < GUILDS; i++) guilds[i] = UUID.randomUUID();
+
+        nested = new HashMap<>();
+        tables = new HashMap<>();
+        guildByIndex = new ArrayList<>();
+        guildByIndex.add(null);
+        guildByIndex.addAll(Arrays.asList(guilds));
+        ChunkClaimTable table = new ChunkClaimTable(claims);
+        tables.put(world, table);
+        // Claims grow in blobs around each guild's centre, as they do in game
+        int range = (int) Math.sqrt(claims) * 4;
+        for (int n = 0; n < claims; n++) {
+            int g = random.nextInt(GUILDS);
+            int x = random.nextInt(range) - range / 2;
+            int z = random.nextInt(range) - range / 2;
+            nested.computeIfAbsent(world, w -> new HashMap<>())
+                    .computeIfAbsent(x, xx -> new HashMap<>())
+                    .put(z, guilds[g]);
+            table.put(ChunkClaimTable.key(x, z), g + 1);
+        }
+        xs = new int[LOOKUPS];
+        zs = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            xs[i] = random.nextInt(range) - range / 2;
+            zs[i] = random.nextInt(range) - range / 2;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void nestedMaps(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            Map<Integer, Map<Integer, UUID>> byX = nested.get(world);
+            Map<Integer, UUID> byZ = byX == null ? null : byX.get(xs[i]);
+            bh.consume(byZ == null ? null : byZ.get(zs[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void claimTable(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            ChunkClaimTable table = tables.get(world);
+            int idx = table == null ? 0 : table.get(ChunkClaimTable.key(xs[i], zs[i]));
+            bh.consume(idx == 0 ? null : guildByIndex.get(idx));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.spillhuset.furious.benchmarks;
+
+import com.spillhuset.furious.db.DatabaseManager;
+import com.spillhuset.furious.db.SimpleConnectionPool;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * SimpleConnectionPool before and after the rework, against a SQLite file opened with the plugin's URL
+ * and pool size. borrow measures checkout and return alone; pointQuery adds the primary-key read a store
+ * would run. By default eight threads share four connections, so borrowers queue like the async writers
+ * do; the Uncontended variants run a single thread, which never waits.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+public class ConnectionPoolBenchmark {
+    @Param({"baseline", "reworked"})
+    public String pool;
+
+    private static final int POOL_SIZE = 4;
+    private static final int ROWS = 1_000;
+
+    private File dir;
+    private DataSource dataSource;
+
+    @Setup
+    public void setup() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+        dir = Files.createTempDirectory("furious-pool").toFile();
+        String url = DatabaseManager.sqliteUrl(new File(dir, "furious.db"), 5_000L);
+        // Same settings as DatabaseManager's SQLite pool
+        dataSource = pool.equals("baseline")
+                ? new BaselineConnectionPool(url, null, null, POOL_SIZE, 1, 10_000L, 600_000L, 1_800_000L, "SELECT 1")
+                : new SimpleConnectionPool(url, null, null, POOL_SIZE, 1, 10_000L, 600_000L, 1_800_000L, "SELECT 1",
+                        1_000L, 0L, Logger.getLogger("ConnectionPoolBenchmark"));
+        try (Connection c = dataSource.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("CREATE TABLE bench (id INTEGER PRIMARY KEY, name VARCHAR(36) NOT NULL)");
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO bench(id, name) VALUES(?,?)")) {
+                for (int i = 0; i < ROWS; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, "row-" + i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            c.commit();
+            c.setAutoCommit(true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ((AutoCloseable) dataSource).close();
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    @Benchmark
+    public boolean borrow() throws SQLException {
+        try (Connection c = dataSource.getConnection()) {
+            return c.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    public String pointQuery() throws SQLException {
+        return query();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean borrowUncontended() throws SQLException {
+        return borrow();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String pointQueryUncontended() throws SQLException {
+        return query();
+    }
+
+    private String query() throws SQLException {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT name FROM bench WHERE id=?")) {
+            ps.setInt(1, ThreadLocalRandom.current().nextInt(ROWS));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
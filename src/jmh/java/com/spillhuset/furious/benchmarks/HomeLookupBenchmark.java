@@ -0,0 +1,110 @@
+package com.spillhuset.furious.benchmarks;
+
+import com.spillhuset.furious.utils.BlockPosIndex;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HomesService's home index before and after BlockPosIndex: the old Map&lt;Location, UUID&gt; against the
+ * packed block index, for the exact lookup (getHome(Location)) and for adoptArmorStand's "homes near
+ * this stand" query, which used to scan every home. Half of the point lookups hit a home.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class HomeLookupBenchmark {
+    @Param({"1000", "20000"})
+    public int homes;
+
+    private static final int LOOKUPS = 1024;
+    private static final int RANGE = 20_000;
+
+    private World world;
+    private UUID worldId;
+    private Map<Location, UUID> locations;
+    private BlockPosIndex index;
+    private Location[] probes;
+
+    @Setup
+    public void setup() {
+        worldId = UUID.randomUUID();
+        // Only getUID, equals and hashCode are used, as on the old map's keys
+        world = (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getUID" -> worldId;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "World";
+            default -> null;
+        });
+
+        Random random = new Random(42);
+        locations = new HashMap<>();
+        index = new BlockPosIndex();
+        List<Location> stored = new ArrayList<>(homes);
+        for (int i = 0; i < homes; i++) {
+            // Stored homes keep the player's exact position and facing
+            Location loc = new Location(world, random.nextInt(RANGE) - RANGE / 2 + random.nextDouble(), 64 + random.nextInt(64),
+                    random.nextInt(RANGE) - RANGE / 2 + random.nextDouble(), random.nextFloat() * 360f, 0f);
+            UUID id = UUID.randomUUID();
+            locations.put(loc, id);
+            index.put(id, worldId, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+            stored.add(loc);
+        }
+        probes = new Location[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (i % 2 == 0) {
+                Location home = stored.get(random.nextInt(homes));
+                probes[i] = new Location(world, home.getX(), home.getY(), home.getZ(), home.getYaw(), home.getPitch());
+            } else {
+                probes[i] = new Location(world, random.nextInt(RANGE) - RANGE / 2 + 0.5, 64 + random.nextInt(64), random.nextInt(RANGE) - RANGE / 2 + 0.5);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void pointLocationMap(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) bh.consume(locations.get(probes[i]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void pointBlockIndex(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            Location p = probes[i];
+            bh.consume(index.get(worldId, p.getBlockX(), p.getBlockY(), p.getBlockZ()));
+        }
+    }
+
+    // adoptArmorStand: homes within 2 blocks of a stand
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void nearbyLocationScan(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            Location p = probes[i];
+            UUID found = null;
+            for (Map.Entry<Location, UUID> e : locations.entrySet()) {
+                if (e.getKey().distanceSquared(p) <= 4.0) {
+                    found = e.getValue();
+                    break;
+                }
+            }
+            bh.consume(found);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void nearbyBlockIndex(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            Location p = probes[i];
+            bh.consume(index.withinRadius(worldId, p.getBlockX(), p.getBlockY(), p.getBlockZ(), 4.0));
+        }
+    }
+}
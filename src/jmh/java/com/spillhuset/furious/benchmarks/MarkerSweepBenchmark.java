@@ -0,0 +1,72 @@
+package com.spillhuset.furious.benchmarks;
+
+import com.spillhuset.furious.utils.SweepQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the background marker sweep as the number of markers grows. One tick runs
+ * armorstands.sweep-per-tick checks and should cost the same for any number of markers; only
+ * queueing a new sweep (once per sweep interval) grows with the marker count.
+ * Each check does what a service's check does before touching the world: look up its owner by id.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MarkerSweepBenchmark {
+    @Param({"1000", "100000"})
+    public int markers;
+
+    private static final int PER_TICK = 4;
+
+    private Map<UUID, Object> owners;
+    private List<Runnable> checks;
+    private SweepQueue queue;
+    private long found;
+
+    @Setup
+    public void setup() {
+        owners = new HashMap<>();
+        checks = new ArrayList<>(markers);
+        queue = new SweepQueue(PER_TICK);
+        for (int i = 0; i < markers; i++) {
+            UUID id = UUID.randomUUID();
+            owners.put(id, new Object());
+            checks.add(new Check(id));
+        }
+        queue.addAll(checks);
+    }
+
+    // Requeues itself so the running sweep never drains during a measurement
+    private final class Check implements Runnable {
+        private final UUID id;
+        private final List<Runnable> self = List.of(this);
+
+        Check(UUID id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            if (owners.get(id) != null) found++;
+            queue.addAll(self);
+        }
+    }
+
+    @Benchmark
+    public int tick() {
+        return queue.tick(t -> {});
+    }
+
+    // What startSweep does once per sweep interval: collect one check per marker and queue them
+    @Benchmark
+    public int startSweep() {
+        SweepQueue fresh = new SweepQueue(PER_TICK);
+        List<Runnable> collected = new ArrayList<>();
+        for (Runnable check : checks) collected.add(check);
+        fresh.addAll(collected);
+        return fresh.size();
+    }
+}
@@ -0,0 +1,80 @@
+package com.spillhuset.furious.benchmarks;
+
+import com.spillhuset.furious.services.ProfessionService.Bonus;
+import com.spillhuset.furious.services.ProfessionService.PointTable;
+import com.spillhuset.furious.services.ProfessionService.Profession;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProfessionService.ptsBase/ptsBonus before and after the point tables: building the config path and
+ * resolving it in a YamlConfiguration on every event against the service's PointTable, built by the same
+ * factory reloadPointTables uses.
+ * The config holds the full professions section, and the events mix base and bonus lookups the way
+ * ProfessionListener does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ProfessionPointsBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    private YamlConfiguration config;
+    private PointTable table;
+    private Profession[] professions;
+    private Bonus[] bonuses;
+
+    @Setup
+    public void setup() {
+        config = new YamlConfiguration();
+        for (Profession prof : Profession.values()) {
+            config.set("professions.points.base." + prof.name().toLowerCase(Locale.ROOT), 1 + prof.ordinal());
+        }
+        for (Bonus b : Bonus.values()) {
+            config.set("professions.points.bonus." + b.getProfession().name().toLowerCase(Locale.ROOT) + "." + b.getKey(), 2 + b.ordinal());
+        }
+        config.set("professions.flush-interval-ticks", 200);
+        config.set("professions.multi-break.blocks-per-tick", 64);
+
+        table = PointTable.fromConfig(config);
+
+        Random random = new Random(42);
+        professions = new Profession[LOOKUPS];
+        bonuses = new Bonus[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            professions[i] = Profession.values()[random.nextInt(Profession.values().length)];
+            // Roughly one event in four also earns a bonus
+            bonuses[i] = random.nextInt(4) == 0 ? Bonus.values()[random.nextInt(Bonus.values().length)] : null;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void configPaths(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            Profession prof = professions[i];
+            int pts = config.getInt("professions.points.base." + prof.name().toLowerCase(Locale.ROOT), 1);
+            Bonus b = bonuses[i];
+            if (b != null) {
+                pts += config.getInt("professions.points.bonus." + b.getProfession().name().toLowerCase(Locale.ROOT) + "." + b.getKey(), 2);
+            }
+            bh.consume(pts);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void pointTable(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            int pts = table.points(professions[i]);
+            Bonus b = bonuses[i];
+            if (b != null) pts += table.points(b);
+            bh.consume(pts);
+        }
+    }
+}
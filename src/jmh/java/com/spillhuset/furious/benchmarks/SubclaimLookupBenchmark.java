@@ -0,0 +1,95 @@
+package com.spillhuset.furious.benchmarks;
+
+import com.spillhuset.furious.utils.Bank;
+import com.spillhuset.furious.utils.Shop;
+import com.spillhuset.furious.utils.SubclaimIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What ChunkChangeListener.onMove asks on every chunk crossing: the shop and the bank at a chunk.
+ * The old getShopAt/getBankAt scanned every shop and bank with hasClaimAt; the SubclaimIndex probes once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SubclaimLookupBenchmark {
+    @Param({"100", "500"})
+    public int perKind;
+
+    private static final int LOOKUPS = 1024;
+    private static final int SPREAD = 200;
+
+    private final UUID world = UUID.randomUUID();
+    private List<Shop> shops;
+    private List<Bank> banks;
+    private SubclaimIndex index;
+    private int[] xs;
+    private int[] zs;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        shops = new ArrayList<>();
+        banks = new ArrayList<>();
+        index = new SubclaimIndex();
+        for (int i = 0; i < perKind; i++) {
+            Shop shop = new Shop(UUID.randomUUID(), "shop" + i);
+            Bank bank = new Bank(UUID.randomUUID(), "bank" + i);
+            // Most own one chunk, some a few neighbouring ones
+            int claims = 1 + random.nextInt(3);
+            int sx = random.nextInt(SPREAD), sz = random.nextInt(SPREAD);
+            int bx = random.nextInt(SPREAD), bz = random.nextInt(SPREAD);
+            for (int c = 0; c < claims; c++) {
+                shop.addClaim(world, sx + c, sz);
+                bank.addClaim(world, bx, bz + c);
+            }
+            shops.add(shop);
+            banks.add(bank);
+            index.addShop(shop);
+            index.addBank(bank);
+        }
+        xs = new int[LOOKUPS];
+        zs = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            xs[i] = random.nextInt(SPREAD);
+            zs[i] = random.nextInt(SPREAD);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void scan(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            Shop shop = null;
+            for (Shop s : shops) {
+                if (s.hasClaimAt(world, xs[i], zs[i])) {
+                    shop = s;
+                    break;
+                }
+            }
+            Bank bank = null;
+            for (Bank b : banks) {
+                if (b.hasClaimAt(world, xs[i], zs[i])) {
+                    bank = b;
+                    break;
+                }
+            }
+            bh.consume(shop);
+            bh.consume(bank);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void index(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            SubclaimIndex.Cell cell = index.get(world, xs[i], zs[i]);
+            bh.consume(cell == null ? null : cell.getShop());
+            bh.consume(cell == null ? null : cell.getBank());
+        }
+    }
+}
@@ -26,6 +26,8 @@ public class Furious extends JavaPlugin {
     public ShopsService shopsService;
     public AuctionsService auctionsService;
     public ArmorStandManager armorStandManager;
+    public com.spillhuset.furious.services.MarkerVisibilityService markerVisibilityService;
+    public com.spillhuset.furious.managers.MultiBreakManager multiBreakManager;
     public TombstoneService tombstoneService;
     public LocksService locksService;
     public BiomesService biomesService;
@@ -33,11 +35,14 @@ public class Furious extends JavaPlugin {
     public TamingService tamingService;
     public com.spillhuset.furious.utils.RegistryCache registryCache;
     public com.spillhuset.furious.utils.MessageThrottle messageThrottle;
+    public com.spillhuset.furious.utils.SubclaimIndex subclaimIndex;
+    public com.spillhuset.furious.utils.SuggestionIndex suggestionIndex;
     public WorldResetService worldResetService;
     public com.spillhuset.furious.services.ProfessionService professionService;
     public com.spillhuset.furious.db.DatabaseManager databaseManager;
     public com.spillhuset.furious.services.BanService banService;
     public com.spillhuset.furious.services.ApiService apiService;
+    public com.spillhuset.furious.services.PlayerDirectory playerDirectory;
 
     @Override
     public void onEnable() {
@@ -63,9 +68,23 @@ public class Furious extends JavaPlugin {
         registryCache = new com.spillhuset.furious.utils.RegistryCache(instance);
         registryCache.init();
 
+        // Name <-> UUID index used by commands to resolve and tab-complete player names
+        playerDirectory = new com.spillhuset.furious.services.PlayerDirectory(instance);
+        playerDirectory.load();
+
         // Initialize message throttle for anti-spam of action bars/broadcasts
         messageThrottle = new com.spillhuset.furious.utils.MessageThrottle(instance);
 
+        // Shared chunk index for shop/bank/auctions subclaims; populated by their services on load/claim
+        subclaimIndex = new com.spillhuset.furious.utils.SubclaimIndex();
+
+        // Per-domain name tries for tab completion; filled by the guild/warp/shop/auction/bank services
+        suggestionIndex = new com.spillhuset.furious.utils.SuggestionIndex();
+
+        // Created before the marker-owning services so they can register their stands while loading
+        armorStandManager = new ArmorStandManager(instance);
+        markerVisibilityService = new com.spillhuset.furious.services.MarkerVisibilityService(instance);
+
         guildService = new GuildService(instance);
         guildService.load();
 
@@ -93,7 +112,6 @@ public class Furious extends JavaPlugin {
         auctionsService.load();
 
         teleportsService = new TeleportsService(instance);
-        armorStandManager = new ArmorStandManager(instance);
         tombstoneService = new TombstoneService(instance);
         locksService = new LocksService(instance);
         locksService.load();
@@ -110,6 +128,7 @@ public class Furious extends JavaPlugin {
         // Professions
         professionService = new com.spillhuset.furious.services.ProfessionService(instance);
         professionService.load();
+        multiBreakManager = new com.spillhuset.furious.managers.MultiBreakManager(instance);
 
         // Start Nether/End world reset scheduler
         worldResetService = new WorldResetService(instance);
@@ -284,6 +303,14 @@ public class Furious extends JavaPlugin {
             cmd.setTabCompleter(ubc);
         }
 
+        // Moderation: search the audit log
+        cmd = getCommand("audit");
+        if (cmd != null) {
+            AuditLogCommand alc = new AuditLogCommand(instance);
+            cmd.setExecutor(alc);
+            cmd.setTabCompleter(alc);
+        }
+
         getServer().getPluginManager().registerEvents(new PlayerJoinListener(instance), instance);
         // Deny login for custom-banned players
         getServer().getPluginManager().registerEvents(new com.spillhuset.furious.listeners.BanListener(instance), instance);
@@ -324,11 +351,12 @@ public class Furious extends JavaPlugin {
         // Log item movements when ops use /invsee
         getServer().getPluginManager().registerEvents(new InvseeAuditListener(getLogger()), instance);
 
-        // Ensure all marker ArmorStands are present after startup (centralized)
+        // Check all marker ArmorStands in the background after startup and periodically (centralized);
+        // chunks that load later reconcile their own markers
         try {
-            if (armorStandManager != null) armorStandManager.ensureArmorStands();
+            if (armorStandManager != null) armorStandManager.startSweeps();
         } catch (Exception ex) {
-            getLogger().log(Level.WARNING, "Failed to ensure ArmorStands", ex);
+            getLogger().log(Level.WARNING, "Failed to schedule ArmorStand sweeps", ex);
         }
 
         getLogger().info("Furious enabled!");
@@ -337,20 +365,25 @@ public class Furious extends JavaPlugin {
     @Override
     public void onDisable() {
         if (apiService != null) apiService.stop();
-        if (walletService != null) walletService.save();
-        if (homesService != null) homesService.save();
-        if (guildService != null) guildService.save();
+        if (walletService != null) walletService.shutdown();
+        if (homesService != null) homesService.shutdown();
+        if (guildService != null) guildService.shutdown();
         if (guildHomesService != null) guildHomesService.save();
         if (warpsService != null) warpsService.save();
         if (banksService != null) { banksService.shutdown(); banksService.save(); }
         if (shopsService != null) shopsService.save();
         if (auctionsService != null) auctionsService.shutdown();
-        if (locksService != null) locksService.save();
-        if (biomesService != null) biomesService.save();
-        if (monstersService != null) monstersService.save();
-        if (tamingService != null) tamingService.save();
-        if (professionService != null) professionService.save();
+        if (locksService != null) locksService.shutdown();
+        if (biomesService != null) { biomesService.stopAutoSave(); biomesService.save(); }
+        if (monstersService != null) { monstersService.stopAutoSave(); monstersService.save(); }
+        if (tamingService != null) { tamingService.stopAutoSave(); tamingService.save(); }
+        if (multiBreakManager != null) multiBreakManager.shutdown();
+        if (armorStandManager != null) armorStandManager.shutdown();
+        if (professionService != null) professionService.shutdown();
         if (banService != null) banService.save();
+        if (playerDirectory != null) playerDirectory.shutdown();
+        // Last, so responses sent while saving are still written
+        com.spillhuset.furious.utils.AuditLog.shutdown();
         getLogger().info("Furious disabled!");
     }
 
@@ -18,10 +18,7 @@ public class BidCommand implements SubCommandInterface {
     public List<String> tabComplete(CommandSender sender, String[] args) {
         List<String> list = new ArrayList<>();
         if (args.length == 2) {
-            String prefix = args[1].toLowerCase();
-            for (String name : plugin.auctionsService.getAuctionNames()) {
-                if (name.toLowerCase().startsWith(prefix)) list.add(name);
-            }
+            list.addAll(plugin.auctionsService.suggestAuctionNames(args[1], null));
         }
         return list;
     }
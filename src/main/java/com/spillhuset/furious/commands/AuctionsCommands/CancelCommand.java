@@ -18,10 +18,7 @@ public class CancelCommand implements SubCommandInterface {
     public List<String> tabComplete(CommandSender sender, String[] args) {
         List<String> list = new ArrayList<>();
         if (args.length == 2 && sender instanceof Player p) {
-            String prefix = args[1].toLowerCase();
-            for (String name : plugin.auctionsService.getAuctionNamesOwnedBy(p.getUniqueId())) {
-                if (name.toLowerCase().startsWith(prefix)) list.add(name);
-            }
+            list.addAll(plugin.auctionsService.suggestAuctionNames(args[1], a -> a.owner.equals(p.getUniqueId())));
         }
         return list;
     }
@@ -0,0 +1,232 @@
+package com.spillhuset.furious.commands;
+
+import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
+import com.spillhuset.furious.utils.AuditIndex;
+import com.spillhuset.furious.utils.AuditLog;
+import com.spillhuset.furious.utils.AuditQuery;
+import com.spillhuset.furious.utils.CommandInterface;
+import com.spillhuset.furious.utils.Components;
+import com.spillhuset.furious.utils.Utility;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * /audit player &lt;name&gt; [cmd|rsp|inv|all] [from] [to] [limit=N]  - records by a player
+ * /audit target &lt;name&gt; [from] [to] [limit=N]                     - invsee actions on a player's inventory
+ * /audit stats                                                     - writer counters
+ * Times are yyyy-MM-dd, yyyy-MM-ddTHH:mm, "now" or a duration ago (30m, 2h, 7d).
+ * The search runs asynchronously; results are sent in batches as they are found.
+ */
+public class AuditLogCommand implements CommandInterface, CommandExecutor, TabCompleter {
+    private static final DateTimeFormatter SHOW = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 1000;
+    private static final int SEND_BATCH = 20;
+
+    private final Furious plugin;
+
+    public AuditLogCommand(Furious plugin) {
+        this.plugin = plugin.getInstance();
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (!can(sender, true)) return true;
+        if (args.length == 0) {
+            sendUsage(sender);
+            return true;
+        }
+        String sub = args[0].toLowerCase(Locale.ROOT);
+        switch (sub) {
+            case "stats" -> sendStats(sender);
+            case "player", "target" -> {
+                if (args.length < 2) {
+                    sendUsage(sender);
+                    return true;
+                }
+                UUID uuid = resolve(args[1]);
+                if (uuid == null) {
+                    Components.sendErrorMessage(sender, "Unknown player: " + args[1]);
+                    return true;
+                }
+                boolean byTarget = sub.equals("target");
+                Set<String> types = new HashSet<>();
+                if (byTarget) types.add("INV");
+                List<Long> times = new ArrayList<>();
+                int limit = DEFAULT_LIMIT;
+                for (int i = 2; i < args.length; i++) {
+                    String token = args[i].toLowerCase(Locale.ROOT);
+                    if (token.startsWith("limit=")) {
+                        try {
+                            limit = Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(token.substring(6))));
+                        } catch (NumberFormatException e) {
+                            Components.sendErrorMessage(sender, "Invalid limit: " + args[i]);
+                            return true;
+                        }
+                    } else if (!byTarget && (token.equals("cmd") || token.equals("rsp") || token.equals("inv"))) {
+                        types.add(token.toUpperCase(Locale.ROOT));
+                    } else if (!byTarget && token.equals("all")) {
+                        types.clear();
+                    } else {
+                        Long t = parseTime(token);
+                        if (t == null) {
+                            Components.sendErrorMessage(sender, "Invalid time: " + args[i]);
+                            return true;
+                        }
+                        times.add(t);
+                    }
+                }
+                long from = times.isEmpty() ? 0L : times.get(0);
+                long to = times.size() < 2 ? System.currentTimeMillis() : times.get(1);
+                AuditQuery.Filter filter = byTarget
+                        ? new AuditQuery.Filter(null, uuid, types, from, to)
+                        : new AuditQuery.Filter(uuid, null, types, from, to);
+                search(sender, filter, limit);
+            }
+            default -> sendUsage(sender);
+        }
+        return true;
+    }
+
+    private void search(CommandSender sender, AuditQuery.Filter filter, int limit) {
+        File dir = AuditLog.getDirectory();
+        if (dir == null) {
+            Components.sendErrorMessage(sender, "The audit log is not running.");
+            return;
+        }
+        Components.sendInfo(sender, Components.t("Searching audit log from "), Components.valueComp(SHOW.format(Instant.ofEpochMilli(filter.from()))),
+                Components.t(" to "), Components.valueComp(SHOW.format(Instant.ofEpochMilli(filter.to()))), Components.t("..."));
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<Component> batch = new ArrayList<>(SEND_BATCH);
+            AuditQuery.Stats stats;
+            try {
+                stats = AuditQuery.run(dir, filter, limit, record -> {
+                    batch.add(format(record));
+                    if (batch.size() >= SEND_BATCH) {
+                        deliver(sender, new ArrayList<>(batch));
+                        batch.clear();
+                    }
+                    return true;
+                });
+            } catch (Exception e) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> Components.sendErrorMessage(sender, "Audit search failed: " + e.getMessage()));
+                return;
+            }
+            deliver(sender, new ArrayList<>(batch));
+            AuditQuery.Stats done = stats;
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (done.hits() == 0) {
+                    Components.sendInfoMessage(sender, "No matching audit records.");
+                } else {
+                    Components.sendInfo(sender, Components.valueComp(String.valueOf(done.hits())), Components.t(" record(s)"),
+                            Components.t(done.truncated() ? " (limit reached, narrow the time range)" : ""),
+                            Components.t(", read "), Components.valueComp((done.bytesRead() / 1024) + " KiB"),
+                            Components.t(" from "), Components.valueComp(String.valueOf(done.segments())), Components.t(" segment(s)."));
+                }
+            });
+        });
+    }
+
+    // Results bypass Components so they are not written to the audit log a second time
+    private void deliver(CommandSender sender, List<Component> lines) {
+        if (lines.isEmpty()) return;
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            for (Component line : lines) sender.sendMessage(line);
+        });
+    }
+
+    private Component format(AuditIndex.Record r) {
+        return Component.text(SHOW.format(Instant.ofEpochMilli(r.time())) + " ", NamedTextColor.DARK_GRAY)
+                .append(Component.text(r.type() + " ", NamedTextColor.YELLOW))
+                .append(Component.text(String.valueOf(r.name()), NamedTextColor.GOLD))
+                .append(Component.text(": " + r.message(), NamedTextColor.GRAY));
+    }
+
+    private void sendStats(CommandSender sender) {
+        Components.sendInfo(sender, Components.t("Audit: queued "), Components.valueComp(String.valueOf(AuditLog.getQueued())),
+                Components.t(", written "), Components.valueComp(String.valueOf(AuditLog.getWritten())),
+                Components.t(", dropped "), Components.valueComp(String.valueOf(AuditLog.getDropped())),
+                Components.t(", blocked "), Components.valueComp(String.valueOf(AuditLog.getBlocked())),
+                Components.t(", write errors "), Components.valueComp(String.valueOf(AuditLog.getWriteErrors())));
+    }
+
+    private UUID resolve(String name) {
+        try {
+            return UUID.fromString(name);
+        } catch (IllegalArgumentException ignored) {
+        }
+        OfflinePlayer player = Utility.findPlayer(name);
+        return player == null ? null : player.getUniqueId();
+    }
+
+    private Long parseTime(String token) {
+        if (token.equals("now")) return System.currentTimeMillis();
+        try {
+            if (token.length() == 10) {
+                return LocalDate.parse(token).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+            if (token.contains("t")) {
+                return LocalDateTime.parse(token.toUpperCase(Locale.ROOT)).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+        } catch (RuntimeException ignored) {
+            return null;
+        }
+        // Duration ago: 30m, 2h, 7d, 1w
+        long multiplier;
+        if (token.endsWith("m")) multiplier = 60_000L;
+        else if (token.endsWith("h")) multiplier = 3_600_000L;
+        else if (token.endsWith("d")) multiplier = 86_400_000L;
+        else if (token.endsWith("w")) multiplier = 604_800_000L;
+        else return null;
+        try {
+            return System.currentTimeMillis() - Long.parseLong(token.substring(0, token.length() - 1)) * multiplier;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void sendUsage(CommandSender sender) {
+        Components.sendInfo(sender, Components.t("Usage: /" + getName() + " player <name> [cmd|rsp|inv|all] [from] [to] [limit=N]", NamedTextColor.YELLOW));
+        Components.sendInfo(sender, Components.t("       /" + getName() + " target <name> [from] [to] [limit=N]", NamedTextColor.YELLOW));
+        Components.sendInfo(sender, Components.t("       /" + getName() + " stats", NamedTextColor.YELLOW));
+    }
+
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+        List<String> list = new ArrayList<>();
+        if (!sender.hasPermission(getPermission())) return list;
+        if (args.length == 1) {
+            for (String s : List.of("player", "target", "stats")) {
+                if (s.startsWith(args[0].toLowerCase(Locale.ROOT))) list.add(s);
+            }
+        } else if (args.length == 2 && !args[0].equalsIgnoreCase("stats")) {
+            list.addAll(plugin.playerDirectory.complete(args[1], PlayerDirectory.SUGGESTION_LIMIT));
+        } else if (args.length >= 3 && args[0].equalsIgnoreCase("player")) {
+            for (String s : List.of("cmd", "rsp", "inv", "all", "1h", "1d", "7d", "now", "limit=")) {
+                if (s.startsWith(args[args.length - 1].toLowerCase(Locale.ROOT))) list.add(s);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public String getName() { return "audit"; }
+
+    @Override
+    public String getPermission() { return "furious.audit"; }
+}
@@ -1,9 +1,10 @@
 package com.spillhuset.furious.commands.BanksCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
-import org.bukkit.Bukkit;
+import com.spillhuset.furious.utils.Utility;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -22,9 +23,7 @@ public class SummaryCommand implements SubCommandInterface {
         List<String> list = new ArrayList<>();
         if (args.length == 2) {
             if (sender.hasPermission(getPermission() + ".others")) {
-                for (Player p : Bukkit.getOnlinePlayers()) {
-                    if (p.getName().toLowerCase().startsWith(args[1].toLowerCase())) list.add(p.getName());
-                }
+                list.addAll(plugin.playerDirectory.complete(args[1], PlayerDirectory.SUGGESTION_LIMIT));
             }
         }
         return list;
@@ -36,13 +35,14 @@ public class SummaryCommand implements SubCommandInterface {
         String targetName;
         if (args.length >= 2) {
             if (!SubCommandInterface.super.can(sender, true, true)) return true;
-            OfflinePlayer off = Bukkit.getOfflinePlayer(args[1]);
-            if (off == null || (off.getUniqueId() == null)) {
+            OfflinePlayer off = Utility.findPlayer(args[1]);
+            if (off == null) {
                 Components.sendErrorMessage(sender, "Player not found.");
                 return true;
             }
             targetId = off.getUniqueId();
-            targetName = off.getName() != null ? off.getName() : targetId.toString();
+            String known = plugin.playerDirectory.getName(targetId);
+            targetName = known != null ? known : args[1];
         } else {
             if (!(sender instanceof Player p)) {
                 Components.sendErrorMessage(sender, "Usage: /banks summary <player>");
@@ -1,10 +1,11 @@
 package com.spillhuset.furious.commands.ChecklistCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
+import com.spillhuset.furious.utils.Utility;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -36,12 +37,10 @@ public class BiomesCommand implements SubCommandInterface {
         if (args.length == 2) {
             String partial = args[1].toLowerCase(Locale.ROOT);
             if ("clear".startsWith(partial)) suggestions.add("clear");
-            // suggest player names
-            for (OfflinePlayer op : plugin.biomesService.resolveAllKnownPlayers()) {
-                if (op.getName() != null && op.getName().toLowerCase(Locale.ROOT).startsWith(partial)) {
-                    suggestions.add(op.getName());
-                }
-            }
+            if ("stats".startsWith(partial)) suggestions.add("stats");
+            // suggest player names: players with progress, everyone known while nobody has any
+            Set<UUID> tracked = plugin.biomesService.getAllTrackedPlayers();
+            suggestions.addAll(plugin.playerDirectory.complete(partial, PlayerDirectory.SUGGESTION_LIMIT, tracked.isEmpty() ? null : tracked::contains));
             // suggest biome keys (both namespaced and simple value)
             for (String keyNs : allBiomeKeysLower()) {
                 String keySimple = keyNs.contains(":") ? keyNs.substring(keyNs.indexOf(':') + 1) : keyNs;
@@ -83,6 +82,16 @@ public class BiomesCommand implements SubCommandInterface {
             }
         }
 
+        if (args.length == 2 && args[1].equalsIgnoreCase("stats")) {
+            if (!can(sender, true)) return true;
+            Components.sendInfo(sender, Components.t("Biome tracking: "),
+                    Components.valueComp(String.valueOf(plugin.biomesService.getMoveChecks())), Components.t(" moves, "),
+                    Components.valueComp(String.valueOf(plugin.biomesService.getBiomeSamples())), Components.t(" samples, "),
+                    Components.valueComp(String.valueOf(plugin.biomesService.getBiomeChanges())), Components.t(" biome changes, skip rate "),
+                    Components.valueComp(String.format(Locale.ROOT, "%.1f%%", plugin.biomesService.getSkipRate() * 100.0)));
+            return true;
+        }
+
         if (!(sender instanceof Player) && args.length == 1) {
             Components.sendErrorMessage(sender, "Console must specify a player or biome.");
             return true;
@@ -117,14 +126,8 @@ public class BiomesCommand implements SubCommandInterface {
     }
 
     private OfflinePlayer resolvePlayer(String name) {
-        // Exact match online
-        Player p = Bukkit.getPlayerExact(name);
-        if (p != null) return p;
-        // Match offline by name (case-insensitive)
-        for (OfflinePlayer op : plugin.getServer().getOfflinePlayers()) {
-            if (op.getName() != null && op.getName().equalsIgnoreCase(name)) return op;
-        }
-        return null;
+        // Online first, then the name index (case-insensitive)
+        return Utility.findPlayer(name);
     }
 
     private String resolveBiomeKey(String name) {
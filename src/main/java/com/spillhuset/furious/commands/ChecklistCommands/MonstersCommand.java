@@ -1,10 +1,11 @@
 package com.spillhuset.furious.commands.ChecklistCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
+import com.spillhuset.furious.utils.Utility;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.Bukkit;
 import org.bukkit.NamespacedKey;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
@@ -46,11 +47,9 @@ public class MonstersCommand implements SubCommandInterface {
         if (args.length == 2) {
             String partial = args[1].toLowerCase(Locale.ROOT);
             if ("clear".startsWith(partial)) suggestions.add("clear");
-            for (OfflinePlayer op : plugin.monstersService.resolveAllKnownPlayers()) {
-                if (op.getName() != null && op.getName().toLowerCase(Locale.ROOT).startsWith(partial)) {
-                    suggestions.add(op.getName());
-                }
-            }
+            // Players with checklist progress; everyone known while nobody has any
+            Set<UUID> tracked = plugin.monstersService.getAllTrackedPlayers();
+            suggestions.addAll(plugin.playerDirectory.complete(partial, PlayerDirectory.SUGGESTION_LIMIT, tracked.isEmpty() ? null : tracked::contains));
             for (EntityType t : allHostileTypes()) {
                 try {
                     NamespacedKey key = t.getKey();
@@ -126,12 +125,7 @@ public class MonstersCommand implements SubCommandInterface {
     }
 
     private OfflinePlayer resolvePlayer(String name) {
-        Player p = Bukkit.getPlayerExact(name);
-        if (p != null) return p;
-        for (OfflinePlayer op : plugin.getServer().getOfflinePlayers()) {
-            if (op.getName() != null && op.getName().equalsIgnoreCase(name)) return op;
-        }
-        return null;
+        return Utility.findPlayer(name);
     }
 
     private EntityType resolveMonster(String name) {
@@ -25,10 +25,7 @@ public class ClaimCommand implements SubCommandInterface {
         List<String> out = new ArrayList<>();
         if (!can(sender, false, true)) return out;
         if (args.length == 2) {
-            String prefix = args[1].toLowerCase();
-            for (String name : plugin.guildService.getAllGuildNames()) {
-                if (name.toLowerCase().startsWith(prefix)) out.add(name);
-            }
+            out.addAll(plugin.guildService.suggestGuildNames(args[1]));
         }
         return out;
     }
@@ -23,12 +23,7 @@ public class DeleteCommand implements SubCommandInterface {
         // Admin form: /guild delete <name> [confirm]
         if (can(sender, false, true)) {
             if (args.length == 2) {
-                String prefix = args[1].toLowerCase();
-                for (String name : plugin.guildService.getAllGuildNames()) {
-                    if (name.toLowerCase().startsWith(prefix)) {
-                        completions.add(name);
-                    }
-                }
+                completions.addAll(plugin.guildService.suggestGuildNames(args[1]));
                 return completions;
             }
             if (args.length == 3) {
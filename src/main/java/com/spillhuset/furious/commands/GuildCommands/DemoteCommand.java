@@ -28,12 +28,7 @@ public class DemoteCommand implements SubCommandInterface {
         // Admin: /guild demote <guildName> <player>
         if (canOthers) {
             if (args.length == 2) {
-                String prefix = args[1].toLowerCase();
-                for (String name : plugin.guildService.getAllGuildNames()) {
-                    if (name != null && name.toLowerCase().startsWith(prefix)) {
-                        completions.add(name);
-                    }
-                }
+                completions.addAll(plugin.guildService.suggestGuildNames(args[1]));
                 return completions;
             }
             if (args.length == 3) {
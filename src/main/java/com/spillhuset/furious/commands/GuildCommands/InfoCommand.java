@@ -25,10 +25,7 @@ public class InfoCommand implements SubCommandInterface {
         if (!can(sender, false)) return out;
         // /guild info [guildName]
         if (args.length == 2) {
-            String prefix = args[1].toLowerCase();
-            for (String name : plugin.guildService.getAllGuildNames()) {
-                if (name != null && name.toLowerCase().startsWith(prefix)) out.add(name);
-            }
+            out.addAll(plugin.guildService.suggestGuildNames(args[1]));
         }
         return out;
     }
@@ -2,6 +2,7 @@ package com.spillhuset.furious.commands.GuildCommands;
 
 import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.services.GuildService;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
 import com.spillhuset.furious.utils.Utility;
@@ -43,15 +44,12 @@ public class InviteCommand implements SubCommandInterface {
                 if (gid != null && plugin.guildService.isInvited(gid, p.getUniqueId())) return;
                 if (!completions.contains(name)) completions.add(name);
             });
-            // Add offline players that match and aren't already included
-            for (OfflinePlayer p : plugin.getServer().getOfflinePlayers()) {
-                String name = p.getName();
-                if (name == null) continue;
-                String lower = name.toLowerCase();
-                if (!lower.startsWith(prefix)) continue;
-                if (player.getUniqueId().equals(p.getUniqueId())) continue;
-                if (plugin.guildService.getGuildIdForMember(p.getUniqueId()) != null) continue;
-                if (gid != null && plugin.guildService.isInvited(gid, p.getUniqueId())) continue;
+            // Add known offline players from the name index, filtered while walking it
+            List<String> known = plugin.playerDirectory.complete(prefix, PlayerDirectory.SUGGESTION_LIMIT, id ->
+                    !inviter.equals(id)
+                            && plugin.guildService.getGuildIdForMember(id) == null
+                            && (gid == null || !plugin.guildService.isInvited(gid, id)));
+            for (String name : known) {
                 if (!completions.contains(name)) completions.add(name);
             }
             return completions;
@@ -27,12 +27,7 @@ public class KickCommand implements SubCommandInterface {
         // Admin form: /guild kick <guildName> <player> [reason]
         if (canOthers) {
             if (args.length == 2) {
-                String prefix = args[1].toLowerCase();
-                for (String name : plugin.guildService.getAllGuildNames()) {
-                    if (name != null && name.toLowerCase().startsWith(prefix)) {
-                        completions.add(name);
-                    }
-                }
+                completions.addAll(plugin.guildService.suggestGuildNames(args[1]));
                 return completions;
             }
             if (args.length == 3) {
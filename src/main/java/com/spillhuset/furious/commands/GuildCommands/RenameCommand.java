@@ -24,12 +24,7 @@ public class RenameCommand implements SubCommandInterface {
         if (can(sender, false, true)) {
             if (args.length == 2) {
                 // Suggest existing guild names for <oldName>
-                String prefix = args[1].toLowerCase();
-                for (String name : plugin.guildService.getAllGuildNames()) {
-                    if (name.toLowerCase().startsWith(prefix)) {
-                        completions.add(name);
-                    }
-                }
+                completions.addAll(plugin.guildService.suggestGuildNames(args[1]));
                 return completions;
             }
             // args.length == 3 -> <newName>, no strong suggestions
@@ -24,10 +24,7 @@ public class SetOpenCommand implements SubCommandInterface {
         boolean others = can(sender, false, true);
         if (others) {
             if (args.length == 2) {
-                String prefix = args[1].toLowerCase();
-                for (String name : plugin.guildService.getAllGuildNames()) {
-                    if (name.toLowerCase().startsWith(prefix)) out.add(name);
-                }
+                out.addAll(plugin.guildService.suggestGuildNames(args[1]));
                 return out;
             } else if (args.length == 3) {
                 String prefix = args[2].toLowerCase();
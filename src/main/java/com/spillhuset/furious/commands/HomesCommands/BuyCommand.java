@@ -54,7 +54,6 @@ public class BuyCommand implements SubCommandInterface {
                 return true;
             }
             plugin.homesService.purchaseSlot(player.getUniqueId());
-            plugin.homesService.save();
             Components.sendSuccess(player, Components.t("Purchased an extra home slot for "), Components.amountComp(cost, plugin.walletService), Components.t("."));
         } else {
             Components.sendInfoMessage(player, "Usage: /homes buy [confirm]");
@@ -1,6 +1,7 @@
 package com.spillhuset.furious.commands.HomesCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
 import com.spillhuset.furious.utils.Utility;
@@ -30,15 +31,9 @@ public class ListCommand implements SubCommandInterface {
                     out.add(p.getName());
                 }
             });
-            // Add offline players that match and aren't already included
-            for (OfflinePlayer p : plugin.getServer().getOfflinePlayers()) {
-                String name = p.getName();
-                if (name != null) {
-                    String lower = name.toLowerCase();
-                    if (lower.startsWith(prefix) && !out.contains(name)) {
-                        out.add(name);
-                    }
-                }
+            // Add known offline players from the name index that aren't already included
+            for (String name : plugin.playerDirectory.complete(prefix, PlayerDirectory.SUGGESTION_LIMIT)) {
+                if (!out.contains(name)) out.add(name);
             }
             return out;
         }
@@ -50,6 +50,8 @@ public class MigrateCommand implements SubCommandInterface {
             Components.sendErrorMessage(sender, "Source and target are the same: " + from);
             return true;
         }
+        // Pending changes are written in the background; make sure the source is complete
+        plugin.homesService.save();
         try {
             if (from.equals("yaml") && to.equals("database")) {
                 migrateYamlToDb();
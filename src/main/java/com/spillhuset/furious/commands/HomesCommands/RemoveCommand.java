@@ -1,6 +1,7 @@
 package com.spillhuset.furious.commands.HomesCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
 import com.spillhuset.furious.utils.Utility;
@@ -36,15 +37,9 @@ public class RemoveCommand implements SubCommandInterface {
                     completions.add(name);
                 }
             });
-            // Add offline players that match and aren't already included
-            for (OfflinePlayer p : plugin.getServer().getOfflinePlayers()) {
-                String name = p.getName();
-                if (name != null) {
-                    String lower = name.toLowerCase();
-                    if (lower.startsWith(prefix) && !completions.contains(name)) {
-                        completions.add(name);
-                    }
-                }
+            // Add known offline players from the name index that aren't already included
+            for (String name : plugin.playerDirectory.complete(prefix, PlayerDirectory.SUGGESTION_LIMIT)) {
+                if (!completions.contains(name)) completions.add(name);
             }
             return completions;
         }
@@ -1,6 +1,7 @@
 package com.spillhuset.furious.commands.HomesCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
 import com.spillhuset.furious.utils.Utility;
@@ -34,14 +35,8 @@ public class RenameCommand implements SubCommandInterface {
                         completions.add(name);
                     }
                 });
-                for (OfflinePlayer p : plugin.getServer().getOfflinePlayers()) {
-                    String name = p.getName();
-                    if (name != null) {
-                        String lower = name.toLowerCase();
-                        if (lower.startsWith(prefix) && !completions.contains(name)) {
-                            completions.add(name);
-                        }
-                    }
+                for (String name : plugin.playerDirectory.complete(prefix, PlayerDirectory.SUGGESTION_LIMIT)) {
+                    if (!completions.contains(name)) completions.add(name);
                 }
                 return completions;
             }
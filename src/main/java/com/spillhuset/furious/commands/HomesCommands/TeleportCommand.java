@@ -1,6 +1,7 @@
 package com.spillhuset.furious.commands.HomesCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
 import com.spillhuset.furious.utils.Utility;
@@ -41,11 +42,7 @@ public class TeleportCommand implements SubCommandInterface {
         }
         if (args.length == 2 && can(sender, false, true)) {
             // /homes teleport <player>
-            for (OfflinePlayer player : plugin.getServer().getOfflinePlayers()) {
-                if (player.getName() != null && player.getName().toLowerCase().startsWith(args[1].toLowerCase())) {
-                    completions.add(player.getName());
-                }
-            }
+            completions.addAll(plugin.playerDirectory.complete(args[1], PlayerDirectory.SUGGESTION_LIMIT));
             return completions;
         }
 
@@ -1,6 +1,8 @@
 package com.spillhuset.furious.commands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.commands.ProfessionCommands.JobsCommand;
+import com.spillhuset.furious.commands.ProfessionCommands.ReloadCommand;
 import com.spillhuset.furious.commands.ProfessionCommands.SetPrimaryCommand;
 import com.spillhuset.furious.commands.ProfessionCommands.SetSecondaryCommand;
 import com.spillhuset.furious.commands.ProfessionCommands.ShowCommand;
@@ -25,7 +27,9 @@ public class ProfessionCommand implements CommandInterface, CommandExecutor, Tab
         subCommands.addAll(Arrays.asList(
                 new ShowCommand(this.plugin),
                 new SetPrimaryCommand(this.plugin),
-                new SetSecondaryCommand(this.plugin)
+                new SetSecondaryCommand(this.plugin),
+                new ReloadCommand(this.plugin),
+                new JobsCommand(this.plugin)
         ));
     }
 
@@ -0,0 +1,44 @@
+package com.spillhuset.furious.commands.ProfessionCommands;
+
+import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.managers.MultiBreakManager;
+import com.spillhuset.furious.utils.Components;
+import com.spillhuset.furious.utils.SubCommandInterface;
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shows the vein miner / tree chopper queue.
+ */
+public class JobsCommand implements SubCommandInterface {
+    private final Furious plugin;
+    public JobsCommand(Furious plugin) { this.plugin = plugin.getInstance(); }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args) {
+        MultiBreakManager mgr = plugin.multiBreakManager;
+        if (mgr == null) {
+            Components.sendErrorMessage(sender, "Multi-break jobs are not available.");
+            return true;
+        }
+        Components.sendInfo(sender, Components.t("Queued jobs: "), Components.valueComp(String.valueOf(mgr.getQueuedJobs())),
+                Components.t(", queued blocks: "), Components.valueComp(String.valueOf(mgr.getQueuedBlocks())),
+                Components.t(", budget: "), Components.valueComp(mgr.getBlocksPerTick() + "/tick"));
+        Components.sendInfo(sender, Components.t("Jobs submitted: "), Components.valueComp(String.valueOf(mgr.getJobsSubmitted())),
+                Components.t(", blocks broken: "), Components.valueComp(String.valueOf(mgr.getBlocksBroken())));
+        return true;
+    }
+
+    @Override
+    public String getName() { return "jobs"; }
+
+    @Override
+    public String getPermission() { return "furious.profession.jobs"; }
+}
@@ -0,0 +1,37 @@
+package com.spillhuset.furious.commands.ProfessionCommands;
+
+import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.utils.Components;
+import com.spillhuset.furious.utils.SubCommandInterface;
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ReloadCommand implements SubCommandInterface {
+    private final Furious plugin;
+    public ReloadCommand(Furious plugin) { this.plugin = plugin.getInstance(); }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args) {
+        if (args.length != 1) {
+            Components.sendInfoMessage(sender, "Usage: /profession reload");
+            return true;
+        }
+        // Only the professions section; a full reloadConfig() would swap every other service's settings too
+        plugin.professionService.reloadConfigSection();
+        Components.sendSuccessMessage(sender, "Reloaded profession point values.");
+        return true;
+    }
+
+    @Override
+    public String getName() { return "reload"; }
+
+    @Override
+    public String getPermission() { return "furious.profession.reload"; }
+}
@@ -1,13 +1,14 @@
 package com.spillhuset.furious.commands.ProfessionCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.services.ProfessionService;
 import com.spillhuset.furious.services.ProfessionService.Profession;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
+import com.spillhuset.furious.utils.Utility;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -21,13 +22,7 @@ public class ShowCommand implements SubCommandInterface {
     @Override
     public List<String> tabComplete(CommandSender sender, String[] args) {
         if (args.length == 2) {
-            List<String> names = new ArrayList<>();
-            for (OfflinePlayer op : Bukkit.getOfflinePlayers()) {
-                if (op.getName() != null && op.getName().toLowerCase(Locale.ROOT).startsWith(args[1].toLowerCase(Locale.ROOT))) {
-                    names.add(op.getName());
-                }
-            }
-            return names;
+            return plugin.playerDirectory.complete(args[1], PlayerDirectory.SUGGESTION_LIMIT);
         }
         return Collections.emptyList();
     }
@@ -41,13 +36,14 @@ public class ShowCommand implements SubCommandInterface {
         UUID target;
         String name;
         if (args.length >= 2) {
-            OfflinePlayer op = Bukkit.getOfflinePlayer(args[1]);
-            if (op == null || (op.getName() == null && !op.hasPlayedBefore())) {
+            OfflinePlayer op = Utility.findPlayer(args[1]);
+            if (op == null) {
                 Components.sendErrorMessage(sender, "Unknown player: "+args[1]);
                 return true;
             }
             target = op.getUniqueId();
-            name = op.getName() != null ? op.getName() : target.toString();
+            String known = plugin.playerDirectory.getName(target);
+            name = known != null ? known : args[1];
         } else {
             target = ((Player)sender).getUniqueId();
             name = ((Player)sender).getName();
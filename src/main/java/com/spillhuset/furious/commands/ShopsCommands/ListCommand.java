@@ -20,7 +20,7 @@ public class ListCommand implements SubCommandInterface {
     @Override
     public boolean execute(CommandSender sender, String[] args) {
         // Header similar to banks list
-        int total = plugin.shopsService.suggestShopNames("").size();
+        int total = plugin.shopsService.getShopCount();
         Components.sendInfo(sender, Components.t("Shops total: "), Components.valueComp(String.valueOf(total)));
         plugin.shopsService.listShops(sender);
         return true;
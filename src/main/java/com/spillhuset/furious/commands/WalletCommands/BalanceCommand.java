@@ -1,6 +1,7 @@
 package com.spillhuset.furious.commands.WalletCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
 import com.spillhuset.furious.utils.Utility;
@@ -74,9 +75,9 @@ public class BalanceCommand implements SubCommandInterface {
     public List<String> tabComplete(@NotNull CommandSender sender, @NotNull String @NotNull [] args) {
         List<String> suggestions = new ArrayList<>();
         if (args.length == 2) {
-            UUID uuid = null;
-            if (sender instanceof Player self) uuid = self.getUniqueId();
-            return new ArrayList<>(suggestPlayers(instance.walletService.getAccountNames(), args, 1,uuid));
+            UUID self = (sender instanceof Player player) ? player.getUniqueId() : null;
+            return instance.playerDirectory.complete(args[1], PlayerDirectory.SUGGESTION_LIMIT,
+                    id -> !id.equals(self) && instance.walletService.hasAccount(id));
         }
         return suggestions;
     }
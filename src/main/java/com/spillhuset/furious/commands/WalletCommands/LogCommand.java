@@ -1,6 +1,8 @@
 package com.spillhuset.furious.commands.WalletCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
+import com.spillhuset.furious.services.WalletService;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
 import com.spillhuset.furious.utils.Utility;
@@ -16,6 +18,8 @@ import java.util.Objects;
 import java.util.UUID;
 
 public class LogCommand implements SubCommandInterface {
+    private static final String USAGE = "Usage: /wallet log [page <n>] | /wallet log <player> [page]";
+
     private final Furious instance;
 
     public LogCommand(Furious plugin) {
@@ -36,19 +40,31 @@ public class LogCommand implements SubCommandInterface {
 
     @Override
     public boolean execute(@NotNull CommandSender sender, @NotNull String @NotNull [] args) {
-        if (args.length == 1 && can(sender, true)) {
+        // "page" is a keyword so a player whose name is all digits is not read as a page number
+        if ((args.length == 1 || (args.length == 3 && args[1].equalsIgnoreCase("page"))) && can(sender, true)) {
             // Get global log
-            List<String> lines = instance.walletService.getGlobalLog();
+            int page = args.length == 3 ? parsePage(args[2]) : 1;
+            if (page <= 0) {
+                Components.sendInfoMessage(sender, USAGE);
+                return true;
+            }
+            List<String> lines = instance.walletService.getLog(null, page - 1, WalletService.HISTORY_PAGE_SIZE);
             if (lines.isEmpty()) {
-                Components.sendInfoMessage(sender, "No global transactions recorded.");
+                Components.sendInfoMessage(sender, page == 1 ? "No global transactions recorded." : "No more global transactions.");
                 return true;
             }
 
             // Feedback
-            Components.sendInfo(sender, Components.t("Global transactions (latest "), Components.valueComp(String.valueOf(lines.size())), Components.t("): "));
+            Components.sendInfo(sender, Components.t("Global transactions (page "), Components.valueComp(String.valueOf(page)), Components.t("): "));
             for (String l : lines) Components.sendGreyMessage(sender, l);
             return true;
-        } else if (args.length == 2 && can(sender, true, true)) {
+        } else if ((args.length == 2 || args.length == 3) && can(sender, true, true)) {
+            int page = args.length == 3 ? parsePage(args[2]) : 1;
+            if (page <= 0) {
+                Components.sendInfoMessage(sender, USAGE);
+                return true;
+            }
+
             // Find player
             OfflinePlayer target = (sender instanceof Player self) ? Utility.findPlayer(args[1], self.getUniqueId()) : Utility.findPlayer(args[1]);
             if (target == null) {
@@ -57,27 +73,39 @@ public class LogCommand implements SubCommandInterface {
             }
 
             // Get log
-            List<String> lines = instance.walletService.getLog(target.getUniqueId());
+            List<String> lines = instance.walletService.getLog(target.getUniqueId(), page - 1, WalletService.HISTORY_PAGE_SIZE);
             if (lines.isEmpty()) {
-                Components.sendInfo(sender, Components.t("No transactions for "), Components.playerComp(Objects.requireNonNullElse(target.getName(), args[1])));
+                Components.sendInfo(sender, Components.t(page == 1 ? "No transactions for " : "No more transactions for "), Components.playerComp(Objects.requireNonNullElse(target.getName(), args[1])));
                 return true;
             }
 
             // Feedback
-            Components.sendInfo(sender, Components.t("Transactions for "), Components.playerComp(Objects.requireNonNullElse(target.getName(), args[1])), Components.t(":"));
+            Components.sendInfo(sender, Components.t("Transactions for "), Components.playerComp(Objects.requireNonNullElse(target.getName(), args[1])), Components.t(" (page "), Components.valueComp(String.valueOf(page)), Components.t("):"));
             for (String l : lines) Components.sendGreyMessage(sender, l);
             return true;
         }
-        Components.sendInfoMessage(sender, "Usage: /wallet log [player]");
+        Components.sendInfoMessage(sender, USAGE);
         return true;
     }
 
+    // Page numbers are 1-based; anything else yields 0
+    private int parsePage(String raw) {
+        try {
+            return Math.max(0, Integer.parseInt(raw));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     @Override
     public @Nullable List<String> tabComplete(@NotNull CommandSender sender, @NotNull String @NotNull [] args) {
         if (args.length == 2) {
-            UUID uuid = null;
-            if (sender instanceof Player self) uuid = self.getUniqueId();
-            return new ArrayList<>(suggestPlayers(instance.walletService.getAccountNames(), args, 1, uuid));
+            UUID self = (sender instanceof Player player) ? player.getUniqueId() : null;
+            List<String> list = new ArrayList<>();
+            if ("page".startsWith(args[1].toLowerCase())) list.add("page");
+            list.addAll(instance.playerDirectory.complete(args[1], PlayerDirectory.SUGGESTION_LIMIT,
+                    id -> !id.equals(self) && instance.walletService.hasAccount(id)));
+            return list;
         } else {
             return List.of();
         }
@@ -1,6 +1,7 @@
 package com.spillhuset.furious.commands.WalletCommands;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.SubCommandInterface;
 import com.spillhuset.furious.utils.Utility;
@@ -10,7 +11,6 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -90,9 +90,9 @@ public class PayCommand implements SubCommandInterface {
         if (args.length == 3) {
             return List.of("<value>");
         } else if (args.length == 2) {
-            UUID uuid = null;
-            if (sender instanceof Player self) uuid = self.getUniqueId();
-            return new ArrayList<>(suggestPlayers(instance.walletService.getAccountNames(), args, 1,uuid));
+            UUID self = (sender instanceof Player player) ? player.getUniqueId() : null;
+            return instance.playerDirectory.complete(args[1], PlayerDirectory.SUGGESTION_LIMIT,
+                    id -> !id.equals(self) && instance.walletService.hasAccount(id));
         } else {
             return List.of();
         }
@@ -19,9 +19,7 @@ public class ConnectPortalCommand implements SubCommandInterface {
         if (args.length >= 2) {
             String prefix = args[args.length - 1].toLowerCase();
             // Suggest warp names for any target argument
-            for (String name : plugin.warpsService.getWarpNames()) {
-                if (name.startsWith(prefix)) out.add(name);
-            }
+            out.addAll(plugin.warpsService.suggestWarpNames(prefix));
             if (args.length == 3 && "clear".startsWith(prefix)) out.add("clear");
         }
         return out;
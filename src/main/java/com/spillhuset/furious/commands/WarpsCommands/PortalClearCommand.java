@@ -16,10 +16,7 @@ public class PortalClearCommand implements SubCommandInterface {
     public List<String> tabComplete(CommandSender sender, String[] args) {
         List<String> out = new ArrayList<>();
         if (args.length == 2) {
-            String prefix = args[1].toLowerCase();
-            for (String name : plugin.warpsService.getWarpNames()) {
-                if (name.toLowerCase().startsWith(prefix)) out.add(name);
-            }
+            out.addAll(plugin.warpsService.suggestWarpNames(args[1]));
         }
         return out;
     }
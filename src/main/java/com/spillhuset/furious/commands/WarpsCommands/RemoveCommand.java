@@ -17,10 +17,7 @@ public class RemoveCommand implements SubCommandInterface {
     public List<String> tabComplete(CommandSender sender, String[] args) {
         List<String> out = new ArrayList<>();
         if (args.length == 2) {
-            String prefix = args[1].toLowerCase();
-            for (String name : plugin.warpsService.getWarpNames()) {
-                if (name.startsWith(prefix)) out.add(name);
-            }
+            out.addAll(plugin.warpsService.suggestWarpNames(args[1]));
         } else if (args.length == 3) {
             if ("confirm".startsWith(args[2].toLowerCase())) out.add("confirm");
         }
@@ -12,16 +12,21 @@ import java.sql.Statement;
 import java.util.*;
 
 /**
- * SQL repository for Banks and BankAccounts. Uses simple snapshot save/load.
+ * SQL repository for Banks and BankAccounts (MySQL or SQLite). Uses simple snapshot save/load.
  * Intended to be used only when DatabaseManager is enabled.
  */
-public class BanksRepository {
+public class BanksRepository implements BanksStore {
     private final DataSource dataSource;
 
     public BanksRepository(DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
+    @Override
+    public void init() throws Exception {
+        initSchema();
+    }
+
     public void initSchema() throws Exception {
         try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
             // Use VARCHAR(36) for UUID text representation for simplicity
@@ -59,6 +64,7 @@ public class BanksRepository {
         }
     }
 
+    @Override
     public void loadAll(Map<UUID, Bank> banksById,
                         Map<String, UUID> bankIdByName,
                         Map<UUID, Map<UUID, BankAccount>> accounts,
@@ -78,7 +84,9 @@ public class BanksRepository {
                         String type = rs.getString(4);
                         boolean open = rs.getInt(5) != 0;
                         String armor = rs.getString(6);
-                        Long last = (Long) rs.getObject(7);
+                        // getObject may be Integer on SQLite, so read the primitive and check for NULL
+                        long lastValue = rs.getLong(7);
+                        Long last = rs.wasNull() ? null : lastValue;
                         Bank bank = new Bank(id, name);
                         bank.setInterest(Math.max(0d, interest));
                         try {
@@ -144,78 +152,88 @@ public class BanksRepository {
         }
     }
 
+    @Override
     public void saveAll(Collection<Bank> banks,
                         Map<UUID, Map<UUID, BankAccount>> accounts,
                         Map<UUID, Long> lastAccrualByBank) throws Exception {
         try (Connection conn = dataSource.getConnection()) {
+            boolean auto = conn.getAutoCommit();
             conn.setAutoCommit(false);
-            try (Statement st = conn.createStatement()) {
-                st.executeUpdate("DELETE FROM bank_accounts");
-                st.executeUpdate("DELETE FROM bank_claims");
-                st.executeUpdate("DELETE FROM bank_interest_history");
-                st.executeUpdate("DELETE FROM banks");
-            }
-            // Insert banks
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "INSERT INTO banks(id, name, interest, type, open, armor_stand, last_accrual) VALUES(?,?,?,?,?,?,?)")) {
-                for (Bank bank : banks) {
-                    ps.setString(1, bank.getId().toString());
-                    ps.setString(2, bank.getName());
-                    ps.setDouble(3, Math.max(0d, bank.getInterest()));
-                    ps.setString(4, bank.getType().name());
-                    ps.setInt(5, bank.isOpen() ? 1 : 0);
-                    ps.setString(6, bank.getArmorStandUuid() == null ? null : bank.getArmorStandUuid().toString());
-                    Long last = lastAccrualByBank.get(bank.getId());
-                    if (last == null) ps.setObject(7, null); else ps.setLong(7, last);
-                    ps.addBatch();
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("DELETE FROM bank_accounts");
+                    st.executeUpdate("DELETE FROM bank_claims");
+                    st.executeUpdate("DELETE FROM bank_interest_history");
+                    st.executeUpdate("DELETE FROM banks");
                 }
-                ps.executeBatch();
-            }
-            // Insert claims
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "INSERT INTO bank_claims(bank_id, world, chunk_x, chunk_z) VALUES(?,?,?,?)")) {
-                for (Bank bank : banks) {
-                    for (Bank.Claim c : bank.getClaims()) {
+                // Insert banks
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO banks(id, name, interest, type, open, armor_stand, last_accrual) VALUES(?,?,?,?,?,?,?)")) {
+                    for (Bank bank : banks) {
                         ps.setString(1, bank.getId().toString());
-                        ps.setString(2, c.worldId.toString());
-                        ps.setInt(3, c.chunkX);
-                        ps.setInt(4, c.chunkZ);
+                        ps.setString(2, bank.getName());
+                        ps.setDouble(3, Math.max(0d, bank.getInterest()));
+                        ps.setString(4, bank.getType().name());
+                        ps.setInt(5, bank.isOpen() ? 1 : 0);
+                        ps.setString(6, bank.getArmorStandUuid() == null ? null : bank.getArmorStandUuid().toString());
+                        Long last = lastAccrualByBank.get(bank.getId());
+                        if (last == null) ps.setObject(7, null); else ps.setLong(7, last);
                         ps.addBatch();
                     }
+                    ps.executeBatch();
                 }
-                ps.executeBatch();
-            }
-            // Insert accounts
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "INSERT INTO bank_accounts(player_id, bank_id, balance) VALUES(?,?,?)")) {
-                for (Map.Entry<UUID, Map<UUID, BankAccount>> e : accounts.entrySet()) {
-                    UUID pid = e.getKey();
-                    Map<UUID, BankAccount> perBank = e.getValue();
-                    if (perBank == null) continue;
-                    for (BankAccount acct : perBank.values()) {
-                        ps.setString(1, pid.toString());
-                        ps.setString(2, acct.getBankId().toString());
-                        ps.setDouble(3, acct.getBalance());
-                        ps.addBatch();
+                // Insert claims
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO bank_claims(bank_id, world, chunk_x, chunk_z) VALUES(?,?,?,?)")) {
+                    for (Bank bank : banks) {
+                        for (Bank.Claim c : bank.getClaims()) {
+                            ps.setString(1, bank.getId().toString());
+                            ps.setString(2, c.worldId.toString());
+                            ps.setInt(3, c.chunkX);
+                            ps.setInt(4, c.chunkZ);
+                            ps.addBatch();
+                        }
                     }
+                    ps.executeBatch();
                 }
-                ps.executeBatch();
-            }
-            // Insert interest history
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "INSERT INTO bank_interest_history(bank_id, rate, idx) VALUES(?,?,?)")) {
-                for (Bank bank : banks) {
-                    List<Double> history = bank.getInterestHistory();
-                    for (int i = 0; i < history.size(); i++) {
-                        ps.setString(1, bank.getId().toString());
-                        ps.setDouble(2, history.get(i));
-                        ps.setInt(3, i);
-                        ps.addBatch();
+                // Insert accounts
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO bank_accounts(player_id, bank_id, balance) VALUES(?,?,?)")) {
+                    for (Map.Entry<UUID, Map<UUID, BankAccount>> e : accounts.entrySet()) {
+                        UUID pid = e.getKey();
+                        Map<UUID, BankAccount> perBank = e.getValue();
+                        if (perBank == null) continue;
+                        for (BankAccount acct : perBank.values()) {
+                            ps.setString(1, pid.toString());
+                            ps.setString(2, acct.getBankId().toString());
+                            ps.setDouble(3, acct.getBalance());
+                            ps.addBatch();
+                        }
+                    }
+                    ps.executeBatch();
+                }
+                // Insert interest history
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO bank_interest_history(bank_id, rate, idx) VALUES(?,?,?)")) {
+                    for (Bank bank : banks) {
+                        List<Double> history = bank.getInterestHistory();
+                        for (int i = 0; i < history.size(); i++) {
+                            ps.setString(1, bank.getId().toString());
+                            ps.setDouble(2, history.get(i));
+                            ps.setInt(3, i);
+                            ps.addBatch();
+                        }
                     }
+                    ps.executeBatch();
                 }
-                ps.executeBatch();
+                conn.commit();
+            } catch (Exception e) {
+                // Never hand a connection with an open transaction back to the pool
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(auto);
             }
-            conn.commit();
         }
     }
 }
@@ -0,0 +1,30 @@
+package com.spillhuset.furious.db;
+
+import com.spillhuset.furious.utils.Bank;
+import com.spillhuset.furious.utils.BankAccount;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Storage for banks and bank accounts. Implemented by {@link YamlBanksStore} (banks.yml) and
+ * {@link BanksRepository} (MySQL or SQLite); {@link DatabaseManager#banksStore()} picks one.
+ * Banks are loaded and saved as a whole snapshot.
+ */
+public interface BanksStore {
+
+    /** Creates the file or tables if needed. Called once before any other method. */
+    void init() throws Exception;
+
+    /** Clears the given maps and fills them from storage. */
+    void loadAll(Map<UUID, Bank> banksById,
+                 Map<String, UUID> bankIdByName,
+                 Map<UUID, Map<UUID, BankAccount>> accounts,
+                 Map<UUID, Long> lastAccrualByBank) throws Exception;
+
+    /** Replaces everything stored with the given snapshot. */
+    void saveAll(Collection<Bank> banks,
+                 Map<UUID, Map<UUID, BankAccount>> accounts,
+                 Map<UUID, Long> lastAccrualByBank) throws Exception;
+}
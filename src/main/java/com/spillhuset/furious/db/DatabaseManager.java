@@ -4,21 +4,31 @@ import com.spillhuset.furious.Furious;
 import org.bukkit.configuration.ConfigurationSection;
 
 import javax.sql.DataSource;
+import java.io.File;
 import java.util.logging.Level;
 
 /**
  * Central database manager using a simple built-in pool (no HikariCP).
- * Disabled by default via config. Currently supports MySQL.
+ * Disabled by default via config. Supports MySQL and SQLite (an embedded file in the plugin folder).
+ * Also the entry point for per-domain stores: services ask for e.g. {@link #homesStore()} and get
+ * the YAML or SQL implementation for the configured backend.
  */
 public class DatabaseManager {
+    /** Where data is kept. */
+    public enum Backend {
+        YAML, SQLITE, MYSQL
+    }
+
     private final Furious plugin;
     private SimpleConnectionPool dataSource;
+    private Backend backend = Backend.YAML;
 
     public DatabaseManager(Furious plugin) {
         this.plugin = plugin;
     }
 
     public void init() {
+        backend = Backend.YAML;
         try {
             ConfigurationSection db = plugin.getConfig().getConfigurationSection("database");
             if (db == null) {
@@ -42,66 +52,164 @@ public class DatabaseManager {
                 plugin.getLogger().info("Database: disabled (using YAML storage).");
                 return;
             }
-            String type = db.getString("type", "mysql");
-            if (!"mysql".equalsIgnoreCase(type)) {
-                plugin.getLogger().warning("Database type '" + type + "' not supported yet. Falling back to disabled.");
-                return;
-            }
-            ConfigurationSection mysql = db.getConfigurationSection("mysql");
-            if (mysql == null) {
-                plugin.getLogger().warning("Database: missing mysql section in config, disabling.");
-                return;
-            }
-            String host = mysql.getString("host", "localhost");
-            int port = mysql.getInt("port", 3306);
-            String database = mysql.getString("database", "furious");
-            String user = mysql.getString("user", "furious");
-            String password = mysql.getString("password", "");
-            String params = mysql.getString("params", "useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC");
-
-            String jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + database + (params.isBlank() ? "" : "?" + params);
-
-            ConfigurationSection pool = db.getConfigurationSection("pool");
-            int maximumPoolSize = 10;
-            int minimumIdle = 2;
-            long connectionTimeoutMs = 10_000L;
-            long idleTimeoutMs = 600_000L;
-            long maxLifetimeMs = 1_800_000L;
-            if (pool != null) {
-                maximumPoolSize = pool.getInt("maximumPoolSize", maximumPoolSize);
-                minimumIdle = pool.getInt("minimumIdle", minimumIdle);
-                connectionTimeoutMs = pool.getLong("connectionTimeoutMs", connectionTimeoutMs);
-                idleTimeoutMs = pool.getLong("idleTimeoutMs", idleTimeoutMs);
-                maxLifetimeMs = pool.getLong("maxLifetimeMs", maxLifetimeMs);
+            String type = db.getString("type", "mysql").trim().toLowerCase();
+            switch (type) {
+                case "mysql" -> initMysql(db);
+                case "sqlite" -> initSqlite(db);
+                default -> plugin.getLogger().warning("Database type '" + type + "' not supported. Falling back to disabled.");
             }
-
-            // Build simple pool
-            String validationQuery = "SELECT 1";
-            this.dataSource = new SimpleConnectionPool(
-                    jdbcUrl, user, password,
-                    maximumPoolSize, minimumIdle,
-                    connectionTimeoutMs, idleTimeoutMs, maxLifetimeMs,
-                    validationQuery
-            );
-            plugin.getLogger().info("Database: MySQL simple pool initialized.");
         } catch (Throwable t) {
             plugin.getLogger().log(Level.SEVERE, "Failed to initialize database pool: " + t.getMessage(), t);
             // ensure no half-open pool remains
             if (dataSource != null) try { dataSource.close(); } catch (Throwable ignored) {}
             dataSource = null;
+            backend = Backend.YAML;
         }
     }
 
+    private void initMysql(ConfigurationSection db) {
+        ConfigurationSection mysql = db.getConfigurationSection("mysql");
+        if (mysql == null) {
+            plugin.getLogger().warning("Database: missing mysql section in config, disabling.");
+            return;
+        }
+        String host = mysql.getString("host", "localhost");
+        int port = mysql.getInt("port", 3306);
+        String database = mysql.getString("database", "furious");
+        String user = mysql.getString("user", "furious");
+        String password = mysql.getString("password", "");
+        String params = mysql.getString("params", "useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC");
+
+        String jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + database + (params.isBlank() ? "" : "?" + params);
+
+        ConfigurationSection pool = db.getConfigurationSection("pool");
+        int maximumPoolSize = 10;
+        int minimumIdle = 2;
+        long connectionTimeoutMs = 10_000L;
+        long idleTimeoutMs = 600_000L;
+        long maxLifetimeMs = 1_800_000L;
+        if (pool != null) {
+            maximumPoolSize = pool.getInt("maximumPoolSize", maximumPoolSize);
+            minimumIdle = pool.getInt("minimumIdle", minimumIdle);
+            connectionTimeoutMs = pool.getLong("connectionTimeoutMs", connectionTimeoutMs);
+            idleTimeoutMs = pool.getLong("idleTimeoutMs", idleTimeoutMs);
+            maxLifetimeMs = pool.getLong("maxLifetimeMs", maxLifetimeMs);
+        }
+
+        // Build simple pool; the query is only a fallback for drivers without Connection.isValid
+        String validationQuery = "SELECT 1";
+        this.dataSource = new SimpleConnectionPool(
+                jdbcUrl, user, password,
+                maximumPoolSize, minimumIdle,
+                connectionTimeoutMs, idleTimeoutMs, maxLifetimeMs,
+                validationQuery, validationIdleMs(pool), leakDetectionMs(pool), plugin.getLogger()
+        );
+        backend = Backend.MYSQL;
+        plugin.getLogger().info("Database: MySQL simple pool initialized.");
+    }
+
+    private void initSqlite(ConfigurationSection db) throws ClassNotFoundException {
+        ConfigurationSection sqlite = db.getConfigurationSection("sqlite");
+        String fileName = sqlite == null ? "furious.db" : sqlite.getString("file", "furious.db");
+        long busyTimeoutMs = sqlite == null ? 5_000L : sqlite.getLong("busyTimeoutMs", 5_000L);
+        // WAL lets readers run next to the single writer; more than a few connections only queue on the write lock
+        int maximumPoolSize = sqlite == null ? 4 : Math.max(1, sqlite.getInt("maximumPoolSize", 4));
+
+        File file = new File(fileName);
+        if (!file.isAbsolute()) file = new File(plugin.getDataFolder(), fileName);
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+
+        // Shaded drivers are not always picked up by DriverManager's service loader
+        Class.forName("org.sqlite.JDBC");
+        String jdbcUrl = sqliteUrl(file, busyTimeoutMs);
+
+        ConfigurationSection pool = db.getConfigurationSection("pool");
+        // Waiting for a connection includes waiting for the write lock, so allow a bit more than busy_timeout
+        this.dataSource = new SimpleConnectionPool(
+                jdbcUrl, null, null,
+                maximumPoolSize, 1,
+                busyTimeoutMs + 5_000L, 600_000L, 1_800_000L,
+                "SELECT 1", validationIdleMs(pool), leakDetectionMs(pool), plugin.getLogger()
+        );
+        backend = Backend.SQLITE;
+        plugin.getLogger().info("Database: SQLite (WAL) initialized at " + file.getName() + ".");
+    }
+
+    // sqlite-jdbc applies these pragmas to every connection it opens; public so the pool benchmark opens the same file
+    public static String sqliteUrl(File file, long busyTimeoutMs) {
+        return "jdbc:sqlite:" + file.getAbsolutePath()
+                + "?journal_mode=WAL&synchronous=NORMAL&foreign_keys=true&busy_timeout=" + busyTimeoutMs;
+    }
+
+    // Shared by both backends: connections idle at most this long are not validated on checkout
+    private static long validationIdleMs(ConfigurationSection pool) {
+        return pool == null ? 1_000L : pool.getLong("validationIdleMs", 1_000L);
+    }
+
+    // Shared by both backends: 0 (the default) disables leak detection, which costs a stack trace per borrow
+    private static long leakDetectionMs(ConfigurationSection pool) {
+        return pool == null ? 0L : pool.getLong("leakDetectionMs", 0L);
+    }
+
     public DataSource getDataSource() { return dataSource; }
 
+    /** @return pool counters, or null when no database is enabled */
+    public SimpleConnectionPool.Stats getPoolStats() { return dataSource == null ? null : dataSource.getStats(); }
+
     public boolean isEnabled() { return dataSource != null && !dataSource.isClosed(); }
 
+    /** @return the backend in use; YAML when no database is enabled */
+    public Backend getBackend() { return isEnabled() ? backend : Backend.YAML; }
+
+    /** @return the homes store for the configured backend; callers call {@link HomesStore#init()} */
+    public HomesStore homesStore() {
+        if (isEnabled()) return new HomesRepository(dataSource, plugin.getServer());
+        return new YamlHomesStore(new File(plugin.getDataFolder(), "homes.yml"), plugin.getLogger());
+    }
+
+    /** @return the banks store for the configured backend; callers call {@link BanksStore#init()} */
+    public BanksStore banksStore() {
+        if (isEnabled()) return new BanksRepository(dataSource);
+        return yamlBanksStore();
+    }
+
+    /** @return banks.yml, regardless of the backend; used as fallback when the database is unreachable */
+    public BanksStore yamlBanksStore() {
+        return new YamlBanksStore(new File(plugin.getDataFolder(), "banks.yml"));
+    }
+
+    /** @return the wallet snapshot store for the configured backend; callers call {@link WalletStore#init()} */
+    public WalletStore walletStore() {
+        WalletStore yaml = new YamlWalletStore(new File(plugin.getDataFolder(), "accounts.yml"), plugin.getLogger());
+        return isEnabled() ? new WalletRepository(dataSource, yaml) : yaml;
+    }
+
+    /** @return the guilds store for the configured backend; callers call {@link GuildsStore#init()} */
+    public GuildsStore guildsStore() {
+        GuildsStore yaml = new YamlGuildsStore(new File(plugin.getDataFolder(), "guilds.yml"), plugin.getLogger());
+        return isEnabled() ? new GuildsRepository(dataSource, yaml) : yaml;
+    }
+
+    /** @return the locks store for the configured backend; callers call {@link LocksStore#init()} */
+    public LocksStore locksStore() {
+        LocksStore yaml = new YamlLocksStore(new File(plugin.getDataFolder(), "locks.yml"));
+        return isEnabled() ? new LocksRepository(dataSource, yaml) : yaml;
+    }
+
+    /** @return the professions store for the configured backend; callers call {@link ProfessionsStore#init()} */
+    public ProfessionsStore professionsStore() {
+        ProfessionsStore yaml = new YamlProfessionsStore(new File(plugin.getDataFolder(), "professions.yml"));
+        return isEnabled() ? new ProfessionsRepository(dataSource, yaml) : yaml;
+    }
+
     public void shutdown() {
         try {
             if (dataSource != null) {
+                SimpleConnectionPool.Stats stats = dataSource.getStats();
                 dataSource.close();
                 dataSource = null;
-                plugin.getLogger().info("Database: pool closed.");
+                plugin.getLogger().info("Database: pool closed (" + stats + ").");
             }
         } catch (Throwable ignored) { }
     }
@@ -0,0 +1,243 @@
+package com.spillhuset.furious.db;
+
+import com.spillhuset.furious.utils.GuildRole;
+import com.spillhuset.furious.utils.GuildType;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * SQL repository for guilds, members, claims and outpost centers (MySQL or SQLite).
+ * {@link #applyChanges} only touches the given guilds and chunks, in one transaction; the whole-snapshot
+ * {@link #saveAll} is kept for seeding. Claims are keyed by chunk, so a chunk can only ever belong to one guild.
+ * On first use the guilds are copied from {@code seed} (guilds.yml), so switching backend keeps them.
+ */
+public class GuildsRepository implements GuildsStore {
+    private final DataSource dataSource;
+    private final GuildsStore seed;
+
+    public GuildsRepository(DataSource dataSource, GuildsStore seed) {
+        this.dataSource = dataSource;
+        this.seed = seed;
+    }
+
+    @Override
+    public void init() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS guilds (" +
+                    "id VARCHAR(36) PRIMARY KEY, " +
+                    "name VARCHAR(128) NULL, " +
+                    "type VARCHAR(32) NOT NULL, " +
+                    "owner VARCHAR(36) NULL, " +
+                    "open TINYINT NOT NULL, " +
+                    "outposts_allowed INT NOT NULL" +
+                    ")");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS guild_members (" +
+                    "guild_id VARCHAR(36) NOT NULL, " +
+                    "player_id VARCHAR(36) NOT NULL, " +
+                    "role VARCHAR(32) NOT NULL, " +
+                    "PRIMARY KEY (guild_id, player_id), " +
+                    "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
+                    ")");
+            // No foreign key on claims: like guilds.yml, a claim naming an unknown guild is kept rather than failing the save
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS guild_claims (" +
+                    "world VARCHAR(36) NOT NULL, " +
+                    "chunk_x INT NOT NULL, " +
+                    "chunk_z INT NOT NULL, " +
+                    "guild_id VARCHAR(36) NOT NULL, " +
+                    "PRIMARY KEY (world, chunk_x, chunk_z)" +
+                    ")");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS guild_outposts (" +
+                    "guild_id VARCHAR(36) NOT NULL, " +
+                    "world VARCHAR(36) NOT NULL, " +
+                    "chunk_x INT NOT NULL, " +
+                    "chunk_z INT NOT NULL, " +
+                    "PRIMARY KEY (guild_id, world, chunk_x, chunk_z), " +
+                    "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
+                    ")");
+        }
+        if (seed != null && isEmpty()) {
+            seed.init();
+            saveAll(seed.loadAll());
+        }
+    }
+
+    private boolean isEmpty() throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM guilds LIMIT 1");
+             ResultSet rs = ps.executeQuery()) {
+            return !rs.next();
+        }
+    }
+
+    @Override
+    public Snapshot loadAll() throws Exception {
+        Map<UUID, GuildRow> guilds = new LinkedHashMap<>();
+        List<ChunkRow> claims = new ArrayList<>();
+        List<ChunkRow> outposts = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT id, name, type, owner, open, outposts_allowed FROM guilds");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try {
+                        UUID id = UUID.fromString(rs.getString(1));
+                        String owner = rs.getString(4);
+                        guilds.put(id, new GuildRow(id, rs.getString(2), GuildType.valueOf(rs.getString(3)),
+                                owner == null ? null : UUID.fromString(owner), rs.getInt(5) != 0, rs.getInt(6), new HashMap<>()));
+                    } catch (IllegalArgumentException ignored) {}
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("SELECT guild_id, player_id, role FROM guild_members");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try {
+                        GuildRow guild = guilds.get(UUID.fromString(rs.getString(1)));
+                        if (guild != null) guild.members().put(UUID.fromString(rs.getString(2)), GuildRole.valueOf(rs.getString(3)));
+                    } catch (IllegalArgumentException ignored) {}
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("SELECT world, chunk_x, chunk_z, guild_id FROM guild_claims");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try { claims.add(new ChunkRow(UUID.fromString(rs.getString(1)), rs.getInt(2), rs.getInt(3), UUID.fromString(rs.getString(4)))); } catch (IllegalArgumentException ignored) {}
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("SELECT world, chunk_x, chunk_z, guild_id FROM guild_outposts");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try { outposts.add(new ChunkRow(UUID.fromString(rs.getString(1)), rs.getInt(2), rs.getInt(3), UUID.fromString(rs.getString(4)))); } catch (IllegalArgumentException ignored) {}
+                }
+            }
+        }
+        return new Snapshot(new ArrayList<>(guilds.values()), claims, outposts);
+    }
+
+    @Override
+    public void saveAll(Snapshot snapshot) throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("DELETE FROM guild_members");
+                    st.executeUpdate("DELETE FROM guild_outposts");
+                    st.executeUpdate("DELETE FROM guild_claims");
+                    st.executeUpdate("DELETE FROM guilds");
+                }
+                insertGuilds(conn, snapshot.guilds());
+                insertClaims(conn, snapshot.claims());
+                insertOutposts(conn, snapshot.outposts());
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+        }
+    }
+
+    @Override
+    public void applyChanges(Collection<GuildRow> guilds, Collection<ChunkRow> outposts, Collection<UUID> deleted,
+                             Collection<ChunkRow> claims) throws Exception {
+        if (guilds.isEmpty() && deleted.isEmpty() && claims.isEmpty()) return;
+        try (Connection conn = dataSource.getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                // Delete and re-insert; MySQL and SQLite spell upserts differently
+                List<String> replaced = new ArrayList<>();
+                for (GuildRow g : guilds) replaced.add(g.id().toString());
+                for (UUID id : deleted) replaced.add(id.toString());
+                for (String sql : new String[]{"DELETE FROM guild_members WHERE guild_id=?",
+                        "DELETE FROM guild_outposts WHERE guild_id=?", "DELETE FROM guilds WHERE id=?"}) {
+                    try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                        for (String id : replaced) {
+                            ps.setString(1, id);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                insertGuilds(conn, guilds);
+                insertOutposts(conn, outposts);
+
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM guild_claims WHERE world=? AND chunk_x=? AND chunk_z=?")) {
+                    for (ChunkRow c : claims) {
+                        ps.setString(1, c.world().toString());
+                        ps.setInt(2, c.x());
+                        ps.setInt(3, c.z());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                List<ChunkRow> claimed = new ArrayList<>();
+                for (ChunkRow c : claims) if (c.guild() != null) claimed.add(c);
+                insertClaims(conn, claimed);
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+        }
+    }
+
+    private static void insertGuilds(Connection conn, Collection<GuildRow> guilds) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO guilds(id, name, type, owner, open, outposts_allowed) VALUES(?,?,?,?,?,?)")) {
+            for (GuildRow g : guilds) {
+                ps.setString(1, g.id().toString());
+                ps.setString(2, g.name());
+                ps.setString(3, g.type().name());
+                ps.setString(4, g.owner() == null ? null : g.owner().toString());
+                ps.setInt(5, g.open() ? 1 : 0);
+                ps.setInt(6, Math.max(0, g.outpostsAllowed()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO guild_members(guild_id, player_id, role) VALUES(?,?,?)")) {
+            for (GuildRow g : guilds) {
+                for (Map.Entry<UUID, GuildRole> me : g.members().entrySet()) {
+                    ps.setString(1, g.id().toString());
+                    ps.setString(2, me.getKey().toString());
+                    ps.setString(3, me.getValue().name());
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void insertClaims(Connection conn, Collection<ChunkRow> claims) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO guild_claims(world, chunk_x, chunk_z, guild_id) VALUES(?,?,?,?)")) {
+            for (ChunkRow c : claims) {
+                ps.setString(1, c.world().toString());
+                ps.setInt(2, c.x());
+                ps.setInt(3, c.z());
+                ps.setString(4, c.guild().toString());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void insertOutposts(Connection conn, Collection<ChunkRow> outposts) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO guild_outposts(guild_id, world, chunk_x, chunk_z) VALUES(?,?,?,?)")) {
+            for (ChunkRow c : outposts) {
+                ps.setString(1, c.guild().toString());
+                ps.setString(2, c.world().toString());
+                ps.setInt(3, c.x());
+                ps.setInt(4, c.z());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
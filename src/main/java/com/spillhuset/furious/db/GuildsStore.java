@@ -0,0 +1,48 @@
+package com.spillhuset.furious.db;
+
+import com.spillhuset.furious.utils.GuildRole;
+import com.spillhuset.furious.utils.GuildType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Storage for guilds, their claims and outposts. Implemented by {@link YamlGuildsStore} (guilds.yml)
+ * and {@link GuildsRepository} (MySQL or SQLite); {@link DatabaseManager#guildsStore()} picks one.
+ * Guilds are loaded as a whole snapshot; changes are written per guild and per chunk.
+ * Implementations may be called from the main thread and from async writers.
+ */
+public interface GuildsStore {
+
+    record GuildRow(UUID id, String name, GuildType type, UUID owner, boolean open,
+                    int outpostsAllowed, Map<UUID, GuildRole> members) {}
+
+    /**
+     * One chunk, as a claim (owned by {@code guild}) or as an outpost center of {@code guild}.
+     * In {@link #applyChanges} a claim with a null guild marks an unclaimed chunk.
+     */
+    record ChunkRow(UUID world, int x, int z, UUID guild) {}
+
+    record Snapshot(List<GuildRow> guilds, List<ChunkRow> claims, List<ChunkRow> outposts) {}
+
+    /** Creates the file or tables if needed. Called once before any other method. */
+    void init() throws Exception;
+
+    Snapshot loadAll() throws Exception;
+
+    /** Replaces everything stored with the given snapshot. Only used to seed a new backend. */
+    void saveAll(Snapshot snapshot) throws Exception;
+
+    /**
+     * Writes only the given changes, atomically where the backend allows it.
+     *
+     * @param guilds   guilds that were added or changed; each replaces the stored guild and its members
+     * @param outposts every outpost center of the guilds in {@code guilds}, replacing their stored ones
+     * @param deleted  ids of removed guilds
+     * @param claims   changed chunks, with the new owner or a null guild when unclaimed
+     */
+    void applyChanges(Collection<GuildRow> guilds, Collection<ChunkRow> outposts, Collection<UUID> deleted,
+                      Collection<ChunkRow> claims) throws Exception;
+}
@@ -10,12 +10,16 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
- * SQL repository for player Homes data. Mirrors YAML layout used by HomesService
+ * SQL repository for player Homes data (MySQL or SQLite). Mirrors YAML layout used by HomesService
  * but stored in two tables: homes and home_purchases.
+ * Day-to-day writes go through {@link #applyChanges}, which only touches changed rows;
+ * {@link #saveAll} rewrites everything and is meant for migrations.
  */
-public class HomesRepository {
+public class HomesRepository implements HomesStore {
     private final DataSource dataSource;
     private final Server server; // to resolve worlds when building Locations
 
@@ -24,6 +28,11 @@ public class HomesRepository {
         this.server = server;
     }
 
+    @Override
+    public void init() throws Exception {
+        initSchema();
+    }
+
     public void initSchema() throws Exception {
         try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
             st.executeUpdate("CREATE TABLE IF NOT EXISTS homes (" +
@@ -93,6 +102,80 @@ public class HomesRepository {
         }
     }
 
+    /**
+     * Streams every home row to {@code consumer} without building the whole table in memory.
+     */
+    @Override
+    public void forEachHome(Consumer<HomeRow> consumer) throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT id, player_id, name, world, x, y, z, yaw, pitch, armor_stand FROM homes")) {
+            ps.setFetchSize(500);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    HomeRow row = readRow(rs);
+                    if (row != null) consumer.accept(row);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void forEachPurchase(BiConsumer<UUID, Integer> consumer) throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT player_id, purchased FROM home_purchases")) {
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try { consumer.accept(UUID.fromString(rs.getString(1)), rs.getInt(2)); } catch (IllegalArgumentException ignored) {}
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the homes of one player; served by the (player_id, name) index
+     */
+    @Override
+    public List<HomeRow> loadHomes(UUID playerId) throws Exception {
+        List<HomeRow> rows = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT id, player_id, name, world, x, y, z, yaw, pitch, armor_stand FROM homes WHERE player_id = ?")) {
+            ps.setString(1, playerId.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    HomeRow row = readRow(rs);
+                    if (row != null) rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public int loadPurchased(UUID playerId) throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT purchased FROM home_purchases WHERE player_id = ?")) {
+            ps.setString(1, playerId.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private static HomeRow readRow(ResultSet rs) throws java.sql.SQLException {
+        try {
+            String armor = rs.getString(10);
+            UUID armorStand = null;
+            if (armor != null && !armor.isBlank()) {
+                try { armorStand = UUID.fromString(armor); } catch (IllegalArgumentException ignored) {}
+            }
+            return new HomeRow(UUID.fromString(rs.getString(1)), UUID.fromString(rs.getString(2)), rs.getString(3),
+                    UUID.fromString(rs.getString(4)), rs.getDouble(5), rs.getDouble(6), rs.getDouble(7),
+                    rs.getFloat(8), rs.getFloat(9), armorStand);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     public void saveAll(Map<UUID, Set<UUID>> players,
                         Map<UUID, Home> homes,
                         Map<UUID, Integer> purchasedSlots) throws Exception {
@@ -138,4 +221,78 @@ public class HomesRepository {
             conn.commit();
         }
     }
+
+    /**
+     * Writes only the given changes in one transaction.
+     * Changed homes are deleted and re-inserted rather than updated in place, so a batch that
+     * shuffles names between a player's homes never trips UNIQUE(player_id, name) halfway through.
+     *
+     * @param upserts   homes that were added or changed
+     * @param deletes   removed home id -> owning player (only the id is used here)
+     * @param purchases purchased slot counts of players whose count changed
+     */
+    @Override
+    public void applyChanges(Collection<HomeRow> upserts,
+                             Map<UUID, UUID> deletes,
+                             Map<UUID, Integer> purchases) throws Exception {
+        if (upserts.isEmpty() && deletes.isEmpty() && purchases.isEmpty()) return;
+        try (Connection conn = dataSource.getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                if (!upserts.isEmpty() || !deletes.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement("DELETE FROM homes WHERE id = ?")) {
+                        for (UUID id : deletes.keySet()) {
+                            ps.setString(1, id.toString());
+                            ps.addBatch();
+                        }
+                        for (HomeRow row : upserts) {
+                            ps.setString(1, row.id().toString());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                if (!upserts.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "INSERT INTO homes(id, player_id, name, world, x, y, z, yaw, pitch, armor_stand) VALUES(?,?,?,?,?,?,?,?,?,?)")) {
+                        for (HomeRow row : upserts) {
+                            ps.setString(1, row.id().toString());
+                            ps.setString(2, row.player().toString());
+                            ps.setString(3, row.name());
+                            ps.setString(4, row.world().toString());
+                            ps.setDouble(5, row.x());
+                            ps.setDouble(6, row.y());
+                            ps.setDouble(7, row.z());
+                            ps.setFloat(8, row.yaw());
+                            ps.setFloat(9, row.pitch());
+                            ps.setString(10, row.armorStand() == null ? null : row.armorStand().toString());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                if (!purchases.isEmpty()) {
+                    try (PreparedStatement del = conn.prepareStatement("DELETE FROM home_purchases WHERE player_id = ?");
+                         PreparedStatement ins = conn.prepareStatement("INSERT INTO home_purchases(player_id, purchased) VALUES(?,?)")) {
+                        for (Map.Entry<UUID, Integer> e : purchases.entrySet()) {
+                            del.setString(1, e.getKey().toString());
+                            del.addBatch();
+                            ins.setString(1, e.getKey().toString());
+                            ins.setInt(2, Math.max(0, e.getValue() == null ? 0 : e.getValue()));
+                            ins.addBatch();
+                        }
+                        del.executeBatch();
+                        ins.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+        }
+    }
 }
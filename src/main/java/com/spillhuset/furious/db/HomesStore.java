@@ -0,0 +1,48 @@
+package com.spillhuset.furious.db;
+
+import com.spillhuset.furious.utils.Home;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Storage for player homes. Implemented by {@link YamlHomesStore} (homes.yml) and
+ * {@link HomesRepository} (MySQL or SQLite); {@link DatabaseManager#homesStore()} picks one.
+ * Implementations may be called from the main thread and from async writers.
+ */
+public interface HomesStore {
+
+    /** Immutable copy of one home, safe to hand to a background writer. */
+    record HomeRow(UUID id, UUID player, String name, UUID world,
+                   double x, double y, double z, float yaw, float pitch, UUID armorStand) {
+        public static HomeRow of(Home home) {
+            return new HomeRow(home.getUuid(), home.getPlayer(), home.getName(), home.getWorld(),
+                    home.getX(), home.getY(), home.getZ(), home.getYaw(), home.getPitch(), home.getArmorStandUuid());
+        }
+    }
+
+    /** Creates the file or tables if needed. Called once before any other method. */
+    void init() throws Exception;
+
+    /** Streams every stored home without building the whole set in memory. */
+    void forEachHome(Consumer<HomeRow> consumer) throws Exception;
+
+    void forEachPurchase(BiConsumer<UUID, Integer> consumer) throws Exception;
+
+    List<HomeRow> loadHomes(UUID playerId) throws Exception;
+
+    int loadPurchased(UUID playerId) throws Exception;
+
+    /**
+     * Writes only the given changes, atomically where the backend allows it.
+     *
+     * @param upserts   homes that were added or changed
+     * @param deletes   removed home id -> owning player
+     * @param purchases purchased slot counts of players whose count changed
+     */
+    void applyChanges(Collection<HomeRow> upserts, Map<UUID, UUID> deletes, Map<UUID, Integer> purchases) throws Exception;
+}
@@ -0,0 +1,132 @@
+package com.spillhuset.furious.db;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SQL repository for block locks (MySQL or SQLite), one row per locked block keyed by world and
+ * "x,y,z". {@link #applyChanges} only touches the given blocks, in one transaction.
+ * On first use the locks are copied from {@code seed} (locks.yml), so switching backend keeps them.
+ */
+public class LocksRepository implements LocksStore {
+    private final DataSource dataSource;
+    private final LocksStore seed;
+
+    public LocksRepository(DataSource dataSource, LocksStore seed) {
+        this.dataSource = dataSource;
+        this.seed = seed;
+    }
+
+    @Override
+    public void init() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS block_locks (" +
+                    "world VARCHAR(36) NOT NULL, " +
+                    "pos VARCHAR(64) NOT NULL, " +
+                    "owner VARCHAR(36) NOT NULL, " +
+                    "PRIMARY KEY (world, pos)" +
+                    ")");
+        }
+        if (seed != null && isEmpty()) {
+            seed.init();
+            saveAll(seed.loadAll());
+        }
+    }
+
+    private boolean isEmpty() throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM block_locks LIMIT 1");
+             ResultSet rs = ps.executeQuery()) {
+            return !rs.next();
+        }
+    }
+
+    @Override
+    public Map<UUID, Map<String, UUID>> loadAll() throws Exception {
+        Map<UUID, Map<String, UUID>> locks = new HashMap<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT world, pos, owner FROM block_locks");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                try {
+                    locks.computeIfAbsent(UUID.fromString(rs.getString(1)), w -> new HashMap<>())
+                            .put(rs.getString(2), UUID.fromString(rs.getString(3)));
+                } catch (IllegalArgumentException ignored) {}
+            }
+        }
+        return locks;
+    }
+
+    @Override
+    public void saveAll(Map<UUID, Map<String, UUID>> locks) throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("DELETE FROM block_locks");
+                }
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO block_locks(world, pos, owner) VALUES(?,?,?)")) {
+                    for (Map.Entry<UUID, Map<String, UUID>> we : locks.entrySet()) {
+                        for (Map.Entry<String, UUID> le : we.getValue().entrySet()) {
+                            ps.setString(1, we.getKey().toString());
+                            ps.setString(2, le.getKey());
+                            ps.setString(3, le.getValue().toString());
+                            ps.addBatch();
+                        }
+                    }
+                    ps.executeBatch();
+                }
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+        }
+    }
+
+    @Override
+    public void applyChanges(Collection<LockRow> rows) throws Exception {
+        if (rows.isEmpty()) return;
+        try (Connection conn = dataSource.getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                // Delete and re-insert; MySQL and SQLite spell upserts differently
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM block_locks WHERE world=? AND pos=?")) {
+                    for (LockRow row : rows) {
+                        ps.setString(1, row.world().toString());
+                        ps.setString(2, row.pos());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO block_locks(world, pos, owner) VALUES(?,?,?)")) {
+                    for (LockRow row : rows) {
+                        if (row.owner() == null) continue;
+                        ps.setString(1, row.world().toString());
+                        ps.setString(2, row.pos());
+                        ps.setString(3, row.owner().toString());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.spillhuset.furious.db;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Storage for block locks. Implemented by {@link YamlLocksStore} (locks.yml) and
+ * {@link LocksRepository} (MySQL or SQLite); {@link DatabaseManager#locksStore()} picks one.
+ * Locks are loaded as a whole snapshot (world id -> "x,y,z" -> owner) and written per block.
+ * Implementations may be called from the main thread and from async writers.
+ */
+public interface LocksStore {
+
+    /** One locked block; a null owner marks a block that was unlocked. */
+    record LockRow(UUID world, String pos, UUID owner) {}
+
+    /** Creates the file or tables if needed. Called once before any other method. */
+    void init() throws Exception;
+
+    Map<UUID, Map<String, UUID>> loadAll() throws Exception;
+
+    /** Replaces everything stored with the given snapshot. Only used to seed a new backend. */
+    void saveAll(Map<UUID, Map<String, UUID>> locks) throws Exception;
+
+    /** Writes only the given blocks, atomically where the backend allows it. */
+    void applyChanges(Collection<LockRow> rows) throws Exception;
+}
@@ -0,0 +1,132 @@
+package com.spillhuset.furious.db;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * SQL repository for player professions (MySQL or SQLite): profession_players holds the chosen
+ * professions, profession_points one row per player and profession.
+ * {@link #applyChanges} only touches the given players, in one transaction.
+ * On first use the players are copied from {@code seed} (professions.yml), so switching backend keeps them.
+ */
+public class ProfessionsRepository implements ProfessionsStore {
+    private final DataSource dataSource;
+    private final ProfessionsStore seed;
+
+    public ProfessionsRepository(DataSource dataSource, ProfessionsStore seed) {
+        this.dataSource = dataSource;
+        this.seed = seed;
+    }
+
+    @Override
+    public void init() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS profession_players (" +
+                    "player_id VARCHAR(36) PRIMARY KEY, " +
+                    "primary_prof VARCHAR(32) NULL, " +
+                    "secondary_prof VARCHAR(32) NULL" +
+                    ")");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS profession_points (" +
+                    "player_id VARCHAR(36) NOT NULL, " +
+                    "profession VARCHAR(32) NOT NULL, " +
+                    "points INT NOT NULL, " +
+                    "PRIMARY KEY (player_id, profession)" +
+                    ")");
+        }
+        if (seed != null && isEmpty()) {
+            seed.init();
+            Map<UUID, PlayerRow> rows = new HashMap<>();
+            seed.forEachPlayer(rows::put);
+            applyChanges(rows);
+        }
+    }
+
+    private boolean isEmpty() throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM profession_players LIMIT 1");
+             ResultSet rs = ps.executeQuery()) {
+            return !rs.next();
+        }
+    }
+
+    @Override
+    public void forEachPlayer(BiConsumer<UUID, PlayerRow> consumer) throws Exception {
+        Map<UUID, String[]> chosen = new LinkedHashMap<>();
+        Map<UUID, Map<String, Integer>> points = new HashMap<>();
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT player_id, primary_prof, secondary_prof FROM profession_players");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try { chosen.put(UUID.fromString(rs.getString(1)), new String[]{rs.getString(2), rs.getString(3)}); } catch (IllegalArgumentException ignored) {}
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("SELECT player_id, profession, points FROM profession_points");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try {
+                        points.computeIfAbsent(UUID.fromString(rs.getString(1)), k -> new HashMap<>()).put(rs.getString(2), rs.getInt(3));
+                    } catch (IllegalArgumentException ignored) {}
+                }
+            }
+        }
+        for (Map.Entry<UUID, String[]> e : chosen.entrySet()) {
+            consumer.accept(e.getKey(), new PlayerRow(e.getValue()[0], e.getValue()[1], points.getOrDefault(e.getKey(), new HashMap<>())));
+        }
+    }
+
+    @Override
+    public void applyChanges(Map<UUID, PlayerRow> rows) throws Exception {
+        if (rows.isEmpty()) return;
+        try (Connection conn = dataSource.getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                // Delete and re-insert; MySQL and SQLite spell upserts differently
+                try (PreparedStatement del = conn.prepareStatement("DELETE FROM profession_players WHERE player_id = ?");
+                     PreparedStatement ins = conn.prepareStatement("INSERT INTO profession_players(player_id, primary_prof, secondary_prof) VALUES(?,?,?)")) {
+                    for (Map.Entry<UUID, PlayerRow> e : rows.entrySet()) {
+                        del.setString(1, e.getKey().toString());
+                        del.addBatch();
+                        ins.setString(1, e.getKey().toString());
+                        ins.setString(2, e.getValue().primary());
+                        ins.setString(3, e.getValue().secondary());
+                        ins.addBatch();
+                    }
+                    del.executeBatch();
+                    ins.executeBatch();
+                }
+                try (PreparedStatement del = conn.prepareStatement("DELETE FROM profession_points WHERE player_id = ? AND profession = ?");
+                     PreparedStatement ins = conn.prepareStatement("INSERT INTO profession_points(player_id, profession, points) VALUES(?,?,?)")) {
+                    for (Map.Entry<UUID, PlayerRow> e : rows.entrySet()) {
+                        if (e.getValue().points() == null) continue;
+                        for (Map.Entry<String, Integer> pe : e.getValue().points().entrySet()) {
+                            del.setString(1, e.getKey().toString());
+                            del.setString(2, pe.getKey());
+                            del.addBatch();
+                            ins.setString(1, e.getKey().toString());
+                            ins.setString(2, pe.getKey());
+                            ins.setInt(3, pe.getValue() == null ? 0 : pe.getValue());
+                            ins.addBatch();
+                        }
+                    }
+                    del.executeBatch();
+                    ins.executeBatch();
+                }
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+        }
+    }
+}
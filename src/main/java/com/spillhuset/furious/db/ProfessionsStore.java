@@ -0,0 +1,29 @@
+package com.spillhuset.furious.db;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Storage for player professions. Implemented by {@link YamlProfessionsStore} (professions.yml) and
+ * {@link ProfessionsRepository} (MySQL or SQLite); {@link DatabaseManager#professionsStore()} picks one.
+ * Professions are stored by name, so the store does not depend on the service's enums.
+ * Implementations may be called from the main thread and from async writers.
+ */
+public interface ProfessionsStore {
+
+    /**
+     * Immutable copy of one player's professions.
+     *
+     * @param points profession name -> points; null leaves the stored points as they are
+     */
+    record PlayerRow(String primary, String secondary, Map<String, Integer> points) {}
+
+    /** Creates the file or tables if needed. Called once before any other method. */
+    void init() throws Exception;
+
+    void forEachPlayer(BiConsumer<UUID, PlayerRow> consumer) throws Exception;
+
+    /** Writes only the given players, atomically where the backend allows it. */
+    void applyChanges(Map<UUID, PlayerRow> rows) throws Exception;
+}
@@ -5,24 +5,36 @@ import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayDeque;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
 import java.util.Objects;
-import java.util.Queue;
-import java.util.concurrent.Semaphore;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * A very small JDBC connection pool for MySQL.
+ * A very small JDBC connection pool for MySQL and SQLite.
  * It is intentionally minimal and only supports the subset our plugin needs.
  * <p>
  * Features:
- * - Max pool size with blocking acquire (fair semaphore)
- * - Minimum idle warmup
- * - Idle max lifetime and simple retire/refresh on checkout
- * - Validation query on checkout (optional)
+ * - Max pool size; idle connections sit on a lock-free stack, so a borrow that finds one takes no lock
+ * - Borrowers that find none queue up; while anyone is queued new borrowers queue too, and returned
+ *   connections go straight to the oldest waiter, so connections are handed out first come, first served
+ * - Minimum idle warmup; idle connections past idleTimeout and connections past maxLifetime are retired
+ * - {@link Connection#isValid} only for connections idle longer than validationIdleMs, not on every checkout
+ * - Counters ({@link #getStats()}) and leak detection: a connection held longer than leakDetectionMs
+ *   is logged once with the stack trace of the code that borrowed it
  * <p>
  * Limitations: not production-grade; prefer HikariCP in serious deployments.
  */
@@ -37,17 +49,67 @@ public class SimpleConnectionPool implements DataSource, AutoCloseable {
     private final long idleTimeoutMs;
     private final long maxLifetimeMs;
     private final String validationQuery;
-
-    private final Semaphore permits;
-    private final Queue<Pooled> idle = new ArrayDeque<>();
+    private final long validationIdleMs;
+    private final long leakDetectionMs;
+    private final Logger logger;
+
+    // Most recently returned first: hot connections get reused, cold ones age out at the bottom
+    private final ConcurrentLinkedDeque<Pooled> idle = new ConcurrentLinkedDeque<>();
+    private final ConcurrentLinkedDeque<Waiter> waiters = new ConcurrentLinkedDeque<>();
+    // Physical connections, open or being opened; never above maxPoolSize
+    private final AtomicInteger total = new AtomicInteger();
+    // Only filled when leak detection is on
+    private final Set<ProxyConnection> borrowed = ConcurrentHashMap.newKeySet();
     private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final ScheduledExecutorService housekeeper;
+
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder retired = new LongAdder();
+    private final LongAdder validations = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
 
     private volatile PrintWriter logWriter;
 
+    /** Counters since the pool was created; times in milliseconds. */
+    public record Stats(int total, int active, int idle, int waiting,
+                        long borrows, long waits, long timeouts,
+                        double avgBorrowMs, double maxBorrowMs, double avgWaitMs,
+                        long created, long retired, long validations, long validationFailures, long leaks) {
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.ROOT,
+                    "%d open (%d active, %d idle, %d waiting), %d borrows (avg %.2f ms, max %.2f ms), %d waited (avg %.2f ms), %d timeouts, "
+                            + "%d created, %d retired, %d/%d validations failed, %d leaks",
+                    total, active, idle, waiting, borrows, avgBorrowMs, maxBorrowMs, waits, avgWaitMs, timeouts,
+                    created, retired, validationFailures, validations, leaks);
+        }
+    }
+
     public SimpleConnectionPool(String jdbcUrl, String user, String pass,
                                 int maxPoolSize, int minIdle,
                                 long connectionTimeoutMs, long idleTimeoutMs, long maxLifetimeMs,
                                 String validationQuery) {
+        this(jdbcUrl, user, pass, maxPoolSize, minIdle, connectionTimeoutMs, idleTimeoutMs, maxLifetimeMs,
+                validationQuery, 1_000L, 0L, null);
+    }
+
+    /**
+     * @param validationQuery  only used for drivers without {@link Connection#isValid}; may be null
+     * @param validationIdleMs connections idle at most this long are handed out without validation
+     * @param leakDetectionMs  log connections held longer than this; 0 disables
+     * @param logger           where leaks are reported; null uses {@link #getParentLogger()}
+     */
+    public SimpleConnectionPool(String jdbcUrl, String user, String pass,
+                                int maxPoolSize, int minIdle,
+                                long connectionTimeoutMs, long idleTimeoutMs, long maxLifetimeMs,
+                                String validationQuery, long validationIdleMs, long leakDetectionMs, Logger logger) {
         this.jdbcUrl = Objects.requireNonNull(jdbcUrl);
         this.user = user;
         this.pass = pass;
@@ -57,17 +119,29 @@ public class SimpleConnectionPool implements DataSource, AutoCloseable {
         this.idleTimeoutMs = Math.max(30_000, idleTimeoutMs);
         this.maxLifetimeMs = Math.max(60_000, maxLifetimeMs);
         this.validationQuery = validationQuery;
-        this.permits = new Semaphore(this.maxPoolSize, true);
+        this.validationIdleMs = Math.max(0, validationIdleMs);
+        this.leakDetectionMs = leakDetectionMs <= 0 ? 0 : Math.max(2_000, leakDetectionMs);
+        this.logger = logger != null ? logger : getParentLogger();
 
         // Warm up minIdle connections
         for (int i = 0; i < this.minIdle; i++) {
             try {
-                idle.add(new Pooled(newPhysicalConnection()));
-                permits.acquireUninterruptibly();
+                total.incrementAndGet();
+                idle.push(open());
             } catch (SQLException e) {
+                total.decrementAndGet();
                 break;
             }
         }
+
+        // Retires idle connections and looks for leaks while the pool is not being used
+        long period = this.leakDetectionMs > 0 ? Math.min(30_000, this.leakDetectionMs / 2) : 30_000;
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Furious-DB-Housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
     }
 
     private Connection newPhysicalConnection() throws SQLException {
@@ -75,6 +149,13 @@ public class SimpleConnectionPool implements DataSource, AutoCloseable {
                 : DriverManager.getConnection(jdbcUrl, user, pass);
     }
 
+    // Caller has reserved the slot in total
+    private Pooled open() throws SQLException {
+        Pooled p = new Pooled(newPhysicalConnection());
+        created.increment();
+        return p;
+    }
+
     @Override
     public Connection getConnection() throws SQLException {
         return getConnection(user, pass);
@@ -83,109 +164,271 @@ public class SimpleConnectionPool implements DataSource, AutoCloseable {
     @Override
     public Connection getConnection(String username, String password) throws SQLException {
         if (closed.get()) throw new SQLException("Pool is closed");
+        long start = System.nanoTime();
 
-        long deadline = System.currentTimeMillis() + connectionTimeoutMs;
+        // Only take a connection or slot directly when nobody is queued; otherwise wait in line
         Pooled pooled = null;
-        while (pooled == null) {
-            synchronized (idle) {
-                Pooled p = idle.poll();
-                if (p != null) pooled = p;
+        if (waiters.isEmpty()) {
+            pooled = idle.pollFirst();
+            if (pooled == null && reserve()) pooled = Pooled.SLOT;
+        }
+        if (pooled == null) pooled = await(start + TimeUnit.MILLISECONDS.toNanos(connectionTimeoutMs));
+
+        if (pooled == Pooled.SLOT) {
+            try {
+                pooled = open();
+            } catch (SQLException e) {
+                release();
+                throw e;
             }
-            if (pooled == null) {
-                long remaining = deadline - System.currentTimeMillis();
-                if (remaining <= 0) throw new SQLException("Timeout waiting for connection");
-                try {
-                    if (!permits.tryAcquire(Math.min(remaining, 50), java.util.concurrent.TimeUnit.MILLISECONDS)) {
-                        continue;
+        } else if (!isUsable(pooled)) {
+            // Replace it in the same slot
+            pooled.reallyClose();
+            retired.increment();
+            try {
+                pooled = open();
+            } catch (SQLException e) {
+                release();
+                throw e;
+            }
+        }
+
+        ProxyConnection proxy = new ProxyConnection(pooled);
+        if (leakDetectionMs > 0) {
+            proxy.borrowedBy = new Exception("Connection borrowed by " + Thread.currentThread().getName());
+            borrowed.add(proxy);
+        }
+        long took = System.nanoTime() - start;
+        borrows.increment();
+        borrowNanos.add(took);
+        maxBorrowNanos.accumulateAndGet(took, Math::max);
+        return proxy;
+    }
+
+    private boolean isUsable(Pooled p) {
+        long now = System.nanoTime();
+        if (p.ageMillis(now) > maxLifetimeMs || p.idleMillis(now) > idleTimeoutMs) return false;
+        // A connection used moments ago is almost certainly still alive; skip the round trip
+        if (p.idleMillis(now) <= validationIdleMs) return true;
+        validations.increment();
+        if (p.isValid(validationQuery)) return true;
+        validationFailures.increment();
+        return false;
+    }
+
+    // Claims room for one more physical connection
+    private boolean reserve() {
+        for (;;) {
+            int n = total.get();
+            if (n >= maxPoolSize) return false;
+            if (total.compareAndSet(n, n + 1)) return true;
+        }
+    }
+
+    // Gives up a slot, which a waiter may now use to open a connection
+    private void release() {
+        total.decrementAndGet();
+        handOff();
+    }
+
+    // Queues behind earlier waiters until a connection (or a free slot) is handed over
+    private Pooled await(long deadline) throws SQLException {
+        long start = System.nanoTime();
+        waits.increment();
+        Waiter w = new Waiter(Thread.currentThread());
+        waiters.offerLast(w);
+        try {
+            // Something may have been returned between our look at the idle stack and queueing up
+            handOff();
+            for (;;) {
+                Pooled p = w.item.get();
+                if (p != null && p != Pooled.CANCELLED) return p;
+                if (closed.get()) {
+                    if (!w.cancel()) giveBack(w.item.get());
+                    throw new SQLException("Pool is closed");
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    if (w.cancel()) {
+                        timeouts.increment();
+                        throw new SQLTimeoutException("Timeout waiting for connection after " + connectionTimeoutMs + " ms (" + getStats() + ")");
                     }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new SQLException("Interrupted while waiting for connection", e);
+                    continue;
                 }
-                // Create a new physical connection
-                Connection conn = null;
-                try {
-                    conn = newPhysicalConnection();
-                    pooled = new Pooled(conn);
-                } catch (SQLException e) {
-                    permits.release();
-                    throw e;
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    if (w.cancel()) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for connection");
+                    }
+                    // Already handed over; keep it and leave the flag for the caller
+                    Thread.currentThread().interrupt();
                 }
             }
+        } finally {
+            waiters.remove(w);
+            waitNanos.add(System.nanoTime() - start);
+        }
+    }
 
-            // Validate and check lifetime
-            try {
-                if (pooled.isExpired(maxLifetimeMs) || pooled.isIdleTooLong(idleTimeoutMs) || (validationQuery != null && !validationQuery.isBlank() && !pooled.isValid(validationQuery))) {
-                    pooled.reallyClose();
-                    // replace it with a fresh one
-                    Connection conn = newPhysicalConnection();
-                    pooled = new Pooled(conn);
-                }
-            } catch (SQLException e) {
-                // Try to recover by retrying once within timeout
-                pooled = null;
-                permits.release();
-                if (System.currentTimeMillis() >= deadline) throw e;
+    // Matches idle connections and free slots with queued waiters, oldest waiter first
+    private void handOff() {
+        while (!waiters.isEmpty()) {
+            Waiter w = waiters.pollFirst();
+            if (w == null) return;
+            if (w.item.get() != null) continue; // cancelled or already served
+            Pooled p = idle.pollFirst();
+            if (p == null && reserve()) p = Pooled.SLOT;
+            if (p == null) {
+                waiters.offerFirst(w);
+                // Recheck: a connection returned while w was off the queue did not see it
+                if (idle.isEmpty() && total.get() >= maxPoolSize) return;
+                continue;
             }
+            if (!w.offer(p)) giveBack(p);
         }
-        pooled.checkout();
-        return new ProxyConnection(pooled);
     }
 
-    @Override
-    public synchronized void close() {
-        if (!closed.compareAndSet(false, true)) return;
-        synchronized (idle) {
-            for (Pooled p : idle) {
-                try {
-                    p.reallyClose();
-                } catch (SQLException ignored) {
+    // Returns something handed to a waiter that no longer wants it
+    private void giveBack(Pooled p) {
+        if (p == null || p == Pooled.CANCELLED) return;
+        if (p == Pooled.SLOT) {
+            release();
+        } else {
+            recycle(p);
+        }
+    }
+
+    private void recycle(Pooled p) {
+        if (closed.get()) {
+            discard(p);
+            return;
+        }
+        p.lastUsed = System.nanoTime();
+        // Straight to the oldest waiter, so a new borrower cannot take it off the idle stack first
+        Waiter w;
+        while ((w = waiters.pollFirst()) != null) {
+            if (w.offer(p)) return;
+        }
+        idle.push(p);
+        if (closed.get()) closeIdle(); // lost a race with close()
+        else handOff();
+    }
+
+    private void discard(Pooled p) {
+        p.reallyClose();
+        retired.increment();
+        total.decrementAndGet();
+    }
+
+    void returnConnection(ProxyConnection proxy, Pooled pooled) {
+        if (leakDetectionMs > 0 && borrowed.remove(proxy) && proxy.leakReported) {
+            logger.info("Database: previously reported connection returned after " + proxy.heldMillis() + " ms.");
+        }
+        recycle(pooled);
+    }
+
+    private void housekeep() {
+        try {
+            if (leakDetectionMs > 0) {
+                for (ProxyConnection proxy : borrowed) {
+                    if (proxy.leakReported || proxy.heldMillis() < leakDetectionMs) continue;
+                    proxy.leakReported = true;
+                    leaks.increment();
+                    logger.log(Level.WARNING, "Database: connection held for " + proxy.heldMillis() + " ms, possible leak.", proxy.borrowedBy);
                 }
             }
-            idle.clear();
+            // Retire connections idle too long, oldest (bottom of the stack) first, keeping minIdle
+            long now = System.nanoTime();
+            while (idle.size() > minIdle) {
+                Pooled p = idle.peekLast();
+                if (p == null || p.idleMillis(now) <= idleTimeoutMs && p.ageMillis(now) <= maxLifetimeMs) break;
+                if (idle.removeLastOccurrence(p)) discard(p);
+            }
+        } catch (Throwable ignored) {
         }
-        // Drain permits to zero so no outstanding logical connections remain
-        // Note: actual physical connections are closed on return.
+    }
+
+    private void closeIdle() {
+        Pooled p;
+        while ((p = idle.pollFirst()) != null) discard(p);
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        housekeeper.shutdownNow();
+        closeIdle();
+        // Waiters see the flag and fail; borrowed connections are closed when they come back
+        for (Waiter w : waiters) LockSupport.unpark(w.thread);
     }
 
     public boolean isClosed() {
         return closed.get();
     }
 
-    void returnConnection(Pooled pooled) {
-        if (closed.get()) {
-            try {
-                pooled.reallyClose();
-            } catch (SQLException ignored) {
-            }
-            permits.release();
-            return;
+    public Stats getStats() {
+        int open = total.get();
+        int idleCount = idle.size();
+        long n = borrows.sum();
+        long waited = waits.sum();
+        return new Stats(open, Math.max(0, open - idleCount), idleCount, waiters.size(),
+                n, waited, timeouts.sum(),
+                n == 0 ? 0 : borrowNanos.sum() / 1e6 / n, maxBorrowNanos.get() / 1e6,
+                waited == 0 ? 0 : waitNanos.sum() / 1e6 / waited,
+                created.sum(), retired.sum(), validations.sum(), validationFailures.sum(), leaks.sum());
+    }
+
+    private static final class Waiter {
+        final Thread thread;
+        // null while waiting, then the handed connection, SLOT, or CANCELLED
+        final AtomicReference<Pooled> item = new AtomicReference<>();
+
+        Waiter(Thread thread) {
+            this.thread = thread;
         }
-        pooled.checkin();
-        synchronized (idle) {
-            idle.offer(pooled);
+
+        boolean offer(Pooled p) {
+            if (!item.compareAndSet(null, p)) return false;
+            LockSupport.unpark(thread);
+            return true;
+        }
+
+        boolean cancel() {
+            return item.compareAndSet(null, Pooled.CANCELLED);
         }
     }
 
     private static class Pooled {
+        // Handed to a waiter: a reserved slot to open a new connection in
+        static final Pooled SLOT = new Pooled(null);
+        static final Pooled CANCELLED = new Pooled(null);
+
         private final Connection delegate;
-        private final Instant createdAt = Instant.now();
-        private Instant lastUsed = Instant.now();
-        private final AtomicBoolean inUse = new AtomicBoolean(false);
+        private final long createdAt = System.nanoTime();
+        private volatile long lastUsed = createdAt;
 
         Pooled(Connection delegate) {
             this.delegate = delegate;
         }
 
-        boolean isExpired(long maxLifeMs) {
-            return Duration.between(createdAt, Instant.now()).toMillis() > maxLifeMs;
+        long ageMillis(long now) {
+            return (now - createdAt) / 1_000_000L;
         }
 
-        boolean isIdleTooLong(long idleMs) {
-            return Duration.between(lastUsed, Instant.now()).toMillis() > idleMs;
+        long idleMillis(long now) {
+            return (now - lastUsed) / 1_000_000L;
         }
 
         boolean isValid(String validationQuery) {
+            try {
+                return delegate.isValid(5);
+            } catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+                // Old driver: fall back to the query
+            } catch (SQLException e) {
+                return false;
+            }
+            if (validationQuery == null || validationQuery.isBlank()) return true;
             try (var stmt = delegate.createStatement()) {
                 stmt.setQueryTimeout(5);
                 stmt.execute(validationQuery);
@@ -195,24 +438,20 @@ public class SimpleConnectionPool implements DataSource, AutoCloseable {
             }
         }
 
-        void checkout() {
-            inUse.set(true);
-            lastUsed = Instant.now();
-        }
-
-        void checkin() {
-            inUse.set(false);
-            lastUsed = Instant.now();
-        }
-
-        void reallyClose() throws SQLException {
-            delegate.close();
+        void reallyClose() {
+            try {
+                delegate.close();
+            } catch (SQLException ignored) {
+            }
         }
     }
 
     // Lightweight proxy that returns to pool on close()
     private class ProxyConnection implements Connection {
         private Pooled pooled;
+        private final long borrowedAt = System.nanoTime();
+        private Exception borrowedBy;
+        private volatile boolean leakReported;
 
         private Connection d() throws SQLException {
             if (pooled == null) throw new SQLException("Connection closed");
@@ -223,6 +462,10 @@ public class SimpleConnectionPool implements DataSource, AutoCloseable {
             this.pooled = pooled;
         }
 
+        long heldMillis() {
+            return (System.nanoTime() - borrowedAt) / 1_000_000L;
+        }
+
         private void ensureOpen() throws SQLException {
             if (pooled == null) throw new SQLException("Connection closed");
         }
@@ -232,8 +475,7 @@ public class SimpleConnectionPool implements DataSource, AutoCloseable {
             if (pooled != null) {
                 Pooled p = pooled;
                 pooled = null;
-                returnConnection(p);
-                permits.release();
+                returnConnection(this, p);
             }
         }
 
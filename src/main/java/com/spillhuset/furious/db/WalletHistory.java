@@ -0,0 +1,252 @@
+package com.spillhuset.furious.db;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Indexed wallet transaction history stored in a local SQLite file.
+ * <p>
+ * Rows are copied from {@link WalletJournal} segments and keyed by (segment, line), so ingesting
+ * the same segment twice is harmless. Reads go through the (player, ts) index and are paged with
+ * LIMIT, so their cost depends on the page size rather than on how much history a player has.
+ * Rows older than the retention window can be moved into gzip archives with {@link #archiveBefore}.
+ */
+public class WalletHistory {
+    private static final int ARCHIVE_BATCH = 1000;
+
+    private final File file;
+    private Connection connection;
+
+    public WalletHistory(File file) {
+        this.file = file;
+    }
+
+    public synchronized void open() throws SQLException {
+        if (connection != null) return;
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        // Shaded drivers are not always picked up by DriverManager's service loader
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite driver not available", e);
+        }
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement st = connection.createStatement()) {
+            st.execute("PRAGMA journal_mode=WAL");
+            st.execute("PRAGMA synchronous=NORMAL");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS wallet_history (" +
+                    "segment INTEGER NOT NULL, " +
+                    "line INTEGER NOT NULL, " +
+                    "ts INTEGER NOT NULL, " +
+                    "player TEXT NOT NULL, " +
+                    "balance REAL NULL, " +
+                    "entry TEXT NOT NULL, " +
+                    "PRIMARY KEY (segment, line)" +
+                    ")");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS wallet_history_player_ts ON wallet_history (player, ts)");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS wallet_history_ts ON wallet_history (ts)");
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return connection != null;
+    }
+
+    /**
+     * @return the highest journal segment stored, or 0 when empty or unavailable
+     */
+    public synchronized long maxSegment() {
+        if (connection == null) return 0L;
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MAX(segment) FROM wallet_history")) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Inserts records in one transaction; records already present are ignored.
+     */
+    public synchronized void insert(Collection<WalletJournal.Record> records) throws SQLException {
+        if (connection == null || records.isEmpty()) return;
+        boolean auto = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT OR IGNORE INTO wallet_history(segment, line, ts, player, balance, entry) VALUES(?,?,?,?,?,?)")) {
+            for (WalletJournal.Record r : records) {
+                ps.setLong(1, r.segment());
+                ps.setInt(2, r.line());
+                ps.setLong(3, r.timestamp());
+                ps.setString(4, key(r.player()));
+                if (r.balance() == null) ps.setNull(5, java.sql.Types.REAL);
+                else ps.setDouble(5, r.balance());
+                ps.setString(6, r.entry());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(auto);
+        }
+    }
+
+    /**
+     * @param player the player, or null for global entries
+     * @return up to {@code limit} entries, newest first, skipping the newest {@code offset}
+     */
+    public synchronized List<WalletJournal.Record> latest(UUID player, int offset, int limit) throws SQLException {
+        return query("SELECT segment, line, ts, player, balance, entry FROM wallet_history WHERE player = ? " +
+                "ORDER BY ts DESC, segment DESC, line DESC LIMIT ? OFFSET ?", key(player), null, null, limit, offset);
+    }
+
+    /**
+     * @return up to {@code limit} entries with {@code from <= ts < to}, newest first
+     */
+    public synchronized List<WalletJournal.Record> between(UUID player, long from, long to, int offset, int limit) throws SQLException {
+        return query("SELECT segment, line, ts, player, balance, entry FROM wallet_history WHERE player = ? AND ts >= ? AND ts < ? " +
+                "ORDER BY ts DESC, segment DESC, line DESC LIMIT ? OFFSET ?", key(player), from, to, limit, offset);
+    }
+
+    private List<WalletJournal.Record> query(String sql, String player, Long from, Long to, int limit, int offset) throws SQLException {
+        List<WalletJournal.Record> out = new ArrayList<>();
+        if (connection == null || limit <= 0) return out;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            int i = 1;
+            ps.setString(i++, player);
+            if (from != null) ps.setLong(i++, from);
+            if (to != null) ps.setLong(i++, to);
+            ps.setInt(i++, limit);
+            ps.setInt(i, Math.max(0, offset));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String p = rs.getString(4);
+                    double bal = rs.getDouble(5);
+                    Double balance = rs.wasNull() ? null : bal;
+                    out.add(new WalletJournal.Record(rs.getLong(1), rs.getInt(2), rs.getLong(3),
+                            WalletJournal.GLOBAL.equals(p) ? null : UUID.fromString(p), balance, rs.getString(6)));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Moves every row older than {@code cutoff} into a gzip file inside {@code archiveDir}
+     * (journal line format) and deletes them from the table.
+     * <p>
+     * Not synchronized as a whole: rows are read and deleted in batches of {@link #ARCHIVE_BATCH},
+     * each under the monitor, and compressed outside it, so {@link #latest} and {@link #between}
+     * only ever wait for one batch.
+     * @return number of archived rows
+     */
+    public int archiveBefore(long cutoff, File archiveDir) throws SQLException, IOException {
+        if (!isOpen()) return 0;
+        if (!archiveDir.exists()) archiveDir.mkdirs();
+        File out = new File(archiveDir, "history-" + cutoff + ".log.gz");
+        int archived = 0;
+        // Last row written, as (ts, segment, line); batches continue after it
+        long[] last = null;
+        // Write the archive first; rows are only deleted once it is safely on disk
+        try (BufferedWriter w = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                Files.newOutputStream(out.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)),
+                StandardCharsets.UTF_8))) {
+            while (true) {
+                List<String> lines = new ArrayList<>(ARCHIVE_BATCH);
+                long[] next = readArchiveBatch(cutoff, last, lines);
+                if (next != null) last = next;
+                for (String line : lines) {
+                    w.write(line);
+                    w.newLine();
+                }
+                archived += lines.size();
+                if (lines.size() < ARCHIVE_BATCH) break;
+            }
+        }
+        if (archived == 0) {
+            Files.deleteIfExists(out.toPath());
+            return 0;
+        }
+        // Only up to the last archived row, in case older rows were ingested meanwhile
+        int deleted;
+        do {
+            deleted = deleteArchiveBatch(cutoff, last);
+        } while (deleted == ARCHIVE_BATCH);
+        return archived;
+    }
+
+    // Reads one batch after the given key; returns the key of its last row, or null when there were none
+    private synchronized long[] readArchiveBatch(long cutoff, long[] after, List<String> lines) throws SQLException {
+        if (connection == null) throw new SQLException("History store closed");
+        String sql = "SELECT ts, player, balance, entry, segment, line FROM wallet_history WHERE ts < ?"
+                + (after == null ? "" : " AND (ts, segment, line) > (?, ?, ?)")
+                + " ORDER BY ts, segment, line LIMIT ?";
+        long[] key = null;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            int i = 1;
+            ps.setLong(i++, cutoff);
+            if (after != null) {
+                ps.setLong(i++, after[0]);
+                ps.setLong(i++, after[1]);
+                ps.setLong(i++, after[2]);
+            }
+            ps.setInt(i, ARCHIVE_BATCH);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String p = rs.getString(2);
+                    double bal = rs.getDouble(3);
+                    Double balance = rs.wasNull() ? null : bal;
+                    lines.add(WalletJournal.encode(rs.getLong(1), WalletJournal.GLOBAL.equals(p) ? null : UUID.fromString(p),
+                            balance, rs.getString(4)));
+                    key = new long[]{rs.getLong(1), rs.getLong(5), rs.getInt(6)};
+                }
+            }
+        }
+        return key;
+    }
+
+    private synchronized int deleteArchiveBatch(long cutoff, long[] upTo) throws SQLException {
+        if (connection == null) throw new SQLException("History store closed");
+        try (PreparedStatement ps = connection.prepareStatement("DELETE FROM wallet_history WHERE rowid IN (" +
+                "SELECT rowid FROM wallet_history WHERE ts < ? AND (ts, segment, line) <= (?, ?, ?) LIMIT ?)")) {
+            ps.setLong(1, cutoff);
+            ps.setLong(2, upTo[0]);
+            ps.setLong(3, upTo[1]);
+            ps.setLong(4, upTo[2]);
+            ps.setInt(5, ARCHIVE_BATCH);
+            return ps.executeUpdate();
+        }
+    }
+
+    public synchronized void close() {
+        try {
+            if (connection != null) connection.close();
+        } catch (SQLException ignored) {
+        }
+        connection = null;
+    }
+
+    private static String key(UUID player) {
+        return player == null ? WalletJournal.GLOBAL : player.toString();
+    }
+}
@@ -0,0 +1,292 @@
+package com.spillhuset.furious.db;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Append-only, line-delimited journal for wallet mutations.
+ * <p>
+ * Each record is one line: {@code <epochMillis>\t<player uuid or *>\t<balance or empty>\t<entry>}.
+ * Records are buffered in memory and written through a {@link FileChannel} on {@link #sync()},
+ * which issues a single fsync for the whole batch (group commit).
+ * <p>
+ * The journal is split into numbered segments ({@code journal-<seq>.log}). Compaction rolls to a
+ * new segment, snapshots balances elsewhere, then deletes older segments once their records have
+ * been copied into {@link WalletHistory}. A record is identified by its segment and line number.
+ * <p>
+ * {@link #append} only takes a short lock around the pending list. Writes, fsyncs and segment
+ * switches are serialized by a separate IO lock, so callers appending from the main thread never
+ * wait for the disk.
+ */
+public class WalletJournal {
+    public static final String GLOBAL = "*";
+
+    private final File dir;
+    private final Object lock = new Object(); // pending, channel, currentSeq, nextLine
+    final Object ioLock = new Object(); // write, force and roll; taken before lock, never by append
+
+    private List<Record> pending = new ArrayList<>();
+    private FileChannel channel;
+    private long currentSeq = 0L;
+    private int nextLine = 0;
+
+    /** A decoded journal line. */
+    public record Record(long segment, int line, long timestamp, UUID player, Double balance, String entry) {
+        public boolean isGlobal() {
+            return player == null;
+        }
+    }
+
+    public WalletJournal(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Opens a fresh segment after the highest existing one. Existing segments are left for replay.
+     * @param floor lowest sequence already used elsewhere (snapshot, history); the new segment is above it
+     */
+    public void open(long floor) throws IOException {
+        synchronized (ioLock) {
+            if (!dir.exists()) dir.mkdirs();
+            long max = Math.max(0L, floor);
+            for (long seq : listSegments(dir)) max = Math.max(max, seq);
+            FileChannel opened = openChannel(max + 1);
+            synchronized (lock) {
+                currentSeq = max + 1;
+                nextLine = 0;
+                channel = opened;
+            }
+        }
+    }
+
+    private FileChannel openChannel(long seq) throws IOException {
+        return FileChannel.open(segmentFile(dir, seq).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public long getCurrentSegment() {
+        synchronized (lock) {
+            return currentSeq;
+        }
+    }
+
+    public static String encode(long timestamp, UUID player, Double balance, String entry) {
+        String text = entry == null ? "" : entry.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        return timestamp + "\t" + (player == null ? GLOBAL : player.toString()) + "\t"
+                + (balance == null ? "" : Double.toString(balance)) + "\t" + text;
+    }
+
+    public static Record decode(long segment, int lineNo, String line) {
+        if (line == null || line.isEmpty()) return null;
+        String[] parts = line.split("\t", 4);
+        if (parts.length < 4) return null;
+        try {
+            long ts = Long.parseLong(parts[0]);
+            UUID player = GLOBAL.equals(parts[1]) ? null : UUID.fromString(parts[1]);
+            Double balance = parts[2].isEmpty() ? null : Double.parseDouble(parts[2]);
+            return new Record(segment, lineNo, ts, player, balance, parts[3]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public void append(long timestamp, UUID player, Double balance, String entry) {
+        String text = entry == null ? "" : entry.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        synchronized (lock) {
+            pending.add(new Record(currentSeq, nextLine++, timestamp, player, balance, text));
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Visits records appended since the last {@link #sync()}, oldest first.
+     */
+    public void forEachPending(Consumer<Record> consumer) {
+        List<Record> snapshot;
+        synchronized (lock) {
+            if (pending.isEmpty()) return;
+            snapshot = new ArrayList<>(pending);
+        }
+        for (Record r : snapshot) consumer.accept(r);
+    }
+
+    /**
+     * Writes all buffered records and forces them to disk with one fsync.
+     * @return the records that were made durable, oldest first
+     */
+    public List<Record> sync() throws IOException {
+        synchronized (ioLock) {
+            return writePending();
+        }
+    }
+
+    // Caller holds ioLock. Every pending record belongs to the current segment: roll only switches
+    // once pending is empty, and both run under ioLock.
+    private List<Record> writePending() throws IOException {
+        List<Record> batch;
+        FileChannel ch;
+        synchronized (lock) {
+            if (channel == null || pending.isEmpty()) return List.of();
+            batch = pending;
+            pending = new ArrayList<>();
+            ch = channel;
+        }
+        StringBuilder sb = new StringBuilder(batch.size() * 96);
+        for (Record r : batch) {
+            sb.append(encode(r.timestamp(), r.player(), r.balance(), r.entry())).append('\n');
+        }
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        long start = ch.size();
+        try {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(false);
+        } catch (IOException e) {
+            // Drop the partial batch so the retry does not repeat lines and shift the line numbers records are keyed by
+            try {
+                ch.truncate(start);
+            } catch (IOException ignored) {
+            }
+            synchronized (lock) {
+                batch.addAll(pending);
+                pending = batch;
+            }
+            throw e;
+        }
+        return batch;
+    }
+
+    /**
+     * Syncs and switches to a new segment.
+     * @return the sequence number of the new segment; every record in older segments is already on disk
+     */
+    public long roll() throws IOException {
+        synchronized (ioLock) {
+            long next;
+            synchronized (lock) {
+                next = currentSeq + 1;
+            }
+            FileChannel opened = openChannel(next);
+            FileChannel old;
+            try {
+                while (true) {
+                    writePending();
+                    // Records appended during the write still belong to the old segment; write those first
+                    synchronized (lock) {
+                        if (pending.isEmpty()) {
+                            old = channel;
+                            channel = opened;
+                            currentSeq = next;
+                            nextLine = 0;
+                            break;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                opened.close();
+                throw e;
+            }
+            if (old != null) old.close();
+            return next;
+        }
+    }
+
+    /**
+     * @return live segment files older than {@code seq}, oldest first
+     */
+    public List<File> segmentsBefore(long seq) {
+        List<File> files = new ArrayList<>();
+        for (long s : listSegments(dir)) {
+            if (s < seq) files.add(segmentFile(dir, s));
+        }
+        return files;
+    }
+
+    /**
+     * Deletes every segment older than {@code seq}.
+     */
+    public void deleteBefore(long seq) throws IOException {
+        for (File f : segmentsBefore(seq)) Files.deleteIfExists(f.toPath());
+    }
+
+    /**
+     * Replays segments with sequence >= {@code fromSeq} in order.
+     */
+    public void replay(long fromSeq, Consumer<Record> consumer) throws IOException {
+        for (long s : listSegments(dir)) {
+            if (s < fromSeq) continue;
+            readSegment(segmentFile(dir, s), consumer);
+        }
+    }
+
+    public static void readSegment(File file, Consumer<Record> consumer) throws IOException {
+        long segment = segmentSeq(file);
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                Record r = decode(segment, lineNo++, line);
+                // A torn last line after a crash decodes to null and is skipped
+                if (r != null) consumer.accept(r);
+            }
+        }
+    }
+
+    public void close() {
+        synchronized (ioLock) {
+            try {
+                writePending();
+            } catch (IOException ignored) {
+            }
+            FileChannel ch;
+            synchronized (lock) {
+                ch = channel;
+                channel = null;
+            }
+            try {
+                if (ch != null) ch.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public static File segmentFile(File dir, long seq) {
+        return new File(dir, String.format("journal-%08d.log", seq));
+    }
+
+    public static long segmentSeq(File file) {
+        String name = file.getName();
+        if (!name.startsWith("journal-") || !name.endsWith(".log")) return -1L;
+        try {
+            return Long.parseLong(name.substring(8, name.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private static List<Long> listSegments(File dir) {
+        List<Long> seqs = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files == null) return seqs;
+        for (File f : files) {
+            long seq = segmentSeq(f);
+            if (seq >= 0) seqs.add(seq);
+        }
+        seqs.sort(null);
+        return seqs;
+    }
+}
@@ -0,0 +1,104 @@
+package com.spillhuset.furious.db;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SQL repository for the wallet balance snapshot (MySQL or SQLite): wallet_balances holds the cents
+ * per player, wallet_snapshot the single row with the journal segment. Both are replaced in one
+ * transaction. The journal itself stays in the plugin folder.
+ * On first use the snapshot is copied from {@code seed} (accounts.yml), so switching backend keeps balances.
+ */
+public class WalletRepository implements WalletStore {
+    private final DataSource dataSource;
+    private final WalletStore seed;
+
+    public WalletRepository(DataSource dataSource, WalletStore seed) {
+        this.dataSource = dataSource;
+        this.seed = seed;
+    }
+
+    @Override
+    public void init() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS wallet_balances (" +
+                    "player_id VARCHAR(36) PRIMARY KEY, " +
+                    "cents BIGINT NOT NULL" +
+                    ")");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS wallet_snapshot (" +
+                    "id INT PRIMARY KEY, " +
+                    "journal_segment BIGINT NOT NULL" +
+                    ")");
+        }
+        if (seed != null && !hasSnapshot()) {
+            seed.init();
+            save(seed.load());
+        }
+    }
+
+    private boolean hasSnapshot() throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT journal_segment FROM wallet_snapshot WHERE id = 1");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    @Override
+    public Snapshot load() throws Exception {
+        Map<UUID, Long> cents = new HashMap<>();
+        long segment = 0L;
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT player_id, cents FROM wallet_balances");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try { cents.put(UUID.fromString(rs.getString(1)), rs.getLong(2)); } catch (IllegalArgumentException ignored) {}
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("SELECT journal_segment FROM wallet_snapshot WHERE id = 1");
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) segment = rs.getLong(1);
+            }
+        }
+        return new Snapshot(cents, segment);
+    }
+
+    @Override
+    public void save(Snapshot snapshot) throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean auto = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("DELETE FROM wallet_balances");
+                    st.executeUpdate("DELETE FROM wallet_snapshot");
+                }
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO wallet_balances(player_id, cents) VALUES(?,?)")) {
+                    for (Map.Entry<UUID, Long> e : snapshot.cents().entrySet()) {
+                        ps.setString(1, e.getKey().toString());
+                        ps.setLong(2, e.getValue());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO wallet_snapshot(id, journal_segment) VALUES(1,?)")) {
+                    ps.setLong(1, snapshot.segment());
+                    ps.executeUpdate();
+                }
+                conn.commit();
+            } catch (Exception e) {
+                // Never hand a connection with an open transaction back to the pool
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(auto);
+            }
+        }
+    }
+}
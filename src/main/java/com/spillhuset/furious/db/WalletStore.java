@@ -0,0 +1,24 @@
+package com.spillhuset.furious.db;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Storage for the wallet balance snapshot. Implemented by {@link YamlWalletStore} (accounts.yml) and
+ * {@link WalletRepository} (MySQL or SQLite); {@link DatabaseManager#walletStore()} picks one.
+ * Changes after the snapshot live in the local {@link WalletJournal}, so the snapshot records which
+ * journal segment it covers up to.
+ */
+public interface WalletStore {
+
+    /** Balances in cents as of the start of journal segment {@code segment}. */
+    record Snapshot(Map<UUID, Long> cents, long segment) {}
+
+    /** Creates the file or tables if needed. Called once before any other method. */
+    void init() throws Exception;
+
+    Snapshot load() throws Exception;
+
+    /** Replaces the stored snapshot atomically; a failed save leaves the previous one intact. */
+    void save(Snapshot snapshot) throws Exception;
+}
@@ -0,0 +1,161 @@
+package com.spillhuset.furious.db;
+
+import com.spillhuset.furious.utils.Bank;
+import com.spillhuset.furious.utils.BankAccount;
+import com.spillhuset.furious.utils.BankType;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Banks stored in banks.yml. Kept in the layout older versions wrote, including the
+ * legacy single-claim fields, so the file can still be read by them.
+ */
+public class YamlBanksStore implements BanksStore {
+    private final File file;
+    private FileConfiguration config;
+
+    public YamlBanksStore(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void init() throws Exception {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        if (!file.exists()) file.createNewFile();
+        config = YamlConfiguration.loadConfiguration(file);
+    }
+
+    @Override
+    public synchronized void loadAll(Map<UUID, Bank> banksById,
+                                     Map<String, UUID> bankIdByName,
+                                     Map<UUID, Map<UUID, BankAccount>> accounts,
+                                     Map<UUID, Long> lastAccrualByBank) {
+        banksById.clear();
+        bankIdByName.clear();
+        accounts.clear();
+        lastAccrualByBank.clear();
+        if (config == null) return;
+
+        ConfigurationSection banksSec = config.getConfigurationSection("banks");
+        if (banksSec != null) {
+            for (String idStr : banksSec.getKeys(false)) {
+                UUID id = UUID.fromString(idStr);
+                ConfigurationSection b = banksSec.getConfigurationSection(idStr);
+                if (b == null) continue;
+                String name = b.getString("name");
+                Bank bank = new Bank(id, name);
+                bank.setInterest(b.getDouble("interest", 0.0d));
+                String typeStr = b.getString("type", "PLAYER");
+                try {
+                    bank.setType(BankType.valueOf(typeStr.toUpperCase()));
+                } catch (IllegalArgumentException ignored) {
+                }
+                bank.setOpen(b.getBoolean("open", true));
+                // Load multiple claims if present; otherwise, load legacy single fields
+                ConfigurationSection claimsSec = b.getConfigurationSection("claims");
+                if (claimsSec != null) {
+                    for (String key : claimsSec.getKeys(false)) {
+                        ConfigurationSection c = claimsSec.getConfigurationSection(key);
+                        if (c == null) continue;
+                        String wStr = c.getString("world");
+                        if (wStr == null || wStr.isBlank()) continue;
+                        try {
+                            UUID wid = UUID.fromString(wStr);
+                            int cx = c.getInt("chunkX");
+                            int cz = c.getInt("chunkZ");
+                            bank.addClaim(wid, cx, cz);
+                        } catch (IllegalArgumentException ignored) {
+                        }
+                    }
+                } else {
+                    String worldStr = b.getString("world");
+                    if (worldStr != null && !worldStr.isBlank()) {
+                        UUID worldId = UUID.fromString(worldStr);
+                        int cx = b.getInt("chunkX");
+                        int cz = b.getInt("chunkZ");
+                        bank.claim(worldId, cx, cz);
+                    }
+                }
+                String armorStandStr = b.getString("armorStand");
+                if (armorStandStr != null && !armorStandStr.isBlank()) {
+                    try {
+                        bank.setArmorStandUuid(UUID.fromString(armorStandStr));
+                    } catch (IllegalArgumentException ignored) {
+                    }
+                }
+                long last = b.getLong("lastAccrual", 0L);
+                lastAccrualByBank.put(id, last);
+                banksById.put(id, bank);
+                if (name != null) bankIdByName.put(name.toLowerCase(), id);
+            }
+        }
+
+        ConfigurationSection accSec = config.getConfigurationSection("accounts");
+        if (accSec != null) {
+            for (String playerStr : accSec.getKeys(false)) {
+                UUID pid = UUID.fromString(playerStr);
+                ConfigurationSection psec = accSec.getConfigurationSection(playerStr);
+                if (psec == null) continue;
+                Map<UUID, BankAccount> map = new HashMap<>();
+                for (String bankIdStr : psec.getKeys(false)) {
+                    UUID bid = UUID.fromString(bankIdStr);
+                    double bal = psec.getDouble(bankIdStr, 0.0d);
+                    BankAccount acct = new BankAccount(bid, pid);
+                    acct.setBalance(bal);
+                    map.put(bid, acct);
+                }
+                accounts.put(pid, map);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Bank> banks,
+                                     Map<UUID, Map<UUID, BankAccount>> accounts,
+                                     Map<UUID, Long> lastAccrualByBank) throws Exception {
+        if (config == null) init();
+        config.set("banks", null);
+        config.set("accounts", null);
+        for (Bank bank : banks) {
+            String path = "banks." + bank.getId();
+            config.set(path + ".name", bank.getName());
+            config.set(path + ".interest", bank.getInterest());
+            config.set(path + ".type", bank.getType().name());
+            config.set(path + ".open", bank.isOpen());
+            if (bank.isClaimed()) {
+                // Write legacy first-claim fields for backward compatibility
+                config.set(path + ".world", bank.getWorldId().toString());
+                config.set(path + ".chunkX", bank.getChunkX());
+                config.set(path + ".chunkZ", bank.getChunkZ());
+                // Also write claims list
+                config.set(path + ".claims", null);
+                int idx = 0;
+                for (Bank.Claim c : bank.getClaims()) {
+                    String cPath = path + ".claims." + (idx++);
+                    config.set(cPath + ".world", c.worldId.toString());
+                    config.set(cPath + ".chunkX", c.chunkX);
+                    config.set(cPath + ".chunkZ", c.chunkZ);
+                }
+            }
+            if (bank.getArmorStandUuid() != null) {
+                config.set(path + ".armorStand", bank.getArmorStandUuid().toString());
+            }
+            Long last = lastAccrualByBank.get(bank.getId());
+            if (last != null && last > 0L) {
+                config.set(path + ".lastAccrual", last);
+            }
+        }
+        for (Map.Entry<UUID, Map<UUID, BankAccount>> e : accounts.entrySet()) {
+            UUID pid = e.getKey();
+            for (BankAccount acct : e.getValue().values()) {
+                config.set("accounts." + pid + "." + acct.getBankId(), acct.getBalance());
+            }
+        }
+        config.save(file);
+    }
+}
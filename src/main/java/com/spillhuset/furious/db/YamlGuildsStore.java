@@ -0,0 +1,199 @@
+package com.spillhuset.furious.db;
+
+import com.spillhuset.furious.utils.GuildRole;
+import com.spillhuset.furious.utils.GuildType;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Guilds stored in guilds.yml: guilds.&lt;id&gt; with members and outposts, and claims grouped as
+ * claims.&lt;world&gt;.&lt;x&gt;.&lt;z&gt; = guild id. The file is read once in {@link #init()} and kept in
+ * memory; changed guilds and chunks are patched into it and the whole file is saved.
+ */
+public class YamlGuildsStore implements GuildsStore {
+    private final File file;
+    private final Logger logger;
+    private FileConfiguration config;
+
+    public YamlGuildsStore(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    @Override
+    public synchronized void init() throws Exception {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        if (!file.exists()) file.createNewFile();
+        config = YamlConfiguration.loadConfiguration(file);
+    }
+
+    @Override
+    public synchronized Snapshot loadAll() {
+        List<GuildRow> guilds = new ArrayList<>();
+        List<ChunkRow> claims = new ArrayList<>();
+        List<ChunkRow> outposts = new ArrayList<>();
+
+        if (config == null) return new Snapshot(guilds, claims, outposts);
+        ConfigurationSection section = config.getConfigurationSection("guilds");
+        if (section != null) {
+            for (String idStr : section.getKeys(false)) {
+                try {
+                    UUID id = UUID.fromString(idStr);
+                    ConfigurationSection g = section.getConfigurationSection(idStr);
+                    if (g == null) continue;
+                    GuildType type = GuildType.valueOf(g.getString("type", GuildType.FREE.name()));
+                    String ownerStr = g.getString("owner", null);
+                    UUID owner = ownerStr == null ? null : UUID.fromString(ownerStr);
+
+                    // Outpost centers: outposts.centers.<world>.<x>.<z> = true
+                    ConfigurationSection centersSec = g.getConfigurationSection("outposts.centers");
+                    if (centersSec != null) {
+                        forEachChunk(centersSec, (world, x, z, zs, zKey) -> {
+                            if (zs.getBoolean(zKey, false)) outposts.add(new ChunkRow(world, x, z, id));
+                        });
+                    }
+
+                    Map<UUID, GuildRole> members = new HashMap<>();
+                    ConfigurationSection mem = g.getConfigurationSection("members");
+                    if (mem != null) {
+                        for (String memStr : mem.getKeys(false)) {
+                            members.put(UUID.fromString(memStr), GuildRole.valueOf(mem.getString(memStr, GuildRole.MEMBER.name())));
+                        }
+                    }
+                    // open flag (default false -> invitedOnly)
+                    guilds.add(new GuildRow(id, g.getString("name"), type, owner, g.getBoolean("open", false),
+                            g.getInt("outposts.allowed", 0), members));
+                } catch (Exception e) {
+                    logger.warning("Failed loading guild entry: " + idStr + " -> " + e.getMessage());
+                }
+            }
+        }
+
+        ConfigurationSection claimsSection = config.getConfigurationSection("claims");
+        if (claimsSection != null) {
+            forEachChunk(claimsSection, (world, x, z, zs, zKey) -> {
+                String gidStr = zs.getString(zKey, null);
+                if (gidStr == null) return;
+                try {
+                    claims.add(new ChunkRow(world, x, z, UUID.fromString(gidStr)));
+                } catch (IllegalArgumentException ignored) {
+                }
+            });
+        }
+        return new Snapshot(guilds, claims, outposts);
+    }
+
+    private interface ChunkVisitor {
+        void visit(UUID world, int x, int z, ConfigurationSection zs, String zKey);
+    }
+
+    // Walks <world>.<x>.<z> sections, skipping malformed keys
+    private static void forEachChunk(ConfigurationSection root, ChunkVisitor visitor) {
+        for (String worldKey : root.getKeys(false)) {
+            try {
+                UUID worldId = UUID.fromString(worldKey);
+                ConfigurationSection xs = root.getConfigurationSection(worldKey);
+                if (xs == null) continue;
+                for (String xKey : xs.getKeys(false)) {
+                    int x = Integer.parseInt(xKey);
+                    ConfigurationSection zs = xs.getConfigurationSection(xKey);
+                    if (zs == null) continue;
+                    for (String zKey : zs.getKeys(false)) {
+                        visitor.visit(worldId, x, Integer.parseInt(zKey), zs, zKey);
+                    }
+                }
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public synchronized void saveAll(Snapshot snapshot) throws Exception {
+        FileConfiguration out = new YamlConfiguration();
+        ConfigurationSection root = out.createSection("guilds");
+        Map<UUID, ConfigurationSection> sections = new HashMap<>();
+        for (GuildRow g : snapshot.guilds()) {
+            sections.put(g.id(), writeGuild(root, g));
+        }
+        writeOutposts(sections, snapshot.outposts());
+
+        // Grouped and sorted by x, then z, so the file diffs cleanly between saves
+        Map<UUID, Map<Integer, Map<Integer, UUID>>> grouped = new LinkedHashMap<>();
+        for (ChunkRow c : snapshot.claims()) {
+            grouped.computeIfAbsent(c.world(), w -> new TreeMap<>())
+                    .computeIfAbsent(c.x(), x -> new TreeMap<>())
+                    .put(c.z(), c.guild());
+        }
+        ConfigurationSection claimsRoot = out.createSection("claims");
+        for (Map.Entry<UUID, Map<Integer, Map<Integer, UUID>>> we : grouped.entrySet()) {
+            ConfigurationSection xs = claimsRoot.createSection(we.getKey().toString());
+            for (Map.Entry<Integer, Map<Integer, UUID>> xe : we.getValue().entrySet()) {
+                ConfigurationSection zs = xs.createSection(String.valueOf(xe.getKey()));
+                for (Map.Entry<Integer, UUID> ze : xe.getValue().entrySet()) {
+                    zs.set(String.valueOf(ze.getKey()), ze.getValue().toString());
+                }
+            }
+        }
+        out.save(file);
+        config = out;
+    }
+
+    @Override
+    public synchronized void applyChanges(Collection<GuildRow> guilds, Collection<ChunkRow> outposts, Collection<UUID> deleted,
+                                          Collection<ChunkRow> claims) throws Exception {
+        if (config == null || (guilds.isEmpty() && deleted.isEmpty() && claims.isEmpty())) return;
+        ConfigurationSection root = config.getConfigurationSection("guilds");
+        if (root == null) root = config.createSection("guilds");
+        for (UUID id : deleted) root.set(id.toString(), null);
+        Map<UUID, ConfigurationSection> sections = new HashMap<>();
+        for (GuildRow g : guilds) {
+            // Rewritten from scratch, dropping members and outposts that are gone
+            root.set(g.id().toString(), null);
+            sections.put(g.id(), writeGuild(root, g));
+        }
+        writeOutposts(sections, outposts);
+
+        for (ChunkRow c : claims) {
+            String world = "claims." + c.world();
+            String x = world + "." + c.x();
+            config.set(x + "." + c.z(), c.guild() == null ? null : c.guild().toString());
+            // Drop the x and world sections an unclaim left empty
+            if (isEmptySection(x)) config.set(x, null);
+            if (isEmptySection(world)) config.set(world, null);
+        }
+        config.save(file);
+    }
+
+    private boolean isEmptySection(String path) {
+        ConfigurationSection section = config.getConfigurationSection(path);
+        return section != null && section.getKeys(false).isEmpty();
+    }
+
+    private static ConfigurationSection writeGuild(ConfigurationSection root, GuildRow g) {
+        ConfigurationSection gs = root.createSection(g.id().toString());
+        gs.set("name", g.name());
+        gs.set("type", g.type().name());
+        gs.set("owner", g.owner() == null ? null : g.owner().toString());
+        gs.set("open", g.open());
+        ConfigurationSection mem = gs.createSection("members");
+        for (Map.Entry<UUID, GuildRole> me : g.members().entrySet()) {
+            mem.set(me.getKey().toString(), me.getValue().name());
+        }
+        if (g.outpostsAllowed() > 0) gs.set("outposts.allowed", g.outpostsAllowed());
+        return gs;
+    }
+
+    private static void writeOutposts(Map<UUID, ConfigurationSection> sections, Collection<ChunkRow> outposts) {
+        for (ChunkRow c : outposts) {
+            ConfigurationSection gs = sections.get(c.guild());
+            if (gs == null) continue;
+            gs.set("outposts.centers." + c.world() + "." + c.x() + "." + c.z(), true);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.spillhuset.furious.db;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Homes stored in homes.yml. The file is read once in {@link #init()} and kept in memory;
+ * changes are patched into it and the whole file is saved. Methods are synchronized so an
+ * async writer and main-thread reads never see a half-applied batch.
+ */
+public class YamlHomesStore implements HomesStore {
+    private final File file;
+    private final Logger logger;
+    private FileConfiguration config;
+
+    public YamlHomesStore(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    @Override
+    public synchronized void init() throws Exception {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        if (!file.exists()) file.createNewFile();
+        config = YamlConfiguration.loadConfiguration(file);
+    }
+
+    @Override
+    public synchronized void forEachHome(Consumer<HomeRow> consumer) {
+        ConfigurationSection section = config == null ? null : config.getConfigurationSection("players");
+        if (section == null) return;
+        for (String playerUID : section.getKeys(false)) {
+            try {
+                UUID uuid = UUID.fromString(playerUID);
+                ConfigurationSection playerSection = section.getConfigurationSection(playerUID);
+                if (playerSection == null) continue;
+                for (HomeRow row : readHomes(uuid, playerSection)) consumer.accept(row);
+            } catch (IllegalArgumentException e) {
+                logger.warning("Failed loading homes for UUID " + playerUID + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void forEachPurchase(BiConsumer<UUID, Integer> consumer) {
+        ConfigurationSection section = config == null ? null : config.getConfigurationSection("players");
+        if (section == null) return;
+        for (String playerUID : section.getKeys(false)) {
+            try {
+                consumer.accept(UUID.fromString(playerUID), section.getInt(playerUID + ".purchased", 0));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<HomeRow> loadHomes(UUID playerId) {
+        ConfigurationSection playerSection = config == null ? null : config.getConfigurationSection("players." + playerId);
+        if (playerSection == null) return new ArrayList<>();
+        return readHomes(playerId, playerSection);
+    }
+
+    @Override
+    public synchronized int loadPurchased(UUID playerId) {
+        return config == null ? 0 : config.getInt("players." + playerId + ".purchased", 0);
+    }
+
+    private List<HomeRow> readHomes(UUID uuid, ConfigurationSection playerSection) {
+        List<HomeRow> rows = new ArrayList<>();
+        ConfigurationSection homesSection = playerSection.getConfigurationSection("homes");
+        if (homesSection == null) return rows;
+        for (String homeKey : homesSection.getKeys(false)) {
+            ConfigurationSection homeUID = homesSection.getConfigurationSection(homeKey);
+            if (homeUID == null) continue;
+            try {
+                UUID armorStand = null;
+                String armorStr = homeUID.getString("armorStand", null);
+                if (armorStr != null) {
+                    try { armorStand = UUID.fromString(armorStr); } catch (IllegalArgumentException ignored) {}
+                }
+                rows.add(new HomeRow(UUID.fromString(homeUID.getName()), uuid, homeUID.getString("name"),
+                        UUID.fromString(Objects.requireNonNull(homeUID.getString("world"))),
+                        homeUID.getDouble("x"), homeUID.getDouble("y"), homeUID.getDouble("z"),
+                        (float) homeUID.getDouble("yaw"), (float) homeUID.getDouble("pitch"), armorStand));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                logger.warning("Failed loading home " + homeKey + " for UUID " + uuid + ": " + e.getMessage());
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public synchronized void applyChanges(Collection<HomeRow> upserts, Map<UUID, UUID> deletes, Map<UUID, Integer> purchases) throws Exception {
+        if (config == null) return;
+        if (upserts.isEmpty() && deletes.isEmpty() && purchases.isEmpty()) return;
+        // Apply only the changed entries to the loaded configuration
+        for (Map.Entry<UUID, UUID> e : deletes.entrySet()) {
+            config.set("players." + e.getValue() + ".homes." + e.getKey(), null);
+        }
+        for (HomeRow row : upserts) {
+            ConfigurationSection homeUID = config.createSection("players." + row.player() + ".homes." + row.id());
+            homeUID.set("world", row.world().toString());
+            homeUID.set("name", row.name());
+            homeUID.set("x", row.x());
+            homeUID.set("y", row.y());
+            homeUID.set("z", row.z());
+            homeUID.set("yaw", row.yaw());
+            homeUID.set("pitch", row.pitch());
+            if (row.armorStand() != null) {
+                homeUID.set("armorStand", row.armorStand().toString());
+            }
+        }
+        for (Map.Entry<UUID, Integer> e : purchases.entrySet()) {
+            config.set("players." + e.getKey() + ".purchased", e.getValue());
+        }
+        config.save(file);
+    }
+}
@@ -0,0 +1,82 @@
+package com.spillhuset.furious.db;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Locks stored in locks.yml under locks.&lt;world&gt;.&lt;x,y,z&gt; = owner. The file is read once in
+ * {@link #init()} and kept in memory; changed blocks are patched into it and the whole file is saved.
+ */
+public class YamlLocksStore implements LocksStore {
+    private final File file;
+    private YamlConfiguration config;
+
+    public YamlLocksStore(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void init() throws Exception {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        if (!file.exists()) file.createNewFile();
+        config = YamlConfiguration.loadConfiguration(file);
+    }
+
+    @Override
+    public synchronized Map<UUID, Map<String, UUID>> loadAll() {
+        Map<UUID, Map<String, UUID>> locks = new HashMap<>();
+        ConfigurationSection root = config == null ? null : config.getConfigurationSection("locks");
+        if (root == null) return locks;
+        for (String worldKey : root.getKeys(false)) {
+            try {
+                UUID worldId = UUID.fromString(worldKey);
+                ConfigurationSection worldSec = root.getConfigurationSection(worldKey);
+                if (worldSec == null) continue;
+                Map<String, UUID> map = new HashMap<>();
+                for (String coord : worldSec.getKeys(false)) {
+                    try {
+                        String ownerStr = worldSec.getString(coord);
+                        if (ownerStr == null) continue;
+                        map.put(coord, UUID.fromString(ownerStr));
+                    } catch (IllegalArgumentException ignored) {}
+                }
+                locks.put(worldId, map);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return locks;
+    }
+
+    @Override
+    public synchronized void saveAll(Map<UUID, Map<String, UUID>> locks) throws Exception {
+        YamlConfiguration out = new YamlConfiguration();
+        ConfigurationSection root = out.createSection("locks");
+        for (Map.Entry<UUID, Map<String, UUID>> e : locks.entrySet()) {
+            ConfigurationSection ws = root.createSection(e.getKey().toString());
+            for (Map.Entry<String, UUID> le : e.getValue().entrySet()) {
+                ws.set(le.getKey(), le.getValue().toString());
+            }
+        }
+        out.save(file);
+        config = out;
+    }
+
+    @Override
+    public synchronized void applyChanges(Collection<LockRow> rows) throws Exception {
+        if (config == null || rows.isEmpty()) return;
+        for (LockRow row : rows) {
+            String world = "locks." + row.world();
+            config.set(world + "." + row.pos(), row.owner() == null ? null : row.owner().toString());
+            ConfigurationSection ws = config.getConfigurationSection(world);
+            if (ws != null && ws.getKeys(false).isEmpty()) config.set(world, null);
+        }
+        config.save(file);
+    }
+}
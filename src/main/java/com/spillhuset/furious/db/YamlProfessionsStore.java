@@ -0,0 +1,69 @@
+package com.spillhuset.furious.db;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Professions stored in professions.yml under players.&lt;uuid&gt;. The file is read once in
+ * {@link #init()} and kept in memory; changed players are patched into it and the whole file is saved.
+ */
+public class YamlProfessionsStore implements ProfessionsStore {
+    private final File file;
+    private FileConfiguration config;
+
+    public YamlProfessionsStore(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void init() throws Exception {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        if (!file.exists()) file.createNewFile();
+        config = YamlConfiguration.loadConfiguration(file);
+    }
+
+    @Override
+    public synchronized void forEachPlayer(BiConsumer<UUID, PlayerRow> consumer) {
+        ConfigurationSection players = config == null ? null : config.getConfigurationSection("players");
+        if (players == null) return;
+        for (String key : players.getKeys(false)) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(key);
+            } catch (IllegalArgumentException ignored) {
+                continue;
+            }
+            Map<String, Integer> points = new HashMap<>();
+            ConfigurationSection pts = players.getConfigurationSection(key + ".points");
+            if (pts != null) {
+                for (String prof : pts.getKeys(false)) points.put(prof, pts.getInt(prof, 0));
+            }
+            consumer.accept(uuid, new PlayerRow(players.getString(key + ".primary"), players.getString(key + ".secondary"), points));
+        }
+    }
+
+    @Override
+    public synchronized void applyChanges(Map<UUID, PlayerRow> rows) throws Exception {
+        if (config == null || rows.isEmpty()) return;
+        for (Map.Entry<UUID, PlayerRow> e : rows.entrySet()) {
+            String base = "players." + e.getKey();
+            PlayerRow row = e.getValue();
+            config.set(base + ".primary", row.primary());
+            config.set(base + ".secondary", row.secondary());
+            if (row.points() != null) {
+                for (Map.Entry<String, Integer> pe : row.points().entrySet()) {
+                    config.set(base + ".points." + pe.getKey(), pe.getValue());
+                }
+            }
+        }
+        config.save(file);
+    }
+}
@@ -0,0 +1,62 @@
+package com.spillhuset.furious.db;
+
+import com.spillhuset.furious.utils.BalanceLedger;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Balance snapshot stored in accounts.yml: one balance per player UUID, plus the journal segment
+ * the snapshot covers up to. Saved through a temporary file and an atomic rename.
+ */
+public class YamlWalletStore implements WalletStore {
+    private static final String SEGMENT_KEY = "journal-segment";
+
+    private final File file;
+    private final Logger logger;
+
+    public YamlWalletStore(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    @Override
+    public synchronized void init() throws Exception {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        if (!file.exists()) file.createNewFile();
+    }
+
+    @Override
+    public synchronized Snapshot load() {
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        Map<UUID, Long> cents = new HashMap<>();
+        for (String key : config.getKeys(false)) {
+            if (SEGMENT_KEY.equals(key)) continue;
+            try {
+                cents.put(UUID.fromString(key), BalanceLedger.toCents(config.getDouble(key)));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Failed loading balance for UUID " + key + ": " + e.getMessage());
+            }
+        }
+        return new Snapshot(cents, config.getLong(SEGMENT_KEY, 0L));
+    }
+
+    @Override
+    public synchronized void save(Snapshot snapshot) throws Exception {
+        YamlConfiguration out = new YamlConfiguration();
+        for (Map.Entry<UUID, Long> e : snapshot.cents().entrySet()) {
+            out.set(e.getKey().toString(), BalanceLedger.fromCents(e.getValue()));
+        }
+        out.set(SEGMENT_KEY, snapshot.segment());
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        out.save(tmp);
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -2,9 +2,11 @@ package com.spillhuset.furious.listeners;
 
 import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.services.Checklist.BiomesService;
+import com.spillhuset.furious.services.Checklist.PaidMarkerRegistry;
 import com.spillhuset.furious.utils.Components;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Location;
 import org.bukkit.Registry;
 import org.bukkit.block.Biome;
 import org.bukkit.entity.Player;
@@ -12,6 +14,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.util.Locale;
 import java.util.UUID;
@@ -26,18 +29,41 @@ public class BiomeTrackListener implements Listener {
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
         Player p = event.getPlayer();
-        tryMark(p);
+        if (plugin.biomesService == null) return;
+        try {
+            Location loc = p.getLocation();
+            plugin.biomesService.forgetSample(p.getUniqueId());
+            plugin.biomesService.enterQuart(p.getUniqueId(), p.getWorld().getUID(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+            Biome biome = p.getWorld().getBiome(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+            plugin.biomesService.biomeChanged(p.getUniqueId(), biome);
+            // Full check on join catches up milestones that were not paid yet
+            tryMark(p, biome, true);
+        } catch (Throwable ignored) {}
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        if (plugin.biomesService != null) plugin.biomesService.forgetSample(event.getPlayer().getUniqueId());
     }
 
     @EventHandler
     public void onMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
         // Only act when the player changes block to reduce spam
-        if (event.getFrom().getBlockX() == event.getTo().getBlockX()
-                && event.getFrom().getBlockY() == event.getTo().getBlockY()
-                && event.getFrom().getBlockZ() == event.getTo().getBlockZ()) {
+        if (from.getBlockX() == to.getBlockX()
+                && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ()) {
             return;
         }
-        tryMark(event.getPlayer());
+        if (plugin.biomesService == null || to.getWorld() == null) return;
+        Player p = event.getPlayer();
+        UUID uid = p.getUniqueId();
+        // Re-sample only after crossing into another quart cell, run rewards only when the biome changed
+        if (!plugin.biomesService.enterQuart(uid, to.getWorld().getUID(), to.getBlockX(), to.getBlockY(), to.getBlockZ())) return;
+        Biome biome = to.getWorld().getBiome(to.getBlockX(), to.getBlockY(), to.getBlockZ());
+        if (!plugin.biomesService.biomeChanged(uid, biome)) return;
+        tryMark(p, biome, false);
     }
 
 
@@ -45,14 +71,17 @@ public class BiomeTrackListener implements Listener {
         try { return plugin.biomesService != null ? plugin.biomesService.getRewardAmount(key, def) : def; } catch (Throwable t) { return def; }
     }
 
-    private void tryMark(Player p) {
+    /**
+     * @param full also re-check year/month firsts and milestones when nothing new was visited
+     */
+    private void tryMark(Player p, Biome biome, boolean full) {
         try {
-            Biome biome = p.getLocation().getBlock().getBiome();
             if (plugin != null && plugin.biomesService != null) {
                 String biomeKey = biome.key().asString();
                 boolean includeGlobal = !p.isOp();
                 BiomesService.VisitResult result = plugin.biomesService.visit(p.getUniqueId(), biomeKey, includeGlobal);
-                String display = biome.key().value().toLowerCase(Locale.ROOT).replace('_', ' ');
+                String display = (result.firstForPlayer() || result.firstForServer())
+                        ? biome.key().value().toLowerCase(Locale.ROOT).replace('_', ' ') : null;
                 // Notify
                 if (result.firstForPlayer()) {
                     Component action = Components.compose(NamedTextColor.YELLOW,
@@ -73,14 +102,16 @@ public class BiomeTrackListener implements Listener {
                     else plugin.getServer().broadcast(msg);
                 }
 
+                // Nothing changed for this player: every reward below was already evaluated
+                if (!full && !result.firstForPlayer() && !result.newYearFirst() && !result.newMonthFirst()) return;
+
                 // Rewards
                 UUID uid = p.getUniqueId();
                 String type = "Biomes";
                 String biomeKeyLc = biomeKey.toLowerCase(java.util.Locale.ROOT);
                 // your-first-<type>
                 if (result.firstForPlayer()) {
-                    String marker = "player-first:" + type + ":" + uid + ":" + biomeKeyLc;
-                    if (plugin.biomesService.markPaidOnce(marker)) {
+                    if (plugin.biomesService.markPaidOnce(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, uid, biomeKeyLc)) {
                         double amt = cfg("your-first-" + type, 10);
                         if (amt > 0 && plugin.walletService != null) {
                             plugin.walletService.addBalance(uid, amt, "your-first-" + type + " " + biomeKeyLc);
@@ -89,8 +120,7 @@ public class BiomeTrackListener implements Listener {
                 }
                 // server-first-per-<type>
                 if (result.firstForServer()) {
-                    String marker = "server-first:" + type + ":" + biomeKeyLc;
-                    if (plugin.biomesService.markPaidOnce(marker)) {
+                    if (plugin.biomesService.markPaidOnce(PaidMarkerRegistry.Kind.SERVER_FIRST, 0, null, biomeKeyLc)) {
                         double amt = cfg("server-first-per-" + type, 1000);
                         if (amt > 0 && plugin.walletService != null) {
                             plugin.walletService.addBalance(uid, amt, "server-first-per-" + type + " " + biomeKeyLc);
@@ -101,8 +131,7 @@ public class BiomeTrackListener implements Listener {
                 UUID yearWinner = plugin.biomesService.getYearFirst(biomeKey);
                 if (yearWinner != null && yearWinner.equals(uid)) {
                     int yr = plugin.biomesService.getCurrentYear();
-                    String marker = "year-first:" + type + ":" + yr + ":" + biomeKeyLc;
-                    if (plugin.biomesService.markPaidOnce(marker)) {
+                    if (plugin.biomesService.markPaidOnce(PaidMarkerRegistry.Kind.YEAR_FIRST, yr, null, biomeKeyLc)) {
                         double amt = cfg("this-year-first-per-" + type, 500);
                         if (amt > 0 && plugin.walletService != null) {
                             plugin.walletService.addBalance(uid, amt, "this-year-first-per-" + type + " " + biomeKeyLc);
@@ -113,8 +142,7 @@ public class BiomeTrackListener implements Listener {
                 if (monthWinner != null && monthWinner.equals(uid)) {
                     int yr = plugin.biomesService.getCurrentYear();
                     int mo = plugin.biomesService.getCurrentMonth();
-                    String marker = "month-first:" + type + ":" + yr + "-" + String.format(java.util.Locale.ROOT, "%02d", mo) + ":" + biomeKeyLc;
-                    if (plugin.biomesService.markPaidOnce(marker)) {
+                    if (plugin.biomesService.markPaidOnce(PaidMarkerRegistry.Kind.MONTH_FIRST, PaidMarkerRegistry.monthPeriod(yr, mo), null, biomeKeyLc)) {
                         double amt = cfg("this-month-first-per-" + type, 500);
                         if (amt > 0 && plugin.walletService != null) {
                             plugin.walletService.addBalance(uid, amt, "this-month-first-per-" + type + " " + biomeKeyLc);
@@ -122,36 +150,25 @@ public class BiomeTrackListener implements Listener {
                     }
                 }
 
+                // Milestones only move when a new biome is visited
+                if (!full && !result.firstForPlayer()) return;
+                int total = (plugin.registryCache != null) ? plugin.registryCache.getBiomeCount() : 0;
+                if (total <= 0) return;
+
                 // 50%-<type>
-                java.util.Set<String> visited = plugin.biomesService.getVisited(uid);
-                int total = 0;
-                try { total = (plugin.registryCache != null) ? plugin.registryCache.getBiomeKeysLower().size() : 0; } catch (Throwable ignored) {}
-                if (total > 0) {
-                    if (visited.size() * 2 >= total) {
-                        String marker = "50pct:" + type + ":" + uid;
-                        if (plugin.biomesService.markPaidOnce(marker)) {
-                            double amt = cfg("50%-" + type, 2000);
-                            if (amt > 0 && plugin.walletService != null) {
-                                plugin.walletService.addBalance(uid, amt, "50%-" + type);
-                            }
+                if (result.visited() * 2 >= total) {
+                    if (plugin.biomesService.markPaidOnce(PaidMarkerRegistry.Kind.HALF, 0, uid, null)) {
+                        double amt = cfg("50%-" + type, 2000);
+                        if (amt > 0 && plugin.walletService != null) {
+                            plugin.walletService.addBalance(uid, amt, "50%-" + type);
                         }
                     }
                 }
 
                 // Completion reward
-                if (!plugin.biomesService.isCompletionRewarded(uid)) {
-                    // Build set of all biome keys and check completion
-                    int matched = 0;
-                    try {
-                        java.util.List<String> allKeys = (plugin.registryCache != null) ? plugin.registryCache.getBiomeKeysLower() : java.util.Collections.emptyList();
-                        for (String key : allKeys) {
-                            if (visited.contains(key)) matched++;
-                        }
-                    } catch (Throwable ignored) {}
-                    if (total > 0 && matched >= total) {
-                        double amt = cfg("complete-" + type, 10000);
-                        plugin.biomesService.grantCompletionReward(uid, amt, type);
-                    }
+                if (result.registryVisited() >= total && !plugin.biomesService.isCompletionRewarded(uid)) {
+                    double amt = cfg("complete-" + type, 10000);
+                    plugin.biomesService.grantCompletionReward(uid, amt, type);
                 }
             }
         } catch (Throwable ignored) {}
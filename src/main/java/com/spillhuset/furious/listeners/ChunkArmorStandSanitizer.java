@@ -1,6 +1,8 @@
 package com.spillhuset.furious.listeners;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.managers.ArmorStandManager;
+import com.spillhuset.furious.services.MarkerVisibilityService;
 import org.bukkit.Chunk;
 import org.bukkit.NamespacedKey;
 import org.bukkit.entity.ArmorStand;
@@ -17,14 +19,11 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * On chunk load, cleans up orphan ArmorStands that belong to this plugin
- * and ensures missing ArmorStands for homes/warps/guild homes/shops/banks are recreated.
+ * and ensures missing ArmorStands for the homes/warps/guild homes/shops/banks stored in that chunk are recreated.
  */
 public class ChunkArmorStandSanitizer implements Listener {
     private final Furious plugin;
     private final NamespacedKey managedKey;
-    // Debounce ensureArmorStands to avoid running it for every chunk load
-    private static volatile long lastEnsureMs = 0L;
-    private static volatile boolean ensureScheduled = false;
     // Debounce per-chunk sanitize to avoid repeated scans in a very short window
     private static final Map<String, Long> recentlySanitizedChunks = new ConcurrentHashMap<>();
 
@@ -70,36 +69,19 @@ public class ChunkArmorStandSanitizer implements Listener {
                         plugin.getLogger().info("Checking stand: name=" + stand.getName() + " id=" + stand.getUniqueId());
                 } catch (Throwable ignored) {}
                 UUID id = stand.getUniqueId();
+                // One lookup in the shared owner index; services register every stand they create, adopt or load
                 boolean referenced = false;
                 try {
-                    if (plugin.homesService != null) referenced = plugin.homesService.hasArmorStand(id);
-                } catch (Throwable ignored) {
-                }
-                try {
-                    if (plugin.guildHomesService != null)
-                        referenced = referenced || plugin.guildHomesService.hasArmorStand(id);
-                } catch (Throwable ignored) {
-                }
-                try {
-                    if (plugin.warpsService != null) referenced = referenced || plugin.warpsService.hasArmorStand(id);
-                } catch (Throwable ignored) {
-                }
-                try {
-                    if (plugin.shopsService != null) referenced = referenced || plugin.shopsService.hasArmorStand(id);
-                } catch (Throwable ignored) {
-                }
-                try {
-                    if (plugin.banksService != null) referenced = referenced || plugin.banksService.hasArmorStand(id);
-                } catch (Throwable ignored) {
-                }
-                try {
-                    if (plugin.auctionsService != null) referenced = referenced || plugin.auctionsService.hasArmorStand(id);
-                } catch (Throwable ignored) {
-                }
-                try {
-                    if (plugin.tombstoneService != null) referenced = referenced || plugin.tombstoneService.hasArmorStand(id);
+                    ArmorStandManager.Owner owner = plugin.armorStandManager != null ? plugin.armorStandManager.getOwner(id) : null;
+                    referenced = owner != null;
+                    // Markers are ops-only; this also covers stands of objects that are not resident (lazy homes)
+                    if (owner != null && owner.kind() != ArmorStandManager.OwnerKind.TOMBSTONE && plugin.markerVisibilityService != null) {
+                        plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
+                    }
                 } catch (Throwable ignored) {
                 }
+                // Only unregistered stands get here, so asking every service stays cheap
+                if (!referenced) referenced = isReferencedByServices(id);
 
                 if (!referenced) {
                     // Try to adopt this stand into a matching object before removing
@@ -126,27 +108,46 @@ public class ChunkArmorStandSanitizer implements Listener {
         } catch (Throwable ignored) {
         }
 
-        // After cleanup, schedule a debounced ensure to recreate any missing stands (run at most once per window)
-        long now = System.currentTimeMillis();
-        final long DEBOUNCE_MS = 2000L; // 2 seconds
-        if (!ensureScheduled && (now - lastEnsureMs) >= DEBOUNCE_MS) {
-            ensureScheduled = true;
-            lastEnsureMs = now;
-            try {
-                plugin.getServer().getScheduler().runTask(plugin, () -> {
-                    try {
-                        if (plugin.armorStandManager != null) plugin.armorStandManager.ensureArmorStands();
-                    } catch (Throwable ignored) {
-                    } finally {
-                        ensureScheduled = false;
-                    }
-                });
-            } catch (Throwable ignored) {
-                ensureScheduled = false;
-            }
+        // After cleanup, recreate missing markers of this chunk only; the rest is left to their own chunk loads
+        try {
+            if (plugin.armorStandManager != null) plugin.armorStandManager.ensureArmorStandsInChunk(chunk);
+        } catch (Throwable ignored) {
         }
     }
 
+    // Fallback for stands missing from the owner index (e.g. registration failed); asks each service directly
+    private boolean isReferencedByServices(UUID id) {
+        try {
+            if (plugin.homesService != null && plugin.homesService.hasArmorStand(id)) return true;
+        } catch (Throwable ignored) {
+        }
+        try {
+            if (plugin.guildHomesService != null && plugin.guildHomesService.hasArmorStand(id)) return true;
+        } catch (Throwable ignored) {
+        }
+        try {
+            if (plugin.warpsService != null && plugin.warpsService.hasArmorStand(id)) return true;
+        } catch (Throwable ignored) {
+        }
+        try {
+            if (plugin.shopsService != null && plugin.shopsService.hasArmorStand(id)) return true;
+        } catch (Throwable ignored) {
+        }
+        try {
+            if (plugin.banksService != null && plugin.banksService.hasArmorStand(id)) return true;
+        } catch (Throwable ignored) {
+        }
+        try {
+            if (plugin.auctionsService != null && plugin.auctionsService.hasArmorStand(id)) return true;
+        } catch (Throwable ignored) {
+        }
+        try {
+            if (plugin.tombstoneService != null && plugin.tombstoneService.hasArmorStand(id)) return true;
+        } catch (Throwable ignored) {
+        }
+        return false;
+    }
+
     private boolean isManagedStand(ArmorStand stand) {
         // Prefer persistent data tag set by ArmorStandManager.create()
         try {
@@ -4,9 +4,9 @@ import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.utils.Bank;
 import com.spillhuset.furious.utils.Guild;
 import com.spillhuset.furious.utils.Shop;
+import com.spillhuset.furious.utils.SubclaimIndex;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.title.Title;
-import org.bukkit.Chunk;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -31,9 +31,11 @@ public class ChunkChangeListener implements Listener {
     public void onMove(PlayerMoveEvent event) {
         if (event.getFrom().getWorld() == null || event.getTo().getWorld() == null) return;
 
-        Chunk fromChunk = event.getFrom().getChunk();
-        Chunk toChunk = event.getTo().getChunk();
-        if (fromChunk.getX() == toChunk.getX() && fromChunk.getZ() == toChunk.getZ() &&
+        int fromX = event.getFrom().getBlockX() >> 4;
+        int fromZ = event.getFrom().getBlockZ() >> 4;
+        int toX = event.getTo().getBlockX() >> 4;
+        int toZ = event.getTo().getBlockZ() >> 4;
+        if (fromX == toX && fromZ == toZ &&
                 event.getFrom().getWorld().equals(event.getTo().getWorld())) {
             return; // same chunk
         }
@@ -44,35 +46,19 @@ public class ChunkChangeListener implements Listener {
         try {
             // Title: Guild that owns the chunk
             UUID worldId = event.getTo().getWorld().getUID();
-            int cx = toChunk.getX();
-            int cz = toChunk.getZ();
-            UUID ownerGid = plugin.guildService != null ? plugin.guildService.getClaimOwner(worldId, cx, cz) : null;
+            UUID ownerGid = plugin.guildService != null ? plugin.guildService.getClaimOwner(worldId, toX, toZ) : null;
+            // Subclaims (shop, bank, auctions) at the destination, resolved with a single index probe
+            SubclaimIndex.Cell subclaims = plugin.subclaimIndex != null ? plugin.subclaimIndex.get(worldId, toX, toZ) : null;
 
             // If the guild owner of the previous and current chunks is the same, do not update the title
             try {
                 if (plugin.guildService != null) {
                     UUID prevWorldId = event.getFrom().getWorld().getUID();
-                    UUID prevOwnerGid = plugin.guildService.getClaimOwner(prevWorldId, fromChunk.getX(), fromChunk.getZ());
+                    UUID prevOwnerGid = plugin.guildService.getClaimOwner(prevWorldId, fromX, fromZ);
                     boolean sameOwnership = (prevOwnerGid == null && ownerGid == null) || (prevOwnerGid != null && prevOwnerGid.equals(ownerGid));
                     if (sameOwnership) {
                         // However, if there is a subclaim (shop, bank, or auctions) at destination, we will notify
-                        boolean hasSubclaim = false;
-                        try {
-                            if (!hasSubclaim && plugin.shopsService != null) {
-                                hasSubclaim = plugin.shopsService.getShopAt(event.getTo()) != null;
-                            }
-                        } catch (Throwable ignored2) {}
-                        try {
-                            if (!hasSubclaim && plugin.banksService != null) {
-                                hasSubclaim = plugin.banksService.getBankAt(event.getTo()) != null;
-                            }
-                        } catch (Throwable ignored2) {}
-                        try {
-                            if (!hasSubclaim && plugin.auctionsService != null) {
-                                hasSubclaim = plugin.auctionsService.isLocationInAuctions(event.getTo());
-                            }
-                        } catch (Throwable ignored2) {}
-                        if (!hasSubclaim) {
+                        if (subclaims == null) {
                             return; // same ownership, no subclaim -> skip
                         }
                     }
@@ -90,20 +76,16 @@ public class ChunkChangeListener implements Listener {
             String bankName = null;
             String shopName = null;
             boolean inAuctions = false;
-            if (plugin.banksService != null) {
-                Bank bank = plugin.banksService.getBankAt(event.getTo());
+            if (subclaims != null) {
+                Bank bank = subclaims.getBank();
                 if (bank != null) {
                     bankName = bank.getName();
                 }
-            }
-            if (plugin.shopsService != null) {
-                Shop shop = plugin.shopsService.getShopAt(event.getTo());
+                Shop shop = subclaims.getShop();
                 if (shop != null) {
                     shopName = shop.getName();
                 }
-            }
-            if (plugin.auctionsService != null) {
-                try { inAuctions = plugin.auctionsService.isLocationInAuctions(event.getTo()); } catch (Throwable ignored2) {}
+                inAuctions = subclaims.isAuctions();
             }
             // Build subtitle combining any present subclaims
             StringBuilder sb = new StringBuilder();
@@ -132,45 +114,7 @@ public class ChunkChangeListener implements Listener {
             } catch (Throwable ignored) {}*/
         }
 
-        // After crossing into a new chunk, re-apply per-viewer ArmorStand visibility so
-        // non-ops do not see marker ArmorStands that may have appeared with the new chunk.
-        try {
-            if (plugin.shopsService != null) {
-                plugin.shopsService.applyShopArmorStandVisibilityForViewer(player);
-            }
-        } catch (Throwable ignored) {}
-        try {
-            if (plugin.banksService != null) {
-                plugin.banksService.applyBankArmorStandVisibilityForViewer(player);
-            }
-        } catch (Throwable ignored) {}
-        try {
-            if (plugin.auctionsService != null) {
-                plugin.auctionsService.applyAuctionsArmorStandVisibilityForViewer(player);
-            }
-        } catch (Throwable ignored) {}
-        try {
-            if (plugin.homesService != null) {
-                plugin.homesService.applyHomeArmorStandVisibility(player);
-            }
-        } catch (Throwable ignored) {}
-        try {
-            if (plugin.guildHomesService != null) {
-                plugin.guildHomesService.applyGuildHomeArmorStandVisibility(player);
-            }
-        } catch (Throwable ignored) {}
-        // Warps do not expose a helper; mirror PlayerJoinListener logic
-        try {
-            if (plugin.warpsService != null) {
-                for (String name : plugin.warpsService.getWarpNames()) {
-                    com.spillhuset.furious.utils.Warp w = plugin.warpsService.getWarp(name);
-                    if (w == null || w.getArmorStandUuid() == null) continue;
-                    org.bukkit.entity.Entity ent = plugin.getServer().getEntity(w.getArmorStandUuid());
-                    if (ent instanceof org.bukkit.entity.ArmorStand stand) {
-                        if (player.isOp()) player.showEntity(plugin, stand); else player.hideEntity(plugin, stand);
-                    }
-                }
-            }
-        } catch (Throwable ignored) { }
+        // Marker ArmorStand visibility is per viewer for the whole session and is applied when the markers'
+        // chunks load (MarkerVisibilityService), so crossing chunks needs no re-application.
     }
 }
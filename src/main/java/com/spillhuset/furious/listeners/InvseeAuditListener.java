@@ -80,7 +80,7 @@ public class InvseeAuditListener implements Listener {
                 itemToString(cursor),
                 target.getName());
         logger.info(msg);
-        try { AuditLog.logResponse(viewer, msg); } catch (Throwable ignored) {}
+        try { AuditLog.logInvsee(viewer, target, msg); } catch (Throwable ignored) {}
     }
 
     @EventHandler
@@ -107,6 +107,6 @@ public class InvseeAuditListener implements Listener {
                 newItems.size(),
                 target.getName());
         logger.info(msg);
-        try { AuditLog.logResponse(viewer, msg); } catch (Throwable ignored) {}
+        try { AuditLog.logInvsee(viewer, target, msg); } catch (Throwable ignored) {}
     }
 }
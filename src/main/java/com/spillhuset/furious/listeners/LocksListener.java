@@ -99,8 +99,8 @@ public class LocksListener implements Listener {
                 }
                 boolean ok = plugin.locksService.lockBlock(player.getUniqueId(), block);
                 if (ok) {
+                    // Persisted by the next batched flush
                     consumeOne(player);
-                    plugin.locksService.save();
                     Components.sendSuccessMessage(player, "Locked.");
                 } else {
                     Components.sendErrorMessage(player, "Could not lock this block.");
@@ -110,7 +110,6 @@ public class LocksListener implements Listener {
                 boolean ok = plugin.locksService.unlockBlock(player.getUniqueId(), player.isOp(), block);
                 if (ok) {
                     consumeOne(player);
-                    plugin.locksService.save();
                     Components.sendSuccessMessage(player, "Unlocked.");
                 } else {
                     Components.sendErrorMessage(player, "You are not the owner, or it isn't locked.");
@@ -157,10 +156,7 @@ public class LocksListener implements Listener {
 
         // If the block had a lock and the break is allowed to proceed, remove the lock for the whole related group
         if (owner != null) {
-            boolean ok = plugin.locksService.unlockBlock(player.getUniqueId(), player.isOp(), block);
-            if (ok) {
-                plugin.locksService.save();
-            }
+            plugin.locksService.unlockBlock(player.getUniqueId(), player.isOp(), block);
         }
     }
 
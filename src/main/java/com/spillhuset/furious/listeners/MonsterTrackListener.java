@@ -2,6 +2,7 @@ package com.spillhuset.furious.listeners;
 
 import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.services.Checklist.MonstersService;
+import com.spillhuset.furious.services.Checklist.PaidMarkerRegistry;
 import com.spillhuset.furious.utils.Components;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -65,8 +66,7 @@ public class MonsterTrackListener implements Listener {
             String keyLc = key.toLowerCase(java.util.Locale.ROOT);
             // your-first-Monsters
             if (res.firstForPlayer()) {
-                String marker = "player-first:" + typeName + ":" + uid + ":" + keyLc;
-                if (plugin.monstersService.markPaidOnce(marker)) {
+                if (plugin.monstersService.markPaidOnce(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, uid, keyLc)) {
                     double amt = cfg("your-first-" + typeName, 10);
                     if (amt > 0 && plugin.walletService != null) {
                         plugin.walletService.addBalance(uid, amt, "your-first-" + typeName + " " + keyLc);
@@ -75,8 +75,7 @@ public class MonsterTrackListener implements Listener {
             }
             // server-first-per-Monsters
             if (res.firstForServer()) {
-                String marker = "server-first:" + typeName + ":" + keyLc;
-                if (plugin.monstersService.markPaidOnce(marker)) {
+                if (plugin.monstersService.markPaidOnce(PaidMarkerRegistry.Kind.SERVER_FIRST, 0, null, keyLc)) {
                     double amt = cfg("server-first-per-" + typeName, 1000);
                     if (amt > 0 && plugin.walletService != null) {
                         plugin.walletService.addBalance(uid, amt, "server-first-per-" + typeName + " " + keyLc);
@@ -87,8 +86,7 @@ public class MonsterTrackListener implements Listener {
             UUID yearWinner = plugin.monstersService.getYearFirst(key);
             if (yearWinner != null && yearWinner.equals(uid)) {
                 int yr = plugin.monstersService.getCurrentYear();
-                String marker = "year-first:" + typeName + ":" + yr + ":" + keyLc;
-                if (plugin.monstersService.markPaidOnce(marker)) {
+                if (plugin.monstersService.markPaidOnce(PaidMarkerRegistry.Kind.YEAR_FIRST, yr, null, keyLc)) {
                     double amt = cfg("this-year-first-per-" + typeName, 500);
                     if (amt > 0 && plugin.walletService != null) {
                         plugin.walletService.addBalance(uid, amt, "this-year-first-per-" + typeName + " " + keyLc);
@@ -99,8 +97,7 @@ public class MonsterTrackListener implements Listener {
             if (monthWinner != null && monthWinner.equals(uid)) {
                 int yr = plugin.monstersService.getCurrentYear();
                 int mo = plugin.monstersService.getCurrentMonth();
-                String marker = "month-first:" + typeName + ":" + yr + "-" + String.format(java.util.Locale.ROOT, "%02d", mo) + ":" + keyLc;
-                if (plugin.monstersService.markPaidOnce(marker)) {
+                if (plugin.monstersService.markPaidOnce(PaidMarkerRegistry.Kind.MONTH_FIRST, PaidMarkerRegistry.monthPeriod(yr, mo), null, keyLc)) {
                     double amt = cfg("this-month-first-per-" + typeName, 500);
                     if (amt > 0 && plugin.walletService != null) {
                         plugin.walletService.addBalance(uid, amt, "this-month-first-per-" + typeName + " " + keyLc);
@@ -121,8 +118,7 @@ public class MonsterTrackListener implements Listener {
                 // 50%
                 int total = allKeys.size();
                 if (removed.size() * 2 >= total) {
-                    String marker = "50pct:" + typeName + ":" + uid;
-                    if (plugin.monstersService.markPaidOnce(marker)) {
+                    if (plugin.monstersService.markPaidOnce(PaidMarkerRegistry.Kind.HALF, 0, uid, null)) {
                         double amt = cfg("50%-" + typeName, 2000);
                         if (amt > 0 && plugin.walletService != null) {
                             plugin.walletService.addBalance(uid, amt, "50%-" + typeName);
@@ -158,36 +158,7 @@ public class OpVisibilityListener implements Listener {
     private void applyArmorStandVisibilityForViewer(Player viewer) {
         if (viewer == null) return;
         try {
-            if (plugin.shopsService != null) {
-                plugin.shopsService.applyShopArmorStandVisibilityForViewer(viewer);
-            }
-        } catch (Throwable ignored) {}
-        try {
-            if (plugin.banksService != null) {
-                plugin.banksService.applyBankArmorStandVisibilityForViewer(viewer);
-            }
-        } catch (Throwable ignored) {}
-        try {
-            if (plugin.homesService != null) {
-                plugin.homesService.applyHomeArmorStandVisibility(viewer);
-            }
-        } catch (Throwable ignored) {}
-        try {
-            if (plugin.guildHomesService != null) {
-                plugin.guildHomesService.applyGuildHomeArmorStandVisibility(viewer);
-            }
-        } catch (Throwable ignored) {}
-        try {
-            if (plugin.warpsService != null) {
-                for (String name : plugin.warpsService.getWarpNames()) {
-                    com.spillhuset.furious.utils.Warp w = plugin.warpsService.getWarp(name);
-                    if (w == null || w.getArmorStandUuid() == null) continue;
-                    org.bukkit.entity.Entity ent = plugin.getServer().getEntity(w.getArmorStandUuid());
-                    if (ent instanceof org.bukkit.entity.ArmorStand stand) {
-                        if (viewer.isOp()) viewer.showEntity(plugin, stand); else viewer.hideEntity(plugin, stand);
-                    }
-                }
-            }
+            if (plugin.markerVisibilityService != null) plugin.markerVisibilityService.refreshViewer(viewer);
         } catch (Throwable ignored) {}
     }
 
@@ -9,6 +9,7 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
@@ -22,9 +23,24 @@ public class PlayerJoinListener implements Listener {
         this.instance = instance.getInstance();
     }
 
+    @EventHandler(priority = org.bukkit.event.EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        // Already off the main thread: load the player's homes before they join
+        try {
+            if (instance.homesService != null) instance.homesService.preload(event.getUniqueId());
+        } catch (Throwable ignored) {}
+    }
+
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
+        try {
+            if (instance.homesService != null) instance.homesService.onQuit(player.getUniqueId());
+        } catch (Throwable ignored) {}
+        try {
+            if (instance.markerVisibilityService != null) instance.markerVisibilityService.onQuit(player.getUniqueId());
+        } catch (Throwable ignored) {}
         if (player.isOp() || player.hasPermission("furious.hidden")) {
             event.quitMessage(null);
         } else {
@@ -41,6 +57,11 @@ public class PlayerJoinListener implements Listener {
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
+        // Keep the name index current (also picks up renames)
+        try {
+            if (instance.playerDirectory != null) instance.playerDirectory.onJoin(player);
+        } catch (Throwable ignored) {
+        }
         if (player.isOp() || player.hasPermission("furious.hidden")) {
             event.joinMessage(null);
         } else {
@@ -132,61 +153,10 @@ public class PlayerJoinListener implements Listener {
         } catch (Throwable ignored) {
         }
 
-        // Ensure warp armor stands are visible only to ops for this joining player
-        try {
-            if (instance.warpsService != null) {
-                for (String name : instance.warpsService.getWarpNames()) {
-                    com.spillhuset.furious.utils.Warp w = instance.warpsService.getWarp(name);
-                    if (w == null || w.getArmorStandUuid() == null) continue;
-                    org.bukkit.entity.Entity ent = instance.getServer().getEntity(w.getArmorStandUuid());
-                    if (ent instanceof org.bukkit.entity.ArmorStand stand) {
-                        if (player.isOp()) {
-                            player.showEntity(instance, stand);
-                        } else {
-                            player.hideEntity(instance, stand);
-                        }
-                    }
-                }
-            }
-        } catch (Throwable ignored) {
-        }
-
-        // Ensure home armor stands are visible only to ops for this joining player
-        try {
-            if (instance.homesService != null) {
-                instance.homesService.applyHomeArmorStandVisibility(player);
-            }
-        } catch (Throwable ignored) {
-        }
-
-        // Ensure guild home armor stands are visible only to ops for this joining player
-        try {
-            if (instance.guildHomesService != null) {
-                instance.guildHomesService.applyGuildHomeArmorStandVisibility(player);
-            }
-        } catch (Throwable ignored) {
-        }
-
-        // Ensure shop armor stands are visible only to ops for this joining player
+        // Show the joining player the marker ArmorStands it may see (ops-only markers are hidden by default)
         try {
-            if (instance.shopsService != null) {
-                instance.shopsService.applyShopArmorStandVisibilityForViewer(player);
-            }
-        } catch (Throwable ignored) {
-        }
-
-        // Ensure bank armor stands are visible only to ops for this joining player
-        try {
-            if (instance.banksService != null) {
-                instance.banksService.applyBankArmorStandVisibilityForViewer(player);
-            }
-        } catch (Throwable ignored) {
-        }
-
-        // Ensure auctions armor stand is visible only to ops for this joining player
-        try {
-            if (instance.auctionsService != null) {
-                instance.auctionsService.applyAuctionsArmorStandVisibilityForViewer(player);
+            if (instance.markerVisibilityService != null) {
+                instance.markerVisibilityService.refreshViewer(player);
             }
         } catch (Throwable ignored) {
         }
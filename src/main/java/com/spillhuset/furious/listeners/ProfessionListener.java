@@ -2,6 +2,7 @@ package com.spillhuset.furious.listeners;
 
 import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.services.ProfessionService;
+import com.spillhuset.furious.services.ProfessionService.Bonus;
 import com.spillhuset.furious.services.ProfessionService.Profession;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -22,10 +23,6 @@ import org.bukkit.inventory.ItemStack;
 
 import java.util.EnumSet;
 import java.util.Locale;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.Set;
 
 public class ProfessionListener implements Listener {
     private final Furious plugin;
@@ -88,7 +85,7 @@ public class ProfessionListener implements Listener {
         int baseMiner = svc().ptsBase(Profession.MINER);
         if (baseMiner > 0) svc().addPoints(p.getUniqueId(), Profession.MINER, baseMiner);
         if (ORES.contains(b.getType())) {
-            int bonus = svc().ptsBonus(Profession.MINER, "ore");
+            int bonus = svc().ptsBonus(Bonus.ORE);
             if (bonus > 0) svc().addPoints(p.getUniqueId(), Profession.MINER, bonus);
             // Vein miner ability: break connected ore vein if permission is present and using a pickaxe
             tryVeinMine(p, b);
@@ -107,12 +104,6 @@ public class ProfessionListener implements Listener {
         }
     }
 
-    private String key(Block b) {
-        org.bukkit.Location l = b.getLocation();
-        java.util.UUID w = l.getWorld() != null ? l.getWorld().getUID() : new java.util.UUID(0L,0L);
-        return w + ":" + l.getBlockX() + ":" + l.getBlockY() + ":" + l.getBlockZ();
-    }
-
     private void tryVeinMine(Player p, Block origin) {
         try {
             if (p == null || origin == null) return;
@@ -121,45 +112,10 @@ public class ProfessionListener implements Listener {
             if (!isPickaxe(tool)) return;
             Material target = origin.getType();
             if (!ORES.contains(target)) return;
+            if (plugin.multiBreakManager == null) return;
 
-            // BFS over 6-directionally adjacent blocks of the same material
-            Deque<Block> queue = new ArrayDeque<>();
-            Set<String> visited = new HashSet<>();
-            java.util.List<Block> toBreak = new java.util.ArrayList<>();
-
-            queue.add(origin);
-            visited.add(key(origin));
-
-            while (!queue.isEmpty() && toBreak.size() < VEIN_MAX_BLOCKS) {
-                Block cur = queue.poll();
-                // Explore neighbors
-                for (int dx = -1; dx <= 1; dx++) {
-                    for (int dy = -1; dy <= 1; dy++) {
-                        for (int dz = -1; dz <= 1; dz++) {
-                            int manhattan = Math.abs(dx) + Math.abs(dy) + Math.abs(dz);
-                            if (manhattan != 1) continue; // 6-neighborhood only
-                            Block nb = cur.getRelative(dx, dy, dz);
-                            if (nb.getType() != target) continue;
-                            String k = key(nb);
-                            if (!visited.add(k)) continue;
-                            if (!nb.equals(origin)) toBreak.add(nb);
-                            if (toBreak.size() >= VEIN_MAX_BLOCKS) break;
-                            queue.add(nb);
-                        }
-                        if (toBreak.size() >= VEIN_MAX_BLOCKS) break;
-                    }
-                    if (toBreak.size() >= VEIN_MAX_BLOCKS) break;
-                }
-            }
-
-            // Break the collected blocks naturally with the player's tool
-            for (Block blk : toBreak) {
-                try {
-                    if (blk.getType() == target) {
-                        blk.breakNaturally(tool);
-                    }
-                } catch (Throwable ignored) {}
-            }
+            // Connected blocks of the same material are broken over the next ticks
+            plugin.multiBreakManager.submit(p.getUniqueId(), origin, tool, mt -> mt == target, VEIN_MAX_BLOCKS);
         } catch (Throwable ignored) {
         }
     }
@@ -184,43 +140,10 @@ public class ProfessionListener implements Listener {
             if (!isAxe(tool)) return;
             Material target = origin.getType();
             if (!LOGS.contains(target)) return;
+            if (plugin.multiBreakManager == null) return;
 
-            Deque<Block> queue = new ArrayDeque<>();
-            Set<String> visited = new HashSet<>();
-            java.util.List<Block> toBreak = new java.util.ArrayList<>();
-
-            queue.add(origin);
-            visited.add(key(origin));
-
-            while (!queue.isEmpty() && toBreak.size() < TREE_MAX_BLOCKS) {
-                Block cur = queue.poll();
-                for (int dx = -1; dx <= 1; dx++) {
-                    for (int dy = -1; dy <= 1; dy++) {
-                        for (int dz = -1; dz <= 1; dz++) {
-                            int manhattan = Math.abs(dx) + Math.abs(dy) + Math.abs(dz);
-                            if (manhattan != 1) continue; // 6-neighborhood only
-                            Block nb = cur.getRelative(dx, dy, dz);
-                            Material mt = nb.getType();
-                            if (!LOGS.contains(mt)) continue;
-                            String k = key(nb);
-                            if (!visited.add(k)) continue;
-                            if (!nb.equals(origin)) toBreak.add(nb);
-                            if (toBreak.size() >= TREE_MAX_BLOCKS) break;
-                            queue.add(nb);
-                        }
-                        if (toBreak.size() >= TREE_MAX_BLOCKS) break;
-                    }
-                    if (toBreak.size() >= TREE_MAX_BLOCKS) break;
-                }
-            }
-
-            for (Block blk : toBreak) {
-                try {
-                    if (LOGS.contains(blk.getType())) {
-                        blk.breakNaturally(tool);
-                    }
-                } catch (Throwable ignored) {}
-            }
+            // Connected logs of any kind are broken over the next ticks
+            plugin.multiBreakManager.submit(p.getUniqueId(), origin, tool, LOGS::contains, TREE_MAX_BLOCKS);
         } catch (Throwable ignored) {
         }
     }
@@ -230,7 +153,7 @@ public class ProfessionListener implements Listener {
     public void onBlockPlace(BlockPlaceEvent e) {
         if (svc() == null) return;
         if (SAPLINGS.contains(e.getBlockPlaced().getType())) {
-            int bonus = svc().ptsBonus(Profession.LUMBERJACK, "plant");
+            int bonus = svc().ptsBonus(Bonus.PLANT);
             if (bonus > 0) svc().addPoints(e.getPlayer().getUniqueId(), Profession.LUMBERJACK, bonus);
         }
         // Farmer: seeding
@@ -260,7 +183,7 @@ public class ProfessionListener implements Listener {
         if (name.endsWith("_hoe")) {
             Material t = e.getClickedBlock().getType();
             if (t == Material.DIRT || t == Material.GRASS_BLOCK || t == Material.DIRT_PATH) {
-                int bonus = svc().ptsBonus(Profession.FARMER, "till");
+                int bonus = svc().ptsBonus(Bonus.TILL);
                 if (bonus > 0) svc().addPoints(e.getPlayer().getUniqueId(), Profession.FARMER, bonus);
             }
         }
@@ -279,7 +202,7 @@ public class ProfessionListener implements Listener {
                 treasure = isTreasure(t);
             }
             if (treasure) {
-                int bonus = svc().ptsBonus(Profession.FISHER, "treasure");
+                int bonus = svc().ptsBonus(Bonus.TREASURE);
                 if (bonus > 0) svc().addPoints(e.getPlayer().getUniqueId(), Profession.FISHER, bonus);
             } else {
                 int base = svc().ptsBase(Profession.FISHER);
@@ -299,7 +222,7 @@ public class ProfessionListener implements Listener {
             // If result is edible meat, grant bonus to nearest player with BUTCHER profession
             Material res = e.getResult() != null ? e.getResult().getType() : Material.AIR;
             if (isCookedMeat(res)) {
-                int bonus = svc().ptsBonus(Profession.BUTCHER, "smoker");
+                int bonus = svc().ptsBonus(Bonus.SMOKER);
                 if (bonus > 0) {
                     org.bukkit.Location loc = e.getBlock().getLocation();
                     org.bukkit.World world = loc.getWorld();
@@ -2,10 +2,9 @@ package com.spillhuset.furious.listeners;
 
 import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.utils.Guild;
-import com.spillhuset.furious.utils.GuildType;
 import com.spillhuset.furious.utils.GuildRole;
+import com.spillhuset.furious.utils.ProtectionContext;
 import io.papermc.paper.event.entity.EntityMoveEvent;
-import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.Material;
@@ -77,89 +76,65 @@ public class ProtectionListener implements Listener {
         return "";
     }
 
-    private boolean isInSafeGuild(Location loc) {
-        if (loc == null || plugin.guildService == null || loc.getWorld() == null) return false;
-        Chunk chunk = loc.getChunk();
-        UUID worldId = loc.getWorld().getUID();
-        UUID owner = plugin.guildService.getClaimOwner(worldId, chunk.getX(), chunk.getZ());
-        if (owner == null) return false;
-        Guild g = plugin.guildService.getGuildById(owner);
-        return g != null && g.getType() == GuildType.SAFE;
+    // Resolves owner and protection flags for a location once; unclaimed regions short-circuit in GuildService,
+    // and chunk coords come from block coords so no chunk is loaded
+    private ProtectionContext contextAt(Location loc) {
+        if (loc == null || plugin.guildService == null) return ProtectionContext.WILDERNESS;
+        return plugin.guildService.getProtectionContext(loc);
     }
 
-    private boolean isInWarGuild(Location loc) {
-        if (loc == null || plugin.guildService == null || loc.getWorld() == null) return false;
-        Chunk chunk = loc.getChunk();
-        UUID worldId = loc.getWorld().getUID();
-        UUID owner = plugin.guildService.getClaimOwner(worldId, chunk.getX(), chunk.getZ());
-        if (owner == null) return false;
-        Guild g = plugin.guildService.getGuildById(owner);
-        return g != null && g.getType() == GuildType.WAR;
+    private boolean isInSafeGuild(Location loc) {
+        return contextAt(loc).isSafe();
     }
 
-    private Guild getOwningGuild(Location loc) {
-        if (loc == null || plugin.guildService == null || loc.getWorld() == null) return null;
-        Chunk chunk = loc.getChunk();
-        UUID worldId = loc.getWorld().getUID();
-        UUID owner = plugin.guildService.getClaimOwner(worldId, chunk.getX(), chunk.getZ());
-        return owner == null ? null : plugin.guildService.getGuildById(owner);
+    private Guild getOwningGuild(ProtectionContext ctx) {
+        if (ctx == null || !ctx.isClaimed() || plugin.guildService == null) return null;
+        return plugin.guildService.getGuildById(ctx.getGuildId());
     }
 
     private boolean isInOwnedGuild(Location loc) {
-        Guild g = getOwningGuild(loc);
-        return g != null && g.getType() == GuildType.OWNED;
+        return contextAt(loc).isOwned();
+    }
+
+    private boolean isSafeOrOwned(ProtectionContext ctx) {
+        return ctx.isSafe() || ctx.isOwned();
+    }
+
+    // Shared build rule for break/place: SAFE/WAR deny non-ops, OWNED allows only the owning guild's MODERATOR/ADMIN
+    private boolean denyBuild(Player player, ProtectionContext ctx) {
+        if (!ctx.isClaimed() || player.isOp()) return false;
+        if (ctx.isSafeOrWar()) {
+            notifyDenied(player, ctx.isSafe() ? MSG_SAFE : MSG_WAR);
+            return true;
+        }
+        if (!ctx.isOwned()) return false;
+        Guild g = getOwningGuild(ctx);
+        if (g == null) return false;
+        GuildRole role = g.getMembers().get(player.getUniqueId());
+        UUID playerGuildId = plugin.guildService.getGuildIdForMember(player.getUniqueId());
+        boolean sameGuild = g.getUuid().equals(playerGuildId);
+        boolean can = sameGuild && (role == GuildRole.MODERATOR || role == GuildRole.ADMIN);
+        if (!can) {
+            notifyDenied(player, sameGuild ? MSG_OWNED_ROLE : (MSG_OWNED_OUTSIDER + ownedBySuffix(g)));
+            return true;
+        }
+        return false;
     }
 
     // --- Build/break protections ---
     @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
-        Block block = event.getBlock();
-        Location loc = block.getLocation();
-        if (isInSafeGuild(loc) || isInWarGuild(loc)) {
-            if (event.getPlayer().isOp()) return; // allow ops
-            event.setCancelled(true);
-            notifyDenied(event.getPlayer(), isInSafeGuild(loc) ? MSG_SAFE : MSG_WAR);
-            return;
-        }
         // OWNED: only MODERATOR or ADMIN of the owning guild may break
-        if (isInOwnedGuild(loc) && !event.getPlayer().isOp()) {
-            Guild g = getOwningGuild(loc);
-            if (g != null) {
-                GuildRole role = g.getMembers().get(event.getPlayer().getUniqueId());
-                UUID playerGuildId = plugin.guildService.getGuildIdForMember(event.getPlayer().getUniqueId());
-                boolean sameGuild = g.getUuid().equals(playerGuildId);
-                boolean can = sameGuild && (role == GuildRole.MODERATOR || role == GuildRole.ADMIN);
-                if (!can) {
-                    event.setCancelled(true);
-                    notifyDenied(event.getPlayer(), sameGuild ? MSG_OWNED_ROLE : (MSG_OWNED_OUTSIDER + ownedBySuffix(g)));
-                }
-            }
+        if (denyBuild(event.getPlayer(), contextAt(event.getBlock().getLocation()))) {
+            event.setCancelled(true);
         }
     }
 
     @EventHandler
     public void onBlockPlace(BlockPlaceEvent event) {
-        Block block = event.getBlockPlaced();
-        Location loc = block.getLocation();
-        if (isInSafeGuild(loc) || isInWarGuild(loc)) {
-            if (event.getPlayer().isOp()) return; // allow ops
-            event.setCancelled(true);
-            notifyDenied(event.getPlayer(), isInSafeGuild(loc) ? MSG_SAFE : MSG_WAR);
-            return;
-        }
         // OWNED: only MODERATOR or ADMIN of the owning guild may place
-        if (isInOwnedGuild(loc) && !event.getPlayer().isOp()) {
-            Guild g = getOwningGuild(loc);
-            if (g != null) {
-                GuildRole role = g.getMembers().get(event.getPlayer().getUniqueId());
-                UUID playerGuildId = plugin.guildService.getGuildIdForMember(event.getPlayer().getUniqueId());
-                boolean sameGuild = g.getUuid().equals(playerGuildId);
-                boolean can = sameGuild && (role == GuildRole.MODERATOR || role == GuildRole.ADMIN);
-                if (!can) {
-                    event.setCancelled(true);
-                    notifyDenied(event.getPlayer(), sameGuild ? MSG_OWNED_ROLE : (MSG_OWNED_OUTSIDER + ownedBySuffix(g)));
-                }
-            }
+        if (denyBuild(event.getPlayer(), contextAt(event.getBlockPlaced().getLocation()))) {
+            event.setCancelled(true);
         }
     }
 
@@ -168,8 +143,8 @@ public class ProtectionListener implements Listener {
     // Fire ignition/spread/burn handling in OWNED claims
     @EventHandler
     public void onBlockIgnite(BlockIgniteEvent event) {
-        Location loc = event.getBlock().getLocation();
-        if (!isInOwnedGuild(loc)) return;
+        ProtectionContext ctx = contextAt(event.getBlock().getLocation());
+        if (!ctx.isOwned()) return;
         BlockIgniteEvent.IgniteCause cause = event.getCause();
         switch (cause) {
             case SPREAD -> {
@@ -191,7 +166,7 @@ public class ProtectionListener implements Listener {
                     return;
                 }
                 if (event.getPlayer().isOp()) return;
-                Guild g = getOwningGuild(loc);
+                Guild g = getOwningGuild(ctx);
                 if (g == null) {
                     event.setCancelled(true);
                     return;
@@ -216,8 +191,10 @@ public class ProtectionListener implements Listener {
     @EventHandler
     public void onBlockSpread(BlockSpreadEvent event) {
         // Cancel fire block spreading into OWNED territory
+        ProtectionContext ctx = contextAt(event.getBlock().getLocation());
+        if (!ctx.isClaimed()) return;
         if (event.getSource().getType() == Material.FIRE) {
-            if (isInOwnedGuild(event.getBlock().getLocation())) {
+            if (ctx.isOwned()) {
                 event.setCancelled(true);
             }
         }
@@ -251,9 +228,10 @@ public class ProtectionListener implements Listener {
             }
         }
         if (targetLoc == null) return;
-        if (!isInOwnedGuild(targetLoc)) return; // only enforce in OWNED
+        ProtectionContext ctx = contextAt(targetLoc);
+        if (!ctx.isOwned()) return; // only enforce in OWNED
         if (event.getPlayer().isOp()) return; // ops bypass
-        Guild g = getOwningGuild(targetLoc);
+        Guild g = getOwningGuild(ctx);
         if (g == null) {
             event.setCancelled(true);
             notifyDenied(event.getPlayer(), MSG_OWNED_OUTSIDER);
@@ -277,36 +255,38 @@ public class ProtectionListener implements Listener {
         Material type = from.getType();
         if (type != Material.WATER && type != Material.LAVA) return; // only water/lava per requirement
         Block to = event.getToBlock();
-        Location toLoc = to.getLocation();
-        Guild destGuild = getOwningGuild(toLoc);
-        if (destGuild == null || destGuild.getType() != GuildType.OWNED) return; // only protect OWNED
-        Guild srcGuild = getOwningGuild(from.getLocation());
+        ProtectionContext dest = contextAt(to.getLocation());
+        if (!dest.isOwned()) return; // only protect OWNED
+        ProtectionContext src = contextAt(from.getLocation());
         // Allow only if the same owning guild; cancel otherwise (includes unclaimed or different owners)
-        if (srcGuild == null || !srcGuild.getUuid().equals(destGuild.getUuid())) {
+        if (!src.isSameGuild(dest)) {
             event.setCancelled(true);
         }
     }
 
     @EventHandler
     public void onCreatureSpawn(CreatureSpawnEvent event) {
-        if (isInSafeGuild(event.getLocation())) {
+        ProtectionContext ctx = contextAt(event.getLocation());
+        if (!ctx.isClaimed()) return;
+        if (ctx.isSafe()) {
             // Block all mob spawning in SAFE territory
             event.setCancelled(true);
             return;
         }
         // In OWNED territory, block only harmful mobs (hostiles)
-        if (isInOwnedGuild(event.getLocation()) && event.getEntity() instanceof Enemy) {
+        if (ctx.isOwned() && event.getEntity() instanceof Enemy) {
             event.setCancelled(true);
         }
     }
 
     @EventHandler
     public void onEntityExplode(EntityExplodeEvent event) {
-        if (isInSafeGuild(event.getLocation())) {
+        ProtectionContext ctx = contextAt(event.getLocation());
+        if (ctx.isSafe()) {
             // Cancel explosion effects entirely in SAFE
             event.setCancelled(true);
             event.blockList().clear();
-        } else if (isInWarGuild(event.getLocation())) {
+        } else if (ctx.isWar()) {
             // In WAR, prevent terrain damage but allow explosion entity effects
             event.blockList().clear();
         }
@@ -314,10 +294,11 @@ public class ProtectionListener implements Listener {
 
     @EventHandler
     public void onBlockExplode(BlockExplodeEvent event) {
-        if (isInSafeGuild(event.getBlock().getLocation())) {
+        ProtectionContext ctx = contextAt(event.getBlock().getLocation());
+        if (ctx.isSafe()) {
             event.setCancelled(true);
             event.blockList().clear();
-        } else if (isInWarGuild(event.getBlock().getLocation())) {
+        } else if (ctx.isWar()) {
             // In WAR, prevent terrain damage but allow explosion entity effects
             event.blockList().clear();
         }
@@ -325,7 +306,7 @@ public class ProtectionListener implements Listener {
 
     @EventHandler
     public void onEntityChangeBlock(EntityChangeBlockEvent event) {
-        if (isInSafeGuild(event.getBlock().getLocation()) || isInWarGuild(event.getBlock().getLocation())) {
+        if (contextAt(event.getBlock().getLocation()).isSafeOrWar()) {
             event.setCancelled(true);
         }
     }
@@ -346,7 +327,7 @@ public class ProtectionListener implements Listener {
         if (!(ent instanceof Enemy)) return;
         Location to = event.getTo();
         if (to == null) return;
-        if (isInSafeGuild(to) || isInOwnedGuild(to)) {
+        if (isSafeOrOwned(contextAt(to))) {
             try {
                 ent.remove();
             } catch (Throwable ignored) {
@@ -534,10 +515,10 @@ public class ProtectionListener implements Listener {
         if (event.getHand() != EquipmentSlot.HAND) return; // only main hand relevance here
         // Only handle clicks on blocks
         if (event.getClickedBlock() == null) return;
-        Location loc = event.getClickedBlock().getLocation();
-        if (!isInOwnedGuild(loc)) return;
+        ProtectionContext ctx = contextAt(event.getClickedBlock().getLocation());
+        if (!ctx.isOwned()) return;
         if (event.getPlayer().isOp()) return; // allow ops bypass
-        Guild g = getOwningGuild(loc);
+        Guild g = getOwningGuild(ctx);
         if (g == null) return;
         UUID playerId = event.getPlayer().getUniqueId();
         UUID playerGuildId = plugin.guildService.getGuildIdForMember(playerId);
@@ -559,10 +540,10 @@ public class ProtectionListener implements Listener {
     @EventHandler
     public void onInteractEntityOwned(PlayerInteractAtEntityEvent event) {
         Entity entity = event.getRightClicked();
-        Location loc = entity.getLocation();
-        if (!isInOwnedGuild(loc)) return;
+        ProtectionContext ctx = contextAt(entity.getLocation());
+        if (!ctx.isOwned()) return;
         if (event.getPlayer().isOp()) return;
-        Guild g = getOwningGuild(loc);
+        Guild g = getOwningGuild(ctx);
         if (g == null) return;
         // Only consider entity containers
         boolean isEntityContainer = (entity instanceof org.bukkit.entity.minecart.StorageMinecart)
@@ -582,7 +563,7 @@ public class ProtectionListener implements Listener {
         if(!(event.getEntity() instanceof LivingEntity le))  return;
         if (!(le instanceof Enemy)) return;
         Entity entity = event.getEntity();
-        if (isInSafeGuild(entity.getLocation()) || isInOwnedGuild(entity.getLocation())) {
+        if (isSafeOrOwned(contextAt(entity.getLocation()))) {
             le.remove();
             event.setCancelled(true);
         }
@@ -596,8 +577,7 @@ public class ProtectionListener implements Listener {
         Entity target = event.getTarget();
         if (!(target instanceof Player)) return;
         // If attacker or target is in SAFE or OWNED, remove the hostile mob and cancel targeting
-        if (isInSafeGuild(le.getLocation()) || isInSafeGuild(target.getLocation())
-                || isInOwnedGuild(le.getLocation()) || isInOwnedGuild(target.getLocation())) {
+        if (isSafeOrOwned(contextAt(le.getLocation())) || isSafeOrOwned(contextAt(target.getLocation()))) {
             try {
                 le.remove();
             } catch (Throwable ignored) {
@@ -612,18 +592,18 @@ public class ProtectionListener implements Listener {
         Location to = event.getTo();
         if (to == null) return;
         // Only act when changing chunks in the same world to reduce checks
-        Chunk fromChunk = event.getFrom().getChunk();
-        Chunk toChunk = to.getChunk();
-        World fromWorld = event.getFrom().getWorld();
+        Location from = event.getFrom();
+        World fromWorld = from.getWorld();
         World toWorld = to.getWorld();
         if (fromWorld != null && fromWorld.equals(toWorld)
-                && fromChunk.getX() == toChunk.getX()
-                && fromChunk.getZ() == toChunk.getZ()) {
+                && (from.getBlockX() >> 4) == (to.getBlockX() >> 4)
+                && (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)) {
             return;
         }
         // If player is now in SAFE or OWNED, purge nearby hostile mobs that are inside same protected territory
-        boolean inSafe = isInSafeGuild(to);
-        boolean inOwned = !inSafe && isInOwnedGuild(to);
+        ProtectionContext ctx = contextAt(to);
+        boolean inSafe = ctx.isSafe();
+        boolean inOwned = ctx.isOwned();
         if (!inSafe && !inOwned) return;
         if (toWorld == null) return;
         // Cooldown per player to reduce frequent scans on busy servers
@@ -637,7 +617,8 @@ public class ProtectionListener implements Listener {
         // Reasonable radius to cover adjacent entries while limiting cost
         for (Entity e : toWorld.getNearbyEntities(to, 32, 16, 32)) {
             if (e instanceof LivingEntity le && e instanceof Enemy) {
-                if ((inSafe && isInSafeGuild(le.getLocation())) || (inOwned && isInOwnedGuild(le.getLocation()))) {
+                ProtectionContext mobCtx = contextAt(le.getLocation());
+                if ((inSafe && mobCtx.isSafe()) || (inOwned && mobCtx.isOwned())) {
                     try {
                         le.remove();
                     } catch (Throwable ignored) {
@@ -1,6 +1,7 @@
 package com.spillhuset.furious.listeners;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.Checklist.PaidMarkerRegistry;
 import com.spillhuset.furious.services.Checklist.TamingService;
 import com.spillhuset.furious.utils.Components;
 import net.kyori.adventure.text.Component;
@@ -63,8 +64,7 @@ public class TamingTrackListener implements Listener {
             String keyLc = key.toLowerCase(java.util.Locale.ROOT);
             // your-first-Taming
             if (res.firstForPlayer()) {
-                String marker = "player-first:" + typeName + ":" + uid + ":" + keyLc;
-                if (plugin.tamingService.markPaidOnce(marker)) {
+                if (plugin.tamingService.markPaidOnce(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, uid, keyLc)) {
                     double amt = cfg("your-first-" + typeName, 10);
                     if (amt > 0 && plugin.walletService != null) {
                         plugin.walletService.addBalance(uid, amt, "your-first-" + typeName + " " + keyLc);
@@ -73,8 +73,7 @@ public class TamingTrackListener implements Listener {
             }
             // server-first-per-Taming
             if (res.firstForServer()) {
-                String marker = "server-first:" + typeName + ":" + keyLc;
-                if (plugin.tamingService.markPaidOnce(marker)) {
+                if (plugin.tamingService.markPaidOnce(PaidMarkerRegistry.Kind.SERVER_FIRST, 0, null, keyLc)) {
                     double amt = cfg("server-first-per-" + typeName, 1000);
                     if (amt > 0 && plugin.walletService != null) {
                         plugin.walletService.addBalance(uid, amt, "server-first-per-" + typeName + " " + keyLc);
@@ -85,8 +84,7 @@ public class TamingTrackListener implements Listener {
             UUID yearWinner = plugin.tamingService.getYearFirst(key);
             if (yearWinner != null && yearWinner.equals(uid)) {
                 int yr = plugin.tamingService.getCurrentYear();
-                String marker = "year-first:" + typeName + ":" + yr + ":" + keyLc;
-                if (plugin.tamingService.markPaidOnce(marker)) {
+                if (plugin.tamingService.markPaidOnce(PaidMarkerRegistry.Kind.YEAR_FIRST, yr, null, keyLc)) {
                     double amt = cfg("this-year-first-per-" + typeName, 500);
                     if (amt > 0 && plugin.walletService != null) {
                         plugin.walletService.addBalance(uid, amt, "this-year-first-per-" + typeName + " " + keyLc);
@@ -97,8 +95,7 @@ public class TamingTrackListener implements Listener {
             if (monthWinner != null && monthWinner.equals(uid)) {
                 int yr = plugin.tamingService.getCurrentYear();
                 int mo = plugin.tamingService.getCurrentMonth();
-                String marker = "month-first:" + typeName + ":" + yr + "-" + String.format(java.util.Locale.ROOT, "%02d", mo) + ":" + keyLc;
-                if (plugin.tamingService.markPaidOnce(marker)) {
+                if (plugin.tamingService.markPaidOnce(PaidMarkerRegistry.Kind.MONTH_FIRST, PaidMarkerRegistry.monthPeriod(yr, mo), null, keyLc)) {
                     double amt = cfg("this-month-first-per-" + typeName, 500);
                     if (amt > 0 && plugin.walletService != null) {
                         plugin.walletService.addBalance(uid, amt, "this-month-first-per-" + typeName + " " + keyLc);
@@ -117,8 +114,7 @@ public class TamingTrackListener implements Listener {
             if (!allKeys.isEmpty()) {
                 int total = allKeys.size();
                 if (tamed.size() * 2 >= total) {
-                    String marker = "50pct:" + typeName + ":" + uid;
-                    if (plugin.tamingService.markPaidOnce(marker)) {
+                    if (plugin.tamingService.markPaidOnce(PaidMarkerRegistry.Kind.HALF, 0, uid, null)) {
                         double amt = cfg("50%-" + typeName, 2000);
                         if (amt > 0 && plugin.walletService != null) {
                             plugin.walletService.addBalance(uid, amt, "50%-" + typeName);
@@ -1,9 +1,14 @@
 package com.spillhuset.furious.managers;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.utils.SweepQueue;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.entity.ArmorStand;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -11,13 +16,34 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Central manager for ArmorStand lifecycle. Services register a cleanup callback per ArmorStand UUID,
  * and this manager invokes it on ArmorStand death, removing the need for service-specific listeners.
+ * Every registration also records which object owns the stand, so "is this stand ours and whose is it"
+ * is a single lookup instead of a scan over every service.
+ * <p>
+ * Missing markers are recreated per chunk as chunks load ({@link #ensureArmorStandsInChunk(Chunk)}).
+ * A slow background sweep checks every marker a few per tick as a safety net.
  */
 public class ArmorStandManager {
+    /** Kind of object a marker ArmorStand belongs to. */
+    public enum OwnerKind {
+        HOME, GUILD_HOME, WARP, SHOP, BANK, AUCTION, TOMBSTONE
+    }
+
+    /** Owner of a registered ArmorStand; {@code id} is the owning service's key (uuid, warp name, ...). */
+    public record Owner(OwnerKind kind, String id) {}
+
     private final Furious plugin;
     private final Map<UUID, Runnable> deathHandlers = new ConcurrentHashMap<>();
+    private final Map<UUID, Owner> owners = new ConcurrentHashMap<>();
+
+    // Background sweep: one queued check per marker, drained a few per tick
+    private final SweepQueue sweepQueue;
+    private BukkitTask sweepTimer;
+    private BukkitTask sweepTask;
+    private long sweepsCompleted = 0L;
 
     public ArmorStandManager(Furious plugin) {
         this.plugin = plugin.getInstance();
+        sweepQueue = new SweepQueue(this.plugin.getConfig().getInt("armorstands.sweep-per-tick", 4));
     }
 
     /**
@@ -33,6 +59,84 @@ public class ArmorStandManager {
         try { if (plugin.auctionsService != null) plugin.auctionsService.ensureArmorStands(); } catch (Throwable ignored) {}
     }
 
+    /**
+     * Ensure only the markers stored in this chunk exist and are registered. Called after the chunk loads.
+     */
+    public void ensureArmorStandsInChunk(Chunk chunk) {
+        if (chunk == null) return;
+        UUID worldId = chunk.getWorld().getUID();
+        int cx = chunk.getX(), cz = chunk.getZ();
+        try { if (plugin.homesService != null) plugin.homesService.ensureArmorStandsInChunk(worldId, cx, cz); } catch (Throwable ignored) {}
+        try { if (plugin.guildHomesService != null) plugin.guildHomesService.ensureArmorStandsInChunk(worldId, cx, cz); } catch (Throwable ignored) {}
+        try { if (plugin.warpsService != null) plugin.warpsService.ensureArmorStandsInChunk(worldId, cx, cz); } catch (Throwable ignored) {}
+        try { if (plugin.shopsService != null) plugin.shopsService.ensureArmorStandsInChunk(worldId, cx, cz); } catch (Throwable ignored) {}
+        try { if (plugin.banksService != null) plugin.banksService.ensureArmorStandsInChunk(worldId, cx, cz); } catch (Throwable ignored) {}
+        try { if (plugin.auctionsService != null) plugin.auctionsService.ensureArmorStandsInChunk(worldId, cx, cz); } catch (Throwable ignored) {}
+    }
+
+    /**
+     * Schedules the background sweep: one shortly after startup, then every {@code armorstands.sweep-interval-seconds}.
+     */
+    public void startSweeps() {
+        if (sweepTimer != null) return;
+        long interval = Math.max(60L, plugin.getConfig().getLong("armorstands.sweep-interval-seconds", 900L)) * 20L;
+        sweepTimer = plugin.getServer().getScheduler().runTaskTimer(plugin, this::startSweep, 20L, interval);
+    }
+
+    /**
+     * Queues one check per known marker, unless a sweep is still running.
+     */
+    public void startSweep() {
+        if (!sweepQueue.isEmpty()) return;
+        List<Runnable> checks = new ArrayList<>();
+        try { if (plugin.homesService != null) plugin.homesService.collectArmorStandChecks(checks); } catch (Throwable ignored) {}
+        try { if (plugin.guildHomesService != null) plugin.guildHomesService.collectArmorStandChecks(checks); } catch (Throwable ignored) {}
+        try { if (plugin.warpsService != null) plugin.warpsService.collectArmorStandChecks(checks); } catch (Throwable ignored) {}
+        try { if (plugin.shopsService != null) plugin.shopsService.collectArmorStandChecks(checks); } catch (Throwable ignored) {}
+        try { if (plugin.banksService != null) plugin.banksService.collectArmorStandChecks(checks); } catch (Throwable ignored) {}
+        try { if (plugin.auctionsService != null) plugin.auctionsService.collectArmorStandChecks(checks); } catch (Throwable ignored) {}
+        if (checks.isEmpty()) return;
+        sweepQueue.addAll(checks);
+        if (sweepTask == null) {
+            sweepTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::sweepTick, 1L, 1L);
+        }
+    }
+
+    private void sweepTick() {
+        sweepQueue.tick(t -> {
+            try { plugin.getLogger().warning("ArmorStand sweep check failed: " + t.getMessage()); } catch (Throwable ignored) {}
+        });
+        if (sweepQueue.isEmpty() && sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+            sweepsCompleted++;
+        }
+    }
+
+    /** @return checks still waiting in the running sweep */
+    public int getQueuedSweepChecks() {
+        return sweepQueue.size();
+    }
+
+    public long getSweepsCompleted() {
+        return sweepsCompleted;
+    }
+
+    /**
+     * Stops the background sweep. Pending checks are dropped; they are re-queued by the next sweep.
+     */
+    public void shutdown() {
+        if (sweepTimer != null) {
+            sweepTimer.cancel();
+            sweepTimer = null;
+        }
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+        sweepQueue.clear();
+    }
+
     /**
      * Convenience: create an ArmorStand at the given location with the provided name and
      * sensible defaults (marker, no gravity, invulnerable, custom name visible, etc.).
@@ -78,20 +182,51 @@ public class ArmorStandManager {
     }
 
     /**
-     * Register a cleanup handler to be invoked when the ArmorStand with given UUID dies.
-     * If a handler already exists, it will be replaced.
+     * Register the owner of an ArmorStand and a cleanup handler to be invoked when it dies.
+     * If the stand is already registered, owner and handler are replaced.
      */
-    public void register(UUID armorStandId, Runnable onDeath) {
-        if (armorStandId == null || onDeath == null) return;
+    public void register(UUID armorStandId, OwnerKind kind, Object ownerId, Runnable onDeath) {
+        if (armorStandId == null || kind == null || onDeath == null) return;
+        owners.put(armorStandId, new Owner(kind, ownerId == null ? "" : ownerId.toString()));
         deathHandlers.put(armorStandId, onDeath);
     }
 
     /**
-     * Unregister a previously registered handler for the given ArmorStand UUID.
+     * Unregister a previously registered ArmorStand.
      */
     public void unregister(UUID armorStandId) {
         if (armorStandId == null) return;
         deathHandlers.remove(armorStandId);
+        owners.remove(armorStandId);
+        try { if (plugin.markerVisibilityService != null) plugin.markerVisibilityService.untrack(armorStandId); } catch (Throwable ignored) {}
+    }
+
+    /**
+     * Unregister every ArmorStand of one kind. Used by services before they reload their data.
+     */
+    public void unregisterAll(OwnerKind kind) {
+        if (kind == null) return;
+        owners.entrySet().removeIf(e -> {
+            if (e.getValue().kind() != kind) return false;
+            deathHandlers.remove(e.getKey());
+            try { if (plugin.markerVisibilityService != null) plugin.markerVisibilityService.untrack(e.getKey()); } catch (Throwable ignored) {}
+            return true;
+        });
+    }
+
+    /**
+     * @return the registered owner of the ArmorStand, or null when no service claims it
+     */
+    public Owner getOwner(UUID armorStandId) {
+        return armorStandId == null ? null : owners.get(armorStandId);
+    }
+
+    public boolean isRegistered(UUID armorStandId) {
+        return armorStandId != null && owners.containsKey(armorStandId);
+    }
+
+    public int getRegisteredCount() {
+        return owners.size();
     }
 
     /**
@@ -99,6 +234,7 @@ public class ArmorStandManager {
      */
     public void clear() {
         deathHandlers.clear();
+        owners.clear();
     }
 
     /**
@@ -107,6 +243,8 @@ public class ArmorStandManager {
     public void handleArmorStandDeath(UUID id) {
         if (id == null) return;
         Runnable handler = deathHandlers.remove(id);
+        owners.remove(id);
+        try { if (plugin.markerVisibilityService != null) plugin.markerVisibilityService.untrack(id); } catch (Throwable ignored) {}
         if (handler != null) {
             try {
                 handler.run();
@@ -0,0 +1,200 @@
+package com.spillhuset.furious.managers;
+
+import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.utils.LongHashSet;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Runs multi-block breaks (vein miner, tree chopper) as jobs spread over several ticks.
+ * Each job is a breadth-first walk over same-kind neighbours; all jobs share one per-tick
+ * block budget, served round-robin. The walk only inspects blocks in loaded chunks.
+ */
+public class MultiBreakManager {
+    private final Furious plugin;
+    private final Deque<Job> jobs = new ArrayDeque<>();
+    private BukkitTask task;
+    private int blocksPerTick = 64;
+
+    // Metrics
+    private long jobsSubmitted = 0L;
+    private long blocksBroken = 0L;
+
+    private static final int[][] NEIGHBOURS = {
+            {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}
+    };
+
+    /** One queued multi-break, started from the block the player broke. */
+    private static final class Job {
+        final UUID playerId;
+        final World world;
+        final ItemStack tool;
+        final Predicate<Material> matches;
+        final int maxBlocks;
+        final long origin;
+        final LongHashSet visited;
+        // Each position is queued at most once, so a flat array is enough
+        final long[] queue;
+        int head = 0;
+        int tail = 0;
+        int found = 0;
+
+        Job(UUID playerId, World world, ItemStack tool, Predicate<Material> matches, int maxBlocks, long origin) {
+            this.playerId = playerId;
+            this.world = world;
+            this.tool = tool;
+            this.matches = matches;
+            this.maxBlocks = maxBlocks;
+            this.origin = origin;
+            this.visited = new LongHashSet(maxBlocks + 1);
+            this.queue = new long[maxBlocks + 1];
+            visited.add(origin);
+            queue[tail++] = origin;
+        }
+
+        boolean isDone() {
+            return head >= tail;
+        }
+    }
+
+    public MultiBreakManager(Furious plugin) {
+        this.plugin = plugin.getInstance();
+        blocksPerTick = Math.max(1, this.plugin.getConfig().getInt("professions.multi-break.blocks-per-tick", blocksPerTick));
+    }
+
+    /**
+     * Queues a break of every block connected to {@code origin} that satisfies {@code matches},
+     * up to {@code maxBlocks} blocks in addition to the origin itself. The origin is left to the caller.
+     */
+    public void submit(UUID playerId, Block origin, ItemStack tool, Predicate<Material> matches, int maxBlocks) {
+        if (origin == null || matches == null || maxBlocks <= 0) return;
+        jobs.addLast(new Job(playerId, origin.getWorld(), tool == null ? null : tool.clone(), matches, maxBlocks,
+                pack(origin.getX(), origin.getY(), origin.getZ())));
+        jobsSubmitted++;
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        int budget = blocksPerTick;
+        while (budget > 0 && !jobs.isEmpty()) {
+            // Fair share per job, at least one block each
+            int share = Math.max(1, budget / jobs.size());
+            int rounds = jobs.size();
+            for (int i = 0; i < rounds && budget > 0; i++) {
+                Job job = jobs.pollFirst();
+                if (job == null) break;
+                int used = step(job, Math.min(share, budget));
+                budget -= used;
+                if (!job.isDone()) jobs.addLast(job);
+            }
+        }
+        if (jobs.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Processes up to {@code limit} queued positions of a job.
+     * @return number of positions processed
+     */
+    private int step(Job job, int limit) {
+        int processed = 0;
+        while (processed < limit && !job.isDone()) {
+            long pos = job.queue[job.head++];
+            processed++;
+            int x = unpackX(pos), y = unpackY(pos), z = unpackZ(pos);
+            try {
+                // Discover neighbours first; breaking does not change them
+                for (int[] d : NEIGHBOURS) {
+                    if (job.found >= job.maxBlocks) break;
+                    int nx = x + d[0], ny = y + d[1], nz = z + d[2];
+                    if (ny < job.world.getMinHeight() || ny >= job.world.getMaxHeight()) continue;
+                    if (!job.world.isChunkLoaded(nx >> 4, nz >> 4)) continue;
+                    long npos = pack(nx, ny, nz);
+                    if (job.visited.contains(npos)) continue;
+                    if (!job.matches.test(job.world.getBlockAt(nx, ny, nz).getType())) continue;
+                    job.visited.add(npos);
+                    job.queue[job.tail++] = npos;
+                    job.found++;
+                }
+                if (pos != job.origin) {
+                    Block block = job.world.getBlockAt(x, y, z);
+                    // The block may have changed since it was discovered
+                    if (job.matches.test(block.getType())) {
+                        if (job.tool != null) block.breakNaturally(job.tool);
+                        else block.breakNaturally();
+                        blocksBroken++;
+                    }
+                }
+            } catch (Throwable ignored) {
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Finishes all queued jobs immediately. Used on shutdown so no started break is left half done.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        while (!jobs.isEmpty()) {
+            Job job = jobs.pollFirst();
+            step(job, Integer.MAX_VALUE);
+        }
+    }
+
+    /** @return number of jobs currently queued */
+    public int getQueuedJobs() {
+        return jobs.size();
+    }
+
+    /** @return number of positions still waiting across all queued jobs */
+    public int getQueuedBlocks() {
+        int n = 0;
+        for (Job job : jobs) n += job.tail - job.head;
+        return n;
+    }
+
+    public long getJobsSubmitted() {
+        return jobsSubmitted;
+    }
+
+    public long getBlocksBroken() {
+        return blocksBroken;
+    }
+
+    public int getBlocksPerTick() {
+        return blocksPerTick;
+    }
+
+    // Block position packing: 26 bits x, 26 bits z, 12 bits y (same layout as vanilla BlockPos)
+    private static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFFL);
+    }
+
+    private static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    private static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+}
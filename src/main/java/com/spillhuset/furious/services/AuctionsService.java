@@ -1,9 +1,11 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.managers.ArmorStandManager;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.Guild;
 import com.spillhuset.furious.utils.GuildType;
+import com.spillhuset.furious.utils.SuggestionIndex;
 import org.bukkit.*;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
@@ -21,12 +23,16 @@ import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Simple Auctions service implementing /auctions spec.
  * Stores: claims (set of chunks), open flag, spawn anchor, and auction entries.
  */
 public class AuctionsService {
+    // There is a single Auctions anchor, so its owner id in the ArmorStand index is fixed
+    private static final String OWNER_ID = "auctions";
+
     private final Furious plugin;
 
     public AuctionsService(Furious plugin) {
@@ -64,7 +70,9 @@ public class AuctionsService {
         }
         auctionsCfg = YamlConfiguration.loadConfiguration(auctionsFile);
         claims.clear();
+        try { if (plugin.armorStandManager != null) plugin.armorStandManager.unregisterAll(ArmorStandManager.OwnerKind.AUCTION); } catch (Throwable ignored) {}
         auctions.clear();
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.clear(SuggestionIndex.Domain.AUCTIONS);
         pendingReturns.clear();
         open = auctionsCfg.getBoolean("open", true);
         // claims
@@ -79,6 +87,10 @@ public class AuctionsService {
                 } catch (Exception ignored) {}
             }
         }
+        if (plugin.subclaimIndex != null) {
+            plugin.subclaimIndex.clearAuctions();
+            for (ChunkKey ck : claims) plugin.subclaimIndex.setAuctions(ck.worldId(), ck.x(), ck.z(), true);
+        }
         // spawn
         ConfigurationSection sp = auctionsCfg.getConfigurationSection("spawn");
         if (sp != null) {
@@ -91,7 +103,10 @@ public class AuctionsService {
                 spawnYaw = sp.isSet("yaw") ? (float) sp.getDouble("yaw") : null;
                 spawnPitch = sp.isSet("pitch") ? (float) sp.getDouble("pitch") : null;
                 String armor = sp.getString("armorStand");
-                if (armor != null) armorStandUuid = UUID.fromString(armor);
+                if (armor != null) {
+                    armorStandUuid = UUID.fromString(armor);
+                    try { if (plugin.armorStandManager != null) plugin.armorStandManager.register(armorStandUuid, ArmorStandManager.OwnerKind.AUCTION, OWNER_ID, this::onArmorStandDeath); } catch (Throwable ignored) {}
+                }
             } catch (Exception ignored) {}
         }
         // auctions
@@ -111,6 +126,7 @@ public class AuctionsService {
                     String bidderStr = a.getString("bidder");
                     UUID bidder = bidderStr == null ? null : UUID.fromString(bidderStr);
                     auctions.put(nameKey.toLowerCase(), new Auction(displayName, owner, item, start, buyout, end, current, bidder));
+                    if (plugin.suggestionIndex != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.AUCTIONS, displayName);
                 } catch (Exception ex) {
                     plugin.getLogger().warning("Failed to load auction " + nameKey + ": " + ex.getMessage());
                 }
@@ -219,6 +235,7 @@ public class AuctionsService {
             Components.sendErrorMessage(sender, "This chunk is already claimed for Auctions.");
             return false;
         }
+        if (plugin.subclaimIndex != null) plugin.subclaimIndex.setAuctions(key.worldId(), key.x(), key.z(), true);
         save();
         Components.sendSuccess(sender, Components.t("Auctions claimed at this chunk."));
         return true;
@@ -235,6 +252,7 @@ public class AuctionsService {
             Components.sendErrorMessage(sender, "This chunk is not claimed for Auctions.");
             return false;
         }
+        if (plugin.subclaimIndex != null) plugin.subclaimIndex.setAuctions(key.worldId(), key.x(), key.z(), false);
         save();
         Components.sendSuccess(sender, Components.t("Auctions unclaimed at this chunk."));
         return true;
@@ -340,34 +358,19 @@ public class AuctionsService {
         try { stand.customName(Component.text("Auctions", NamedTextColor.GOLD)); } catch (Throwable ignored) {}
         try { stand.setCustomNameVisible(true); } catch (Throwable ignored) {}
         try {
-            for (Player viewer : plugin.getServer().getOnlinePlayers()) {
-                if (viewer.isOp()) viewer.showEntity(plugin, stand);
-                else viewer.hideEntity(plugin, stand);
-            }
+            plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
         } catch (Throwable ignored) {}
     }
 
     private void registerAndSetupArmorStand(UUID id) {
         if (id == null) return;
-        try { if (plugin.armorStandManager != null) plugin.armorStandManager.register(id, this::onArmorStandDeath); } catch (Throwable ignored) {}
+        try { if (plugin.armorStandManager != null) plugin.armorStandManager.register(id, ArmorStandManager.OwnerKind.AUCTION, OWNER_ID, this::onArmorStandDeath); } catch (Throwable ignored) {}
         try {
             Entity ent = plugin.getServer().getEntity(id);
             if (ent instanceof ArmorStand st) updateArmorStandNameAndVisibility(st);
         } catch (Throwable ignored) {}
     }
 
-    public void applyAuctionsArmorStandVisibilityForViewer(Player viewer) {
-        if (viewer == null) return;
-        if (armorStandUuid == null) return;
-        try {
-            Entity ent = plugin.getServer().getEntity(armorStandUuid);
-            if (ent instanceof ArmorStand stand) {
-                if (viewer.isOp()) viewer.showEntity(plugin, stand);
-                else viewer.hideEntity(plugin, stand);
-            }
-        } catch (Throwable ignored) {}
-    }
-
     /**
      * Attempt to adopt an unreferenced, managed ArmorStand into Auctions by proximity to the stored spawn.
      */
@@ -380,6 +383,7 @@ public class AuctionsService {
             if (!sp.getWorld().equals(sLoc.getWorld())) return false;
             if (sp.distanceSquared(sLoc) <= 4.0) {
                 if (stand.getUniqueId().equals(armorStandUuid)) return true;
+                try { if (armorStandUuid != null && plugin.armorStandManager != null) plugin.armorStandManager.unregister(armorStandUuid); } catch (Throwable ignored) {}
                 armorStandUuid = stand.getUniqueId();
                 registerAndSetupArmorStand(stand.getUniqueId());
                 save();
@@ -402,16 +406,35 @@ public class AuctionsService {
         } catch (Throwable ignored) {}
         // If no entity present but spawn location stored, recreate
         Location loc = getSpawnLocation();
-        if (loc == null) return;
+        if (loc == null || loc.getWorld() == null) return;
+        // The stand may simply not be loaded yet; the chunk load will reconcile it
+        if (!loc.getWorld().isChunkLoaded(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) return;
         UUID id = null;
         try { if (plugin.armorStandManager != null) id = plugin.armorStandManager.create(loc, "Auctions"); } catch (Throwable ignored) {}
         if (id != null) {
+            try { if (armorStandUuid != null) plugin.armorStandManager.unregister(armorStandUuid); } catch (Throwable ignored) {}
             armorStandUuid = id;
             registerAndSetupArmorStand(id);
             save();
         }
     }
 
+    /**
+     * Reconciles the Auctions anchor if it lies in the given chunk. Called when the chunk loads.
+     */
+    public void ensureArmorStandsInChunk(UUID worldId, int chunkX, int chunkZ) {
+        if (spawnWorldId == null || spawnX == null || spawnZ == null || !spawnWorldId.equals(worldId)) return;
+        if (((int) Math.floor(spawnX) >> 4) != chunkX || ((int) Math.floor(spawnZ) >> 4) != chunkZ) return;
+        ensureArmorStands();
+    }
+
+    /**
+     * Adds the reconciliation step for the Auctions anchor, for the background sweep.
+     */
+    public void collectArmorStandChecks(List<Runnable> out) {
+        if (spawnWorldId != null) out.add(this::ensureArmorStands);
+    }
+
     // For sanitizer: claim our ArmorStand as referenced
     public boolean hasArmorStand(java.util.UUID armorStandId) {
         return armorStandId != null && armorStandId.equals(this.armorStandUuid);
@@ -426,8 +449,8 @@ public class AuctionsService {
     // Public helper for subclaim detection by location
     public boolean isLocationInAuctions(Location l) {
         if (l == null || l.getWorld() == null) return false;
-        Chunk c = l.getChunk();
-        return claims.contains(new ChunkKey(l.getWorld().getUID(), c.getX(), c.getZ()));
+        if (plugin.subclaimIndex != null) return plugin.subclaimIndex.isAuctionsAt(l);
+        return claims.contains(new ChunkKey(l.getWorld().getUID(), l.getBlockX() >> 4, l.getBlockZ() >> 4));
     }
 
     // Player actions
@@ -464,6 +487,7 @@ public class AuctionsService {
         }
         Auction a = new Auction(name, player.getUniqueId(), toStore, start, buyout, end, start, null);
         auctions.put(key, a);
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.AUCTIONS, name);
         save();
         Components.sendSuccess(player, Components.t("Auction created: "), Components.valueComp(name));
         return true;
@@ -566,6 +590,7 @@ public class AuctionsService {
         // give item
         giveOrDrop(buyer, a.item);
         auctions.remove(a.name.toLowerCase());
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.remove(SuggestionIndex.Domain.AUCTIONS, a.name);
         save();
         Components.sendSuccess(buyer, Components.t("You bought out "), Components.valueComp(a.name), Components.t("."));
         return true;
@@ -599,6 +624,7 @@ public class AuctionsService {
         plugin.walletService.addBalance(owner.getUniqueId(), sellerAmount, "Auction cancel refund (90%): " + a.name);
         giveOrDrop(owner, a.item);
         auctions.remove(a.name.toLowerCase());
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.remove(SuggestionIndex.Domain.AUCTIONS, a.name);
         save();
         Components.sendSuccess(owner, Components.t("Auction canceled and item returned."));
         return true;
@@ -653,7 +679,10 @@ public class AuctionsService {
             }
         }
         if (!toRemove.isEmpty()) {
-            for (String key : toRemove) auctions.remove(key);
+            for (String key : toRemove) {
+                auctions.remove(key);
+                if (plugin.suggestionIndex != null) plugin.suggestionIndex.remove(SuggestionIndex.Domain.AUCTIONS, key);
+            }
             save();
         }
     }
@@ -685,25 +714,17 @@ public class AuctionsService {
 
     public record ChunkKey(UUID worldId, int x, int z) {}
 
-    public List<String> getAuctionNames() {
-        List<String> names = new ArrayList<>();
-        for (Auction a : auctions.values()) names.add(a.name);
-        names.sort(String::compareToIgnoreCase);
-        return names;
-    }
-
-    public List<String> getAuctionNamesWithBuyout() {
-        List<String> names = new ArrayList<>();
-        for (Auction a : auctions.values()) if (a.buyout != null) names.add(a.name);
-        names.sort(String::compareToIgnoreCase);
-        return names;
-    }
-
-    public List<String> getAuctionNamesOwnedBy(UUID owner) {
-        List<String> names = new ArrayList<>();
-        for (Auction a : auctions.values()) if (a.owner.equals(owner)) names.add(a.name);
-        names.sort(String::compareToIgnoreCase);
-        return names;
+    /**
+     * Tab completion: at most {@link SuggestionIndex#LIMIT} auction names starting with {@code prefix}, sorted.
+     * @param filter auctions to include, or null for all
+     */
+    public List<String> suggestAuctionNames(String prefix, Predicate<Auction> filter) {
+        if (plugin.suggestionIndex == null) return new ArrayList<>();
+        if (filter == null) return plugin.suggestionIndex.complete(SuggestionIndex.Domain.AUCTIONS, prefix);
+        return plugin.suggestionIndex.complete(SuggestionIndex.Domain.AUCTIONS, prefix, name -> {
+            Auction a = auctions.get(name.toLowerCase());
+            return a != null && filter.test(a);
+        });
     }
 
     public static class Auction {
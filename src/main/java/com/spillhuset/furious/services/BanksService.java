@@ -1,17 +1,15 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.db.BanksStore;
+import com.spillhuset.furious.db.YamlBanksStore;
+import com.spillhuset.furious.managers.ArmorStandManager;
 import com.spillhuset.furious.utils.*;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.command.CommandSender;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 
 public class BanksService {
@@ -25,170 +23,51 @@ public class BanksService {
     private final Map<UUID, Long> lastAccrualByBank = new HashMap<>();
     private Integer interestTaskId = null;
 
-    private File banksFile;
-    private FileConfiguration banksCfg;
+    private BanksStore store;
 
     public BanksService(Furious plugin) {
         this.plugin = plugin;
     }
 
     public void load() {
-        // If SQL database is enabled, load from DB; otherwise, use YAML file
-        if (plugin.databaseManager != null && plugin.databaseManager.isEnabled()) {
-            try {
-                com.spillhuset.furious.db.BanksRepository repo = new com.spillhuset.furious.db.BanksRepository(plugin.databaseManager.getDataSource());
-                repo.initSchema();
-                banksById.clear();
-                bankIdByName.clear();
-                accounts.clear();
-                lastAccrualByBank.clear();
-                repo.loadAll(banksById, bankIdByName, accounts, lastAccrualByBank);
-                return;
-            } catch (Exception e) {
-                try { plugin.getLogger().warning("Banks: failed to load from database, falling back to YAML: " + e.getMessage()); } catch (Throwable ignored) {}
-            }
-        }
-        File dataFolder = plugin.getDataFolder();
-        if (!dataFolder.exists()) dataFolder.mkdirs();
-        banksFile = new File(dataFolder, "banks.yml");
-        if (!banksFile.exists()) {
-            try {
-                banksFile.createNewFile();
-            } catch (IOException ignored) {
-            }
-        }
-        banksCfg = YamlConfiguration.loadConfiguration(banksFile);
-
-        banksById.clear();
-        bankIdByName.clear();
-        accounts.clear();
-        lastAccrualByBank.clear();
-
-        ConfigurationSection banksSec = banksCfg.getConfigurationSection("banks");
-        if (banksSec != null) {
-            for (String idStr : banksSec.getKeys(false)) {
-                UUID id = UUID.fromString(idStr);
-                ConfigurationSection b = banksSec.getConfigurationSection(idStr);
-                if (b == null) continue;
-                String name = b.getString("name");
-                Bank bank = new Bank(id, name);
-                bank.setInterest(b.getDouble("interest", 0.0d));
-                String typeStr = b.getString("type", "PLAYER");
+        store = plugin.databaseManager.banksStore();
+        try {
+            store.init();
+            store.loadAll(banksById, bankIdByName, accounts, lastAccrualByBank);
+        } catch (Exception e) {
+            if (store instanceof YamlBanksStore) {
+                plugin.getLogger().severe("Banks: failed to load banks.yml: " + e.getMessage());
+            } else {
+                // Keep the server usable; SQL comes back on the next load once it is reachable
+                try { plugin.getLogger().warning("Banks: failed to load from " + plugin.databaseManager.getBackend() + ", falling back to YAML: " + e.getMessage()); } catch (Throwable ignored) {}
+                store = plugin.databaseManager.yamlBanksStore();
                 try {
-                    bank.setType(BankType.valueOf(typeStr.toUpperCase()));
-                } catch (IllegalArgumentException ignored) {
-                }
-                bank.setOpen(b.getBoolean("open", true));
-                // Load multiple claims if present; otherwise, load legacy single fields
-                ConfigurationSection claimsSec = b.getConfigurationSection("claims");
-                if (claimsSec != null) {
-                    for (String key : claimsSec.getKeys(false)) {
-                        ConfigurationSection c = claimsSec.getConfigurationSection(key);
-                        if (c == null) continue;
-                        String wStr = c.getString("world");
-                        if (wStr == null || wStr.isBlank()) continue;
-                        try {
-                            UUID wid = UUID.fromString(wStr);
-                            int cx = c.getInt("chunkX");
-                            int cz = c.getInt("chunkZ");
-                            bank.addClaim(wid, cx, cz);
-                        } catch (IllegalArgumentException ignored) {
-                        }
-                    }
-                } else {
-                    String worldStr = b.getString("world");
-                    if (worldStr != null && !worldStr.isBlank()) {
-                        UUID worldId = UUID.fromString(worldStr);
-                        int cx = b.getInt("chunkX");
-                        int cz = b.getInt("chunkZ");
-                        bank.claim(worldId, cx, cz);
-                    }
+                    store.init();
+                    store.loadAll(banksById, bankIdByName, accounts, lastAccrualByBank);
+                } catch (Exception ex) {
+                    plugin.getLogger().severe("Banks: failed to load banks.yml: " + ex.getMessage());
                 }
-                String armorStandStr = b.getString("armorStand");
-                if (armorStandStr != null && !armorStandStr.isBlank()) {
-                    try {
-                        bank.setArmorStandUuid(UUID.fromString(armorStandStr));
-                    } catch (IllegalArgumentException ignored) {
-                    }
-                }
-                long last = b.getLong("lastAccrual", 0L);
-                lastAccrualByBank.put(id, last);
-                banksById.put(id, bank);
-                if (name != null) bankIdByName.put(name.toLowerCase(), id);
-            }
-        }
-
-        ConfigurationSection accSec = banksCfg.getConfigurationSection("accounts");
-        if (accSec != null) {
-            for (String playerStr : accSec.getKeys(false)) {
-                UUID pid = UUID.fromString(playerStr);
-                ConfigurationSection psec = accSec.getConfigurationSection(playerStr);
-                if (psec == null) continue;
-                Map<UUID, BankAccount> map = new HashMap<>();
-                for (String bankIdStr : psec.getKeys(false)) {
-                    UUID bid = UUID.fromString(bankIdStr);
-                    double bal = psec.getDouble(bankIdStr, 0.0d);
-                    BankAccount acct = new BankAccount(bid, pid);
-                    acct.setBalance(bal);
-                    map.put(bid, acct);
-                }
-                accounts.put(pid, map);
             }
         }
+        reindexSubclaims();
+        reindexSuggestions();
+        registerArmorStands();
     }
 
     public void save() {
-        // If SQL database is enabled, persist to DB snapshot and return; else use YAML
-        if (plugin.databaseManager != null && plugin.databaseManager.isEnabled()) {
+        if (store == null) return;
+        try {
+            store.saveAll(new ArrayList<>(banksById.values()), accounts, lastAccrualByBank);
+        } catch (Exception e) {
+            try { plugin.getLogger().warning("Banks: failed to save: " + e.getMessage()); } catch (Throwable ignored) {}
+            if (store instanceof YamlBanksStore) return;
+            // If save to the database fails, we still write YAML to not lose data
             try {
-                com.spillhuset.furious.db.BanksRepository repo = new com.spillhuset.furious.db.BanksRepository(plugin.databaseManager.getDataSource());
-                repo.saveAll(new ArrayList<>(banksById.values()), accounts, lastAccrualByBank);
-                return;
-            } catch (Exception e) {
-                try { plugin.getLogger().warning("Banks: failed to save to database: " + e.getMessage()); } catch (Throwable ignored) {}
-                // If save to DB fails, we still attempt YAML to not lose data
-            }
-        }
-        banksCfg.set("banks", null);
-        banksCfg.set("accounts", null);
-        for (Bank bank : banksById.values()) {
-            String path = "banks." + bank.getId();
-            banksCfg.set(path + ".name", bank.getName());
-            banksCfg.set(path + ".interest", bank.getInterest());
-            banksCfg.set(path + ".type", bank.getType().name());
-            banksCfg.set(path + ".open", bank.isOpen());
-            if (bank.isClaimed()) {
-                // Write legacy first-claim fields for backward compatibility
-                banksCfg.set(path + ".world", bank.getWorldId().toString());
-                banksCfg.set(path + ".chunkX", bank.getChunkX());
-                banksCfg.set(path + ".chunkZ", bank.getChunkZ());
-                // Also write claims list
-                banksCfg.set(path + ".claims", null);
-                int idx = 0;
-                for (com.spillhuset.furious.utils.Bank.Claim c : bank.getClaims()) {
-                    String cPath = path + ".claims." + (idx++);
-                    banksCfg.set(cPath + ".world", c.worldId.toString());
-                    banksCfg.set(cPath + ".chunkX", c.chunkX);
-                    banksCfg.set(cPath + ".chunkZ", c.chunkZ);
-                }
+                BanksStore yaml = plugin.databaseManager.yamlBanksStore();
+                yaml.init();
+                yaml.saveAll(new ArrayList<>(banksById.values()), accounts, lastAccrualByBank);
+            } catch (Exception ignored) {
             }
-            if (bank.getArmorStandUuid() != null) {
-                banksCfg.set(path + ".armorStand", bank.getArmorStandUuid().toString());
-            }
-            Long last = lastAccrualByBank.get(bank.getId());
-            if (last != null && last > 0L) {
-                banksCfg.set(path + ".lastAccrual", last);
-            }
-        }
-        for (Map.Entry<UUID, Map<UUID, BankAccount>> e : accounts.entrySet()) {
-            UUID pid = e.getKey();
-            for (BankAccount acct : e.getValue().values()) {
-                banksCfg.set("accounts." + pid + "." + acct.getBankId(), acct.getBalance());
-            }
-        }
-        try {
-            banksCfg.save(banksFile);
-        } catch (IOException ignored) {
         }
     }
 
@@ -235,6 +114,7 @@ public class BanksService {
         Bank bank = new Bank(UUID.randomUUID(), name);
         banksById.put(bank.getId(), bank);
         bankIdByName.put(name.toLowerCase(), bank.getId());
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.BANKS, name);
         save();
         Components.sendSuccess(sender, Components.t("Bank "), Components.valueComp(name), Components.t(" created."));
         return true;
@@ -257,6 +137,7 @@ public class BanksService {
         bankIdByName.remove(oldName.toLowerCase());
         bank.setName(newName);
         bankIdByName.put(newName.toLowerCase(), bank.getId());
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.rename(SuggestionIndex.Domain.BANKS, oldName, newName);
         save();
         Components.sendSuccess(sender, Components.t("Bank renamed to "), Components.valueComp(newName), Components.t(" from "), Components.valueComp(oldName), Components.t("."));
         return true;
@@ -268,8 +149,12 @@ public class BanksService {
             Components.sendErrorMessage(sender, "Bank not found.");
             return false;
         }
+        // Unregister and remove its armor stand, or the marker outlives the bank
+        removeArmorStandForBank(bank);
+        if (plugin.subclaimIndex != null) plugin.subclaimIndex.removeBank(bank);
         banksById.remove(bank.getId());
         bankIdByName.remove(bank.getName().toLowerCase());
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.remove(SuggestionIndex.Domain.BANKS, bank.getName());
         // Remove all accounts for this bank
         for (Map<UUID, BankAccount> map : accounts.values()) {
             map.remove(bank.getId());
@@ -318,6 +203,7 @@ public class BanksService {
             return false;
         }
         bank.addClaim(loc.getWorld().getUID(), chunk.getX(), chunk.getZ());
+        if (plugin.subclaimIndex != null) plugin.subclaimIndex.addBankClaim(bank, loc.getWorld().getUID(), chunk.getX(), chunk.getZ());
         save();
         Components.sendSuccess(sender, Components.t("Bank "), Components.valueComp(bank.getName()), Components.t(" claimed at this chunk."));
         return true;
@@ -331,6 +217,7 @@ public class BanksService {
         }
         // Remove armor stand (spawn) when bank is unclaimed
         removeArmorStandForBank(bank);
+        if (plugin.subclaimIndex != null) plugin.subclaimIndex.removeBank(bank);
         bank.unclaim();
         save();
         Components.sendSuccess(sender, Components.t("Bank "), Components.valueComp(bank.getName()), Components.t(" unclaimed."));
@@ -511,31 +398,44 @@ public class BanksService {
         return true;
     }
 
+    /** Tab completion: at most {@link SuggestionIndex#LIMIT} bank names starting with {@code prefix}, sorted. */
     public List<String> suggestBankNames(String prefix) {
-        List<String> list = new ArrayList<>();
-        String p = prefix == null ? "" : prefix.toLowerCase();
-        for (Bank b : banksById.values()) {
-            if (b == null || b.getName() == null) continue;
-            String name = b.getName();
-            if (p.isBlank() || name.toLowerCase().startsWith(p)) list.add(name);
-        }
-        return list;
+        if (plugin.suggestionIndex == null) return new ArrayList<>();
+        return plugin.suggestionIndex.complete(SuggestionIndex.Domain.BANKS, prefix);
     }
 
     // Find the bank that has claimed the chunk at the given location, if any
     public Bank getBankAt(Location loc) {
-        if (loc == null || loc.getWorld() == null) return null;
-        UUID worldId = loc.getWorld().getUID();
-        int cx = loc.getChunk().getX();
-        int cz = loc.getChunk().getZ();
+        if (loc == null || loc.getWorld() == null || plugin.subclaimIndex == null) return null;
+        return plugin.subclaimIndex.getBankAt(loc);
+    }
+
+    // Rebuild the bank entries of the shared subclaim index after a (re)load
+    private void reindexSubclaims() {
+        if (plugin.subclaimIndex == null) return;
+        plugin.subclaimIndex.clearBanks();
         for (Bank bank : banksById.values()) {
-            if (bank != null && bank.isClaimed()) {
-                if (bank.hasClaimAt(worldId, cx, cz)) {
-                    return bank;
-                }
-            }
+            plugin.subclaimIndex.addBank(bank);
+        }
+    }
+
+    // Rebuild the bank names offered by tab completion after a (re)load
+    private void reindexSuggestions() {
+        if (plugin.suggestionIndex == null) return;
+        plugin.suggestionIndex.clear(SuggestionIndex.Domain.BANKS);
+        for (Bank bank : banksById.values()) {
+            if (bank != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.BANKS, bank.getName());
+        }
+    }
+
+    // Re-register every stored bank marker with the ArmorStand owner index after a (re)load
+    private void registerArmorStands() {
+        if (plugin.armorStandManager == null) return;
+        plugin.armorStandManager.unregisterAll(ArmorStandManager.OwnerKind.BANK);
+        for (Bank bank : banksById.values()) {
+            java.util.UUID asId = bank.getArmorStandUuid();
+            if (asId != null) plugin.armorStandManager.register(asId, ArmorStandManager.OwnerKind.BANK, bank.getId(), () -> removeArmorStandForBank(bank));
         }
-        return null;
     }
 
     // Spawn an ArmorStand at a specific location for the given bank
@@ -564,6 +464,7 @@ public class BanksService {
         if (bank == null) return false;
         java.util.UUID asId = bank.getArmorStandUuid();
         if (asId == null) return false;
+        try { plugin.armorStandManager.unregister(asId); } catch (Throwable ignored) {}
         try {
             org.bukkit.entity.Entity ent = plugin.getServer().getEntity(asId);
             if (ent != null) {
@@ -608,10 +509,7 @@ public class BanksService {
         } catch (Throwable ignored) {
         }
         try {
-            for (org.bukkit.entity.Player viewer : plugin.getServer().getOnlinePlayers()) {
-                if (viewer.isOp()) viewer.showEntity(plugin, stand);
-                else viewer.hideEntity(plugin, stand);
-            }
+            plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
         } catch (Throwable ignored) {
         }
     }
@@ -620,7 +518,7 @@ public class BanksService {
     private void registerAndSetupArmorStand(java.util.UUID id, Bank bank) {
         if (id == null || bank == null) return;
         try {
-            plugin.armorStandManager.register(id, () -> removeArmorStandForBank(bank));
+            plugin.armorStandManager.register(id, ArmorStandManager.OwnerKind.BANK, bank.getId(), () -> removeArmorStandForBank(bank));
         } catch (Throwable ignored) {
         }
         try {
@@ -688,22 +586,6 @@ public class BanksService {
         return result;
     }
 
-    public void applyBankArmorStandVisibilityForViewer(org.bukkit.entity.Player viewer) {
-        if (viewer == null) return;
-        try {
-            for (Bank bank : new java.util.ArrayList<>(banksById.values())) {
-                java.util.UUID asId = bank.getArmorStandUuid();
-                if (asId == null) continue;
-                org.bukkit.entity.Entity ent = plugin.getServer().getEntity(asId);
-                if (ent instanceof org.bukkit.entity.ArmorStand stand) {
-                    if (viewer.isOp()) viewer.showEntity(plugin, stand);
-                    else viewer.hideEntity(plugin, stand);
-                }
-            }
-        } catch (Throwable ignored) {
-        }
-    }
-
     /**
      * Attempt to adopt an unreferenced, managed ArmorStand into a matching Bank by proximity to its claimed-chunk center.
      */
@@ -719,6 +601,9 @@ public class BanksService {
                 if (center == null || !w.equals(sLoc.getWorld())) continue;
                 if (center.distanceSquared(sLoc) <= 4.0) {
                     if (stand.getUniqueId().equals(bank.getArmorStandUuid())) return true;
+                    if (bank.getArmorStandUuid() != null) {
+                        try { plugin.armorStandManager.unregister(bank.getArmorStandUuid()); } catch (Throwable ignored) {}
+                    }
                     bank.setArmorStandUuid(stand.getUniqueId());
                     registerAndSetupArmorStand(stand.getUniqueId(), bank);
                     save();
@@ -741,45 +626,83 @@ public class BanksService {
         boolean changed = false;
         for (Bank bank : new ArrayList<>(banksById.values())) {
             if (bank == null) continue;
-            UUID asId = bank.getArmorStandUuid();
-            org.bukkit.entity.Entity ent = (asId != null) ? plugin.getServer().getEntity(asId) : null;
-            if (!(ent instanceof org.bukkit.entity.ArmorStand stand)) {
-                // Try to respawn at claimed chunk center if possible
-                if (!bank.isClaimed()) continue;
-                org.bukkit.World world = plugin.getServer().getWorld(bank.getWorldId());
-                if (world == null) continue;
-                // Respawn marker at the true center of the first claimed chunk
-                Integer cX = bank.getChunkX();
-                Integer cZ = bank.getChunkZ();
-                if (cX == null || cZ == null) continue;
-                int bx = cX * 16 + 7;
-                int bz = cZ * 16 + 7;
-                int by;
-                try {
-                    by = world.getHighestBlockYAt(bx, bz) + 1;
-                } catch (Throwable ignored) {
-                    by = world.getSpawnLocation().getBlockY();
+            changed |= ensureArmorStand(bank);
+        }
+        if (changed) save();
+    }
+
+    /**
+     * Reconciles only the banks whose marker chunk (the first claim) is the given chunk. Called when the chunk loads.
+     */
+    public void ensureArmorStandsInChunk(UUID worldId, int chunkX, int chunkZ) {
+        boolean changed = false;
+        for (Bank bank : new ArrayList<>(banksById.values())) {
+            if (bank == null || !bank.isClaimed() || !worldId.equals(bank.getWorldId())) continue;
+            if (bank.getChunkX() != chunkX || bank.getChunkZ() != chunkZ) continue;
+            changed |= ensureArmorStand(bank);
+        }
+        if (changed) save();
+    }
+
+    /**
+     * Adds one reconciliation step per bank, for the background sweep.
+     */
+    public void collectArmorStandChecks(List<Runnable> out) {
+        for (Bank bank : banksById.values()) {
+            if (bank == null) continue;
+            UUID bankId = bank.getId();
+            out.add(() -> {
+                Bank current = banksById.get(bankId);
+                if (current != null && ensureArmorStand(current)) save();
+            });
+        }
+    }
+
+    // Returns true when a new stand was spawned and the bank needs saving
+    private boolean ensureArmorStand(Bank bank) {
+        UUID asId = bank.getArmorStandUuid();
+        org.bukkit.entity.Entity ent = (asId != null) ? plugin.getServer().getEntity(asId) : null;
+        if (!(ent instanceof org.bukkit.entity.ArmorStand stand)) {
+            // Try to respawn at claimed chunk center if possible
+            if (!bank.isClaimed()) return false;
+            org.bukkit.World world = plugin.getServer().getWorld(bank.getWorldId());
+            if (world == null) return false;
+            // Respawn marker at the true center of the first claimed chunk
+            Integer cX = bank.getChunkX();
+            Integer cZ = bank.getChunkZ();
+            if (cX == null || cZ == null) return false;
+            // The stand may simply not be loaded yet; the chunk load will reconcile it
+            if (!world.isChunkLoaded(cX, cZ)) return false;
+            int bx = cX * 16 + 7;
+            int bz = cZ * 16 + 7;
+            int by;
+            try {
+                by = world.getHighestBlockYAt(bx, bz) + 1;
+            } catch (Throwable ignored) {
+                by = world.getSpawnLocation().getBlockY();
+            }
+            org.bukkit.Location loc = new org.bukkit.Location(world, bx + 0.5, by, bz + 0.5);
+            try {
+                java.util.UUID id = plugin.armorStandManager.create(loc, "Bank: " + bank.getName());
+                if (id != null) {
+                    if (asId != null) {
+                        try { plugin.armorStandManager.unregister(asId); } catch (Throwable ignored) {}
+                    }
+                    bank.setArmorStandUuid(id);
+                    registerAndSetupArmorStand(id, bank);
+                    return true;
                 }
-                org.bukkit.Location loc = new org.bukkit.Location(world, bx + 0.5, by, bz + 0.5);
+            } catch (Throwable t) {
                 try {
-                    java.util.UUID id = plugin.armorStandManager.create(loc, "Bank: " + bank.getName());
-                    if (id != null) {
-                        bank.setArmorStandUuid(id);
-                        registerAndSetupArmorStand(id, bank);
-                        changed = true;
-                    }
-                } catch (Throwable t) {
-                    try {
-                        plugin.getLogger().warning("Failed to respawn ArmorStand for bank: " + t.getMessage());
-                    } catch (Throwable ignored) {
-                    }
+                    plugin.getLogger().warning("Failed to respawn ArmorStand for bank: " + t.getMessage());
+                } catch (Throwable ignored) {
                 }
-            } else {
-                // Ensure registered and update name/visibility
-                registerAndSetupArmorStand(stand.getUniqueId(), bank);
             }
+        } else {
+            // Ensure registered and update name/visibility
+            registerAndSetupArmorStand(stand.getUniqueId(), bank);
         }
-        if (changed) save();
+        return false;
     }
 
     // ========= Interest Accrual =========
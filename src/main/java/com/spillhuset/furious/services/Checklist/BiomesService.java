@@ -2,21 +2,20 @@ package com.spillhuset.furious.services.Checklist;
 
 import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.services.ChecklistService;
-import org.bukkit.OfflinePlayer;
+import com.spillhuset.furious.utils.RegistryCache;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Tracks which biomes each player has visited and globally discovered biomes.
  */
 public class BiomesService extends ChecklistService {
-    private final Map<UUID, Set<String>> visitedByPlayer = new HashMap<>();
-    private final Set<String> globalDiscovered = new HashSet<>();
+    private final Map<UUID, BiomeSet> visitedByPlayer = new HashMap<>();
+    private final BiomeSet globalDiscovered = new BiomeSet();
     // First discoverers
     private final Map<String, UUID> serverFirst = new HashMap<>();
     private final Map<Integer, Map<String, UUID>> yearFirstByYear = new HashMap<>();
@@ -24,6 +23,80 @@ public class BiomesService extends ChecklistService {
     private File file;
     private FileConfiguration config;
 
+    // Last sampled position (quart cell, 4x4x4 blocks) and biome per online player
+    private static final class LastSample {
+        UUID worldId;
+        int qx, qy, qz;
+        org.bukkit.block.Biome biome;
+    }
+    private final Map<UUID, LastSample> lastSamples = new HashMap<>();
+    // Metrics for the move listener
+    private long moveChecks = 0L;
+    private long biomeSamples = 0L;
+    private long biomeChanges = 0L;
+
+    /**
+     * Visited biomes: registry biomes as bits of their interned index, with a running count;
+     * keys unknown to the registry (e.g. removed datapack biomes) are kept as strings.
+     */
+    private static final class BiomeSet {
+        private final BitSet bits = new BitSet();
+        private Set<String> extra;
+        private int registryCount;
+
+        boolean add(int index, String key) {
+            if (index >= 0) {
+                if (bits.get(index)) return false;
+                bits.set(index);
+                registryCount++;
+                return true;
+            }
+            if (extra == null) extra = new HashSet<>();
+            return extra.add(key);
+        }
+
+        boolean contains(int index, String key) {
+            if (index >= 0) return bits.get(index);
+            return extra != null && extra.contains(key);
+        }
+
+        int size() {
+            return registryCount + (extra == null ? 0 : extra.size());
+        }
+
+        int registryCount() {
+            return registryCount;
+        }
+
+        void clear() {
+            bits.clear();
+            extra = null;
+            registryCount = 0;
+        }
+
+        void addAll(BiomeSet other) {
+            bits.or(other.bits);
+            registryCount = bits.cardinality();
+            if (other.extra != null) {
+                if (extra == null) extra = new HashSet<>();
+                extra.addAll(other.extra);
+            }
+        }
+
+        Set<String> toKeys(RegistryCache registry) {
+            Set<String> out = new HashSet<>();
+            if (registry != null) {
+                for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) out.add(registry.biomeKeyAt(i));
+            }
+            if (extra != null) out.addAll(extra);
+            return out;
+        }
+    }
+
+    private int indexOf(String canon) {
+        return plugin.registryCache != null ? plugin.registryCache.biomeIndexOf(canon) : -1;
+    }
+
     private String canonicalize(String biomeName) {
         if (biomeName == null) return null;
         String s = biomeName.trim();
@@ -87,10 +160,10 @@ public class BiomesService extends ChecklistService {
                     try {
                         UUID uuid = UUID.fromString(key);
                         List<String> list = config.getStringList("players." + key);
-                        Set<String> set = new HashSet<>();
+                        BiomeSet set = new BiomeSet();
                         for (String biome : list) {
                             String canon = canonicalize(biome);
-                            if (canon != null) set.add(canon);
+                            if (canon != null) set.add(indexOf(canon), canon);
                         }
                         visitedByPlayer.put(uuid, set);
                     } catch (IllegalArgumentException ignored) {
@@ -102,10 +175,10 @@ public class BiomesService extends ChecklistService {
             if (!globalList.isEmpty()) {
                 for (String s : globalList) {
                     String canon = canonicalize(s);
-                    if (canon != null) globalDiscovered.add(canon);
+                    if (canon != null) globalDiscovered.add(indexOf(canon), canon);
                 }
             } else {
-                for (Set<String> set : visitedByPlayer.values()) {
+                for (BiomeSet set : visitedByPlayer.values()) {
                     globalDiscovered.addAll(set);
                 }
             }
@@ -158,7 +231,7 @@ public class BiomesService extends ChecklistService {
             }
             ensurePeriodCurrent();
             // Load completion rewarded list via base helper
-            loadRewards(config);
+            loadRewards(config, new File(file.getParentFile(), "biomes-paid.log"));
         } catch (IOException e) {
             plugin.getLogger().warning("Failed to load biomes.yml: " + e.getMessage());
         }
@@ -167,10 +240,10 @@ public class BiomesService extends ChecklistService {
     public void save() {
         if (config == null) return;
         config.set("players", null);
-        for (Map.Entry<UUID, Set<String>> entry : visitedByPlayer.entrySet()) {
-            config.set("players." + entry.getKey(), new ArrayList<>(entry.getValue()));
+        for (Map.Entry<UUID, BiomeSet> entry : visitedByPlayer.entrySet()) {
+            config.set("players." + entry.getKey(), new ArrayList<>(entry.getValue().toKeys(plugin.registryCache)));
         }
-        config.set("global", new ArrayList<>(globalDiscovered));
+        config.set("global", new ArrayList<>(globalDiscovered.toKeys(plugin.registryCache)));
         // Save firsts
         config.set("first.server", null);
         for (Map.Entry<String, UUID> e : serverFirst.entrySet()) {
@@ -220,20 +293,18 @@ public class BiomesService extends ChecklistService {
      * @param includeGlobal if false, do not update global discovery and never flag firstForServer
      */
     public VisitResult visit(UUID playerId, String biomeName, boolean includeGlobal) {
-        boolean firstForPlayer = false;
         boolean firstForServer = false;
-        if (playerId == null || biomeName == null) return new VisitResult(false, false);
+        boolean newYearFirst = false;
+        boolean newMonthFirst = false;
+        if (playerId == null || biomeName == null) return VisitResult.NONE;
         String key = canonicalize(biomeName);
-        if (key == null) return new VisitResult(false, false);
+        if (key == null) return VisitResult.NONE;
         ensurePeriodCurrent();
-        Set<String> set = visitedByPlayer.computeIfAbsent(playerId, k -> new HashSet<>());
-        if (!set.contains(key)) {
-            set.add(key);
-            firstForPlayer = true;
-        }
+        int index = indexOf(key);
+        BiomeSet set = visitedByPlayer.computeIfAbsent(playerId, k -> new BiomeSet());
+        boolean firstForPlayer = set.add(index, key);
         if (includeGlobal) {
-            if (!globalDiscovered.contains(key)) {
-                globalDiscovered.add(key);
+            if (globalDiscovered.add(index, key)) {
                 firstForServer = true;
                 // server-first winner
                 serverFirst.putIfAbsent(key, playerId);
@@ -242,41 +313,108 @@ public class BiomesService extends ChecklistService {
         if (includeGlobal) {
             // year-first winner (for current year)
             Map<String, UUID> yearMap = yearFirstByYear.computeIfAbsent(currentYear, k -> new HashMap<>());
-            yearMap.putIfAbsent(key, playerId);
+            newYearFirst = yearMap.putIfAbsent(key, playerId) == null;
             // month-first winner (only for current month)
-            monthFirst.putIfAbsent(key, playerId);
+            newMonthFirst = monthFirst.putIfAbsent(key, playerId) == null;
         }
-        return new VisitResult(firstForPlayer, firstForServer);
+        if (firstForPlayer || firstForServer || newYearFirst || newMonthFirst) markDirty();
+        return new VisitResult(firstForPlayer, firstForServer, newYearFirst, newMonthFirst, set.size(), set.registryCount());
+    }
+
+    // --- Move gating ---
+    /**
+     * Called for every block-changing move. Biomes are stored per quart cell, so the biome can only
+     * differ after the player crossed into another cell (which includes every chunk change).
+     * @return true when the biome at the new position should be sampled
+     */
+    public boolean enterQuart(UUID playerId, UUID worldId, int blockX, int blockY, int blockZ) {
+        moveChecks++;
+        int qx = blockX >> 2, qy = blockY >> 2, qz = blockZ >> 2;
+        LastSample last = lastSamples.computeIfAbsent(playerId, k -> new LastSample());
+        if (last.biome != null && qx == last.qx && qy == last.qy && qz == last.qz && worldId.equals(last.worldId)) return false;
+        last.worldId = worldId;
+        last.qx = qx;
+        last.qy = qy;
+        last.qz = qz;
+        biomeSamples++;
+        return true;
+    }
+
+    /**
+     * Stores the sampled biome for the player.
+     * @return true when it differs from the previously sampled biome
+     */
+    public boolean biomeChanged(UUID playerId, org.bukkit.block.Biome biome) {
+        LastSample last = lastSamples.computeIfAbsent(playerId, k -> new LastSample());
+        if (biome == last.biome) return false;
+        last.biome = biome;
+        biomeChanges++;
+        return true;
+    }
+
+    public void forgetSample(UUID playerId) {
+        lastSamples.remove(playerId);
+    }
+
+    public long getMoveChecks() {
+        return moveChecks;
+    }
+
+    public long getBiomeSamples() {
+        return biomeSamples;
+    }
+
+    public long getBiomeChanges() {
+        return biomeChanges;
+    }
+
+    /** @return fraction of block-changing moves that skipped the reward pipeline */
+    public double getSkipRate() {
+        return moveChecks == 0 ? 0.0 : 1.0 - (double) biomeChanges / moveChecks;
     }
 
     public boolean hasVisited(UUID playerId, String biomeName) {
         if (playerId == null || biomeName == null) return false;
-        Set<String> set = visitedByPlayer.get(playerId);
+        BiomeSet set = visitedByPlayer.get(playerId);
         if (set == null) return false;
         String key = canonicalize(biomeName);
         if (key == null) return false;
-        return set.contains(key);
+        return set.contains(indexOf(key), key);
     }
 
+    /**
+     * @return a copy of the visited biome keys; use {@link #getVisitedCount(UUID)} for counting
+     */
     public Set<String> getVisited(UUID playerId) {
-        return visitedByPlayer.getOrDefault(playerId, Collections.emptySet());
+        BiomeSet set = visitedByPlayer.get(playerId);
+        return set == null ? Collections.emptySet() : set.toKeys(plugin.registryCache);
     }
 
-    public Set<UUID> getAllTrackedPlayers() {
-        return Collections.unmodifiableSet(visitedByPlayer.keySet());
+    /** @return number of distinct biomes the player has visited */
+    public int getVisitedCount(UUID playerId) {
+        BiomeSet set = visitedByPlayer.get(playerId);
+        return set == null ? 0 : set.size();
     }
 
-    public List<OfflinePlayer> resolveAllKnownPlayers() {
-        // Prefer tracked players; if empty, fall back to server list
-        if (!visitedByPlayer.isEmpty()) {
-            return visitedByPlayer.keySet().stream()
-                    .map(uuid -> plugin.getServer().getOfflinePlayer(uuid))
-                    .collect(Collectors.toList());
-        }
-        return Arrays.asList(plugin.getServer().getOfflinePlayers());
+    /** @return number of distinct registry biomes the player has visited */
+    public int getRegistryVisitedCount(UUID playerId) {
+        BiomeSet set = visitedByPlayer.get(playerId);
+        return set == null ? 0 : set.registryCount();
     }
 
-    public record VisitResult(boolean firstForPlayer, boolean firstForServer) {
+    public Set<UUID> getAllTrackedPlayers() {
+        return Collections.unmodifiableSet(visitedByPlayer.keySet());
+    }
+
+    /**
+     * @param newYearFirst    this visit made the player this year's first for the biome
+     * @param newMonthFirst   this visit made the player this month's first for the biome
+     * @param visited         distinct biomes the player has visited after this visit
+     * @param registryVisited distinct registry biomes among them (for completion)
+     */
+    public record VisitResult(boolean firstForPlayer, boolean firstForServer, boolean newYearFirst, boolean newMonthFirst,
+                              int visited, int registryVisited) {
+        static final VisitResult NONE = new VisitResult(false, false, false, false, 0, 0);
     }
 
     public void clearAllFirsts() {
@@ -32,6 +32,11 @@ public interface Checklist {
      */
     boolean markPaidOnce(String marker);
 
+    /**
+     * Set a typed paid marker once. Returns true if it was newly marked, false if it already existed.
+     */
+    boolean markPaidOnce(PaidMarkerRegistry.Kind kind, int period, UUID player, String target);
+
     /**
      * Grants the completion reward to the player and persists the rewarded flag.
      * The amount and checklist name are passed by the caller.
@@ -2,14 +2,12 @@ package com.spillhuset.furious.services.Checklist;
 
 import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.services.ChecklistService;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Tracks which hostile monsters each player has removed and global removals.
@@ -108,7 +106,7 @@ public class MonstersService extends ChecklistService {
             }
             ensurePeriodCurrent();
             // rewards
-            loadRewards(config);
+            loadRewards(config, new File(file.getParentFile(), "monsters-paid.log"));
         } catch (IOException e) {
             plugin.getLogger().warning("Failed to load monsters.yml: " + e.getMessage());
         }
@@ -170,9 +168,10 @@ public class MonstersService extends ChecklistService {
                 serverFirst.putIfAbsent(key, playerId);
             }
             Map<String, UUID> yearMap = yearFirstByYear.computeIfAbsent(currentYear, k -> new HashMap<>());
-            yearMap.putIfAbsent(key, playerId);
-            monthFirst.putIfAbsent(key, playerId);
+            if (yearMap.putIfAbsent(key, playerId) == null) markDirty();
+            if (monthFirst.putIfAbsent(key, playerId) == null) markDirty();
         }
+        if (firstForPlayer || firstForServer) markDirty();
         return new VisitResult(firstForPlayer, firstForServer);
     }
 
@@ -180,11 +179,8 @@ public class MonstersService extends ChecklistService {
         return removedByPlayer.getOrDefault(playerId, Collections.emptySet());
     }
 
-    public List<OfflinePlayer> resolveAllKnownPlayers() {
-        if (!removedByPlayer.isEmpty()) {
-            return removedByPlayer.keySet().stream().map(uuid -> plugin.getServer().getOfflinePlayer(uuid)).collect(Collectors.toList());
-        }
-        return Arrays.asList(plugin.getServer().getOfflinePlayers());
+    public Set<UUID> getAllTrackedPlayers() {
+        return Collections.unmodifiableSet(removedByPlayer.keySet());
     }
 
     public void clearAllFirsts() {
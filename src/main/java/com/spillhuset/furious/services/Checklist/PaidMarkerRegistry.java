@@ -0,0 +1,250 @@
+package com.spillhuset.furious.services.Checklist;
+
+import com.spillhuset.furious.utils.LongHashSet;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Records which checklist rewards have been paid, so each is paid at most once.
+ * <p>
+ * A marker is (kind, period, player, target). Players and targets are interned to small
+ * indexes and the four parts are packed into one long held in a {@link LongHashSet}.
+ * The backing file is append-only, one line per record:
+ * <pre>
+ * P &lt;index&gt; &lt;uuid&gt;                        player index definition
+ * T &lt;index&gt; &lt;target&gt;                      target index definition
+ * M &lt;kind&gt; &lt;period&gt; &lt;player&gt; &lt;target&gt;   paid marker (0 = no player / target)
+ * L &lt;marker&gt;                              legacy string marker that could not be typed
+ * </pre>
+ * Not thread-safe; used from the main thread.
+ */
+public class PaidMarkerRegistry {
+    /** Reward kinds; the name is the prefix used by the old string markers. */
+    public enum Kind {
+        PLAYER_FIRST("player-first"),
+        SERVER_FIRST("server-first"),
+        YEAR_FIRST("year-first"),
+        MONTH_FIRST("month-first"),
+        HALF("50pct");
+
+        private final String prefix;
+
+        Kind(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        static Kind byPrefix(String prefix) {
+            for (Kind k : values()) if (k.prefix.equals(prefix)) return k;
+            return null;
+        }
+    }
+
+    // Packed layout: kind 3 bits | period 15 bits | player 22 bits | target 23 bits
+    private static final int PERIOD_BITS = 15;
+    private static final int PLAYER_BITS = 22;
+    private static final int TARGET_BITS = 23;
+
+    private final File file;
+    private final LongHashSet paid = new LongHashSet();
+    private final Set<String> legacy = new HashSet<>();
+    private final Map<UUID, Integer> playerIndex = new HashMap<>();
+    private final Map<String, Integer> targetIndex = new HashMap<>();
+    private BufferedWriter writer;
+    // Lines not yet known to be on disk; rewritten by the next append after a failed one
+    private final List<String> unwritten = new ArrayList<>();
+
+    public PaidMarkerRegistry(File file) {
+        this.file = file;
+    }
+
+    /** Period value for month-scoped markers. */
+    public static int monthPeriod(int year, int month) {
+        return year * 12 + (month - 1);
+    }
+
+    public void load() throws IOException {
+        close();
+        paid.clear();
+        legacy.clear();
+        playerIndex.clear();
+        targetIndex.clear();
+        if (!file.exists()) return;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    readLine(line);
+                } catch (RuntimeException ignored) {
+                    // A torn last line after a crash is skipped
+                }
+            }
+        }
+    }
+
+    private void readLine(String line) {
+        if (line.length() < 2) return;
+        String rest = line.substring(2);
+        switch (line.charAt(0)) {
+            case 'P' -> {
+                int sp = rest.indexOf(' ');
+                playerIndex.put(UUID.fromString(rest.substring(sp + 1)), Integer.parseInt(rest.substring(0, sp)));
+            }
+            case 'T' -> {
+                int sp = rest.indexOf(' ');
+                targetIndex.put(rest.substring(sp + 1), Integer.parseInt(rest.substring(0, sp)));
+            }
+            case 'M' -> {
+                String[] parts = rest.split(" ");
+                Kind kind = Kind.valueOf(parts[0]);
+                paid.add(pack(kind, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3])));
+            }
+            case 'L' -> legacy.add(rest);
+            default -> {
+            }
+        }
+    }
+
+    public boolean isPaid(Kind kind, int period, UUID player, String target) {
+        int p = player == null ? 0 : playerIndex.getOrDefault(player, -1);
+        int t = target == null ? 0 : targetIndex.getOrDefault(target, -1);
+        if (p < 0 || t < 0) return false;
+        return paid.contains(pack(kind, period, p, t));
+    }
+
+    /**
+     * Marks the reward as paid.
+     * @return true when it was not paid before
+     */
+    public boolean markOnce(Kind kind, int period, UUID player, String target) {
+        if (isPaid(kind, period, player, target)) return false;
+        List<String> lines = new ArrayList<>(3);
+        int p = player == null ? 0 : internPlayer(player, lines);
+        int t = target == null ? 0 : internTarget(target, lines);
+        paid.add(pack(kind, period, p, t));
+        lines.add("M " + kind.name() + " " + period + " " + p + " " + t);
+        append(lines);
+        return true;
+    }
+
+    /**
+     * Marks an old-style string marker such as {@code "player-first:Biomes:<uuid>:<key>"}.
+     * Known shapes are converted to typed markers; anything else is kept as a string.
+     * @return true when it was not paid before
+     */
+    public boolean markOnce(String marker) {
+        if (marker == null || marker.isEmpty()) return false;
+        Object[] typed = parseLegacy(marker);
+        if (typed != null) {
+            return markOnce((Kind) typed[0], (Integer) typed[1], (UUID) typed[2], (String) typed[3]);
+        }
+        if (!legacy.add(marker)) return false;
+        append(List.of("L " + marker));
+        return true;
+    }
+
+    public int size() {
+        return paid.size() + legacy.size();
+    }
+
+    // Returns {kind, period, player, target} or null
+    private static Object[] parseLegacy(String marker) {
+        try {
+            String[] parts = marker.split(":");
+            Kind kind = Kind.byPrefix(parts[0]);
+            if (kind == null) return null;
+            // parts[1] is the checklist type; the registry is already per checklist
+            return switch (kind) {
+                case PLAYER_FIRST -> new Object[]{kind, 0, UUID.fromString(parts[2]), join(parts, 3)};
+                case SERVER_FIRST -> new Object[]{kind, 0, null, join(parts, 2)};
+                case YEAR_FIRST -> new Object[]{kind, Integer.parseInt(parts[2]), null, join(parts, 3)};
+                case MONTH_FIRST -> {
+                    String[] ym = parts[2].split("-");
+                    yield new Object[]{kind, monthPeriod(Integer.parseInt(ym[0]), Integer.parseInt(ym[1])), null, join(parts, 3)};
+                }
+                case HALF -> parts.length == 3 ? new Object[]{kind, 0, UUID.fromString(parts[2]), null} : null;
+            };
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Targets are namespaced keys and contain ':' themselves
+    private static String join(String[] parts, int from) {
+        if (from >= parts.length) throw new IllegalArgumentException("missing target");
+        return String.join(":", Arrays.copyOfRange(parts, from, parts.length));
+    }
+
+    private int internPlayer(UUID player, List<String> lines) {
+        Integer idx = playerIndex.get(player);
+        if (idx != null) return idx;
+        int next = playerIndex.size() + 1;
+        if (next >= (1 << PLAYER_BITS)) throw new IllegalStateException("Too many players in paid marker registry");
+        playerIndex.put(player, next);
+        lines.add("P " + next + " " + player);
+        return next;
+    }
+
+    private int internTarget(String target, List<String> lines) {
+        Integer idx = targetIndex.get(target);
+        if (idx != null) return idx;
+        int next = targetIndex.size() + 1;
+        if (next >= (1 << TARGET_BITS)) throw new IllegalStateException("Too many targets in paid marker registry");
+        targetIndex.put(target, next);
+        lines.add("T " + next + " " + target);
+        return next;
+    }
+
+    private static long pack(Kind kind, int period, int player, int target) {
+        return ((long) kind.ordinal() << (PERIOD_BITS + PLAYER_BITS + TARGET_BITS))
+                | ((long) (period & ((1 << PERIOD_BITS) - 1)) << (PLAYER_BITS + TARGET_BITS))
+                | ((long) player << TARGET_BITS)
+                | target;
+    }
+
+    private void append(List<String> lines) {
+        unwritten.addAll(lines);
+        try {
+            if (writer == null) {
+                File parent = file.getParentFile();
+                if (parent != null && !parent.exists()) parent.mkdirs();
+                writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (String line : unwritten) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+            unwritten.clear();
+        } catch (IOException e) {
+            // Drop the broken handle; the lines are retried with the next marker. A partly
+            // written batch may then appear twice, which load() tolerates.
+            closeWriter();
+        }
+    }
+
+    public void close() {
+        if (!unwritten.isEmpty()) append(List.of());
+        closeWriter();
+        unwritten.clear();
+    }
+
+    private void closeWriter() {
+        try {
+            if (writer != null) writer.close();
+        } catch (IOException ignored) {
+        }
+        writer = null;
+    }
+}
@@ -2,14 +2,12 @@ package com.spillhuset.furious.services.Checklist;
 
 import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.services.ChecklistService;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Tracks which tameable animals each player has tamed and global firsts.
@@ -51,7 +49,6 @@ public class TamingService extends ChecklistService {
             yearFirstByYear.clear();
             monthFirst.clear();
             completionRewarded.clear();
-            paidMarkers.clear();
             if (config.isConfigurationSection("players")) {
                 for (String key : Objects.requireNonNull(config.getConfigurationSection("players")).getKeys(false)) {
                     try {
@@ -105,7 +102,7 @@ public class TamingService extends ChecklistService {
             }
             this.ensurePeriodCurrent();
             // rewards
-            loadRewards(config);
+            loadRewards(config, new File(file.getParentFile(), "taming-paid.log"));
         } catch (IOException e) {
             plugin.getLogger().warning("Failed to load taming.yml: " + e.getMessage());
         }
@@ -168,19 +165,17 @@ public class TamingService extends ChecklistService {
                 serverFirst.putIfAbsent(key, playerId);
             }
             Map<String, UUID> yearMap = yearFirstByYear.computeIfAbsent(currentYear, k -> new HashMap<>());
-            yearMap.putIfAbsent(key, playerId);
-            monthFirst.putIfAbsent(key, playerId);
+            if (yearMap.putIfAbsent(key, playerId) == null) markDirty();
+            if (monthFirst.putIfAbsent(key, playerId) == null) markDirty();
         }
+        if (firstForPlayer || firstForServer) markDirty();
         return new VisitResult(firstForPlayer, firstForServer);
     }
 
     public Set<String> getTamed(UUID playerId) { return tamedByPlayer.getOrDefault(playerId, Collections.emptySet()); }
 
-    public List<OfflinePlayer> resolveAllKnownPlayers() {
-        if (!tamedByPlayer.isEmpty()) {
-            return tamedByPlayer.keySet().stream().map(uuid -> plugin.getServer().getOfflinePlayer(uuid)).collect(Collectors.toList());
-        }
-        return Arrays.asList(plugin.getServer().getOfflinePlayers());
+    public Set<UUID> getAllTrackedPlayers() {
+        return Collections.unmodifiableSet(tamedByPlayer.keySet());
     }
 
     public void clearAllFirsts() {
@@ -2,12 +2,16 @@ package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
 import com.spillhuset.furious.services.Checklist.Checklist;
+import com.spillhuset.furious.services.Checklist.PaidMarkerRegistry;
 import com.spillhuset.furious.utils.Components;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -18,8 +22,8 @@ import java.util.*;
 public abstract class ChecklistService implements Checklist {
     protected final Furious plugin;
     protected final Set<UUID> completionRewarded = new HashSet<>();
-    // Generic paid markers to avoid duplicate payouts for various milestones
-    protected final Set<String> paidMarkers = new HashSet<>();
+    // Paid markers to avoid duplicate payouts for various milestones; set up by loadRewards
+    protected PaidMarkerRegistry paidMarkers;
 
     // Common optional "firsts" tracking structures for services that need them
     protected final Map<String, UUID> serverFirst = new HashMap<>();
@@ -30,6 +34,10 @@ public abstract class ChecklistService implements Checklist {
     protected int currentYear = 0;
     protected int currentMonth = 0; // 1-12
 
+    // Progress changes are saved by a periodic task rather than on every event
+    private boolean dirty;
+    private BukkitTask saveTask;
+
     protected ChecklistService(Furious plugin) {
         this.plugin = plugin.getInstance();
     }
@@ -94,24 +102,75 @@ public abstract class ChecklistService implements Checklist {
         return monthFirst.get(key.toLowerCase(java.util.Locale.ROOT));
     }
 
+    // --- Periodic save ---
+    /** Marks progress as changed; it is saved by the next periodic save (or on shutdown). */
+    protected void markDirty() {
+        dirty = true;
+    }
+
+    /** (Re)starts the periodic save of changed progress; interval from checklists.save-interval-ticks. */
+    protected void startAutoSave() {
+        stopAutoSave();
+        long interval = plugin.getConfig().getLong("checklists.save-interval-ticks", 20L * 60);
+        if (interval > 0) {
+            saveTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::saveIfDirty, interval, interval);
+        }
+    }
+
+    public void stopAutoSave() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+    }
+
+    private void saveIfDirty() {
+        if (!dirty) return;
+        dirty = false;
+        save();
+    }
+
     // --- Reward flags persistence helpers ---
-    protected void loadRewards(FileConfiguration config) {
+    /**
+     * Loads the completion list from {@code config} and the paid markers from {@code paidFile},
+     * and starts the periodic save. Markers still stored under "rewards.paid" by older versions
+     * are moved into the registry; the YAML list is dropped on the next save.
+     */
+    protected void loadRewards(FileConfiguration config, File paidFile) {
+        dirty = false;
+        startAutoSave();
         completionRewarded.clear();
-        paidMarkers.clear();
+        if (paidMarkers != null) paidMarkers.close();
+        paidMarkers = new PaidMarkerRegistry(paidFile);
+        try {
+            paidMarkers.load();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load " + paidFile.getName() + ": " + e.getMessage());
+        }
         if (config == null) return;
         List<String> rewarded = config.getStringList("rewards.completed");
         for (String u : rewarded) {
             try { completionRewarded.add(UUID.fromString(u)); } catch (IllegalArgumentException ignored) {}
         }
-        List<String> paid = config.getStringList("rewards.paid");
-        paidMarkers.addAll(paid);
+        List<String> legacy = config.getStringList("rewards.paid");
+        if (!legacy.isEmpty()) {
+            int migrated = 0;
+            for (String marker : legacy) {
+                if (paidMarkers.markOnce(marker)) migrated++;
+            }
+            if (migrated > 0) {
+                plugin.getLogger().info("Migrated " + migrated + " paid markers to " + paidFile.getName());
+            }
+            markDirty();
+        }
     }
 
     protected void saveRewards(FileConfiguration config) {
         if (config == null) return;
         List<String> rewarded = completionRewarded.stream().map(UUID::toString).toList();
         config.set("rewards.completed", rewarded);
-        config.set("rewards.paid", new ArrayList<>(paidMarkers));
+        // Paid markers live in their own append-only file
+        config.set("rewards.paid", null);
     }
 
     public boolean isCompletionRewarded(UUID playerId) {
@@ -126,11 +185,17 @@ public abstract class ChecklistService implements Checklist {
 
     /** Checks and sets a unique paid marker. Returns true if it was newly marked. */
     public boolean markPaidOnce(String marker) {
-        if (marker == null || marker.isEmpty()) return false;
-        if (paidMarkers.contains(marker)) return false;
-        paidMarkers.add(marker);
-        save();
-        return true;
+        if (marker == null || marker.isEmpty() || paidMarkers == null) return false;
+        return paidMarkers.markOnce(marker);
+    }
+
+    /**
+     * Checks and sets a typed paid marker. {@code player} and {@code target} may be null when the
+     * reward is not tied to one. Returns true if it was newly marked.
+     */
+    public boolean markPaidOnce(PaidMarkerRegistry.Kind kind, int period, UUID player, String target) {
+        if (kind == null || paidMarkers == null) return false;
+        return paidMarkers.markOnce(kind, period, player, target);
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.managers.ArmorStandManager;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.Guild;
 import com.spillhuset.furious.utils.Home;
@@ -59,6 +60,7 @@ public class GuildHomesService {
         homes.clear();
         guildHomes.clear();
         locations.clear();
+        try { plugin.armorStandManager.unregisterAll(ArmorStandManager.OwnerKind.GUILD_HOME); } catch (Throwable ignored) {}
         synchronized (ioLock) {
             ConfigurationSection root = config.getConfigurationSection("guilds");
             if (root == null) return;
@@ -91,6 +93,10 @@ public class GuildHomesService {
                         if (armorStr != null) {
                             try { home.setArmorStandUuid(UUID.fromString(armorStr)); } catch (IllegalArgumentException ignored) {}
                         }
+                        if (home.getArmorStandUuid() != null) {
+                            UUID standId = home.getArmorStandUuid();
+                            try { plugin.armorStandManager.register(standId, ArmorStandManager.OwnerKind.GUILD_HOME, homeUUID, () -> removeByArmorStand(standId)); } catch (Throwable ignored) {}
+                        }
                         guildHomes.computeIfAbsent(gid, k -> new HashSet<>()).add(homeUUID);
                         homes.put(homeUUID, home);
                         locations.put(location, homeUUID);
@@ -222,14 +228,12 @@ public class GuildHomesService {
                 java.util.UUID id = plugin.armorStandManager.create(location, asName);
                 if (id != null) {
                     home.setArmorStandUuid(id);
-                    try { plugin.armorStandManager.register(id, () -> removeByArmorStand(id)); } catch (Throwable ignored) {}
+                    try { plugin.armorStandManager.register(id, ArmorStandManager.OwnerKind.GUILD_HOME, home.getUuid(), () -> removeByArmorStand(id)); } catch (Throwable ignored) {}
                     // Apply per-player visibility: show to ops, hide from others
                     try {
                         org.bukkit.entity.Entity ent = plugin.getServer().getEntity(id);
                         if (ent instanceof org.bukkit.entity.ArmorStand st) {
-                            for (org.bukkit.entity.Player viewer : plugin.getServer().getOnlinePlayers()) {
-                                if (viewer.isOp()) viewer.showEntity(plugin, st); else viewer.hideEntity(plugin, st);
-                            }
+                            plugin.markerVisibilityService.apply(st, MarkerVisibilityService.Viewers.OPS, null);
                         }
                     } catch (Throwable ignored) {}
                 }
@@ -388,12 +392,13 @@ public class GuildHomesService {
                 if (!hLoc.getWorld().equals(sLoc.getWorld())) continue;
                 if (hLoc.distanceSquared(sLoc) <= 4.0) {
                     if (stand.getUniqueId().equals(h.getArmorStandUuid())) return true;
+                    if (h.getArmorStandUuid() != null) {
+                        try { plugin.armorStandManager.unregister(h.getArmorStandUuid()); } catch (Throwable ignored) {}
+                    }
                     h.setArmorStandUuid(stand.getUniqueId());
-                    try { plugin.armorStandManager.register(stand.getUniqueId(), () -> removeByArmorStand(stand.getUniqueId())); } catch (Throwable ignored) {}
+                    try { plugin.armorStandManager.register(stand.getUniqueId(), ArmorStandManager.OwnerKind.GUILD_HOME, h.getUuid(), () -> removeByArmorStand(stand.getUniqueId())); } catch (Throwable ignored) {}
                     try {
-                        for (org.bukkit.entity.Player viewer : plugin.getServer().getOnlinePlayers()) {
-                            if (viewer.isOp()) viewer.showEntity(plugin, stand); else viewer.hideEntity(plugin, stand);
-                        }
+                        plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
                     } catch (Throwable ignored) {}
                     save();
                     return true;
@@ -424,57 +429,70 @@ public class GuildHomesService {
 
     public void ensureArmorStands() {
         for (Home home : new java.util.ArrayList<>(homes.values())) {
-            java.util.UUID asId = home.getArmorStandUuid();
-            org.bukkit.entity.Entity ent = (asId != null) ? plugin.getServer().getEntity(asId) : null;
-            if (!(ent instanceof org.bukkit.entity.ArmorStand stand)) {
-                Location location = home.getLocation(plugin);
-                if (location == null || location.getWorld() == null) continue;
-                try {
-                    String asName = armorStandName(home.getPlayer(), home.getName());
-                    java.util.UUID id = plugin.armorStandManager.create(location, asName);
-                    if (id != null) {
-                        home.setArmorStandUuid(id);
-                        try { plugin.armorStandManager.register(id, () -> removeByArmorStand(id)); } catch (Throwable ignored) {}
-                        try {
-                            org.bukkit.entity.Entity ent2 = plugin.getServer().getEntity(id);
-                            if (ent2 instanceof org.bukkit.entity.ArmorStand newStand) { newStand.setInvisible(true); }
-                        } catch (Throwable ignored) {}
-                    }
-                } catch (Throwable t) {
-                    plugin.getLogger().warning("Failed to respawn ArmorStand for guild home: " + t.getMessage());
-                }
-            } else {
-                try {
-                    String asName = armorStandName(home.getPlayer(), home.getName());
-                    stand.customName(net.kyori.adventure.text.Component.text(asName));
-                } catch (Throwable ignored) {}
-                try { plugin.armorStandManager.register(stand.getUniqueId(), () -> removeByArmorStand(stand.getUniqueId())); } catch (Throwable ignored) {}
-                // Ensure per-player visibility for existing stand
-                try {
-                    for (org.bukkit.entity.Player viewer : plugin.getServer().getOnlinePlayers()) {
-                        if (viewer.isOp()) viewer.showEntity(plugin, stand); else viewer.hideEntity(plugin, stand);
-                    }
-                } catch (Throwable ignored) {}
-            }
+            ensureArmorStand(home);
         }
     }
 
-    public void applyGuildHomeArmorStandVisibility(org.bukkit.entity.Player viewer) {
-        if (viewer == null) return;
-        try {
-            for (Home h : new java.util.ArrayList<>(homes.values())) {
-                java.util.UUID asId = h.getArmorStandUuid();
-                if (asId == null) continue;
-                org.bukkit.entity.Entity ent = plugin.getServer().getEntity(asId);
-                if (ent instanceof org.bukkit.entity.ArmorStand stand) {
-                    if (viewer.isOp()) {
-                        viewer.showEntity(plugin, stand);
-                    } else {
-                        viewer.hideEntity(plugin, stand);
+    /**
+     * Reconciles only the guild homes stored in the given chunk. Called when the chunk loads.
+     */
+    public void ensureArmorStandsInChunk(UUID worldId, int chunkX, int chunkZ) {
+        for (Home home : new java.util.ArrayList<>(homes.values())) {
+            if (!worldId.equals(home.getWorld())) continue;
+            if (((int) Math.floor(home.getX()) >> 4) != chunkX || ((int) Math.floor(home.getZ()) >> 4) != chunkZ) continue;
+            ensureArmorStand(home);
+        }
+    }
+
+    /**
+     * Adds one reconciliation step per guild home, for the background sweep.
+     */
+    public void collectArmorStandChecks(List<Runnable> out) {
+        for (Home home : homes.values()) {
+            UUID homeId = home.getUuid();
+            out.add(() -> {
+                Home current = homes.get(homeId);
+                if (current != null) ensureArmorStand(current);
+            });
+        }
+    }
+
+    private void ensureArmorStand(Home home) {
+        java.util.UUID asId = home.getArmorStandUuid();
+        org.bukkit.entity.Entity ent = (asId != null) ? plugin.getServer().getEntity(asId) : null;
+        if (!(ent instanceof org.bukkit.entity.ArmorStand stand)) {
+            Location location = home.getLocation(plugin);
+            if (location == null || location.getWorld() == null) return;
+            // The stand may simply not be loaded yet; the chunk load will reconcile it
+            if (!location.getWorld().isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) return;
+            try {
+                String asName = armorStandName(home.getPlayer(), home.getName());
+                java.util.UUID id = plugin.armorStandManager.create(location, asName);
+                if (id != null) {
+                    if (asId != null) {
+                        try { plugin.armorStandManager.unregister(asId); } catch (Throwable ignored) {}
                     }
+                    home.setArmorStandUuid(id);
+                    try { plugin.armorStandManager.register(id, ArmorStandManager.OwnerKind.GUILD_HOME, home.getUuid(), () -> removeByArmorStand(id)); } catch (Throwable ignored) {}
+                    try {
+                        org.bukkit.entity.Entity ent2 = plugin.getServer().getEntity(id);
+                        if (ent2 instanceof org.bukkit.entity.ArmorStand newStand) { newStand.setInvisible(true); }
+                    } catch (Throwable ignored) {}
                 }
+            } catch (Throwable t) {
+                plugin.getLogger().warning("Failed to respawn ArmorStand for guild home: " + t.getMessage());
             }
-        } catch (Throwable ignored) {}
+        } else {
+            try {
+                String asName = armorStandName(home.getPlayer(), home.getName());
+                stand.customName(net.kyori.adventure.text.Component.text(asName));
+            } catch (Throwable ignored) {}
+            try { plugin.armorStandManager.register(stand.getUniqueId(), ArmorStandManager.OwnerKind.GUILD_HOME, home.getUuid(), () -> removeByArmorStand(stand.getUniqueId())); } catch (Throwable ignored) {}
+            // Ensure per-player visibility for existing stand
+            try {
+                plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
+            } catch (Throwable ignored) {}
+        }
     }
 
     public boolean isWorldEnabled(UUID worldId) {
@@ -1,21 +1,22 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.db.GuildsStore;
+import com.spillhuset.furious.utils.BackgroundWriter;
+import com.spillhuset.furious.utils.ChunkClaimTable;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.Guild;
 import com.spillhuset.furious.utils.GuildRole;
 import com.spillhuset.furious.utils.GuildType;
+import com.spillhuset.furious.utils.ProtectionContext;
+import com.spillhuset.furious.utils.SuggestionIndex;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 
 public class GuildService {
@@ -42,9 +43,20 @@ public class GuildService {
     // Join requests: guild ID -> set of players who requested to join
     private final Map<UUID, Set<UUID>> pendingJoinByGuild = new HashMap<>();
 
-    // Claims: worldUUID -> x -> z -> guildId
+    // Claims: worldUUID -> packed (x,z) -> interned guild index
     // Stored in YAML as claims.<world>.<x>.<z> = guildId
-    private final Map<UUID, Map<Integer, Map<Integer, UUID>>> claims = new HashMap<>();
+    private final Map<UUID, ChunkClaimTable> claims = new HashMap<>();
+    // Guild interning for the claim tables: index -> guildId (slot 0 is reserved for "unclaimed")
+    private final List<UUID> guildByIndex = new ArrayList<>(Collections.singletonList(null));
+    private final Map<UUID, Integer> indexByGuild = new HashMap<>();
+    // Indexes released by deleted guilds, reused by the next internGuild
+    private final Deque<Integer> freeGuildIndexes = new ArrayDeque<>();
+    // Region summary: worldUUID -> packed (x >> 5, z >> 5) region -> number of claimed chunks in that 32x32 region
+    private final Map<UUID, ChunkClaimTable> claimRegions = new HashMap<>();
+    private static final int REGION_SHIFT = 5;
+    // Cached protection contexts per interned guild index; a chunk resolves to its owner's context,
+    // so claim/unclaim is reflected by the claim table and only type changes/deletion need invalidation
+    private final List<ProtectionContext> contextByIndex = new ArrayList<>(Collections.singletonList(null));
 
     // Wooden axe selection points per player (transient)
     private final Map<UUID, org.bukkit.Location> selectionPos1 = new HashMap<>();
@@ -53,11 +65,48 @@ public class GuildService {
     // Configurable limits
     private int maxClaimsPerGuild = 25;
 
-    private File guildsFile;
-    private FileConfiguration guildsConfig;
+    private volatile GuildsStore store; // null when storage could not be opened; saving is then skipped
+
+    // Persistence: changed guilds and chunks are collected on the main thread and written in batches off it
+    private final Set<UUID> dirtyGuilds = new HashSet<>();
+    // worldUUID -> packed (x,z) of chunks claimed or unclaimed since the last snapshot
+    private final Map<UUID, Set<Long>> dirtyClaims = new HashMap<>();
+    private final BackgroundWriter<Batch> writer;
+    private BukkitTask flushTask;
+    private long flushIntervalTicks = 100L;
+
+    /** Changes taken from the dirty sets in one go; a claim with a null guild is an unclaimed chunk. */
+    private record Batch(Map<UUID, GuildsStore.GuildRow> guilds, Map<UUID, List<GuildsStore.ChunkRow>> outposts,
+                         Set<UUID> deleted, Map<ClaimKey, GuildsStore.ChunkRow> claims) {
+        boolean isEmpty() {
+            return guilds.isEmpty() && deleted.isEmpty() && claims.isEmpty();
+        }
+
+        // This batch followed by a newer one
+        Batch then(Batch newer) {
+            Map<UUID, GuildsStore.GuildRow> up = new HashMap<>(guilds);
+            Map<UUID, List<GuildsStore.ChunkRow>> out = new HashMap<>(outposts);
+            Set<UUID> del = new HashSet<>(deleted);
+            up.keySet().removeAll(newer.deleted);
+            out.keySet().removeAll(newer.deleted);
+            del.removeAll(newer.guilds.keySet());
+            up.putAll(newer.guilds);
+            out.putAll(newer.outposts);
+            del.addAll(newer.deleted);
+            Map<ClaimKey, GuildsStore.ChunkRow> cl = new HashMap<>(claims);
+            cl.putAll(newer.claims);
+            return new Batch(up, out, del, cl);
+        }
+    }
+
+    private record ClaimKey(UUID world, long chunk) {}
 
     public GuildService(Furious instance) {
         this.plugin = instance.getInstance();
+        flushIntervalTicks = plugin.getConfig().getLong("guild.flush-interval-ticks", flushIntervalTicks);
+        // A batch that fails to reach the store is merged back (newer changes win) and retried on the next flush
+        writer = new BackgroundWriter<>("guilds", plugin.getLogger(), this::snapshotDirty, Batch::then, Batch::isEmpty, this::write,
+                task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
     }
 
     public Collection<String> getAllGuildNames() {
@@ -68,6 +117,12 @@ public class GuildService {
         return names;
     }
 
+    /** Tab completion: at most {@link SuggestionIndex#LIMIT} guild names starting with {@code prefix}, sorted. */
+    public List<String> suggestGuildNames(String prefix) {
+        if (plugin.suggestionIndex == null) return new ArrayList<>();
+        return plugin.suggestionIndex.complete(SuggestionIndex.Domain.GUILDS, prefix);
+    }
+
     public Guild getGuildById(UUID id) {
         return guildsById.get(id);
     }
@@ -76,128 +131,78 @@ public class GuildService {
         return maxClaimsPerGuild;
     }
 
+    /**
+     * Loads guilds from the configured store (guilds.yml, SQLite or MySQL). Unsaved changes are discarded; call {@link #save()} first to keep them.
+     */
     public void load() {
+        stopAutoFlush();
             outpostAllowance.clear();
             outpostCenters.clear();
         loadEnabledWorldsFromConfig();
         ensureGuildDefaultsPersisted();
         // Load configuration values
         maxClaimsPerGuild = Math.max(1, plugin.getConfig().getInt("guild.max-claims-per-guild", 25));
-        guildsFile = new File(plugin.getDataFolder(), "guilds.yml");
+        store = null;
+        GuildsStore.Snapshot snapshot = new GuildsStore.Snapshot(List.of(), List.of(), List.of());
+        GuildsStore candidate = plugin.databaseManager.guildsStore();
         try {
-            if (!guildsFile.exists()) guildsFile.createNewFile();
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed creating guilds file: " + e.getMessage());
+            candidate.init();
+            snapshot = candidate.loadAll();
+            store = candidate;
+        } catch (Exception e) {
+            // Saving is skipped until a reload succeeds, so the defaults created below never replace stored guilds
+            plugin.getLogger().severe("Failed loading guilds (" + plugin.databaseManager.getBackend() + "): " + e.getMessage());
         }
-        guildsConfig = YamlConfiguration.loadConfiguration(guildsFile);
 
         guildsById.clear();
         guildIdByName.clear();
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.clear(SuggestionIndex.Domain.GUILDS);
         guildIdByMember.clear();
         pendingInvitesByTarget.clear();
         pendingInvitesByGuild.clear();
         pendingJoinByPlayer.clear();
         pendingJoinByGuild.clear();
 
-        ConfigurationSection section = guildsConfig.getConfigurationSection("guilds");
-        if (section != null) {
-            for (String idStr : section.getKeys(false)) {
-                try {
-                    UUID id = UUID.fromString(idStr);
-                    ConfigurationSection g = section.getConfigurationSection(idStr);
-                    if (g == null) continue;
-                    String name = g.getString("name");
-                    String typeStr = g.getString("type", GuildType.FREE.name());
-                    GuildType type = GuildType.valueOf(typeStr);
-                    String ownerStr = g.getString("owner", null);
-                    UUID owner = ownerStr == null ? null : UUID.fromString(ownerStr);
-
-                    Guild guild = new Guild(id, name, type, owner);
-                    // open flag (default false -> invitedOnly)
-                    boolean open = g.getBoolean("open", false);
-                    guild.setOpen(open);
-
-                    // Outposts allowance and centers
-                    int allowed = g.getInt("outposts.allowed", 0);
-                    if (allowed > 0) outpostAllowance.put(id, allowed);
-                    ConfigurationSection centersSec = g.getConfigurationSection("outposts.centers");
-                    if (centersSec != null) {
-                        for (String worldKey : centersSec.getKeys(false)) {
-                            try {
-                                UUID worldId = UUID.fromString(worldKey);
-                                ConfigurationSection xs = centersSec.getConfigurationSection(worldKey);
-                                if (xs == null) continue;
-                                for (String xKey : xs.getKeys(false)) {
-                                    int x = Integer.parseInt(xKey);
-                                    ConfigurationSection zs = xs.getConfigurationSection(xKey);
-                                    if (zs == null) continue;
-                                    for (String zKey : zs.getKeys(false)) {
-                                        int z = Integer.parseInt(zKey);
-                                        if (zs.getBoolean(zKey, false)) {
-                                            outpostCenters
-                                                    .computeIfAbsent(worldId, w -> new HashMap<>())
-                                                    .computeIfAbsent(id, gset -> new HashSet<>())
-                                                    .add(key(x, z));
-                                        }
-                                    }
-                                }
-                            } catch (IllegalArgumentException ignored) {
-                            }
-                        }
-                    }
-
-                    ConfigurationSection members = g.getConfigurationSection("members");
-                    if (members != null) {
-                        for (String memStr : members.getKeys(false)) {
-                            UUID member = UUID.fromString(memStr);
-                            GuildRole role = GuildRole.valueOf(members.getString(memStr, GuildRole.MEMBER.name()));
-                            guild.getMembers().put(member, role);
-                            guildIdByMember.put(member, id);
-                        }
-                    }
-
-                    guildsById.put(id, guild);
-                    if (name != null) guildIdByName.put(name.toLowerCase(), id);
-                } catch (Exception e) {
-                    plugin.getLogger().warning("Failed loading guild entry: " + idStr + " -> " + e.getMessage());
-                }
+        for (GuildsStore.GuildRow row : snapshot.guilds()) {
+            UUID id = row.id();
+            Guild guild = new Guild(id, row.name(), row.type(), row.owner());
+            guild.setOpen(row.open());
+            if (row.outpostsAllowed() > 0) outpostAllowance.put(id, row.outpostsAllowed());
+            for (Map.Entry<UUID, GuildRole> me : row.members().entrySet()) {
+                guild.getMembers().put(me.getKey(), me.getValue());
+                guildIdByMember.put(me.getKey(), id);
             }
+            guildsById.put(id, guild);
+            if (row.name() != null) guildIdByName.put(row.name().toLowerCase(), id);
+            if (plugin.suggestionIndex != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.GUILDS, row.name());
+        }
+        for (GuildsStore.ChunkRow c : snapshot.outposts()) {
+            outpostCenters
+                    .computeIfAbsent(c.world(), w -> new HashMap<>())
+                    .computeIfAbsent(c.guild(), gset -> new HashSet<>())
+                    .add(key(c.x(), c.z()));
         }
 
         // Load claims
-        ConfigurationSection claimsSection = guildsConfig.getConfigurationSection("claims");
         claims.clear();
-        if (claimsSection != null) {
-            for (String worldKey : claimsSection.getKeys(false)) {
-                try {
-                    UUID worldId = UUID.fromString(worldKey);
-                    ConfigurationSection xs = claimsSection.getConfigurationSection(worldKey);
-                    if (xs == null) continue;
-                    for (String xKey : xs.getKeys(false)) {
-                        int x = Integer.parseInt(xKey);
-                        ConfigurationSection zs = xs.getConfigurationSection(xKey);
-                        if (zs == null) continue;
-                        for (String zKey : zs.getKeys(false)) {
-                            int z = Integer.parseInt(zKey);
-                            String gidStr = zs.getString(zKey, null);
-                            if (gidStr == null) continue;
-                            try {
-                                UUID gid = UUID.fromString(gidStr);
-                                claims.computeIfAbsent(worldId, w -> new HashMap<>())
-                                        .computeIfAbsent(x, xx -> new HashMap<>())
-                                        .put(z, gid);
-                            } catch (IllegalArgumentException ignored) {
-                            }
-                        }
-                    }
-                } catch (IllegalArgumentException ignored) {
-                }
-            }
+        claimRegions.clear();
+        guildByIndex.clear();
+        guildByIndex.add(null);
+        indexByGuild.clear();
+        freeGuildIndexes.clear();
+        contextByIndex.clear();
+        contextByIndex.add(null);
+        for (GuildsStore.ChunkRow c : snapshot.claims()) {
+            setClaim(c.world(), c.x(), c.z(), c.guild());
         }
+        // Everything so far is already stored
+        dirtyGuilds.clear();
+        dirtyClaims.clear();
         // Ensure default unmanned guilds
         ensureDefaultGuild("S_A_F_E", GuildType.SAFE);
         ensureDefaultGuild("WILDLIFE", GuildType.FREE);
         ensureDefaultGuild("WARZONE", GuildType.WAR);
+        startAutoFlush();
     }
 
     private void loadEnabledWorldsFromConfig() {
@@ -211,79 +216,83 @@ public class GuildService {
         }
     }
 
+    /**
+     * Writes every pending change synchronously. Used on shutdown.
+     */
     public void save() {
-        FileConfiguration out = new YamlConfiguration();
-        ConfigurationSection root = out.createSection("guilds");
-        for (Map.Entry<UUID, Guild> entry : guildsById.entrySet()) {
-            UUID id = entry.getKey();
-            Guild g = entry.getValue();
-            ConfigurationSection gs = root.createSection(id.toString());
-            gs.set("name", g.getName());
-            gs.set("type", g.getType().name());
-            if (g.getOwner() != null) {
-                gs.set("owner", g.getOwner().toString());
-            } else {
-                gs.set("owner", null);
+        // Waits for a running async write, so it cannot land after this one
+        writer.flushNow();
+    }
+
+    public void shutdown() {
+        stopAutoFlush();
+        save();
+    }
+
+    public void startAutoFlush() {
+        stopAutoFlush();
+        if (flushIntervalTicks > 0) {
+            // Snapshot on the main thread (where the maps live), write asynchronously
+            flushTask = Bukkit.getScheduler().runTaskTimer(plugin, writer::flush, flushIntervalTicks, flushIntervalTicks);
+        }
+    }
+
+    public void stopAutoFlush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    // Guild row, members and outposts; a guild that is gone by the next snapshot is deleted
+    private void markDirty(UUID guildId) {
+        if (guildId != null) dirtyGuilds.add(guildId);
+    }
+
+    private void markClaimDirty(UUID worldId, int cx, int cz) {
+        dirtyClaims.computeIfAbsent(worldId, w -> new HashSet<>()).add(key(cx, cz));
+    }
+
+    // Main thread: copies the changed guilds and chunks and clears the dirty sets
+    private Batch snapshotDirty() {
+        Map<UUID, GuildsStore.GuildRow> guilds = new HashMap<>();
+        Map<UUID, List<GuildsStore.ChunkRow>> outposts = new HashMap<>();
+        Set<UUID> deleted = new HashSet<>();
+        for (UUID id : dirtyGuilds) {
+            Guild g = guildsById.get(id);
+            if (g == null) {
+                deleted.add(id);
+                continue;
             }
-            gs.set("open", g.isOpen());
-            ConfigurationSection mem = gs.createSection("members");
-            for (Map.Entry<UUID, GuildRole> me : g.getMembers().entrySet()) {
-                mem.set(me.getKey().toString(), me.getValue().name());
+            guilds.put(id, new GuildsStore.GuildRow(id, g.getName(), g.getType(), g.getOwner(), g.isOpen(),
+                    outpostAllowance.getOrDefault(id, 0), new HashMap<>(g.getMembers())));
+            List<GuildsStore.ChunkRow> centers = new ArrayList<>();
+            for (Map.Entry<UUID, Map<UUID, Set<Long>>> we : outpostCenters.entrySet()) {
+                Set<Long> set = we.getValue().get(id);
+                if (set == null) continue;
+                for (long k : set) centers.add(new GuildsStore.ChunkRow(we.getKey(), kx(k), kz(k), id));
             }
+            outposts.put(id, centers);
         }
-        // Save outposts allowance and centers per guild
-                for (Map.Entry<UUID, Guild> entry : guildsById.entrySet()) {
-                    UUID gid = entry.getKey();
-                    ConfigurationSection gs = out.getConfigurationSection("guilds").getConfigurationSection(gid.toString());
-                    if (gs != null) {
-                        int allowed = outpostAllowance.getOrDefault(gid, 0);
-                        if (allowed > 0) gs.set("outposts.allowed", allowed);
-                        // centers
-                        Map<UUID, Set<Long>> byWorld = new HashMap<>();
-                        for (Map.Entry<UUID, Map<UUID, Set<Long>>> we : outpostCenters.entrySet()) {
-                            UUID worldId = we.getKey();
-                            Set<Long> centers = we.getValue().get(gid);
-                            if (centers == null || centers.isEmpty()) continue;
-                            byWorld.put(worldId, centers);
-                        }
-                        if (!byWorld.isEmpty()) {
-                            ConfigurationSection centersRoot = gs.createSection("outposts.centers");
-                            for (Map.Entry<UUID, Set<Long>> e : byWorld.entrySet()) {
-                                UUID worldId = e.getKey();
-                                ConfigurationSection xs = centersRoot.createSection(worldId.toString());
-                                Map<Integer, Set<Integer>> grouped = new HashMap<>();
-                                for (long k : e.getValue()) {
-                                    int x = kx(k); int z = kz(k);
-                                    grouped.computeIfAbsent(x, xx -> new HashSet<>()).add(z);
-                                }
-                                for (Map.Entry<Integer, Set<Integer>> ge : grouped.entrySet()) {
-                                    ConfigurationSection zs = xs.createSection(String.valueOf(ge.getKey()));
-                                    for (int z : ge.getValue()) {
-                                        zs.set(String.valueOf(z), true);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-
-                // Save claims
-        ConfigurationSection claimsRoot = out.createSection("claims");
-        for (Map.Entry<UUID, Map<Integer, Map<Integer, UUID>>> we : claims.entrySet()) {
+        Map<ClaimKey, GuildsStore.ChunkRow> claimRows = new HashMap<>();
+        for (Map.Entry<UUID, Set<Long>> we : dirtyClaims.entrySet()) {
             UUID world = we.getKey();
-            ConfigurationSection xs = claimsRoot.createSection(world.toString());
-            for (Map.Entry<Integer, Map<Integer, UUID>> xe : we.getValue().entrySet()) {
-                ConfigurationSection zs = xs.createSection(String.valueOf(xe.getKey()));
-                for (Map.Entry<Integer, UUID> ze : xe.getValue().entrySet()) {
-                    zs.set(String.valueOf(ze.getKey()), ze.getValue().toString());
-                }
+            for (long k : we.getValue()) {
+                claimRows.put(new ClaimKey(world, k), new GuildsStore.ChunkRow(world, kx(k), kz(k), getClaimOwner(world, kx(k), kz(k))));
             }
         }
-        try {
-            out.save(guildsFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed saving guilds: " + e.getMessage());
-        }
+        dirtyGuilds.clear();
+        dirtyClaims.clear();
+        return new Batch(guilds, outposts, deleted, claimRows);
+    }
+
+    // Writes only the changed guilds and chunks
+    private void write(Batch batch) throws Exception {
+        GuildsStore target = store;
+        if (target == null || batch.isEmpty()) return;
+        List<GuildsStore.ChunkRow> outposts = new ArrayList<>();
+        for (List<GuildsStore.ChunkRow> centers : batch.outposts().values()) outposts.addAll(centers);
+        target.applyChanges(batch.guilds().values(), outposts, batch.deleted(), batch.claims().values());
     }
 
     private void ensureDefaultGuild(String name, GuildType type) {
@@ -306,7 +315,8 @@ public class GuildService {
         }
         guildsById.put(id, guild);
         guildIdByName.put(name.toLowerCase(), id);
-        save();
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.GUILDS, name);
+        markDirty(id);
         return true;
     }
 
@@ -337,7 +347,7 @@ public class GuildService {
         // Remove from members and index
         guild.getMembers().remove(member);
         guildIdByMember.remove(member);
-        save();
+        markDirty(gid);
         return true;
     }
 
@@ -355,7 +365,8 @@ public class GuildService {
         if (oldName != null) guildIdByName.remove(oldName.toLowerCase());
         guild.setName(newName);
         guildIdByName.put(newName.toLowerCase(), gid);
-        save();
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.rename(SuggestionIndex.Domain.GUILDS, oldName, newName);
+        markDirty(gid);
         return true;
     }
 
@@ -370,7 +381,8 @@ public class GuildService {
         guildIdByName.remove(oldName.toLowerCase());
         guild.setName(newName);
         guildIdByName.put(newName.toLowerCase(), gid);
-        save();
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.rename(SuggestionIndex.Domain.GUILDS, oldName, newName);
+        markDirty(gid);
         return true;
     }
 
@@ -380,6 +392,7 @@ public class GuildService {
         String oldName = guild.getName();
         if (oldName != null) {
             guildIdByName.remove(oldName.toLowerCase());
+            if (plugin.suggestionIndex != null) plugin.suggestionIndex.remove(SuggestionIndex.Domain.GUILDS, oldName);
         }
         // Clean up member index
         for (UUID member : new ArrayList<>(guild.getMembers().keySet())) {
@@ -408,17 +421,19 @@ public class GuildService {
             }
         }
         // Purge any land claims owned by this guild across all worlds
-        for (Map<Integer, Map<Integer, UUID>> xs : new ArrayList<>(claims.values())) {
-            for (Map.Entry<Integer, Map<Integer, UUID>> xe : new ArrayList<>(xs.entrySet())) {
-                Map<Integer, UUID> zs = xe.getValue();
-                zs.entrySet().removeIf(e -> gid.equals(e.getValue()));
-                if (zs.isEmpty()) xs.remove(xe.getKey());
+        int idx = guildIndexOf(gid);
+        if (idx != 0) {
+            for (Map.Entry<UUID, ChunkClaimTable> we : new ArrayList<>(claims.entrySet())) {
+                for (long k : we.getValue().keysOf(idx)) {
+                    clearClaim(we.getKey(), kx(k), kz(k));
+                }
             }
         }
         // Remove empty worlds from claims
         claims.entrySet().removeIf(e -> e.getValue() == null || e.getValue().isEmpty());
         guildsById.remove(gid);
-        save();
+        releaseGuildIndex(gid);
+        markDirty(gid);
     }
 
     public boolean deleteGuildByMember(UUID member) {
@@ -451,7 +466,7 @@ public class GuildService {
         GuildRole role = guild.getMembers().get(actor);
         if (role != GuildRole.ADMIN) return false;
         guild.setOpen(open);
-        save();
+        markDirty(gid);
         return true;
     }
 
@@ -462,7 +477,18 @@ public class GuildService {
         Guild guild = guildsById.get(gid);
         if (guild == null) return false;
         guild.setOpen(open);
-        save();
+        markDirty(gid);
+        return true;
+    }
+
+    // ===== Type APIs =====
+    public boolean setGuildType(UUID guildId, GuildType type) {
+        if (guildId == null || type == null) return false;
+        Guild guild = guildsById.get(guildId);
+        if (guild == null) return false;
+        guild.setType(type);
+        invalidateProtectionContext(guildId);
+        markDirty(guildId);
         return true;
     }
 
@@ -512,7 +538,7 @@ public class GuildService {
                     }
                 }
             }
-            save();
+            markDirty(gid);
             return JoinResult.SUCCESS;
         } else {
             // invitedOnly -> create request
@@ -570,7 +596,7 @@ public class GuildService {
                 }
             }
         }
-        save();
+        markDirty(gid);
         return true;
     }
 
@@ -721,7 +747,7 @@ public class GuildService {
                 }
             }
         }
-        save();
+        markDirty(chosen);
         return true;
     }
 
@@ -760,7 +786,7 @@ public class GuildService {
         // Remove member
         guild.getMembers().remove(target);
         guildIdByMember.remove(target);
-        save();
+        markDirty(actorGid);
         return KickResult.SUCCESS;
     }
 
@@ -777,7 +803,7 @@ public class GuildService {
         if (targetRole == GuildRole.ADMIN) return KickResult.TARGET_IS_ADMIN;
         guild.getMembers().remove(target);
         guildIdByMember.remove(target);
-        save();
+        markDirty(gid);
         return KickResult.SUCCESS;
     }
 
@@ -816,7 +842,7 @@ public class GuildService {
         GuildRole newRole = nextRoleUp(targetRole);
         if (newRole == null || newRole == targetRole) return RoleChangeResult.TARGET_ALREADY_AT_MAX;
         guild.getMembers().put(target, newRole);
-        save();
+        markDirty(actorGid);
         return RoleChangeResult.SUCCESS;
     }
 
@@ -834,7 +860,7 @@ public class GuildService {
         GuildRole newRole = nextRoleUp(targetRole);
         if (newRole == null || newRole == targetRole) return RoleChangeResult.TARGET_ALREADY_AT_MAX;
         guild.getMembers().put(target, newRole);
-        save();
+        markDirty(gid);
         return RoleChangeResult.SUCCESS;
     }
 
@@ -856,7 +882,7 @@ public class GuildService {
         GuildRole newRole = nextRoleDown(targetRole);
         if (newRole == null || newRole == targetRole) return RoleChangeResult.TARGET_ALREADY_AT_MIN;
         guild.getMembers().put(target, newRole);
-        save();
+        markDirty(actorGid);
         return RoleChangeResult.SUCCESS;
     }
 
@@ -875,7 +901,7 @@ public class GuildService {
         GuildRole newRole = nextRoleDown(targetRole);
         if (newRole == null || newRole == targetRole) return RoleChangeResult.TARGET_ALREADY_AT_MIN;
         guild.getMembers().put(target, newRole);
-        save();
+        markDirty(gid);
         return RoleChangeResult.SUCCESS;
     }
 
@@ -912,42 +938,111 @@ public class GuildService {
     }
 
     public UUID getClaimOwner(java.util.UUID worldId, int cx, int cz) {
-        Map<Integer, Map<Integer, UUID>> xs = claims.get(worldId);
-        if (xs == null) return null;
-        Map<Integer, UUID> zs = xs.get(cx);
-        if (zs == null) return null;
-        return zs.get(cz);
+        ChunkClaimTable table = claims.get(worldId);
+        if (table == null) return null;
+        int idx = table.get(key(cx, cz));
+        return idx == 0 ? null : guildByIndex.get(idx);
+    }
+
+    // Interns a guild id into a small int for the claim tables; indexes are stable until the next load()
+    private int internGuild(UUID guildId) {
+        Integer idx = indexByGuild.get(guildId);
+        if (idx != null) return idx;
+        Integer free = freeGuildIndexes.poll();
+        if (free != null) {
+            guildByIndex.set(free, guildId);
+            contextByIndex.set(free, null);
+            indexByGuild.put(guildId, free);
+            return free;
+        }
+        int next = guildByIndex.size();
+        guildByIndex.add(guildId);
+        contextByIndex.add(null);
+        indexByGuild.put(guildId, next);
+        return next;
+    }
+
+    // Called once the guild's claims are gone, so no table still points at the index
+    private void releaseGuildIndex(UUID guildId) {
+        Integer idx = indexByGuild.remove(guildId);
+        if (idx == null) return;
+        guildByIndex.set(idx, null);
+        contextByIndex.set(idx, null);
+        freeGuildIndexes.add(idx);
+    }
+
+    /**
+     * Resolves the protection context for a chunk with at most one claim-table probe.
+     * Unclaimed chunks (including whole unclaimed regions) return {@link ProtectionContext#WILDERNESS}.
+     */
+    public ProtectionContext getProtectionContext(java.util.UUID worldId, int cx, int cz) {
+        if (!mayBeClaimed(worldId, cx, cz)) return ProtectionContext.WILDERNESS;
+        ChunkClaimTable table = claims.get(worldId);
+        int idx = table == null ? 0 : table.get(key(cx, cz));
+        if (idx == 0) return ProtectionContext.WILDERNESS;
+        ProtectionContext ctx = contextByIndex.get(idx);
+        if (ctx == null) {
+            ctx = ProtectionContext.of(guildsById.get(guildByIndex.get(idx)));
+            contextByIndex.set(idx, ctx);
+        }
+        return ctx;
+    }
+
+    /**
+     * Location variant that derives chunk coordinates from block coordinates, so it never loads a chunk.
+     */
+    public ProtectionContext getProtectionContext(Location loc) {
+        if (loc == null || loc.getWorld() == null) return ProtectionContext.WILDERNESS;
+        return getProtectionContext(loc.getWorld().getUID(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
     }
 
+    private void invalidateProtectionContext(UUID guildId) {
+        int idx = guildIndexOf(guildId);
+        if (idx != 0) contextByIndex.set(idx, null);
+    }
+
+    // Returns 0 if the guild never owned a claim since the last load()
+    private int guildIndexOf(UUID guildId) {
+        Integer idx = guildId == null ? null : indexByGuild.get(guildId);
+        return idx == null ? 0 : idx;
+    }
+
+    /**
+     * Cheap negative check backed by the region summary: returns false when the 32x32-chunk
+     * region around (cx, cz) contains no claims at all, so callers can skip the owner lookup.
+     * A true result only means the region has at least one claim; use getClaimOwner for the chunk.
+     */
+    public boolean mayBeClaimed(java.util.UUID worldId, int cx, int cz) {
+        ChunkClaimTable regions = claimRegions.get(worldId);
+        return regions != null && regions.get(key(cx >> REGION_SHIFT, cz >> REGION_SHIFT)) != 0;
+    }
 
     private void setClaim(java.util.UUID worldId, int cx, int cz, java.util.UUID guildId) {
-        claims.computeIfAbsent(worldId, w -> new HashMap<>())
-                .computeIfAbsent(cx, x -> new HashMap<>())
-                .put(cz, guildId);
+        markClaimDirty(worldId, cx, cz);
+        int previous = claims.computeIfAbsent(worldId, w -> new ChunkClaimTable())
+                .put(key(cx, cz), internGuild(guildId));
+        if (previous == 0) {
+            ChunkClaimTable regions = claimRegions.computeIfAbsent(worldId, w -> new ChunkClaimTable());
+            long rk = key(cx >> REGION_SHIFT, cz >> REGION_SHIFT);
+            regions.put(rk, regions.get(rk) + 1);
+        }
     }
 
     private int countClaimsForGuild(UUID guildId) {
+        int idx = guildIndexOf(guildId);
+        if (idx == 0) return 0;
         int count = 0;
-        for (Map<Integer, Map<Integer, UUID>> xs : claims.values()) {
-            for (Map<Integer, UUID> zs : xs.values()) {
-                for (UUID gid : zs.values()) {
-                    if (guildId.equals(gid)) count++;
-                }
-            }
+        for (ChunkClaimTable table : claims.values()) {
+            count += table.count(idx);
         }
         return count;
     }
 
     private int countClaimsForGuildInWorld(UUID guildId, UUID worldId) {
-        Map<Integer, Map<Integer, UUID>> xs = claims.get(worldId);
-        if (xs == null) return 0;
-        int count = 0;
-        for (Map<Integer, UUID> zs : xs.values()) {
-            for (UUID gid : zs.values()) {
-                if (guildId.equals(gid)) count++;
-            }
-        }
-        return count;
+        ChunkClaimTable table = claims.get(worldId);
+        int idx = guildIndexOf(guildId);
+        if (table == null || idx == 0) return 0;
+        return table.count(idx);
     }
 
     private boolean hasAdjacentClaim(UUID guildId, UUID worldId, int cx, int cz) {
@@ -970,12 +1065,13 @@ public class GuildService {
         public void addOutpostAllowance(UUID guildId, int amount) {
             if (guildId == null || amount <= 0) return;
             outpostAllowance.put(guildId, getOutpostAllowance(guildId) + amount);
-            save();
+            markDirty(guildId);
         }
         private void addOutpostCenter(UUID guildId, UUID worldId, int x, int z) {
             outpostCenters.computeIfAbsent(worldId, w -> new HashMap<>())
                     .computeIfAbsent(guildId, g -> new HashSet<>())
                     .add(key(x, z));
+            markDirty(guildId);
         }
         private boolean hasOutpostCenterAt(UUID guildId, UUID worldId, int x, int z) {
             Map<UUID, Set<Long>> byGuild = outpostCenters.get(worldId);
@@ -1051,7 +1147,6 @@ public class GuildService {
                 // Create new outpost center by allowing this claim and recording the center
                 setClaim(worldId, cx, cz, gid);
                 addOutpostCenter(gid, worldId, cx, cz);
-                save();
                 return ClaimResult.SUCCESS;
             } else {
                 // Connected to existing claims: if this component is an outpost component, enforce 5x5 radius
@@ -1100,7 +1195,6 @@ public class GuildService {
         }
         // Normal placement (or SAFE/WAR bypass): proceed
         setClaim(worldId, cx, cz, gid);
-        save();
         return ClaimResult.SUCCESS;
     }
 
@@ -1133,7 +1227,6 @@ public class GuildService {
                 res.claimed++;
             }
         }
-        save();
         return res;
     }
 
@@ -1149,13 +1242,20 @@ public class GuildService {
     }
 
     private void clearClaim(java.util.UUID worldId, int cx, int cz) {
-        Map<Integer, Map<Integer, UUID>> xs = claims.get(worldId);
-        if (xs == null) return;
-        Map<Integer, UUID> zs = xs.get(cx);
-        if (zs == null) return;
-        zs.remove(cz);
-        if (zs.isEmpty()) xs.remove(cx);
-        if (xs.isEmpty()) claims.remove(worldId);
+        ChunkClaimTable table = claims.get(worldId);
+        if (table == null) return;
+        if (table.remove(key(cx, cz)) != 0) {
+            markClaimDirty(worldId, cx, cz);
+            ChunkClaimTable regions = claimRegions.get(worldId);
+            if (regions != null) {
+                long rk = key(cx >> REGION_SHIFT, cz >> REGION_SHIFT);
+                int remaining = regions.get(rk) - 1;
+                if (remaining > 0) regions.put(rk, remaining);
+                else regions.remove(rk);
+                if (regions.isEmpty()) claimRegions.remove(worldId);
+            }
+        }
+        if (table.isEmpty()) claims.remove(worldId);
     }
 
     public UnclaimResult unclaimChunk(java.util.UUID actor, org.bukkit.Chunk chunk) {
@@ -1178,7 +1278,6 @@ public class GuildService {
             return UnclaimResult.DISCONNECTS_TERRITORY;
         }
         clearClaim(worldId, cx, cz);
-        save();
         return UnclaimResult.SUCCESS;
     }
 
@@ -1205,7 +1304,6 @@ public class GuildService {
                 }
             }
         }
-        save();
         return res;
     }
 
@@ -1229,26 +1327,15 @@ public class GuildService {
                 }
             }
         }
-        save();
         return res;
     }
 
     // Connectivity check for unclaim: will removal split the guild's claims in this world?
     private boolean wouldDisconnectAfterRemoval(UUID guildId, UUID worldId, int removeX, int removeZ) {
-        Map<Integer, Map<Integer, UUID>> xs = claims.get(worldId);
-        if (xs == null) return false;
+        if (!claims.containsKey(worldId)) return false;
         // Build set of positions claimed by guild in this world excluding the one we plan to remove
-        java.util.Set<Long> positions = new java.util.HashSet<>();
-        for (Map.Entry<Integer, Map<Integer, UUID>> xe : xs.entrySet()) {
-            int x = xe.getKey();
-            for (Map.Entry<Integer, UUID> ze : xe.getValue().entrySet()) {
-                int z = ze.getKey();
-                UUID gid = ze.getValue();
-                if (!guildId.equals(gid)) continue;
-                if (x == removeX && z == removeZ) continue;
-                positions.add(key(x, z));
-            }
-        }
+        java.util.Set<Long> positions = positionsOfGuildInWorld(guildId, worldId);
+        positions.remove(key(removeX, removeZ));
         int size = positions.size();
         if (size <= 1) return false; // zero or one remaining cannot be disconnected
         // BFS from an arbitrary position
@@ -1326,25 +1413,19 @@ public class GuildService {
     }
 
     private java.util.Set<Long> positionsOfGuildInWorld(java.util.UUID guildId, java.util.UUID worldId) {
-        java.util.Map<Integer, java.util.Map<Integer, java.util.UUID>> xs = claims.get(worldId);
+        ChunkClaimTable table = claims.get(worldId);
         java.util.Set<Long> positions = new java.util.HashSet<>();
-        if (xs == null) return positions;
-        for (java.util.Map.Entry<Integer, java.util.Map<Integer, java.util.UUID>> xe : xs.entrySet()) {
-            int x = xe.getKey();
-            for (java.util.Map.Entry<Integer, java.util.UUID> ze : xe.getValue().entrySet()) {
-                int z = ze.getKey();
-                java.util.UUID gid = ze.getValue();
-                if (guildId.equals(gid)) {
-                    positions.add((((long) x) << 32) ^ (z & 0xffffffffL));
-                }
-            }
+        int idx = guildIndexOf(guildId);
+        if (table == null || idx == 0) return positions;
+        for (long k : table.keysOf(idx)) {
+            positions.add(k);
         }
         return positions;
     }
 
-    private static long key(int x, int z) { return (((long) x) << 32) ^ (z & 0xffffffffL); }
-    private static int kx(long k) { return (int) (k >> 32); }
-    private static int kz(long k) { return (int) k; }
+    private static long key(int x, int z) { return ChunkClaimTable.key(x, z); }
+    private static int kx(long k) { return ChunkClaimTable.keyX(k); }
+    private static int kz(long k) { return ChunkClaimTable.keyZ(k); }
 
     public ConnectivityReport analyzeConnectivity(java.util.UUID guildId, java.util.UUID worldId) {
         ConnectivityReport r = new ConnectivityReport();
@@ -1,6 +1,10 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.db.HomesStore;
+import com.spillhuset.furious.managers.ArmorStandManager;
+import com.spillhuset.furious.utils.BackgroundWriter;
+import com.spillhuset.furious.utils.BlockPosIndex;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.Guild;
 import com.spillhuset.furious.utils.GuildType;
@@ -11,17 +15,13 @@ import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,8 +31,8 @@ public class HomesService {
     private final Map<UUID, Home> homes = new HashMap<>();
     //          playerUUID, last homes teleport epoch millis (in-memory only)
     private final Map<UUID, Long> lastHomesTeleport = new HashMap<>();
-    //          location, homeUUID
-    private final Map<Location, UUID> locations = new HashMap<>();
+    //          block position, homeUUID
+    private final BlockPosIndex locations = new BlockPosIndex();
     //          playerUUID, purchased
     private final Map<UUID, Integer> purchasedSlots = new HashMap<>();
     //          playerUUID, owned
@@ -40,18 +40,53 @@ public class HomesService {
     //          playerUUID, homeUUIDs
     private final Map<UUID, Set<UUID>> players = new HashMap<>();
 
-    private FileConfiguration homesConfig;
-    private File homesFile;
-
     public int DEFAULT_HOMES_COUNT;
     public double DEFAULT_HOMES_COST;
     public double HOMES_MULTIPLIER;
     public int TELEPORT_COOLDOWN_SECONDS;
 
-    // batching fields
-    private final Object configIoLock = new Object(); // guard config read/writes against async save
     private Set<UUID> enabledWorlds = new HashSet<>();
 
+    // Persistence: changes are tracked on the main thread and written in batches off it
+    private HomesStore store; // null when the configured store failed to open
+    private final Set<UUID> dirtyHomes = new HashSet<>();
+    //          homeUUID, playerUUID
+    private final Map<UUID, UUID> deletedHomes = new HashMap<>();
+    private final Set<UUID> dirtyPurchases = new HashSet<>();
+    private final BackgroundWriter<Batch> writer;
+    private BukkitTask flushTask;
+    private long flushIntervalTicks = 40L;
+
+    // Lazy mode: only online and recently used players keep their homes in memory
+    private boolean lazy = false;
+    private long evictAfterMillis = 300_000L;
+    private int cacheSize = 256;
+    private final Set<UUID> resident = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Long> lastUsed = new java.util.concurrent.ConcurrentHashMap<>();
+    private BukkitTask evictTask;
+    //          armorStandUUID, playerUUID (all homes, resident or not)
+    private final Map<UUID, UUID> standOwners = new HashMap<>();
+
+    /** Changes taken from the dirty sets in one go; deletes map home id to owner. */
+    private record Batch(Map<UUID, HomesStore.HomeRow> upserts, Map<UUID, UUID> deletes, Map<UUID, Integer> purchases) {
+        boolean isEmpty() {
+            return upserts.isEmpty() && deletes.isEmpty() && purchases.isEmpty();
+        }
+
+        // This batch followed by a newer one
+        Batch then(Batch newer) {
+            Map<UUID, HomesStore.HomeRow> up = new HashMap<>(upserts);
+            Map<UUID, UUID> del = new HashMap<>(deletes);
+            up.keySet().removeAll(newer.deletes.keySet());
+            del.keySet().removeAll(newer.upserts.keySet());
+            up.putAll(newer.upserts);
+            del.putAll(newer.deletes);
+            Map<UUID, Integer> pur = new HashMap<>(purchases);
+            pur.putAll(newer.purchases);
+            return new Batch(up, del, pur);
+        }
+    }
+
     public HomesService(Furious instance) {
         this.plugin = instance.getInstance();
 
@@ -59,6 +94,10 @@ public class HomesService {
         DEFAULT_HOMES_COST = instance.getConfig().getDouble("homes.cost", 5000.0);
         HOMES_MULTIPLIER = instance.getConfig().getDouble("homes.multiplier", 1.5);
         TELEPORT_COOLDOWN_SECONDS = instance.getConfig().getInt("homes.teleport-cooldown-seconds", 1800);
+        flushIntervalTicks = instance.getConfig().getLong("homes.flush-interval-ticks", flushIntervalTicks);
+        // A batch that fails to reach the store is merged back (newer changes win) and retried on the next flush
+        writer = new BackgroundWriter<>("homes", plugin.getLogger(), this::snapshotDirty, Batch::then, Batch::isEmpty, this::write,
+                task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task));
 
         ensureHomesDefaultsPersisted(instance);
     }
@@ -76,74 +115,220 @@ public class HomesService {
         } catch (Throwable ignored) {}
     }
 
+    /**
+     * Loads homes from the configured store (homes.yml, SQLite or MySQL). Unsaved changes are discarded; call {@link #save()} first to keep them.
+     * In lazy mode only the ArmorStand index is built here; players' homes are loaded when first needed.
+     */
     public void load() {
+        stopAutoFlush();
+        stopEviction();
         loadEnabledWorldsFromConfig();
+        lazy = plugin.getConfig().getBoolean("homes.lazy-load.enabled", false);
+        evictAfterMillis = Math.max(0L, plugin.getConfig().getLong("homes.lazy-load.evict-after-seconds", 300L)) * 1000L;
+        cacheSize = Math.max(0, plugin.getConfig().getInt("homes.lazy-load.cache-size", 256));
         homes.clear();
         locations.clear();
         purchasedSlots.clear();
         owned.clear();
         players.clear();
+        dirtyHomes.clear();
+        deletedHomes.clear();
+        dirtyPurchases.clear();
+        resident.clear();
+        lastUsed.clear();
+        try { plugin.armorStandManager.unregisterAll(ArmorStandManager.OwnerKind.HOME); } catch (Throwable ignored) {}
+        standOwners.clear();
+        store = null;
 
-        // If database enabled, load from DB; otherwise from YAML
-        if (plugin.databaseManager != null && plugin.databaseManager.isEnabled()) {
-            try {
-                com.spillhuset.furious.db.HomesRepository repo = new com.spillhuset.furious.db.HomesRepository(plugin.databaseManager.getDataSource(), plugin.getServer());
-                repo.initSchema();
-                repo.loadAll(players, homes, locations, purchasedSlots);
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to load homes from database: " + e.getMessage());
+        HomesStore candidate = plugin.databaseManager.homesStore();
+        try {
+            candidate.init();
+            store = candidate;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to open homes storage (" + plugin.databaseManager.getBackend() + "): " + e.getMessage());
+        }
+
+        try {
+            if (lazy) {
+                // Only remember which ArmorStand belongs to whom, so stands of offline players are not treated as orphans
+                forEachStoredHome(row -> {
+                    if (row.armorStand() != null) trackStand(row.armorStand(), row.player(), row.id());
+                }, null);
+                for (Player online : plugin.getServer().getOnlinePlayers()) touch(online.getUniqueId());
+                startEviction();
+            } else {
+                forEachStoredHome(this::addHome, purchasedSlots::put);
             }
-            return;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to load homes: " + e.getMessage());
+        }
+        startAutoFlush();
+    }
+
+    /**
+     * Streams every stored home (and optionally purchase count) without keeping it resident.
+     * Changes not yet written are not included.
+     */
+    private void forEachStoredHome(java.util.function.Consumer<HomesStore.HomeRow> homeConsumer,
+                                   java.util.function.BiConsumer<UUID, Integer> purchaseConsumer) throws Exception {
+        if (store == null) return;
+        store.forEachHome(homeConsumer);
+        if (purchaseConsumer != null) store.forEachPurchase(purchaseConsumer);
+    }
+
+    // Main thread: makes a stored home resident
+    private void addHome(HomesStore.HomeRow row) {
+        Location location = new Location(plugin.getServer().getWorld(row.world()), row.x(), row.y(), row.z(), row.yaw(), row.pitch());
+        Home home = new Home(row.id(), row.name(), location, row.player());
+        // Keep the stored world even when it is not loaded right now
+        home.setWorld(row.world());
+        if (row.armorStand() != null) {
+            home.setArmorStandUuid(row.armorStand());
+            trackStand(row.armorStand(), row.player(), row.id());
         }
+        players.computeIfAbsent(row.player(), k -> new HashSet<>()).add(row.id());
+        homes.put(row.id(), home);
+        owned.put(row.player(), owned.getOrDefault(row.player(), 0) + 1);
+        indexLocation(home);
+    }
+
+    private void indexLocation(Home home) {
+        if (home.getWorld() == null) return;
+        locations.put(home.getUuid(), home.getWorld(),
+                (int) Math.floor(home.getX()), (int) Math.floor(home.getY()), (int) Math.floor(home.getZ()));
+    }
+
+    // --- Lazy loading ---
 
-        // YAML path
-        homesFile = new File(plugin.getDataFolder(), "homes.yml");
+    /** One player's stored homes, read off the main thread. */
+    private record PlayerData(List<HomesStore.HomeRow> homes, int purchased) {}
+
+    // Any thread
+    private PlayerData readPlayer(UUID playerId) {
         try {
-            if (!homesFile.exists()) homesFile.createNewFile();
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed creating homes files: " + e.getMessage());
-        }
-        synchronized (configIoLock) {
-            homesConfig = YamlConfiguration.loadConfiguration(homesFile);
-            ConfigurationSection section = homesConfig.getConfigurationSection("players");
-            if (section == null) return;
-            Set<String> keys = section.getKeys(false);
-            for (String playerUID : keys) {
-                try {
-                    UUID uuid = UUID.fromString(playerUID);
-                    ConfigurationSection playerSection = section.getConfigurationSection(playerUID);
-                    if (playerSection == null) continue;
-                    purchasedSlots.put(uuid, playerSection.getInt("purchased", 0));
-                    ConfigurationSection homesSection = playerSection.getConfigurationSection("homes");
-                    if (homesSection != null) {
-                        for (String homeKey : homesSection.getKeys(false)) {
-                            ConfigurationSection homeUID = homesSection.getConfigurationSection(homeKey);
-                            if (homeUID == null) continue;
-                            UUID homeUUID = UUID.fromString(homeUID.getName());
-                            UUID worldUUID = UUID.fromString(Objects.requireNonNull(homeUID.getString("world")));
-                            String name = homeUID.getString("name");
-                            double x = homeUID.getDouble("x");
-                            double y = homeUID.getDouble("y");
-                            double z = homeUID.getDouble("z");
-                            float yaw = (float) homeUID.getDouble("yaw");
-                            float pitch = (float) homeUID.getDouble("pitch");
-                            String armorStr = homeUID.getString("armorStand", null);
-                            Location location = new Location(plugin.getServer().getWorld(worldUUID), x, y, z, yaw, pitch);
-                            Home home = new Home(homeUUID, name, location, uuid);
-                            if (armorStr != null) {
-                                try { home.setArmorStandUuid(UUID.fromString(armorStr)); } catch (IllegalArgumentException ignored) {}
-                            }
-                            players.computeIfAbsent(uuid, k -> new HashSet<>()).add(homeUUID);
-                            homes.put(homeUUID, home);
-                            owned.put(uuid, owned.getOrDefault(uuid, 0) + 1);
-                            locations.put(location, homeUUID);
-                        }
-                    }
-                } catch (IllegalArgumentException e) {
-                    plugin.getLogger().warning("Failed loading homes for UUID " + playerUID + ": " + e.getMessage());
-                }
+            if (store == null) return new PlayerData(List.of(), 0);
+            return new PlayerData(store.loadHomes(playerId), store.loadPurchased(playerId));
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to load homes for " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Main thread
+    private void install(UUID playerId, PlayerData data) {
+        if (data == null || resident.contains(playerId)) return;
+        for (HomesStore.HomeRow row : data.homes()) addHome(row);
+        if (data.purchased() > 0) purchasedSlots.put(playerId, data.purchased());
+        resident.add(playerId);
+    }
+
+    /**
+     * Makes sure the player's homes are in memory (lazy mode). Loads them synchronously if they are not.
+     */
+    private void touch(UUID playerId) {
+        if (!lazy || playerId == null) return;
+        lastUsed.put(playerId, System.currentTimeMillis());
+        if (!resident.contains(playerId)) install(playerId, readPlayer(playerId));
+    }
+
+    /**
+     * Loads a joining player's homes ahead of the join. Called from AsyncPlayerPreLoginEvent.
+     */
+    public void preload(UUID playerId) {
+        if (!lazy || playerId == null) return;
+        lastUsed.put(playerId, System.currentTimeMillis());
+        if (resident.contains(playerId)) return;
+        PlayerData data = readPlayer(playerId);
+        if (data == null) return;
+        // Maps are main-thread only; a synchronous touch() that got there first wins
+        plugin.getServer().getScheduler().runTask(plugin, () -> install(playerId, data));
+    }
+
+    /** Starts the eviction delay for a player who left. */
+    public void onQuit(UUID playerId) {
+        if (!lazy || playerId == null) return;
+        lastUsed.put(playerId, System.currentTimeMillis());
+    }
+
+    private void startEviction() {
+        stopEviction();
+        evictTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::evictIdle, 20L * 30, 20L * 30);
+    }
+
+    private void stopEviction() {
+        if (evictTask != null) {
+            evictTask.cancel();
+            evictTask = null;
+        }
+    }
+
+    private void evictIdle() {
+        // Evicted data must be on disk, so wait until queued, running and failed writes are done
+        if (writer.isBusy()) return;
+        long now = System.currentTimeMillis();
+        List<UUID> idle = new ArrayList<>();
+        for (UUID playerId : resident) {
+            if (plugin.getServer().getPlayer(playerId) != null) continue;
+            if (hasPendingChanges(playerId)) continue;
+            idle.add(playerId);
+        }
+        idle.sort(Comparator.comparingLong(id -> lastUsed.getOrDefault(id, 0L)));
+        int keep = idle.size();
+        for (UUID playerId : idle) {
+            boolean expired = now - lastUsed.getOrDefault(playerId, 0L) >= evictAfterMillis;
+            // Oldest first: drop expired players, and anyone beyond the cache size
+            if (expired || keep > cacheSize) {
+                evict(playerId);
+                keep--;
+            }
+        }
+    }
+
+    private boolean hasPendingChanges(UUID playerId) {
+        if (dirtyPurchases.contains(playerId) || deletedHomes.containsValue(playerId)) return true;
+        for (UUID homeId : players.getOrDefault(playerId, Collections.emptySet())) {
+            if (dirtyHomes.contains(homeId)) return true;
+        }
+        return false;
+    }
+
+    private void evict(UUID playerId) {
+        Set<UUID> ids = players.remove(playerId);
+        if (ids != null) {
+            for (UUID homeId : ids) {
+                Home home = homes.remove(homeId);
+                if (home != null) locations.remove(homeId);
             }
         }
+        owned.remove(playerId);
+        purchasedSlots.remove(playerId);
+        resident.remove(playerId);
+        lastUsed.remove(playerId);
+    }
+
+    /** @return number of players whose homes are currently in memory (lazy mode) */
+    public int getResidentPlayers() {
+        return lazy ? resident.size() : players.size();
+    }
+
+    // --- ArmorStand ownership, kept for every home whether resident or not ---
+
+    private void trackStand(UUID standId, UUID owner, UUID homeId) {
+        standOwners.put(standId, owner);
+        try { plugin.armorStandManager.register(standId, ArmorStandManager.OwnerKind.HOME, homeId, () -> removeByArmorStand(standId)); } catch (Throwable ignored) {}
+    }
+
+    private void untrackStand(UUID standId) {
+        if (standId == null) return;
+        standOwners.remove(standId);
+        try { plugin.armorStandManager.unregister(standId); } catch (Throwable ignored) {}
+    }
+
+    private void setStand(Home home, UUID standId) {
+        UUID old = home.getArmorStandUuid();
+        if (old != null && !old.equals(standId)) untrackStand(old);
+        home.setArmorStandUuid(standId);
+        if (standId != null) trackStand(standId, home.getPlayer(), home.getUuid());
     }
 
     private void loadEnabledWorldsFromConfig() {
@@ -156,10 +341,12 @@ public class HomesService {
     }
 
     public int getPurchasedCount(@NotNull UUID uuid) {
+        touch(uuid);
         return purchasedSlots.getOrDefault(uuid, 0);
     }
 
     public int getOwnedCount(@NotNull UUID uuid) {
+        touch(uuid);
         return owned.getOrDefault(uuid, 0);
     }
 
@@ -168,8 +355,10 @@ public class HomesService {
     }
 
     public @Nullable Home getHome(@NotNull UUID uuid, @NotNull String name) {
-        for (Home home : homes.values()) {
-            if (home.getPlayer().equals(uuid) && home.getName().equals(name)) {
+        touch(uuid);
+        for (UUID homeId : players.getOrDefault(uuid, Collections.emptySet())) {
+            Home home = homes.get(homeId);
+            if (home != null && home.getName().equals(name)) {
                 return home;
             }
         }
@@ -177,54 +366,83 @@ public class HomesService {
     }
 
     public @Nullable Home getHome(@NotNull Location location) {
-        return homes.get(locations.get(location));
+        if (location.getWorld() == null) return null;
+        UUID id = locations.get(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        return id == null ? null : homes.get(id);
     }
 
+    /**
+     * @return resident homes whose stored position lies in the chunk
+     */
+    public List<Home> getHomesInChunk(@NotNull UUID worldId, int chunkX, int chunkZ) {
+        List<Home> out = new ArrayList<>();
+        for (UUID id : locations.inChunk(worldId, chunkX, chunkZ)) {
+            Home h = homes.get(id);
+            if (h != null) out.add(h);
+        }
+        return out;
+    }
+
+    /**
+     * Writes every pending change synchronously. Used on shutdown and before migrations.
+     */
     public void save() {
-        if (plugin.databaseManager != null && plugin.databaseManager.isEnabled()) {
-            try {
-                com.spillhuset.furious.db.HomesRepository repo = new com.spillhuset.furious.db.HomesRepository(plugin.databaseManager.getDataSource(), plugin.getServer());
-                repo.initSchema();
-                repo.saveAll(players, homes, purchasedSlots);
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to save homes to database: " + e.getMessage());
-            }
-        } else {
-            // Persist homes.yml atomically under a lock
-            synchronized (configIoLock) {
-                // Rebuild configuration to avoid stale entries
-                YamlConfiguration newConfig = new YamlConfiguration();
-                ConfigurationSection playersRoot = newConfig.createSection("players");
-                for (Map.Entry<UUID, Set<UUID>> playerEntry : players.entrySet()) {
-                    UUID playerId = playerEntry.getKey();
-                    ConfigurationSection playerSection = playersRoot.createSection(playerId.toString());
-                    playerSection.set("purchased", purchasedSlots.getOrDefault(playerId, 0));
-                    ConfigurationSection homesSection = playerSection.createSection("homes");
-                    for (UUID homeId : playerEntry.getValue()) {
-                        Home home = homes.get(homeId);
-                        if (home == null) continue; // safety
-                        ConfigurationSection homeUID = homesSection.createSection(homeId.toString());
-                        homeUID.set("world", home.getWorld().toString());
-                        homeUID.set("name", home.getName());
-                        homeUID.set("x", home.getX());
-                        homeUID.set("y", home.getY());
-                        homeUID.set("z", home.getZ());
-                        homeUID.set("yaw", home.getYaw());
-                        homeUID.set("pitch", home.getPitch());
-                        if (home.getArmorStandUuid() != null) {
-                            homeUID.set("armorStand", home.getArmorStandUuid().toString());
-                        }
-                    }
-                }
-                homesConfig = newConfig;
-                try {
-                    newConfig.save(homesFile);
-                } catch (IOException e) {
-                    plugin.getLogger().severe("Failed to save homes.yml: " + e.getMessage());
-                }
-            }
+        // Waits for a running async write, so it cannot land after this one
+        writer.flushNow();
+    }
+
+    public void shutdown() {
+        stopAutoFlush();
+        save();
+    }
+
+    public void startAutoFlush() {
+        stopAutoFlush();
+        if (flushIntervalTicks > 0) {
+            // Snapshot on the main thread (where the maps live), write asynchronously
+            flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, writer::flush, flushIntervalTicks, flushIntervalTicks);
         }
-        // Persist enabled worlds in plugin config
+    }
+
+    public void stopAutoFlush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    private void markDirty(Home home) {
+        deletedHomes.remove(home.getUuid());
+        dirtyHomes.add(home.getUuid());
+    }
+
+    private void markDeleted(Home home) {
+        dirtyHomes.remove(home.getUuid());
+        deletedHomes.put(home.getUuid(), home.getPlayer());
+    }
+
+    // Main thread: copies the changed rows and clears the dirty sets
+    private Batch snapshotDirty() {
+        Map<UUID, HomesStore.HomeRow> upserts = new HashMap<>();
+        for (UUID id : dirtyHomes) {
+            Home home = homes.get(id);
+            if (home != null) upserts.put(id, HomesStore.HomeRow.of(home));
+        }
+        Map<UUID, Integer> purchases = new HashMap<>();
+        for (UUID playerId : dirtyPurchases) purchases.put(playerId, purchasedSlots.getOrDefault(playerId, 0));
+        Batch batch = new Batch(upserts, new HashMap<>(deletedHomes), purchases);
+        dirtyHomes.clear();
+        deletedHomes.clear();
+        dirtyPurchases.clear();
+        return batch;
+    }
+
+    private void write(Batch batch) throws Exception {
+        if (batch.isEmpty() || store == null) return;
+        store.applyChanges(batch.upserts().values(), batch.deletes(), batch.purchases());
+    }
+
+    private void saveEnabledWorlds() {
         List<String> worldIds = enabledWorlds.stream().map(UUID::toString).collect(Collectors.toList());
         plugin.getConfig().set("homes.enabled-worlds", worldIds);
         plugin.saveConfig();
@@ -276,12 +494,12 @@ public class HomesService {
         if (!set) {
             Components.sendErrorMessage(commandSender, "A home with this name already exists.");
         } else {
-            save();
             Components.sendSuccess(commandSender, Components.t("Home "), Components.valueComp(homeName), Components.t(" set."));
         }
     }
 
     public void renameHome(CommandSender sender, UUID targetPlayer, String oldName, String newName) {
+        touch(targetPlayer);
         // No-op if names are identical
         if (oldName.equals(newName)) {
             Components.sendInfoMessage(sender, "Old and new names are the same.");
@@ -302,7 +520,6 @@ public class HomesService {
             // Old name not found
             Components.sendErrorMessage(sender, "Home not found.");
         } else {
-            save();
             Components.sendSuccess(sender, Components.t("Home "), Components.valueComp(oldName), Components.t(" renamed to "), Components.valueComp(newName));
         }
     }
@@ -319,6 +536,7 @@ public class HomesService {
         for (UUID homeUUID : playerHomes) {
             if (homes.get(homeUUID).getName().equals(oldName)) {
                 homes.get(homeUUID).setName(newName);
+                markDirty(homes.get(homeUUID));
                 // Update armor stand name if present
                 try {
                     Home h = homes.get(homeUUID);
@@ -357,20 +575,13 @@ public class HomesService {
                 String asName = "Home " + homeName + " by " + (playerName != null ? playerName : targetPlayer.toString());
                 java.util.UUID id = plugin.armorStandManager.create(location, asName);
                 if (id != null) {
-                    home.setArmorStandUuid(id);
-                    try { plugin.armorStandManager.register(id, () -> removeByArmorStand(id)); } catch (Throwable ignored) {}
+                    setStand(home, id);
                     // Apply per-player visibility: show for ops, hide for others
                     try {
                         org.bukkit.entity.Entity ent = plugin.getServer().getEntity(id);
                         if (ent instanceof org.bukkit.entity.ArmorStand stand) {
                             try { stand.setCustomNameVisible(true); } catch (Throwable ignored) {}
-                            for (org.bukkit.entity.Player viewer : plugin.getServer().getOnlinePlayers()) {
-                                if (viewer.isOp()) {
-                                    viewer.showEntity(plugin, stand);
-                                } else {
-                                    viewer.hideEntity(plugin, stand);
-                                }
-                            }
+                            plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
                         }
                     } catch (Throwable ignored) {
                     }
@@ -385,9 +596,10 @@ public class HomesService {
         // Put into home list
         homes.put(home.getUuid(), home);
         // Put into location list
-        locations.put(location, home.getUuid());
+        indexLocation(home);
         // Update owned count
         owned.put(targetPlayer, owned.getOrDefault(targetPlayer, 0) + 1);
+        markDirty(home);
         return true;
     }
 
@@ -411,7 +623,7 @@ public class HomesService {
             return;
         }
         setWorldEnabled(worldId, enable);
-        save();
+        saveEnabledWorlds();
         if (enable) {
             Components.sendSuccess(commandSender, Components.t("World "), Components.valueComp(world.getName()), Components.t(" enabled", NamedTextColor.GREEN), Components.t(" for homes."));
         } else {
@@ -420,6 +632,7 @@ public class HomesService {
     }
 
     public double getNextBuyCost(UUID playerId) {
+        touch(playerId);
         int purchased = purchasedSlots.getOrDefault(playerId, 0);
         return DEFAULT_HOMES_COST * Math.pow(HOMES_MULTIPLIER, purchased);
     }
@@ -429,11 +642,14 @@ public class HomesService {
     }
 
     public void purchaseSlot(UUID playerId) {
+        touch(playerId);
         purchasedSlots.put(playerId, purchasedSlots.getOrDefault(playerId, 0) + 1);
+        dirtyPurchases.add(playerId);
     }
 
 
     public void moveHome(Player commandSender, UUID targetPlayer, String homeName) {
+        touch(targetPlayer);
         if (!isWorldEnabled(commandSender.getWorld().getUID())) {
             Components.sendErrorMessage(commandSender, "You can't set homes in this world.");
             return;
@@ -443,7 +659,6 @@ public class HomesService {
         if (!moved) {
             Components.sendErrorMessage(commandSender, "A home with this name already exists.");
         } else {
-            save();
             Components.sendSuccess(commandSender, Components.t("Home "), Components.valueComp(homeName), Components.t(" moved."));
         }
     }
@@ -453,11 +668,6 @@ public class HomesService {
         for (UUID homeUUID : playerHomes) {
             Home home = homes.get(homeUUID);
             if (home != null && home.getName().equals(homeName)) {
-                // Update locations index
-                Location oldLoc = home.getLocation(plugin);
-                if (oldLoc != null) {
-                    locations.remove(oldLoc);
-                }
                 // Move armor stand entity if present
                 try {
                     if (home.getArmorStandUuid() != null) {
@@ -469,7 +679,8 @@ public class HomesService {
                 } catch (Throwable ignored) {
                 }
                 home.setLocation(location);
-                locations.put(location, homeUUID);
+                indexLocation(home);
+                markDirty(home);
                 return true;
             }
         }
@@ -477,11 +688,11 @@ public class HomesService {
     }
 
     public void removeHome(CommandSender commandSender, UUID targetPlayer, String homeName) {
+        touch(targetPlayer);
         boolean removed = removeHome(targetPlayer, homeName);
         if (!removed) {
             Components.sendError(commandSender, Components.t("Home with name "), Components.valueComp(homeName), Components.t(" does not exist."));
         } else {
-            save();
             Components.sendSuccess(commandSender, Components.t("Home "), Components.valueComp(homeName), Components.t(" removed."));
         }
     }
@@ -494,14 +705,11 @@ public class HomesService {
             Home home = homes.get(homeUUID);
             if (home != null && home.getName().equals(homeName)) {
                 // Update indices
-                Location oldLoc = home.getLocation(plugin);
-                if (oldLoc != null) {
-                    locations.remove(oldLoc);
-                }
+                locations.remove(homeUUID);
                 // Remove armor stand entity if present
                 try {
                     if (home.getArmorStandUuid() != null) {
-                        try { plugin.armorStandManager.unregister(home.getArmorStandUuid()); } catch (Throwable ignored) {}
+                        untrackStand(home.getArmorStandUuid());
                         Entity ent = plugin.getServer().getEntity(home.getArmorStandUuid());
                         if (ent instanceof ArmorStand) {
                             ent.remove();
@@ -511,6 +719,7 @@ public class HomesService {
                 }
                 homes.remove(homeUUID);
                 it.remove();
+                markDeleted(home);
                 // Decrement owned count
                 owned.put(targetPlayer, Math.max(0, owned.getOrDefault(targetPlayer, 0) - 1));
                 // Write back the possibly new empty set
@@ -526,6 +735,7 @@ public class HomesService {
     }
 
     public void listHomes(CommandSender sender, Player player) {
+        touch(player.getUniqueId());
         Set<UUID> playerHomes = players.getOrDefault(player.getUniqueId(), new HashSet<>());
         if (playerHomes.isEmpty()) {
             Components.sendInfoMessage(sender, "No homes set.");
@@ -546,27 +756,8 @@ public class HomesService {
         }
     }
 
-    public void applyHomeArmorStandVisibility(org.bukkit.entity.Player viewer) {
-        if (viewer == null) return;
-        try {
-            for (Home h : new java.util.ArrayList<>(homes.values())) {
-                java.util.UUID asId = h.getArmorStandUuid();
-                if (asId == null) continue;
-                Entity ent = plugin.getServer().getEntity(asId);
-                if (ent instanceof ArmorStand stand) {
-                    try { stand.setCustomNameVisible(true); } catch (Throwable ignored) {}
-                    if (viewer.isOp()) {
-                        viewer.showEntity(plugin, stand);
-                    } else {
-                        viewer.hideEntity(plugin, stand);
-                    }
-                }
-            }
-        } catch (Throwable ignored) {
-        }
-    }
-
     public void listHomes(CommandSender sender, OfflinePlayer player) {
+        touch(player.getUniqueId());
         Set<UUID> playerHomes = players.getOrDefault(player.getUniqueId(), new HashSet<>());
         if (playerHomes.isEmpty()) {
             Components.sendInfo(sender, Components.playerComp(player.getName()), Components.t(" has no homes."));
@@ -607,6 +798,7 @@ public class HomesService {
     }
 
     public void teleportHome(Player commandSender, UUID uuid, String homeName) {
+        touch(uuid);
         Set<UUID> playerHomes = players.getOrDefault(uuid, new HashSet<>());
         for (UUID homeUUID : playerHomes) {
             Home home = homes.get(homeUUID);
@@ -637,39 +829,36 @@ public class HomesService {
 
     public boolean removeByArmorStand(java.util.UUID armorStandId) {
         // Find the home with this ArmorStand UUID and remove it (entity already dead)
-        for (java.util.Map.Entry<java.util.UUID, Home> e : new java.util.HashMap<>(homes).entrySet()) {
-            Home home = e.getValue();
-            if (armorStandId.equals(home.getArmorStandUuid())) {
-                java.util.UUID owner = home.getPlayer();
-                // update indices
-                Location oldLoc = home.getLocation(plugin);
-                if (oldLoc != null) {
-                    locations.remove(oldLoc);
-                }
-                // remove from main map and player's set
-                homes.remove(e.getKey());
-                java.util.Set<java.util.UUID> set = players.getOrDefault(owner, new java.util.HashSet<>());
-                set.remove(e.getKey());
-                if (set.isEmpty()) {
-                    players.remove(owner);
-                } else {
-                    players.put(owner, set);
-                }
-                owned.put(owner, Math.max(0, owned.getOrDefault(owner, 0) - 1));
-                // persist
-                save();
-                return true;
+        java.util.UUID owner = standOwners.get(armorStandId);
+        if (owner == null) return false;
+        touch(owner);
+        java.util.Set<java.util.UUID> set = players.getOrDefault(owner, new java.util.HashSet<>());
+        for (java.util.UUID homeId : new java.util.ArrayList<>(set)) {
+            Home home = homes.get(homeId);
+            if (home == null || !armorStandId.equals(home.getArmorStandUuid())) continue;
+            // update indices
+            locations.remove(homeId);
+            // remove from main map and player's set
+            homes.remove(homeId);
+            set.remove(homeId);
+            if (set.isEmpty()) {
+                players.remove(owner);
+            } else {
+                players.put(owner, set);
             }
+            owned.put(owner, Math.max(0, owned.getOrDefault(owner, 0) - 1));
+            untrackStand(armorStandId);
+            markDeleted(home);
+            return true;
         }
+        // Stale entry: the stand no longer belongs to any of the owner's homes
+        untrackStand(armorStandId);
         return false;
     }
 
     public boolean hasArmorStand(java.util.UUID armorStandId) {
         if (armorStandId == null) return false;
-        for (Home h : new java.util.ArrayList<>(homes.values())) {
-            if (armorStandId.equals(h.getArmorStandUuid())) return true;
-        }
-        return false;
+        return standOwners.containsKey(armorStandId);
     }
 
     /**
@@ -682,7 +871,10 @@ public class HomesService {
         if (stand == null || stand.getWorld() == null) return false;
         org.bukkit.Location sLoc = stand.getLocation();
         try {
-            for (Home h : new java.util.ArrayList<>(homes.values())) {
+            // Candidates from the block index; 4 blocks covers a 2 block distance after rounding to blocks
+            for (java.util.UUID homeId : locations.withinRadius(sLoc.getWorld().getUID(), sLoc.getBlockX(), sLoc.getBlockY(), sLoc.getBlockZ(), 4.0)) {
+                Home h = homes.get(homeId);
+                if (h == null) continue;
                 org.bukkit.Location hLoc = h.getLocation(plugin);
                 if (hLoc == null || hLoc.getWorld() == null) continue;
                 if (!hLoc.getWorld().equals(sLoc.getWorld())) continue;
@@ -700,17 +892,13 @@ public class HomesService {
                         }
                     }
                     // Update reference and register (only if no existing entity is present)
-                    h.setArmorStandUuid(stand.getUniqueId());
-                    try { plugin.armorStandManager.register(stand.getUniqueId(), () -> removeByArmorStand(stand.getUniqueId())); } catch (Throwable ignored) {}
+                    setStand(h, stand.getUniqueId());
                     // Ensure name visibility and per-player ops-only visibility
                     try { stand.setCustomNameVisible(true); } catch (Throwable ignored) {}
                     try {
-                        for (org.bukkit.entity.Player viewer : plugin.getServer().getOnlinePlayers()) {
-                            if (viewer.isOp()) viewer.showEntity(plugin, stand); else viewer.hideEntity(plugin, stand);
-                        }
+                        plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
                     } catch (Throwable ignored) {}
-                    // Persist update
-                    save();
+                    markDirty(h);
                     return true;
                 }
             }
@@ -748,72 +936,95 @@ public class HomesService {
     public void ensureArmorStands() {
         // For each home, ensure the ArmorStand exists and is named/visible correctly
         for (Home home : new java.util.ArrayList<>(homes.values())) {
-            java.util.UUID asId = home.getArmorStandUuid();
-            org.bukkit.Location location = home.getLocation(plugin);
-            if (location == null || location.getWorld() == null) continue;
-            org.bukkit.entity.Entity ent = (asId != null) ? plugin.getServer().getEntity(asId) : null;
-            if (ent instanceof org.bukkit.entity.ArmorStand stand) {
-                // Already present: ensure registered and visibility
-                try { plugin.armorStandManager.register(stand.getUniqueId(), () -> removeByArmorStand(stand.getUniqueId())); } catch (Throwable ignored) {}
-                try {
-                    try { stand.setCustomNameVisible(true); } catch (Throwable ignored) {}
-                    for (org.bukkit.entity.Player viewer : plugin.getServer().getOnlinePlayers()) {
-                        if (viewer.isOp()) viewer.showEntity(plugin, stand); else viewer.hideEntity(plugin, stand);
-                    }
-                } catch (Throwable ignored) {}
-                continue;
-            }
-            // No entity currently accessible for the stored UUID. If the chunk isn't loaded, skip to avoid duplicating.
-            boolean chunkLoaded;
+            ensureArmorStand(home);
+        }
+    }
+
+    /**
+     * Reconciles only the homes stored in the given chunk. Called when the chunk loads.
+     */
+    public void ensureArmorStandsInChunk(@NotNull UUID worldId, int chunkX, int chunkZ) {
+        for (Home home : getHomesInChunk(worldId, chunkX, chunkZ)) {
+            ensureArmorStand(home);
+        }
+    }
+
+    /**
+     * Adds one reconciliation step per resident home, for the background sweep.
+     */
+    public void collectArmorStandChecks(List<Runnable> out) {
+        for (Home home : homes.values()) {
+            UUID homeId = home.getUuid();
+            out.add(() -> {
+                // The home may have been removed or evicted since the sweep was queued
+                Home current = homes.get(homeId);
+                if (current != null) ensureArmorStand(current);
+            });
+        }
+    }
+
+    private void ensureArmorStand(Home home) {
+        java.util.UUID asId = home.getArmorStandUuid();
+        org.bukkit.Location location = home.getLocation(plugin);
+        if (location == null || location.getWorld() == null) return;
+        org.bukkit.entity.Entity ent = (asId != null) ? plugin.getServer().getEntity(asId) : null;
+        if (ent instanceof org.bukkit.entity.ArmorStand stand) {
+            // Already present: ensure registered and visibility
+            trackStand(stand.getUniqueId(), home.getPlayer(), home.getUuid());
             try {
-                int cx = location.getBlockX() >> 4; int cz = location.getBlockZ() >> 4;
-                chunkLoaded = location.getWorld().isChunkLoaded(cx, cz);
-            } catch (Throwable ignored) {
-                chunkLoaded = true; // be permissive if API not available
+                try { stand.setCustomNameVisible(true); } catch (Throwable ignored) {}
+                plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
+            } catch (Throwable ignored) {}
+            return;
+        }
+        // No entity currently accessible for the stored UUID. If the chunk isn't loaded, skip to avoid duplicating.
+        boolean chunkLoaded;
+        try {
+            int cx = location.getBlockX() >> 4; int cz = location.getBlockZ() >> 4;
+            chunkLoaded = location.getWorld().isChunkLoaded(cx, cz);
+        } catch (Throwable ignored) {
+            chunkLoaded = true; // be permissive if API not available
+        }
+        if (!chunkLoaded) return;
+        // Try to reuse an existing managed ArmorStand near the home location before creating a new one
+        org.bukkit.entity.ArmorStand nearby = findNearbyManagedStand(location, 2.5);
+        if (nearby != null) {
+            if (!nearby.getUniqueId().equals(asId)) {
+                setStand(home, nearby.getUniqueId());
+                markDirty(home);
+            } else {
+                trackStand(nearby.getUniqueId(), home.getPlayer(), home.getUuid());
             }
-            if (!chunkLoaded) continue;
-            // Try to reuse an existing managed ArmorStand near the home location before creating a new one
-            org.bukkit.entity.ArmorStand nearby = findNearbyManagedStand(location, 2.5);
-            if (nearby != null) {
-                if (!nearby.getUniqueId().equals(asId)) {
-                    home.setArmorStandUuid(nearby.getUniqueId());
-                    save();
-                }
-                try { plugin.armorStandManager.register(nearby.getUniqueId(), () -> removeByArmorStand(nearby.getUniqueId())); } catch (Throwable ignored) {}
+            try {
+                try { nearby.setCustomNameVisible(true); } catch (Throwable ignored) {}
+                plugin.markerVisibilityService.apply(nearby, MarkerVisibilityService.Viewers.OPS, null);
+            } catch (Throwable ignored) {}
+            return;
+        }
+        // Spawn a new armor stand as a last resort
+        try {
+            String playerName = plugin.getServer().getOfflinePlayer(home.getPlayer()).getName();
+            String asName = "Home " + home.getName() + " by " + (playerName != null ? playerName : home.getPlayer().toString());
+            java.util.UUID id = plugin.armorStandManager.create(location, asName);
+            if (id != null) {
+                setStand(home, id);
+                markDirty(home);
+                // Per-player visibility: ops only
                 try {
-                    try { nearby.setCustomNameVisible(true); } catch (Throwable ignored) {}
-                    for (org.bukkit.entity.Player viewer : plugin.getServer().getOnlinePlayers()) {
-                        if (viewer.isOp()) viewer.showEntity(plugin, nearby); else viewer.hideEntity(plugin, nearby);
+                    org.bukkit.entity.Entity ent2 = plugin.getServer().getEntity(id);
+                    if (ent2 instanceof org.bukkit.entity.ArmorStand newStand) {
+                        try { newStand.setCustomNameVisible(true); } catch (Throwable ignored) {}
+                        plugin.markerVisibilityService.apply(newStand, MarkerVisibilityService.Viewers.OPS, null);
                     }
                 } catch (Throwable ignored) {}
-                continue;
-            }
-            // Spawn a new armor stand as a last resort
-            try {
-                String playerName = plugin.getServer().getOfflinePlayer(home.getPlayer()).getName();
-                String asName = "Home " + home.getName() + " by " + (playerName != null ? playerName : home.getPlayer().toString());
-                java.util.UUID id = plugin.armorStandManager.create(location, asName);
-                if (id != null) {
-                    home.setArmorStandUuid(id);
-                    try { plugin.armorStandManager.register(id, () -> removeByArmorStand(id)); } catch (Throwable ignored) {}
-                    // Per-player visibility: ops only
-                    try {
-                        org.bukkit.entity.Entity ent2 = plugin.getServer().getEntity(id);
-                        if (ent2 instanceof org.bukkit.entity.ArmorStand newStand) {
-                            try { newStand.setCustomNameVisible(true); } catch (Throwable ignored) {}
-                            for (org.bukkit.entity.Player viewer : plugin.getServer().getOnlinePlayers()) {
-                                if (viewer.isOp()) viewer.showEntity(plugin, newStand); else viewer.hideEntity(plugin, newStand);
-                            }
-                        }
-                    } catch (Throwable ignored) {}
-                }
-            } catch (Throwable t) {
-                plugin.getLogger().warning("Failed to respawn ArmorStand for home: " + t.getMessage());
             }
+        } catch (Throwable t) {
+            plugin.getLogger().warning("Failed to respawn ArmorStand for home: " + t.getMessage());
         }
     }
 
     public List<String> getHomesNames(UUID target) {
+        touch(target);
         Set<UUID> ids = players.getOrDefault(target, Collections.emptySet());
         List<String> names = new ArrayList<>(ids.size());
         for (UUID id : ids) {
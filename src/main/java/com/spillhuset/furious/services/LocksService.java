@@ -1,6 +1,9 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.db.LocksStore;
+import com.spillhuset.furious.db.LocksStore.LockRow;
+import com.spillhuset.furious.utils.BackgroundWriter;
 import com.spillhuset.furious.utils.Components;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.*;
@@ -10,12 +13,8 @@ import org.bukkit.block.data.Bisected;
 import org.bukkit.block.data.type.Chest;
 import org.bukkit.block.data.type.Door;
 import org.bukkit.command.CommandSender;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -25,69 +24,102 @@ public class LocksService {
     // worldUUID -> map of "x,y,z" -> ownerUUID
     private final Map<UUID, Map<String, UUID>> locks = new ConcurrentHashMap<>();
 
-    private File locksFile;
-    private FileConfiguration locksConfig;
+    private volatile LocksStore store; // null when storage could not be opened; saving is then skipped
+
+    // Persistence: changed blocks are collected on the main thread and written in batches off it
+    private final Map<UUID, Set<String>> dirty = new HashMap<>();
+    private final BackgroundWriter<Map<BlockKey, LockRow>> writer;
+    private BukkitTask flushTask;
+    private long flushIntervalTicks = 100L;
+
+    private record BlockKey(UUID world, String pos) {}
 
     // enabled worlds set, configured under plugin config key "locks.enabled-worlds"
     private java.util.Set<java.util.UUID> enabledWorlds = new java.util.HashSet<>();
 
     public LocksService(Furious plugin) {
         this.plugin = plugin.getInstance();
+        flushIntervalTicks = this.plugin.getConfig().getLong("locks.flush-interval-ticks", flushIntervalTicks);
+        writer = BackgroundWriter.ofRows("locks", this.plugin.getLogger(), this::snapshotDirty, this::write,
+                task -> Bukkit.getScheduler().runTaskAsynchronously(this.plugin, task));
     }
 
+    /**
+     * Loads locks from the configured store (locks.yml, SQLite or MySQL). Unsaved changes are discarded; call {@link #save()} first to keep them.
+     */
     public void load() {
+        stopAutoFlush();
+        dirty.clear();
         loadEnabledWorldsFromConfig();
         ensureLocksDefaultsPersisted();
-        locksFile = new File(plugin.getDataFolder(), "locks.yml");
-        try {
-            if (!locksFile.exists()) {
-                locksFile.getParentFile().mkdirs();
-                locksFile.createNewFile();
-            }
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed creating locks.yml: " + e.getMessage());
-        }
-        locksConfig = YamlConfiguration.loadConfiguration(locksFile);
         locks.clear();
-        ConfigurationSection root = locksConfig.getConfigurationSection("locks");
-        if (root != null) {
-            for (String worldKey : root.getKeys(false)) {
-                try {
-                    UUID worldId = UUID.fromString(worldKey);
-                    ConfigurationSection worldSec = root.getConfigurationSection(worldKey);
-                    if (worldSec == null) continue;
-                    Map<String, UUID> map = new ConcurrentHashMap<>();
-                    for (String coord : worldSec.getKeys(false)) {
-                        try {
-                            String ownerStr = worldSec.getString(coord);
-                            if (ownerStr == null) continue;
-                            map.put(coord, UUID.fromString(ownerStr));
-                        } catch (IllegalArgumentException ignored) {}
-                    }
-                    locks.put(worldId, map);
-                } catch (IllegalArgumentException ignored) {
-                }
+        store = null;
+        LocksStore candidate = plugin.databaseManager.locksStore();
+        try {
+            candidate.init();
+            for (Map.Entry<UUID, Map<String, UUID>> e : candidate.loadAll().entrySet()) {
+                locks.put(e.getKey(), new ConcurrentHashMap<>(e.getValue()));
             }
+            store = candidate;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed loading locks (" + plugin.databaseManager.getBackend() + "): " + e.getMessage());
         }
+        startAutoFlush();
     }
 
+    /**
+     * Writes every pending change synchronously. Used on shutdown.
+     */
     public void save() {
-        // Persist locks.yml
-        YamlConfiguration out = new YamlConfiguration();
-        ConfigurationSection root = out.createSection("locks");
-        for (Map.Entry<UUID, Map<String, UUID>> e : locks.entrySet()) {
-            ConfigurationSection ws = root.createSection(e.getKey().toString());
-            for (Map.Entry<String, UUID> le : e.getValue().entrySet()) {
-                ws.set(le.getKey(), le.getValue().toString());
-            }
+        // Waits for a running async write, so it cannot land after this one
+        writer.flushNow();
+    }
+
+    public void shutdown() {
+        stopAutoFlush();
+        save();
+    }
+
+    public void startAutoFlush() {
+        stopAutoFlush();
+        if (flushIntervalTicks > 0) {
+            // Snapshot on the main thread (where the locks change), write asynchronously
+            flushTask = Bukkit.getScheduler().runTaskTimer(plugin, writer::flush, flushIntervalTicks, flushIntervalTicks);
         }
-        locksConfig = out;
-        try {
-            out.save(locksFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed saving locks.yml: " + e.getMessage());
+    }
+
+    public void stopAutoFlush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    private void markDirty(UUID worldId, String pos) {
+        dirty.computeIfAbsent(worldId, w -> new HashSet<>()).add(pos);
+    }
+
+    // Main thread: copies the changed blocks and clears the dirty set
+    private Map<BlockKey, LockRow> snapshotDirty() {
+        Map<BlockKey, LockRow> rows = new HashMap<>();
+        for (Map.Entry<UUID, Set<String>> e : dirty.entrySet()) {
+            Map<String, UUID> map = locks.get(e.getKey());
+            for (String pos : e.getValue()) {
+                rows.put(new BlockKey(e.getKey(), pos), new LockRow(e.getKey(), pos, map == null ? null : map.get(pos)));
+            }
         }
-        // Persist enabled worlds list into plugin config
+        dirty.clear();
+        return rows;
+    }
+
+    // Writes only the changed blocks
+    private void write(Map<BlockKey, LockRow> rows) throws Exception {
+        LocksStore target = store;
+        if (target == null || rows.isEmpty()) return;
+        target.applyChanges(rows.values());
+    }
+
+    private void saveEnabledWorlds() {
         List<String> worldIds = new ArrayList<>();
         for (UUID id : enabledWorlds) worldIds.add(id.toString());
         plugin.getConfig().set("locks.enabled-worlds", worldIds);
@@ -118,7 +150,7 @@ public class LocksService {
             return;
         }
         setWorldEnabled(worldId, enable);
-        save();
+        saveEnabledWorlds();
         if (enable) {
             Components.sendSuccess(sender,
                     Components.t("World "),
@@ -272,6 +304,7 @@ public class LocksService {
         for (Block b : group) {
             String k = key(b.getLocation());
             map.put(k, playerId);
+            markDirty(world.getUID(), k);
         }
         return true;
     }
@@ -291,7 +324,8 @@ public class LocksService {
         if (foundOwner == null) return false;
         if (!requesterIsOp && !foundOwner.equals(requesterId)) return false;
         for (Block b : group) {
-            map.remove(key(b.getLocation()));
+            String k = key(b.getLocation());
+            if (map.remove(k) != null) markDirty(world.getUID(), k);
         }
         return true;
     }
@@ -0,0 +1,166 @@
+package com.spillhuset.furious.services;
+
+import com.spillhuset.furious.Furious;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * Decides which players see each marker ArmorStand (homes, warps, shops, ...).
+ * <p>
+ * Restricted stands are hidden by default ({@link Entity#setVisibleByDefault(boolean)}), so a player
+ * who may not see them needs no per-stand call at all. For each online viewer the service remembers
+ * which stands it has shown explicitly and only sends the difference when a stand is (re)applied or
+ * a viewer joins or changes op status. Bukkit keeps these per-player exceptions for the session,
+ * also while the stand's chunk is unloaded.
+ * Not thread-safe; used from the main thread.
+ */
+public class MarkerVisibilityService {
+    /** Who may see a marker. */
+    public enum Viewers {
+        OPS, OWNER, EVERYONE
+    }
+
+    private record Rule(Viewers viewers, UUID owner) {}
+
+    private final Furious plugin;
+    private final Map<UUID, Rule> rules = new HashMap<>();
+    // Reverse indexes so a viewer refresh only looks at stands that viewer may see
+    private final Set<UUID> opsStands = new HashSet<>();
+    private final Map<UUID, Set<UUID>> ownerStands = new HashMap<>();
+    // Stands explicitly shown to each online viewer (exceptions to hidden-by-default)
+    private final Map<UUID, Set<UUID>> shown = new HashMap<>();
+
+    public MarkerVisibilityService(Furious plugin) {
+        this.plugin = plugin.getInstance();
+    }
+
+    /**
+     * Sets who may see the stand and brings every online player in line with it.
+     * Cheap to call repeatedly: players already in the right state get no calls.
+     */
+    public void apply(Entity stand, Viewers viewers, UUID owner) {
+        if (stand == null || viewers == null) return;
+        UUID id = stand.getUniqueId();
+        Rule rule = new Rule(viewers, viewers == Viewers.OWNER ? owner : null);
+        Rule old = rules.put(id, rule);
+        if (!rule.equals(old)) {
+            if (old != null) unindex(id, old);
+            index(id, rule);
+        }
+        boolean byDefault = viewers == Viewers.EVERYONE;
+        try {
+            if (stand.isVisibleByDefault() != byDefault) {
+                // Exceptions are relative to the default, so drop them before flipping it
+                revokeAll(stand);
+                stand.setVisibleByDefault(byDefault);
+            }
+        } catch (Throwable ignored) {}
+        for (Player viewer : plugin.getServer().getOnlinePlayers()) {
+            sync(viewer, stand, rule);
+        }
+    }
+
+    /**
+     * Forgets the stand, e.g. after it was removed.
+     */
+    public void untrack(UUID standId) {
+        if (standId == null) return;
+        Rule old = rules.remove(standId);
+        if (old != null) unindex(standId, old);
+        for (Set<UUID> set : shown.values()) set.remove(standId);
+    }
+
+    /**
+     * Shows a viewer the loaded stands it may see and hides those it no longer may.
+     * Called on join and after op status changes. Stands that are not loaded are synced when they are applied again.
+     */
+    public void refreshViewer(Player viewer) {
+        if (viewer == null) return;
+        Set<UUID> want = new HashSet<>();
+        if (viewer.isOp()) want.addAll(opsStands);
+        Set<UUID> own = ownerStands.get(viewer.getUniqueId());
+        if (own != null) want.addAll(own);
+        Set<UUID> has = shown.computeIfAbsent(viewer.getUniqueId(), k -> new HashSet<>());
+        for (UUID id : want) {
+            if (has.contains(id)) continue;
+            Entity stand = plugin.getServer().getEntity(id);
+            if (stand == null) continue;
+            try {
+                viewer.showEntity(plugin, stand);
+                has.add(id);
+            } catch (Throwable ignored) {}
+        }
+        for (UUID id : new ArrayList<>(has)) {
+            if (want.contains(id)) continue;
+            Entity stand = plugin.getServer().getEntity(id);
+            // Kept in the set while unloaded so the next apply() hides it
+            if (stand == null) continue;
+            try {
+                viewer.hideEntity(plugin, stand);
+                has.remove(id);
+            } catch (Throwable ignored) {}
+        }
+    }
+
+    /**
+     * Drops the viewer's state; Bukkit resets per-player entity visibility on quit.
+     */
+    public void onQuit(UUID viewerId) {
+        if (viewerId != null) shown.remove(viewerId);
+    }
+
+    public int getTrackedCount() {
+        return rules.size();
+    }
+
+    private void sync(Player viewer, Entity stand, Rule rule) {
+        UUID id = stand.getUniqueId();
+        boolean want = rule.viewers() != Viewers.EVERYONE && canSee(viewer, rule);
+        Set<UUID> has = shown.computeIfAbsent(viewer.getUniqueId(), k -> new HashSet<>());
+        try {
+            if (want && !has.contains(id)) {
+                viewer.showEntity(plugin, stand);
+                has.add(id);
+            } else if (!want && has.contains(id)) {
+                viewer.hideEntity(plugin, stand);
+                has.remove(id);
+            }
+        } catch (Throwable ignored) {}
+    }
+
+    private void revokeAll(Entity stand) {
+        UUID id = stand.getUniqueId();
+        for (Player viewer : plugin.getServer().getOnlinePlayers()) {
+            Set<UUID> has = shown.get(viewer.getUniqueId());
+            if (has == null || !has.remove(id)) continue;
+            try { viewer.hideEntity(plugin, stand); } catch (Throwable ignored) {}
+        }
+    }
+
+    private static boolean canSee(Player viewer, Rule rule) {
+        return switch (rule.viewers()) {
+            case OPS -> viewer.isOp();
+            case OWNER -> viewer.getUniqueId().equals(rule.owner());
+            case EVERYONE -> true;
+        };
+    }
+
+    private void index(UUID id, Rule rule) {
+        if (rule.viewers() == Viewers.OPS) opsStands.add(id);
+        else if (rule.viewers() == Viewers.OWNER && rule.owner() != null)
+            ownerStands.computeIfAbsent(rule.owner(), k -> new HashSet<>()).add(id);
+    }
+
+    private void unindex(UUID id, Rule rule) {
+        if (rule.viewers() == Viewers.OPS) opsStands.remove(id);
+        else if (rule.viewers() == Viewers.OWNER && rule.owner() != null) {
+            Set<UUID> set = ownerStands.get(rule.owner());
+            if (set != null) {
+                set.remove(id);
+                if (set.isEmpty()) ownerStands.remove(rule.owner());
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.spillhuset.furious.services;
+
+import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.utils.BackgroundWriter;
+import com.spillhuset.furious.utils.PrefixTrie;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Name &lt;-&gt; UUID index of every player that has joined, stored in plugins/Furious/players.yml.
+ * <p>
+ * Commands resolve and tab-complete player names here instead of {@code Bukkit.getOfflinePlayers()}
+ * (reads every player data file) or {@code Bukkit.getOfflinePlayer(name)} (may do a blocking profile
+ * lookup). Updated on join, which is also where renames are picked up. The first start without a
+ * players.yml seeds it once from the server's known players.
+ */
+public class PlayerDirectory {
+    public static final int SUGGESTION_LIMIT = 50;
+
+    private final Furious plugin;
+    private final Map<UUID, Entry> byId = new HashMap<>();
+    // Current name -> player; a name belongs to whoever joined with it last
+    private final PrefixTrie<UUID> byName = new PrefixTrie<>();
+    private final Set<UUID> dirty = new HashSet<>();
+    private final Object ioLock = new Object();
+    private final BackgroundWriter<Map<UUID, Entry>> writer;
+    private File file;
+    private YamlConfiguration config;
+    private BukkitTask flushTask;
+    private long flushIntervalTicks = 20L * 30; // default 30s
+
+    private record Entry(String name, long lastSeen) {}
+
+    public PlayerDirectory(Furious plugin) {
+        this.plugin = plugin.getInstance();
+        flushIntervalTicks = this.plugin.getConfig().getLong("players.flush-interval-ticks", flushIntervalTicks);
+        writer = BackgroundWriter.ofRows("players.yml", this.plugin.getLogger(), this::snapshotDirty, this::write,
+                task -> Bukkit.getScheduler().runTaskAsynchronously(this.plugin, task));
+    }
+
+    public void load() {
+        stopAutoFlush();
+        boolean seed;
+        synchronized (this) {
+            byId.clear();
+            byName.clear();
+            dirty.clear();
+            File folder = plugin.getDataFolder();
+            if (!folder.exists()) folder.mkdirs();
+            file = new File(folder, "players.yml");
+            seed = !file.exists();
+            synchronized (ioLock) {
+                config = YamlConfiguration.loadConfiguration(file);
+            }
+            ConfigurationSection players = config.getConfigurationSection("players");
+            if (players != null) {
+                for (String key : players.getKeys(false)) {
+                    try {
+                        UUID uuid = UUID.fromString(key);
+                        String name = players.getString(key + ".name");
+                        if (name == null || name.isEmpty()) continue;
+                        index(uuid, name, players.getLong(key + ".seen", 0L));
+                    } catch (IllegalArgumentException ignored) {
+                    }
+                }
+            }
+        }
+        if (seed) seedFromServer();
+        // After a reload the online players are not joining again
+        for (Player p : Bukkit.getOnlinePlayers()) onJoin(p);
+        if (!dirty.isEmpty()) save();
+        startAutoFlush();
+    }
+
+    // One-time migration: the slow server-wide listing is done here, never in a command
+    private void seedFromServer() {
+        int n = 0;
+        for (OfflinePlayer op : Bukkit.getOfflinePlayers()) {
+            try {
+                String name = op.getName();
+                if (name == null || name.isEmpty()) continue;
+                synchronized (this) {
+                    index(op.getUniqueId(), name, op.getLastSeen());
+                    dirty.add(op.getUniqueId());
+                }
+                n++;
+            } catch (Throwable ignored) {
+            }
+        }
+        plugin.getLogger().info("Players: indexed " + n + " known players into players.yml.");
+    }
+
+    /**
+     * Writes every pending change synchronously, after any async write still running.
+     */
+    public void save() {
+        writer.flushNow();
+    }
+
+    public void shutdown() {
+        stopAutoFlush();
+        save();
+    }
+
+    public void startAutoFlush() {
+        stopAutoFlush();
+        if (flushIntervalTicks > 0) {
+            flushTask = Bukkit.getScheduler().runTaskTimer(plugin, writer::flush, flushIntervalTicks, flushIntervalTicks);
+        }
+    }
+
+    public void stopAutoFlush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    private synchronized Map<UUID, Entry> snapshotDirty() {
+        Map<UUID, Entry> rows = new HashMap<>();
+        for (UUID uuid : dirty) {
+            Entry e = byId.get(uuid);
+            if (e != null) rows.put(uuid, e);
+        }
+        dirty.clear();
+        return rows;
+    }
+
+    private void write(Map<UUID, Entry> rows) throws IOException {
+        synchronized (ioLock) {
+            if (config == null || rows.isEmpty()) return;
+            for (Map.Entry<UUID, Entry> e : rows.entrySet()) {
+                String base = "players." + e.getKey();
+                config.set(base + ".name", e.getValue().name());
+                config.set(base + ".seen", e.getValue().lastSeen());
+            }
+            config.save(file);
+        }
+    }
+
+    /**
+     * Records the player's current name; called on join.
+     */
+    public void onJoin(Player player) {
+        UUID uuid = player.getUniqueId();
+        String name = player.getName();
+        synchronized (this) {
+            Entry old = byId.get(uuid);
+            if (old != null && !old.name().equals(name)) {
+                plugin.getLogger().info("Players: " + old.name() + " is now known as " + name + ".");
+            }
+            index(uuid, name, System.currentTimeMillis());
+            dirty.add(uuid);
+        }
+    }
+
+    // Caller holds the monitor
+    private void index(UUID uuid, String name, long lastSeen) {
+        Entry old = byId.get(uuid);
+        if (old != null && !old.name().equalsIgnoreCase(name) && uuid.equals(byName.get(old.name()))) {
+            byName.remove(old.name());
+        }
+        // Keep the newer claim when two players have used the same name
+        UUID holder = byName.get(name);
+        if (holder != null && !holder.equals(uuid)) {
+            Entry other = byId.get(holder);
+            if (other != null && other.lastSeen() > lastSeen) {
+                byId.put(uuid, new Entry(name, lastSeen));
+                return;
+            }
+        }
+        byName.put(name, uuid);
+        byId.put(uuid, new Entry(name, lastSeen));
+    }
+
+    /**
+     * @return the player currently known by {@code name} (case-insensitive), or null
+     */
+    public synchronized UUID findId(String name) {
+        if (name == null || name.isEmpty()) return null;
+        return byName.get(name);
+    }
+
+    /**
+     * @return the last name seen for the player, or null when it never joined
+     */
+    public synchronized String getName(UUID uuid) {
+        Entry e = uuid == null ? null : byId.get(uuid);
+        return e == null ? null : e.name();
+    }
+
+    /**
+     * Resolves without touching the disk or the network: {@code Bukkit.getOfflinePlayer(UUID)} only wraps the id.
+     * @return the player, or null when no known player has this name
+     */
+    public OfflinePlayer find(String name) {
+        UUID uuid = findId(name);
+        return uuid == null ? null : Bukkit.getOfflinePlayer(uuid);
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    /**
+     * @return up to {@code limit} names starting with {@code prefix}, sorted case-insensitively
+     */
+    public List<String> complete(String prefix, int limit) {
+        return complete(prefix, limit, null);
+    }
+
+    /**
+     * @param filter players to include, or null for all
+     * @return up to {@code limit} names of accepted players starting with {@code prefix}, sorted case-insensitively
+     */
+    public synchronized List<String> complete(String prefix, int limit, Predicate<UUID> filter) {
+        List<UUID> ids = byName.complete(prefix, limit, filter);
+        List<String> names = new ArrayList<>(ids.size());
+        for (UUID id : ids) names.add(byId.get(id).name());
+        return names;
+    }
+}
@@ -1,11 +1,16 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.db.ProfessionsStore;
+import com.spillhuset.furious.db.ProfessionsStore.PlayerRow;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import com.spillhuset.furious.utils.BackgroundWriter;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
 
 /**
@@ -14,83 +19,168 @@ import java.util.*;
 public class ProfessionService {
     public enum Profession { MINER, LUMBERJACK, FARMER, FISHER, BUTCHER; }
 
+    /** Bonus point kinds, each configured under professions.points.bonus.<profession>.<key>. */
+    public enum Bonus {
+        ORE(Profession.MINER, "ore"),
+        PLANT(Profession.LUMBERJACK, "plant"),
+        TILL(Profession.FARMER, "till"),
+        TREASURE(Profession.FISHER, "treasure"),
+        SMOKER(Profession.BUTCHER, "smoker");
+
+        private final Profession profession;
+        private final String key;
+
+        Bonus(Profession profession, String key) {
+            this.profession = profession;
+            this.key = key;
+        }
+
+        public Profession getProfession() { return profession; }
+        public String getKey() { return key; }
+    }
+
+    /** Point values resolved from config; indexed by Profession and Bonus ordinal. */
+    public record PointTable(int[] base, int[] bonus) {
+        /**
+         * Resolves every professions.points.base and professions.points.bonus key in the given root config.
+         */
+        public static PointTable fromConfig(ConfigurationSection cfg) {
+            int[] base = new int[Profession.values().length];
+            for (Profession prof : Profession.values()) {
+                base[prof.ordinal()] = cfg.getInt("professions.points.base."+prof.name().toLowerCase(Locale.ROOT), 1);
+            }
+            int[] bonus = new int[Bonus.values().length];
+            for (Bonus b : Bonus.values()) {
+                bonus[b.ordinal()] = cfg.getInt("professions.points.bonus."+b.getProfession().name().toLowerCase(Locale.ROOT)+"."+b.getKey(), 2);
+            }
+            return new PointTable(base, bonus);
+        }
+
+        public int points(Profession prof) {
+            return base[prof.ordinal()];
+        }
+        public int points(Bonus b) {
+            return bonus[b.ordinal()];
+        }
+    }
+
     private final Furious plugin;
 
     private final Map<UUID, Profession> primary = new HashMap<>();
     private final Map<UUID, Profession> secondary = new HashMap<>();
     private final Map<UUID, EnumMap<Profession, Integer>> points = new HashMap<>();
+    // Swapped as a whole on reload so listeners never see a half-built table
+    private volatile PointTable pointTable;
+
+    private volatile ProfessionsStore store; // null when storage could not be opened
 
-    private File file;
-    private FileConfiguration config;
+    // Persistence: changed players are collected on the main thread and written in batches off it
+    private final Set<UUID> dirty = new HashSet<>();
+    private final BackgroundWriter<Map<UUID, PlayerRow>> writer;
+    private BukkitTask flushTask;
+    private long flushIntervalTicks = 20L * 10; // default 10s
 
     public ProfessionService(Furious plugin) {
         this.plugin = plugin.getInstance();
+        flushIntervalTicks = this.plugin.getConfig().getLong("professions.flush-interval-ticks", flushIntervalTicks);
+        reloadPointTables();
+        writer = BackgroundWriter.ofRows("professions", this.plugin.getLogger(), this::snapshotDirty, this::write,
+                task -> Bukkit.getScheduler().runTaskAsynchronously(this.plugin, task));
     }
 
     public void load() {
+        stopAutoFlush();
+        dirty.clear();
+        primary.clear();
+        secondary.clear();
+        points.clear();
+        store = null;
+        ProfessionsStore candidate = plugin.databaseManager.professionsStore();
         try {
-            File folder = plugin.getDataFolder();
-            if (!folder.exists()) folder.mkdirs();
-            file = new File(folder, "professions.yml");
-            if (!file.exists()) file.createNewFile();
-            config = YamlConfiguration.loadConfiguration(file);
-            primary.clear();
-            secondary.clear();
-            points.clear();
-            if (config.isConfigurationSection("players")) {
-                for (String key : Objects.requireNonNull(config.getConfigurationSection("players")).getKeys(false)) {
-                    try {
-                        UUID uuid = UUID.fromString(key);
-                        String p = config.getString("players."+key+".primary");
-                        String s = config.getString("players."+key+".secondary");
-                        if (p != null && !p.isEmpty()) {
-                            try { primary.put(uuid, Profession.valueOf(p)); } catch (IllegalArgumentException ignored) {}
-                        }
-                        if (s != null && !s.isEmpty()) {
-                            try { secondary.put(uuid, Profession.valueOf(s)); } catch (IllegalArgumentException ignored) {}
-                        }
-                        EnumMap<Profession, Integer> map = new EnumMap<>(Profession.class);
-                        for (Profession prof : Profession.values()) {
-                            int val = config.getInt("players."+key+".points."+prof.name(), 0);
-                            map.put(prof, val);
-                        }
-                        points.put(uuid, map);
-                    } catch (IllegalArgumentException ignored) {}
+            candidate.init();
+            candidate.forEachPlayer((uuid, row) -> {
+                Profession p = parse(row.primary());
+                Profession s = parse(row.secondary());
+                if (p != null) primary.put(uuid, p);
+                if (s != null) secondary.put(uuid, s);
+                EnumMap<Profession, Integer> map = new EnumMap<>(Profession.class);
+                for (Profession prof : Profession.values()) {
+                    Integer val = row.points() == null ? null : row.points().get(prof.name());
+                    map.put(prof, val == null ? 0 : val);
                 }
-            }
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to load professions.yml: "+e.getMessage());
+                points.put(uuid, map);
+            });
+            store = candidate;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to load professions (" + plugin.databaseManager.getBackend() + "): " + e.getMessage());
         }
+        startAutoFlush();
     }
 
+    /**
+     * Writes every pending change synchronously. Used on shutdown.
+     */
     public void save() {
-        if (config == null) return;
-        config.set("players", null);
-        for (UUID uuid : unionKeys()) {
-            Profession p = primary.get(uuid);
-            Profession s = secondary.get(uuid);
-            if (p != null) config.set("players."+uuid+".primary", p.name());
-            if (s != null) config.set("players."+uuid+".secondary", s.name());
+        // Waits for a running async write, so it cannot land after this one
+        writer.flushNow();
+    }
+
+    public void shutdown() {
+        stopAutoFlush();
+        save();
+    }
+
+    public void startAutoFlush() {
+        stopAutoFlush();
+        if (flushIntervalTicks > 0) {
+            // Snapshot on the main thread (where the maps live), write asynchronously
+            flushTask = Bukkit.getScheduler().runTaskTimer(plugin, writer::flush, flushIntervalTicks, flushIntervalTicks);
+        }
+    }
+
+    public void stopAutoFlush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    private void markDirty(UUID player) {
+        dirty.add(player);
+    }
+
+    // Main thread: copies the changed players and clears the dirty set
+    private Map<UUID, PlayerRow> snapshotDirty() {
+        Map<UUID, PlayerRow> rows = new HashMap<>();
+        for (UUID uuid : dirty) {
             EnumMap<Profession, Integer> map = points.get(uuid);
+            Map<String, Integer> pts = null;
             if (map != null) {
-                for (Profession prof : Profession.values()) {
-                    config.set("players."+uuid+".points."+prof.name(), map.getOrDefault(prof, 0));
-                }
+                pts = new HashMap<>();
+                for (Profession prof : Profession.values()) pts.put(prof.name(), map.getOrDefault(prof, 0));
             }
+            Profession p = primary.get(uuid);
+            Profession s = secondary.get(uuid);
+            rows.put(uuid, new PlayerRow(p != null ? p.name() : null, s != null ? s.name() : null, pts));
         }
-        try {
-            config.save(file);
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to save professions.yml: "+e.getMessage());
-        }
+        dirty.clear();
+        return rows;
     }
 
-    private Set<UUID> unionKeys() {
-        Set<UUID> set = new HashSet<>();
-        set.addAll(primary.keySet());
-        set.addAll(secondary.keySet());
-        set.addAll(points.keySet());
-        return set;
+    // Writes only the changed players
+    private void write(Map<UUID, PlayerRow> rows) throws Exception {
+        ProfessionsStore target = store;
+        if (target == null || rows.isEmpty()) return;
+        target.applyChanges(rows);
+    }
+
+    private static Profession parse(String name) {
+        if (name == null || name.isEmpty()) return null;
+        try {
+            return Profession.valueOf(name);
+        } catch (IllegalArgumentException ignored) {
+            return null;
+        }
     }
 
     public Profession getPrimary(UUID player) { return primary.get(player); }
@@ -100,7 +190,7 @@ public class ProfessionService {
         if (player == null || prof == null) return false;
         primary.put(player, prof);
         ensureMap(player);
-        save();
+        markDirty(player);
         return true;
     }
 
@@ -108,7 +198,7 @@ public class ProfessionService {
         if (player == null || prof == null) return false;
         secondary.put(player, prof);
         ensureMap(player);
-        save();
+        markDirty(player);
         return true;
     }
 
@@ -121,9 +211,8 @@ public class ProfessionService {
         EnumMap<Profession, Integer> map = ensureMap(player);
         int cur = map.getOrDefault(prof, 0);
         map.put(prof, Math.max(0, cur + amount));
-        // Persist lazily to avoid heavy IO: small throttle via wallet flush interval
-        // For simplicity here, we save immediately to be safe
-        save();
+        // Persisted by the next batched flush
+        markDirty(player);
     }
 
     private EnumMap<Profession, Integer> ensureMap(UUID player) {
@@ -135,12 +224,34 @@ public class ProfessionService {
     }
 
     // --- Config helpers ---
+    /**
+     * Re-reads only the professions section of config.yml into the live config, then rebuilds the
+     * point tables. Other sections keep the values the rest of the plugin loaded.
+     */
+    public void reloadConfigSection() {
+        YamlConfiguration disk = YamlConfiguration.loadConfiguration(new File(plugin.getDataFolder(), "config.yml"));
+        FileConfiguration cfg = plugin.getConfig();
+        cfg.set("professions", null); // falls back to the packaged defaults for keys missing on disk
+        ConfigurationSection section = disk.getConfigurationSection("professions");
+        if (section != null) {
+            for (Map.Entry<String, Object> e : section.getValues(true).entrySet()) {
+                if (!(e.getValue() instanceof ConfigurationSection)) cfg.set("professions." + e.getKey(), e.getValue());
+            }
+        }
+        reloadPointTables();
+    }
+
+    /**
+     * Rebuilds the point tables from the current plugin config.
+     */
+    public void reloadPointTables() {
+        pointTable = PointTable.fromConfig(plugin.getConfig());
+    }
+
     public int ptsBase(Profession prof) {
-        String key = "professions.points.base."+prof.name().toLowerCase(Locale.ROOT);
-        return plugin.getConfig().getInt(key, 1);
+        return pointTable.points(prof);
     }
-    public int ptsBonus(Profession prof, String bonusKey) {
-        String key = "professions.points.bonus."+prof.name().toLowerCase(Locale.ROOT)+"."+bonusKey;
-        return plugin.getConfig().getInt(key, 2);
+    public int ptsBonus(Bonus bonus) {
+        return pointTable.points(bonus);
     }
 }
@@ -1,12 +1,15 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.managers.ArmorStandManager;
+import com.spillhuset.furious.utils.ChunkIndex;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.Guild;
 import com.spillhuset.furious.utils.GuildType;
 import com.spillhuset.furious.utils.Shop;
 import com.spillhuset.furious.utils.ShopGuildItem;
 import com.spillhuset.furious.utils.ShopType;
+import com.spillhuset.furious.utils.SuggestionIndex;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
@@ -33,6 +36,8 @@ public class ShopsService {
 
     private final Map<UUID, Shop> shopsById = new HashMap<>();
     private final Map<String, UUID> shopIdByName = new HashMap<>();
+    // Shops with a spawn anchor, by the chunk it is in, for chunk-load reconciliation
+    private final ChunkIndex<Shop> shopsBySpawnChunk = new ChunkIndex<>();
 
     private File shopsFile;
     private FileConfiguration shopsConfig;
@@ -47,7 +52,11 @@ public class ShopsService {
         }
         shopsConfig = YamlConfiguration.loadConfiguration(shopsFile);
         shopsById.clear();
+        shopsBySpawnChunk.clear();
+        try { plugin.armorStandManager.unregisterAll(ArmorStandManager.OwnerKind.SHOP); } catch (Throwable ignored) {}
         shopIdByName.clear();
+        if (plugin.subclaimIndex != null) plugin.subclaimIndex.clearShops();
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.clear(SuggestionIndex.Domain.SHOPS);
         ConfigurationSection root = shopsConfig.getConfigurationSection("shops");
         if (root != null) {
             for (String idKey : root.getKeys(false)) {
@@ -137,6 +146,10 @@ public class ShopsService {
                     }
                     shopsById.put(id, s);
                     shopIdByName.put(name.toLowerCase(), id);
+                    indexSpawn(s);
+                    if (plugin.subclaimIndex != null) plugin.subclaimIndex.addShop(s);
+                    if (plugin.suggestionIndex != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.SHOPS, name);
+                    if (s.getArmorStandUuid() != null) registerStand(s, s.getArmorStandUuid());
                 } catch (Exception ex) {
                     plugin.getLogger().warning("Failed to load shop " + idKey + ": " + ex.getMessage());
                 }
@@ -222,29 +235,7 @@ public class ShopsService {
             stand.customName(net.kyori.adventure.text.Component.text(buildArmorStandName(shop)));
         } catch (Throwable ignored) {
         }
-        for (Player p : plugin.getServer().getOnlinePlayers()) {
-            try {
-                if (p.isOp()) p.showEntity(plugin, stand);
-                else p.hideEntity(plugin, stand);
-            } catch (Throwable ignored) {
-            }
-        }
-    }
-
-    public void applyShopArmorStandVisibilityForViewer(org.bukkit.entity.Player viewer) {
-        if (viewer == null) return;
-        try {
-            for (Shop shop : new java.util.ArrayList<>(shopsById.values())) {
-                java.util.UUID asId = shop.getArmorStandUuid();
-                if (asId == null) continue;
-                org.bukkit.entity.Entity ent = plugin.getServer().getEntity(asId);
-                if (ent instanceof org.bukkit.entity.ArmorStand stand) {
-                    if (viewer.isOp()) viewer.showEntity(plugin, stand);
-                    else viewer.hideEntity(plugin, stand);
-                }
-            }
-        } catch (Throwable ignored) {
-        }
+        plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
     }
 
     private void spawnArmorStandForShop(Shop shop) {
@@ -255,11 +246,11 @@ public class ShopsService {
         try {
             java.util.UUID id = plugin.armorStandManager.create(loc, buildArmorStandName(shop));
             if (id != null) {
-                shop.setArmorStandUuid(id);
-                try {
-                    plugin.armorStandManager.register(id, () -> removeByArmorStand(id));
-                } catch (Throwable ignored) {
+                if (shop.getArmorStandUuid() != null) {
+                    try { plugin.armorStandManager.unregister(shop.getArmorStandUuid()); } catch (Throwable ignored) {}
                 }
+                shop.setArmorStandUuid(id);
+                registerStand(shop, id);
                 applyArmorStandVisibility(shop);
             }
         } catch (Throwable t) {
@@ -267,20 +258,58 @@ public class ShopsService {
         }
     }
 
+    // Registers the stand's death handler and owning shop with the manager
+    private void registerStand(Shop shop, UUID standId) {
+        try { plugin.armorStandManager.register(standId, ArmorStandManager.OwnerKind.SHOP, shop.getId(), () -> removeByArmorStand(standId)); } catch (Throwable ignored) {}
+    }
+
     public void ensureArmorStands() {
         for (Shop shop : new ArrayList<>(shopsById.values())) {
+            ensureArmorStand(shop);
+        }
+    }
+
+    /**
+     * Reconciles only the shops whose spawn anchor lies in the given chunk. Called when the chunk loads.
+     */
+    public void ensureArmorStandsInChunk(UUID worldId, int chunkX, int chunkZ) {
+        for (Shop shop : shopsBySpawnChunk.get(worldId, chunkX, chunkZ)) {
+            ensureArmorStand(shop);
+        }
+    }
+
+    // Keeps shopsBySpawnChunk in step with the shop's spawn anchor; call after it changes
+    private void indexSpawn(Shop shop) {
+        if (shop.hasSpawn()) shopsBySpawnChunk.put(shop, shop.getSpawnWorldId(), shop.getSpawnX(), shop.getSpawnZ());
+        else shopsBySpawnChunk.remove(shop);
+    }
+
+    /**
+     * Adds one reconciliation step per shop with a spawn anchor, for the background sweep.
+     */
+    public void collectArmorStandChecks(List<Runnable> out) {
+        for (Shop shop : shopsById.values()) {
             if (!shop.hasSpawn()) continue;
-            UUID asId = shop.getArmorStandUuid();
-            Entity ent = asId != null ? plugin.getServer().getEntity(asId) : null;
-            if (!(ent instanceof ArmorStand)) {
-                spawnArmorStandForShop(shop);
-            } else {
-                try {
-                    plugin.armorStandManager.register(ent.getUniqueId(), () -> removeByArmorStand(ent.getUniqueId()));
-                } catch (Throwable ignored) {
-                }
-                applyArmorStandVisibility(shop);
-            }
+            UUID shopId = shop.getId();
+            out.add(() -> {
+                Shop current = shopsById.get(shopId);
+                if (current != null) ensureArmorStand(current);
+            });
+        }
+    }
+
+    private void ensureArmorStand(Shop shop) {
+        if (!shop.hasSpawn()) return;
+        UUID asId = shop.getArmorStandUuid();
+        Entity ent = asId != null ? plugin.getServer().getEntity(asId) : null;
+        if (!(ent instanceof ArmorStand)) {
+            // The stand may simply not be loaded yet; the chunk load will reconcile it
+            var world = Bukkit.getWorld(shop.getSpawnWorldId());
+            if (world == null || !world.isChunkLoaded((int) Math.floor(shop.getSpawnX()) >> 4, (int) Math.floor(shop.getSpawnZ()) >> 4)) return;
+            spawnArmorStandForShop(shop);
+        } else {
+            registerStand(shop, ent.getUniqueId());
+            applyArmorStandVisibility(shop);
         }
     }
 
@@ -305,6 +334,7 @@ public class ShopsService {
         }
         // Clear spawn and armor stand references
         s.clearSpawn();
+        indexSpawn(s);
         s.setArmorStandUuid(null);
         save();
         Components.sendSuccess(sender, Components.t("Spawn anchor removed for shop "), Components.valueComp(s.getName()));
@@ -326,8 +356,11 @@ public class ShopsService {
                 if (!w.equals(sLoc.getWorld())) continue;
                 if (sp.distanceSquared(sLoc) <= 4.0) {
                     if (stand.getUniqueId().equals(shop.getArmorStandUuid())) return true;
+                    if (shop.getArmorStandUuid() != null) {
+                        try { plugin.armorStandManager.unregister(shop.getArmorStandUuid()); } catch (Throwable ignored) {}
+                    }
                     shop.setArmorStandUuid(stand.getUniqueId());
-                    try { plugin.armorStandManager.register(stand.getUniqueId(), () -> removeByArmorStand(stand.getUniqueId())); } catch (Throwable ignored) {}
+                    registerStand(shop, stand.getUniqueId());
                     applyArmorStandVisibility(shop);
                     save();
                     return true;
@@ -352,6 +385,7 @@ public class ShopsService {
                 // remove spawn association
                 // clear spawn (treat same as warp removal/destroyed)
                 shop.clearSpawn();
+                indexSpawn(shop);
                 shop.setArmorStandUuid(null);
                 changed = true;
             }
@@ -373,6 +407,7 @@ public class ShopsService {
         s = new Shop(id, name);
         shopsById.put(id, s);
         shopIdByName.put(name.toLowerCase(), id);
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.SHOPS, name);
         save();
         return s;
     }
@@ -411,8 +446,11 @@ public class ShopsService {
             }
         } catch (Throwable ignored) {
         }
+        if (plugin.subclaimIndex != null) plugin.subclaimIndex.removeShop(s);
         shopsById.remove(s.getId());
+        shopsBySpawnChunk.remove(s);
         shopIdByName.remove(s.getName().toLowerCase());
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.remove(SuggestionIndex.Domain.SHOPS, s.getName());
         save();
         Components.sendSuccess(sender, Components.t("Shop "), Components.valueComp(name), Components.t(" deleted."));
         return true;
@@ -425,6 +463,7 @@ public class ShopsService {
             return false;
         }
         s.setSpawn(loc.getWorld().getUID(), loc.getX(), loc.getY(), loc.getZ(), loc.getYaw(), loc.getPitch());
+        indexSpawn(s);
         // spawn or move armor stand
         try {
             if (s.getArmorStandUuid() != null) {
@@ -464,11 +503,11 @@ public class ShopsService {
             Components.sendSuccess(sender, Components.t("Spawn set for shop "), Components.valueComp(s.getName()), Components.t(" (armor stand created)"));
         } else {
             Components.sendSuccess(sender, Components.t("Spawn set for shop "), Components.valueComp(s.getName()), Components.t(" (armor stand not yet visible; it will appear shortly once the area finishes loading)"));
-            // Best-effort ensure on next tick so chunk/entity systems have settled
+            // Best-effort ensure of this shop's stand on next tick so chunk/entity systems have settled
             try {
                 plugin.getServer().getScheduler().runTask(plugin, () -> {
                     try {
-                        if (plugin.armorStandManager != null) plugin.armorStandManager.ensureArmorStands();
+                        ensureArmorStand(s);
                     } catch (Throwable ignored) {
                     }
                 });
@@ -547,11 +586,14 @@ public class ShopsService {
         return true;
     }
 
+    /** Tab completion: at most {@link SuggestionIndex#LIMIT} shop names starting with {@code prefix}, sorted. */
     public List<String> suggestShopNames(String prefix) {
-        String p = prefix == null ? "" : prefix.toLowerCase();
-        List<String> out = new ArrayList<>();
-        for (String n : shopIdByName.keySet()) if (n.startsWith(p)) out.add(n);
-        return out;
+        if (plugin.suggestionIndex == null) return new ArrayList<>();
+        return plugin.suggestionIndex.complete(SuggestionIndex.Domain.SHOPS, prefix);
+    }
+
+    public int getShopCount() {
+        return shopsById.size();
     }
 
     public enum ClaimCheck {OK, NOT_IN_CLAIM, WRONG_GUILD_TYPE}
@@ -589,6 +631,7 @@ public class ShopsService {
             return false;
         }
         shop.addClaim(wid, chunk.getX(), chunk.getZ());
+        if (plugin.subclaimIndex != null) plugin.subclaimIndex.addShopClaim(shop, wid, chunk.getX(), chunk.getZ());
         save();
         Components.sendSuccess(sender, Components.t("Shop "), Components.valueComp(shop.getName()), Components.t(" claimed at this chunk."));
         return true;
@@ -600,6 +643,7 @@ public class ShopsService {
             Components.sendErrorMessage(sender, "Shop not found.");
             return false;
         }
+        if (plugin.subclaimIndex != null) plugin.subclaimIndex.removeShop(shop);
         shop.unclaim();
         save();
         Components.sendSuccess(sender, Components.t("Shop "), Components.valueComp(shop.getName()), Components.t(" unclaimed."));
@@ -1062,18 +1106,8 @@ public class ShopsService {
 
     // Find the shop that has claimed the chunk at the given location, if any
     public Shop getShopAt(org.bukkit.Location loc) {
-        if (loc == null || loc.getWorld() == null) return null;
-        java.util.UUID worldId = loc.getWorld().getUID();
-        int cx = loc.getChunk().getX();
-        int cz = loc.getChunk().getZ();
-        for (Shop shop : shopsById.values()) {
-            if (shop != null && shop.isClaimed()) {
-                if (shop.hasClaimAt(worldId, cx, cz)) {
-                    return shop;
-                }
-            }
-        }
-        return null;
+        if (loc == null || loc.getWorld() == null || plugin.subclaimIndex == null) return null;
+        return plugin.subclaimIndex.getShopAt(loc);
     }
 
     // Guild shop buy flow: request (show price) and confirm (charge and apply)
@@ -209,7 +209,7 @@ public class TombstoneService {
         tombs.put(standId, data);
 
         // Register cleanup on stand death (unexpected)
-        armorStandManager.register(standId, () -> cleanup(standId, false));
+        armorStandManager.register(standId, ArmorStandManager.OwnerKind.TOMBSTONE, data.owner, () -> cleanup(standId, false));
 
         // Schedule timed removal
         Bukkit.getScheduler().runTaskLater(plugin, () -> cleanup(standId, true), (long) expirationMinutes * 60L * 20L);
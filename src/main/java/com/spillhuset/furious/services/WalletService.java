@@ -1,8 +1,11 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.db.WalletHistory;
+import com.spillhuset.furious.db.WalletJournal;
+import com.spillhuset.furious.db.WalletStore;
+import com.spillhuset.furious.utils.BalanceLedger;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.scheduler.BukkitTask;
@@ -10,30 +13,36 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class WalletService {
     private final Furious plugin;
-    private final Map<UUID, Double> balances = new ConcurrentHashMap<>();
-    public FileConfiguration accountsConfig;
-    private FileConfiguration transactionsConfig;
-    private File accountsFile;
-    private File transactionsFile;
-
-    // batching fields
-    private final Set<UUID> dirtyBalances = ConcurrentHashMap.newKeySet();
-    private final AtomicBoolean transactionsDirty = new AtomicBoolean(false);
-    private final Object configIoLock = new Object(); // guard config read/writes against async save
+    // Balances in fixed-point cents; each change is journaled under the account's lock
+    private final BalanceLedger balances;
+    // Balance snapshot written by compaction (accounts.yml or the database); the journal holds everything after it
+    private volatile WalletStore store;
+    private File transactionsFile; // legacy YAML history, migrated into the history store once
+    private WalletJournal journal;
+    private WalletHistory history; // indexed, paged transaction history
+    private File archiveDir;
+    private int historyRetentionDays = 90; // 0 disables archiving
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+    private final Object compactLock = new Object(); // one compaction at a time
+    public static final int HISTORY_PAGE_SIZE = 10;
 
     // scheduler
     private BukkitTask flushTask;
+    private BukkitTask compactTask;
     private long flushIntervalTicks = 20L * 5; // default 5s
-    private int flushThreshold = 50; // number of dirty balances that triggers immediate flush
+    private long compactIntervalTicks = 20L * 60 * 10; // default 10 min
+    private int flushThreshold = 50; // number of pending journal records that triggers immediate flush
     private int flushBackoffTicks = 2; // debounce for immediate flush requests
     private long lastFlushTick = 0L;
 
@@ -50,10 +59,13 @@ public class WalletService {
         NAME = instance.getConfig().getString("wallet.name", "scrap");
         NAME_PLURAL = instance.getConfig().getString("wallet.name_plural", "scraps");
         INIT_BALANCE = Math.max(INIT_BALANCE, instance.getConfig().getDouble("wallet.initial-balance", 1000.0));
+        balances = new BalanceLedger(toCents(INIT_BALANCE), (uuid, cents, entry) -> record(uuid, fromCents(cents), entry));
 
         // Optional: make interval configurable
         flushIntervalTicks = instance.getConfig().getLong("wallet.flush-interval-ticks", flushIntervalTicks);
         flushThreshold = Math.max(1, instance.getConfig().getInt("wallet.flush-threshold", flushThreshold));
+        compactIntervalTicks = instance.getConfig().getLong("wallet.compact-interval-ticks", compactIntervalTicks);
+        historyRetentionDays = Math.max(0, instance.getConfig().getInt("wallet.history-retention-days", historyRetentionDays));
 
         // Persist any missing wallet.* keys to the active config without overwriting existing values
         ensureWalletDefaultsPersisted(instance);
@@ -69,75 +81,135 @@ public class WalletService {
             if (!cfg.isSet("wallet.initial-balance")) { cfg.set("wallet.initial-balance", INIT_BALANCE > 0 ? INIT_BALANCE : 1000.0); changed = true; }
             if (!cfg.isSet("wallet.flush-interval-ticks")) { cfg.set("wallet.flush-interval-ticks", flushIntervalTicks > 0 ? flushIntervalTicks : 100L); changed = true; }
             if (!cfg.isSet("wallet.flush-threshold")) { cfg.set("wallet.flush-threshold", Math.max(1, flushThreshold)); changed = true; }
+            if (!cfg.isSet("wallet.compact-interval-ticks")) { cfg.set("wallet.compact-interval-ticks", compactIntervalTicks > 0 ? compactIntervalTicks : 12000L); changed = true; }
+            if (!cfg.isSet("wallet.history-retention-days")) { cfg.set("wallet.history-retention-days", historyRetentionDays); changed = true; }
             if (changed) instance.saveConfig();
         } catch (Throwable ignored) {}
     }
 
-    public List<OfflinePlayer> getAccountNames() {
-        List<OfflinePlayer> players = new ArrayList<>();
-        for (UUID uuid : balances.keySet()) {
-            OfflinePlayer player = plugin.getServer().getOfflinePlayer(uuid);
-            players.add(player);
-        }
-        return players;
+    public boolean hasAccount(UUID uuid) {
+        return balances.has(uuid);
     }
 
     public void load() {
-        // Configuration files
-        accountsFile = new File(plugin.getDataFolder(), "accounts.yml");
+        stopAutoFlush();
+        if (journal != null) journal.close();
+
         transactionsFile = new File(plugin.getDataFolder(), "transactions.yml");
 
+        // Snapshot: balances as of the start of its journal segment
+        balances.clear();
+        long snapshotSegment = 0L;
+        store = null;
+        WalletStore candidate = plugin.databaseManager.walletStore();
         try {
-            if (!accountsFile.exists()) accountsFile.createNewFile();
-            if (!transactionsFile.exists()) transactionsFile.createNewFile();
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed creating wallet files: " + e.getMessage());
+            candidate.init();
+            WalletStore.Snapshot snapshot = candidate.load();
+            snapshot.cents().forEach(balances::restore);
+            snapshotSegment = snapshot.segment();
+            store = candidate;
+        } catch (Exception e) {
+            // Without a snapshot, compaction must not drop journal segments; they are all that is left
+            plugin.getLogger().severe("Failed loading wallet balances (" + plugin.databaseManager.getBackend() + "): " + e.getMessage());
         }
 
-        synchronized (configIoLock) {
-            accountsConfig = YamlConfiguration.loadConfiguration(accountsFile);
-            transactionsConfig = YamlConfiguration.loadConfiguration(transactionsFile);
+        // History store first, so journal records can be copied into it before segments are dropped
+        File walletDir = new File(plugin.getDataFolder(), "wallet");
+        archiveDir = new File(walletDir, "archive");
+        if (history != null) history.close();
+        history = new WalletHistory(new File(walletDir, "history.db"));
+        try {
+            history.open();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed opening wallet history: " + e.getMessage());
         }
 
-        // Balance map
-        balances.clear();
+        // Journal tail: replay balance records written after the snapshot
+        long fromSegment = snapshotSegment;
+        journal = new WalletJournal(walletDir);
+        try {
+            List<WalletJournal.Record> records = new ArrayList<>();
+            journal.replay(0L, r -> {
+                if (r.segment() >= fromSegment && r.player() != null && r.balance() != null) {
+                    balances.restore(r.player(), toCents(r.balance()));
+                }
+                records.add(r);
+            });
+            // Segments already covered by the snapshot (e.g. crash right after compaction) are dropped once stored
+            if (store != null && ingest(records)) journal.deleteBefore(fromSegment);
+            journal.open(Math.max(fromSegment, history.maxSegment()));
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed opening wallet journal: " + e.getMessage());
+        }
+        migrateLegacyTransactions();
 
-        Set<String> keys;
-        synchronized (configIoLock) {
-            keys = accountsConfig.getKeys(false);
+        startAutoFlush();
+    }
+
+    // Copies records into the history store; false when they could not be stored
+    private boolean ingest(List<WalletJournal.Record> records) {
+        if (history == null || !history.isOpen()) return false;
+        try {
+            history.insert(records);
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed storing wallet history: " + e.getMessage());
+            return false;
         }
+    }
 
-        for (String key : keys) {
-            try {
-                UUID uuid = UUID.fromString(key);
-                double balance;
-                synchronized (configIoLock) {
-                    balance = accountsConfig.getDouble(key);
+    // One-time conversion of the old transactions.yml lists into the history store
+    private void migrateLegacyTransactions() {
+        if (transactionsFile == null || !transactionsFile.exists() || transactionsFile.length() == 0) return;
+        FileConfiguration legacy = YamlConfiguration.loadConfiguration(transactionsFile);
+        List<WalletJournal.Record> records = new ArrayList<>();
+        for (String line : legacy.getStringList("global")) {
+            records.add(legacyRecord(records.size(), null, line));
+        }
+        org.bukkit.configuration.ConfigurationSection players = legacy.getConfigurationSection("players");
+        if (players != null) {
+            for (String key : players.getKeys(false)) {
+                try {
+                    UUID uuid = UUID.fromString(key);
+                    for (String line : players.getStringList(key)) records.add(legacyRecord(records.size(), uuid, line));
+                } catch (IllegalArgumentException ignored) {
                 }
-                balances.put(uuid, balance);
-            } catch (IllegalArgumentException e) {
-                plugin.getLogger().warning("Failed loading balance for UUID " + key + ": " + e.getMessage());
             }
         }
-        dirtyBalances.clear();
-        transactionsDirty.set(false);
-
-        startAutoFlush();
+        // Segment 0 is never used by the journal, so a retried migration overwrites nothing
+        if (!ingest(records)) return;
+        try {
+            Files.move(transactionsFile.toPath(), new File(plugin.getDataFolder(), "transactions.yml.migrated").toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            plugin.getLogger().info("Wallet: migrated " + records.size() + " legacy transactions into the history store.");
+        } catch (IOException e) {
+            plugin.getLogger().warning("Wallet: failed renaming transactions.yml: " + e.getMessage());
+        }
     }
 
-    private void markBalanceDirty(UUID uuid) {
-        dirtyBalances.add(uuid);
-        maybeTriggerImmediateFlush();
+    private WalletJournal.Record legacyRecord(int lineNo, UUID player, String line) {
+        long ts = 0L;
+        String entry = line == null ? "" : line;
+        // Legacy lines look like "yyyy-MM-dd HH:mm:ss <entry>"
+        if (line != null && line.length() > 20) {
+            try {
+                ts = Instant.from(TIMESTAMP_FORMAT.parse(line.substring(0, 19))).toEpochMilli();
+                entry = line.substring(20);
+            } catch (Exception ignored) {
+            }
+        }
+        return new WalletJournal.Record(0L, lineNo, ts, player, null, entry);
     }
 
-    private void markTransactionsDirty() {
-        transactionsDirty.set(true);
+    // Appends a balance change and its log entry as a single journal record
+    private void record(UUID uuid, double balance, String entry) {
+        journal.append(System.currentTimeMillis(), uuid, balance, entry);
         maybeTriggerImmediateFlush();
     }
 
     private void maybeTriggerImmediateFlush() {
-        // If many changes queued, request an earlier flush (still debounced)
-        if (dirtyBalances.size() >= flushThreshold || transactionsDirty.get()) {
+        // If many records queued, request an earlier flush (still debounced)
+        if (journal.getPendingCount() >= flushThreshold) {
             // Debounce immediate flush to avoid spamming
             long nowTick = plugin.getServer().getCurrentTick();
             if (nowTick - lastFlushTick >= flushBackoffTicks) {
@@ -149,45 +221,42 @@ public class WalletService {
     }
 
     public void save() {
-        // For compatibility: write the entire map and transactions at once
-        synchronized (configIoLock) {
-            for (Map.Entry<UUID, Double> e : balances.entrySet()) {
-                accountsConfig.set(e.getKey().toString(), e.getValue());
-            }
-        }
-        // Mark dirty and flush
-        dirtyBalances.addAll(balances.keySet());
-        transactionsDirty.set(true);
+        // Make every pending record durable, then fold the journal into a fresh snapshot
         flushNow();
+        compact();
+    }
+
+    public void shutdown() {
+        stopAutoFlush();
+        save();
+        if (journal != null) journal.close();
+        if (history != null) history.close();
     }
 
     public double getBalance(UUID uuid) {
-        Double balance = balances.get(uuid);
-        if (balance == null) {
-            double init = INIT_BALANCE;
-            balances.put(uuid, init);
-            log(uuid, "INITIAL set to " + init);
-            markBalanceDirty(uuid);
-            markTransactionsDirty();
-            return init;
-        }
-        return balance;
+        return fromCents(balances.get(uuid));
+    }
+
+    private static long toCents(double amount) {
+        return BalanceLedger.toCents(amount);
+    }
+
+    private static double fromCents(long cents) {
+        return BalanceLedger.fromCents(cents);
+    }
+
+    // Rejects NaN, infinities, negatives and values that do not fit in long cents
+    private static boolean isValidAmount(double amount) {
+        return Double.isFinite(amount) && amount >= 0 && amount < Long.MAX_VALUE / 100.0;
     }
 
     public void log(UUID player, String entry) {
-        String line = timestamp() + " " + entry;
-        String path = "players." + player;
-        synchronized (configIoLock) {
-            List<String> list = transactionsConfig.getStringList(path);
-            list.add(line);
-            transactionsConfig.set(path, list);
-        }
+        journal.append(System.currentTimeMillis(), player, null, entry);
+        maybeTriggerImmediateFlush();
     }
 
-    private String timestamp() {
-        return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
-                .withZone(ZoneId.systemDefault())
-                .format(Instant.now());
+    private String timestamp(long epochMillis) {
+        return TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(epochMillis));
     }
 
     public String formatAmount(double amount) {
@@ -196,75 +265,50 @@ public class WalletService {
     }
 
     public void setBalance(UUID uuid, double amount, String reason) {
-        double sanitized = amount;
-        if (!Double.isFinite(sanitized) || sanitized < 0) {
-            sanitized = 0.0;
-        }
-        balances.put(uuid, sanitized);
-        log(uuid, "SET to " + sanitized + " due to: " + reason);
-        markBalanceDirty(uuid);
-        markTransactionsDirty();
+        long cents = isValidAmount(amount) ? toCents(amount) : 0L;
+        balances.set(uuid, cents, "SET to " + fromCents(cents) + " due to: " + reason);
     }
 
 
     public boolean addBalance(UUID uuid, double amount, String reason) {
-        if (!Double.isFinite(amount) || amount < 0) return false;
-        double newBal = getBalance(uuid) + amount;
-        if (!Double.isFinite(newBal)) return false;
-        balances.put(uuid, newBal);
-        log(uuid, "+" + amount + " (add) due to: " + reason);
-        markBalanceDirty(uuid);
-        markTransactionsDirty();
-        return true;
+        if (!isValidAmount(amount)) return false;
+        long cents = toCents(amount);
+        return balances.add(uuid, cents, "+" + fromCents(cents) + " (add) due to: " + reason);
     }
 
     public boolean subBalance(UUID uuid, double amount, String reason) {
-        if (!Double.isFinite(amount) || amount < 0) return false;
-        double cur = getBalance(uuid);
-        if (cur < amount) return false;
-        double newBal = cur - amount;
-        if (!Double.isFinite(newBal) || newBal < 0) return false;
-        balances.put(uuid, newBal);
-        log(uuid, "-" + amount + " (sub) due to: " + reason);
-        markBalanceDirty(uuid);
-        markTransactionsDirty();
-        return true;
+        if (!isValidAmount(amount)) return false;
+        long cents = toCents(amount);
+        return balances.subtract(uuid, cents, "-" + fromCents(cents) + " (sub) due to: " + reason);
     }
 
     public boolean pay(UUID from, UUID to, double amount) {
         if (from == null || to == null) return false;
         if (from.equals(to)) return false;
-        if (!Double.isFinite(amount) || amount <= 0) return false;
-        double fromBal = getBalance(from);
-        if (fromBal < amount) return false;
-        double toBal = getBalance(to);
-        double newFrom = fromBal - amount;
-        double newTo = toBal + amount;
-        if (!Double.isFinite(newFrom) || !Double.isFinite(newTo) || newFrom < 0) return false;
-        balances.put(from, newFrom);
-        balances.put(to, newTo);
-        log(from, "PAID -" + amount + " to " + to);
-        log(to, "RECEIVED +" + amount + " from " + from);
-        logGlobal("PAY " + amount + " from " + from + " to " + to);
-        markBalanceDirty(from);
-        markBalanceDirty(to);
-        markTransactionsDirty();
+        if (!isValidAmount(amount)) return false;
+        // Checked after rounding: 0.004 would otherwise go through as a 0-cent payment
+        long cents = toCents(amount);
+        if (cents <= 0) return false;
+        double moved = fromCents(cents);
+        if (!balances.transfer(from, to, cents, "PAID -" + moved + " to " + to, "RECEIVED +" + moved + " from " + from)) {
+            return false;
+        }
+        logGlobal("PAY " + moved + " from " + from + " to " + to);
         return true;
     }
 
     public void logGlobal(String entry) {
-        String line = timestamp() + " " + entry;
-        synchronized (configIoLock) {
-            List<String> list = transactionsConfig.getStringList("global");
-            list.add(line);
-            transactionsConfig.set("global", list);
-        }
+        log(null, entry);
     }
 
     public void startAutoFlush() {
         stopAutoFlush();
-        if (flushIntervalTicks <= 0) return;
-        flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flushOnce, flushIntervalTicks, flushIntervalTicks);
+        if (flushIntervalTicks > 0) {
+            flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flushOnce, flushIntervalTicks, flushIntervalTicks);
+        }
+        if (compactIntervalTicks > 0) {
+            compactTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::compact, compactIntervalTicks, compactIntervalTicks);
+        }
     }
 
     public void stopAutoFlush() {
@@ -272,71 +316,129 @@ public class WalletService {
             flushTask.cancel();
             flushTask = null;
         }
+        if (compactTask != null) {
+            compactTask.cancel();
+            compactTask = null;
+        }
     }
 
     public void flushNow() {
-        // Synchronous call point that ensures flush completes before return
-        // (but perform actual IO asynchronously then wait). Simpler: run on current thread.
-        // We can safely perform direct save here on calling thread if not on main thread.
+        // Runs on the calling thread; a flush is a single append plus one fsync
         flushOnce();
     }
 
     private void flushOnce() {
-        // snapshot and write minimal changes
-        Set<UUID> toWrite = new HashSet<>(dirtyBalances);
-        boolean writeTransactions = transactionsDirty.getAndSet(false);
-
-        if (toWrite.isEmpty() && !writeTransactions) return;
+        if (journal == null) return;
+        List<WalletJournal.Record> written;
+        try {
+            written = journal.sync();
+        } catch (IOException e) {
+            // Records stay buffered and are retried on the next flush
+            plugin.getLogger().severe("Failed saving data: " + e.getMessage());
+            return;
+        }
+        // Best effort; compaction copies whole segments again before dropping them
+        ingest(written);
+        lastFlushTick = plugin.getServer().getCurrentTick();
+    }
 
-        // Write accounts entries for dirty users into accountsConfig
-        synchronized (configIoLock) {
-            for (UUID uuid : toWrite) {
-                double bal = balances.getOrDefault(uuid,0.0);
-                accountsConfig.set(uuid.toString(), bal);
-            }
+    /**
+     * Snapshots all balances into the wallet store and drops the journal segments the snapshot covers,
+     * after making sure their records are in the history store. Rolling before the snapshot guarantees
+     * every record in a dropped segment is reflected in it. Also archives history past retention.
+     */
+    public void compact() {
+        if (journal == null) return;
+        synchronized (compactLock) {
             try {
-                if (!toWrite.isEmpty()) {
-                    accountsConfig.save(accountsFile);
-                }
-                if (writeTransactions) {
-                    transactionsConfig.save(transactionsFile);
+                long segment = journal.roll();
+                if (store != null) {
+                    store.save(new WalletStore.Snapshot(balances.snapshot(), segment));
+
+                    List<WalletJournal.Record> records = new ArrayList<>();
+                    for (File f : journal.segmentsBefore(segment)) WalletJournal.readSegment(f, records::add);
+                    if (ingest(records)) journal.deleteBefore(segment);
                 }
-            } catch (IOException e) {
-                plugin.getLogger().severe("Failed saving data: " + e.getMessage());
-                // If save failed, mark them dirty again so we retry next tick
-                dirtyBalances.addAll(toWrite);
-                transactionsDirty.set(writeTransactions || transactionsDirty.get());
-                return;
+            } catch (Exception e) {
+                plugin.getLogger().severe("Failed compacting wallet journal: " + e.getMessage());
             }
+            archiveHistory();
         }
+    }
 
-        // Only clear dirty balances that were successfully saved
-        dirtyBalances.removeAll(toWrite);
-        lastFlushTick = plugin.getServer().getCurrentTick();
+    private void archiveHistory() {
+        if (historyRetentionDays <= 0 || history == null || !history.isOpen()) return;
+        long cutoff = System.currentTimeMillis() - historyRetentionDays * 86_400_000L;
+        try {
+            int archived = history.archiveBefore(cutoff, archiveDir);
+            if (archived > 0) plugin.getLogger().info("Wallet: archived " + archived + " transactions older than " + historyRetentionDays + " days.");
+        } catch (SQLException | IOException e) {
+            plugin.getLogger().warning("Failed archiving wallet history: " + e.getMessage());
+        }
     }
 
     public List<String> getLog(UUID player) {
-        return transactionsConfig.getStringList("players." + player);
+        return getLog(player, 0, HISTORY_PAGE_SIZE);
     }
 
     public List<String> getGlobalLog() {
-        return transactionsConfig.getStringList("global");
+        return getLog(null, 0, HISTORY_PAGE_SIZE);
     }
 
-    public void saveAccounts() {
-        try {
-            accountsConfig.save(accountsFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed saving accounts.yml: " + e.getMessage());
+    /**
+     * Returns one page of history, newest first.
+     * @param player the player, or null for global entries
+     */
+    public List<String> getLog(UUID player, int page, int pageSize) {
+        int offset = Math.max(0, page) * pageSize;
+        // Records not flushed yet are newer than anything stored, so they head the list
+        List<WalletJournal.Record> pending = new ArrayList<>();
+        if (journal != null) {
+            journal.forEachPending(r -> {
+                if (Objects.equals(player, r.player())) pending.add(r);
+            });
+        }
+        Collections.reverse(pending);
+
+        List<String> lines = new ArrayList<>(pageSize);
+        for (int i = offset; i < pending.size() && lines.size() < pageSize; i++) lines.add(format(pending.get(i)));
+        if (lines.size() < pageSize && history != null) {
+            try {
+                for (WalletJournal.Record r : history.latest(player, Math.max(0, offset - pending.size()), pageSize - lines.size())) {
+                    lines.add(format(r));
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed reading wallet history: " + e.getMessage());
+            }
         }
+        return lines;
     }
 
-    public void saveTransactions() {
+    /**
+     * Returns up to {@code limit} stored entries with {@code from <= time < to}, newest first.
+     * @param player the player, or null for global entries
+     */
+    public List<String> getLogBetween(UUID player, long fromMillis, long toMillis, int limit) {
+        List<String> lines = new ArrayList<>();
+        if (history == null) return lines;
         try {
-            transactionsConfig.save(transactionsFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed saving transactions.yml: " + e.getMessage());
+            for (WalletJournal.Record r : history.between(player, fromMillis, toMillis, 0, limit)) lines.add(format(r));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed reading wallet history: " + e.getMessage());
         }
+        return lines;
+    }
+
+    private String format(WalletJournal.Record r) {
+        return timestamp(r.timestamp()) + " " + r.entry();
+    }
+
+    public void saveAccounts() {
+        compact();
+    }
+
+    public void saveTransactions() {
+        flushNow();
     }
 
     public @Nullable Double parseAmount(String raw) {
@@ -1,13 +1,17 @@
 package com.spillhuset.furious.services;
 
 import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.managers.ArmorStandManager;
+import com.spillhuset.furious.utils.ChunkIndex;
 import com.spillhuset.furious.utils.Components;
 import com.spillhuset.furious.utils.Guild;
 import com.spillhuset.furious.utils.GuildType;
+import com.spillhuset.furious.utils.SuggestionIndex;
 import com.spillhuset.furious.utils.Warp;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -27,6 +31,8 @@ public class WarpsService {
 
     // name -> warp
     private final Map<String, Warp> warps = new HashMap<>();
+    // Warps by the chunk they stand in, for chunk-load reconciliation
+    private final ChunkIndex<Warp> warpsByChunk = new ChunkIndex<>();
 
     private File warpsFile;
     private FileConfiguration warpsConfig;
@@ -45,6 +51,9 @@ public class WarpsService {
         warpsConfig = YamlConfiguration.loadConfiguration(warpsFile);
 
         warps.clear();
+        warpsByChunk.clear();
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.clear(SuggestionIndex.Domain.WARPS);
+        try { plugin.armorStandManager.unregisterAll(ArmorStandManager.OwnerKind.WARP); } catch (Throwable ignored) {}
         ConfigurationSection root = warpsConfig.getConfigurationSection("warps");
         if (root != null) {
             for (String name : root.getKeys(false)) {
@@ -95,6 +104,9 @@ public class WarpsService {
                         }
                     }
                     warps.put(name.toLowerCase(), warp);
+                    warpsByChunk.put(warp, warp.getWorld(), warp.getX(), warp.getZ());
+                    if (plugin.suggestionIndex != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.WARPS, name);
+                    if (warp.getArmorStandUuid() != null) registerStand(warp, warp.getArmorStandUuid());
                 } catch (Exception e) {
                     plugin.getLogger().warning("Failed to load warp " + name + ": " + e.getMessage());
                 }
@@ -157,6 +169,12 @@ public class WarpsService {
         return names;
     }
 
+    /** Tab completion: at most {@link SuggestionIndex#LIMIT} warp names starting with {@code prefix}, sorted. */
+    public List<String> suggestWarpNames(String prefix) {
+        if (plugin.suggestionIndex == null) return new ArrayList<>();
+        return plugin.suggestionIndex.complete(SuggestionIndex.Domain.WARPS, prefix);
+    }
+
     private boolean isInSafeClaim(@NotNull Location loc) {
         if (loc.getWorld() == null) return false;
         UUID worldId = loc.getWorld().getUID();
@@ -188,17 +206,8 @@ public class WarpsService {
             stand.setCustomNameVisible(true);
         } catch (Throwable ignored) {
         }
-        // Per-player visibility: show to ops, hide from others
-        for (Player p : plugin.getServer().getOnlinePlayers()) {
-            try {
-                if (p.isOp()) {
-                    p.showEntity(plugin, stand);
-                } else {
-                    p.hideEntity(plugin, stand);
-                }
-            } catch (Throwable ignored) {
-            }
-        }
+        // Per-player visibility: ops only
+        plugin.markerVisibilityService.apply(stand, MarkerVisibilityService.Viewers.OPS, null);
     }
 
     // Admin actions (OP only via commands)
@@ -216,6 +225,8 @@ public class WarpsService {
         spawnArmorStandForWarp(warp);
         applyArmorStandNameAndVisibility(warp);
         warps.put(name.toLowerCase(), warp);
+        warpsByChunk.put(warp, warp.getWorld(), warp.getX(), warp.getZ());
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.add(SuggestionIndex.Domain.WARPS, name);
         save();
         Components.sendSuccess(sender, Components.t("Warp "), Components.valueComp(name), Components.t(" set."));
     }
@@ -241,6 +252,7 @@ public class WarpsService {
         } catch (Throwable ignored) {
         }
         warp.setLocation(loc);
+        warpsByChunk.put(warp, warp.getWorld(), warp.getX(), warp.getZ());
         save();
         Components.sendSuccess(sender, Components.t("Warp "), Components.valueComp(name), Components.t(" moved."));
     }
@@ -264,6 +276,9 @@ public class WarpsService {
         // update armor stand name and visibility
         applyArmorStandNameAndVisibility(warp);
         warps.put(newName.toLowerCase(), warp);
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.rename(SuggestionIndex.Domain.WARPS, oldName, newName);
+        // The owner id is the warp name
+        if (warp.getArmorStandUuid() != null) registerStand(warp, warp.getArmorStandUuid());
         save();
         Components.sendSuccess(sender, Components.t("Warp "), Components.valueComp(oldName), Components.t(" renamed to "), Components.valueComp(newName));
     }
@@ -389,7 +404,9 @@ public class WarpsService {
             }
         } catch (Throwable ignored) {
         }
-        warps.remove(name.toLowerCase());
+        Warp removed = warps.remove(name.toLowerCase());
+        if (removed != null) warpsByChunk.remove(removed);
+        if (plugin.suggestionIndex != null) plugin.suggestionIndex.remove(SuggestionIndex.Domain.WARPS, name);
         save();
         Components.sendSuccess(sender, Components.t("Warp "), Components.valueComp(name), Components.t(" removed."));
     }
@@ -440,6 +457,8 @@ public class WarpsService {
         for (Warp w : new java.util.ArrayList<>(warps.values())) {
             if (armorStandId.equals(w.getArmorStandUuid())) {
                 warps.remove(w.getName().toLowerCase());
+                warpsByChunk.remove(w);
+                if (plugin.suggestionIndex != null) plugin.suggestionIndex.remove(SuggestionIndex.Domain.WARPS, w.getName());
                 save();
                 return true;
             }
@@ -447,6 +466,11 @@ public class WarpsService {
         return false;
     }
 
+    // Registers the stand's death handler and owner (keyed by lowercased warp name) with the manager
+    private void registerStand(Warp warp, java.util.UUID standId) {
+        try { plugin.armorStandManager.register(standId, ArmorStandManager.OwnerKind.WARP, warp.getName().toLowerCase(), () -> removeByArmorStand(standId)); } catch (Throwable ignored) {}
+    }
+
     public boolean hasArmorStand(java.util.UUID armorStandId) {
         if (armorStandId == null) return false;
         for (Warp w : new java.util.ArrayList<>(warps.values())) {
@@ -468,8 +492,11 @@ public class WarpsService {
                 if (!wLoc.getWorld().equals(sLoc.getWorld())) continue;
                 if (wLoc.distanceSquared(sLoc) <= 4.0) {
                     if (stand.getUniqueId().equals(w.getArmorStandUuid())) return true;
+                    if (w.getArmorStandUuid() != null) {
+                        try { plugin.armorStandManager.unregister(w.getArmorStandUuid()); } catch (Throwable ignored) {}
+                    }
                     w.setArmorStandUuid(stand.getUniqueId());
-                    try { plugin.armorStandManager.register(stand.getUniqueId(), () -> removeByArmorStand(stand.getUniqueId())); } catch (Throwable ignored) {}
+                    registerStand(w, stand.getUniqueId());
                     applyArmorStandNameAndVisibility(w);
                     save();
                     return true;
@@ -481,15 +508,44 @@ public class WarpsService {
 
     public void ensureArmorStands() {
         for (Warp warp : new java.util.ArrayList<>(warps.values())) {
-            java.util.UUID asId = warp.getArmorStandUuid();
-            Entity ent = (asId != null) ? plugin.getServer().getEntity(asId) : null;
-            if (!(ent instanceof ArmorStand)) {
-                spawnArmorStandForWarp(warp);
-            } else {
-                // Ensure registered with manager
-                try { plugin.armorStandManager.register(ent.getUniqueId(), () -> removeByArmorStand(ent.getUniqueId())); } catch (Throwable ignored) {}
-                applyArmorStandNameAndVisibility(warp);
-            }
+            ensureArmorStand(warp);
+        }
+    }
+
+    /**
+     * Reconciles only the warps stored in the given chunk. Called when the chunk loads.
+     */
+    public void ensureArmorStandsInChunk(UUID worldId, int chunkX, int chunkZ) {
+        for (Warp warp : warpsByChunk.get(worldId, chunkX, chunkZ)) {
+            ensureArmorStand(warp);
+        }
+    }
+
+    /**
+     * Adds one reconciliation step per warp, for the background sweep.
+     */
+    public void collectArmorStandChecks(java.util.List<Runnable> out) {
+        for (Warp warp : warps.values()) {
+            String key = warp.getName().toLowerCase();
+            out.add(() -> {
+                Warp current = warps.get(key);
+                if (current != null) ensureArmorStand(current);
+            });
+        }
+    }
+
+    private void ensureArmorStand(Warp warp) {
+        java.util.UUID asId = warp.getArmorStandUuid();
+        Entity ent = (asId != null) ? plugin.getServer().getEntity(asId) : null;
+        if (!(ent instanceof ArmorStand)) {
+            // The stand may simply not be loaded yet; the chunk load will reconcile it
+            World world = warp.getWorld() == null ? null : plugin.getServer().getWorld(warp.getWorld());
+            if (world == null || !world.isChunkLoaded((int) Math.floor(warp.getX()) >> 4, (int) Math.floor(warp.getZ()) >> 4)) return;
+            spawnArmorStandForWarp(warp);
+        } else {
+            // Ensure registered with manager
+            registerStand(warp, ent.getUniqueId());
+            applyArmorStandNameAndVisibility(warp);
         }
     }
 
@@ -525,9 +581,12 @@ public class WarpsService {
         try {
             java.util.UUID id = plugin.armorStandManager.create(location, buildArmorStandName(warp));
             if (id != null) {
+                if (warp.getArmorStandUuid() != null) {
+                    try { plugin.armorStandManager.unregister(warp.getArmorStandUuid()); } catch (Throwable ignored) {}
+                }
                 warp.setArmorStandUuid(id);
                 // Register cleanup with armor stand manager
-                try { plugin.armorStandManager.register(id, () -> removeByArmorStand(id)); } catch (Throwable ignored) {}
+                registerStand(warp, id);
                 // Apply per-player visibility (ops only)
                 applyArmorStandNameAndVisibility(warp);
             }
@@ -0,0 +1,297 @@
+package com.spillhuset.furious.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Secondary index of one audit segment, stored next to it as {@code <segment>.idx}.
+ * <p>
+ * The segment is split into blocks of about {@link #BLOCK_BYTES} that always start at a record.
+ * For every block the index keeps its byte offset and the time of its first record, and for every
+ * player (actor or subject) the ascending list of blocks it appears in. A query by player and time
+ * range therefore only reads the blocks that can contain a match.
+ */
+public final class AuditIndex {
+    public static final int BLOCK_BYTES = 64 * 1024;
+    public static final String SUFFIX = ".idx";
+    private static final int MAGIC = 0x46414958; // "FAIX"
+    private static final int VERSION = 1;
+    // Records from different threads can reach the ring slightly out of time order
+    private static final long TIME_SLACK_MS = 1000L;
+
+    private final long firstTime;
+    private final long lastTime;
+    private final long length;
+    private final long[] blockOffsets;
+    private final long[] blockTimes;
+    private final Map<UUID, int[]> blocksByKey;
+
+    private AuditIndex(long firstTime, long lastTime, long length, long[] blockOffsets, long[] blockTimes, Map<UUID, int[]> blocksByKey) {
+        this.firstTime = firstTime;
+        this.lastTime = lastTime;
+        this.length = length;
+        this.blockOffsets = blockOffsets;
+        this.blockTimes = blockTimes;
+        this.blocksByKey = blocksByKey;
+    }
+
+    public long getFirstTime() {
+        return firstTime;
+    }
+
+    public long getLastTime() {
+        return lastTime;
+    }
+
+    /** @return number of segment bytes covered by this index */
+    public long getLength() {
+        return length;
+    }
+
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    public boolean overlaps(long from, long to) {
+        return blockOffsets.length > 0 && firstTime - TIME_SLACK_MS <= to && lastTime + TIME_SLACK_MS >= from;
+    }
+
+    /**
+     * @param key  player to look for, or null for every block
+     * @return merged byte ranges {start, end} of the blocks that may hold records of {@code key} within [from, to]
+     */
+    public List<long[]> ranges(UUID key, long from, long to) {
+        List<long[]> out = new ArrayList<>();
+        if (!overlaps(from, to)) return out;
+        int[] blocks;
+        if (key == null) {
+            blocks = new int[blockOffsets.length];
+            for (int i = 0; i < blocks.length; i++) blocks[i] = i;
+        } else {
+            blocks = blocksByKey.get(key);
+            if (blocks == null) return out;
+        }
+        for (int b : blocks) {
+            // Block b holds records from blockTimes[b] until the next block starts
+            long start = blockTimes[b] - TIME_SLACK_MS;
+            long end = (b + 1 < blockTimes.length ? blockTimes[b + 1] : lastTime) + TIME_SLACK_MS;
+            if (start > to || end < from) continue;
+            long s = blockOffsets[b];
+            long e = b + 1 < blockOffsets.length ? blockOffsets[b + 1] : length;
+            long[] last = out.isEmpty() ? null : out.get(out.size() - 1);
+            if (last != null && last[1] == s) last[1] = e;
+            else out.add(new long[]{s, e});
+        }
+        return out;
+    }
+
+    /**
+     * Collects the index while a segment is written (writer thread) or scanned.
+     */
+    public static final class Builder {
+        private long firstTime = Long.MAX_VALUE;
+        private long lastTime = Long.MIN_VALUE;
+        private long length = 0L;
+        private long[] offsets = new long[16];
+        private long[] times = new long[16];
+        private int blocks = 0;
+        private final Map<UUID, int[]> postings = new HashMap<>();
+        // Number of used entries per posting list
+        private final Map<UUID, Integer> counts = new HashMap<>();
+
+        /**
+         * Adds one record that starts at {@code offset} and is {@code bytes} long.
+         */
+        public void add(long offset, int bytes, long time, UUID actor, UUID subject) {
+            if (blocks == 0 || offset - offsets[blocks - 1] >= BLOCK_BYTES) {
+                if (blocks == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, blocks * 2);
+                    times = Arrays.copyOf(times, blocks * 2);
+                }
+                offsets[blocks] = offset;
+                times[blocks] = time;
+                blocks++;
+            }
+            int block = blocks - 1;
+            if (actor != null) post(actor, block);
+            if (subject != null && !subject.equals(actor)) post(subject, block);
+            firstTime = Math.min(firstTime, time);
+            lastTime = Math.max(lastTime, time);
+            length = Math.max(length, offset + bytes);
+        }
+
+        private void post(UUID key, int block) {
+            int[] list = postings.get(key);
+            int n = counts.getOrDefault(key, 0);
+            if (list == null) {
+                list = new int[4];
+                postings.put(key, list);
+            } else if (list[n - 1] == block) {
+                return;
+            } else if (n == list.length) {
+                list = Arrays.copyOf(list, n * 2);
+                postings.put(key, list);
+            }
+            list[n] = block;
+            counts.put(key, n + 1);
+        }
+
+        public boolean isEmpty() {
+            return blocks == 0;
+        }
+
+        public AuditIndex build() {
+            Map<UUID, int[]> keys = new HashMap<>(postings.size() * 2);
+            for (Map.Entry<UUID, int[]> e : postings.entrySet()) {
+                keys.put(e.getKey(), Arrays.copyOf(e.getValue(), counts.get(e.getKey())));
+            }
+            return new AuditIndex(blocks == 0 ? 0L : firstTime, blocks == 0 ? 0L : lastTime, length,
+                    Arrays.copyOf(offsets, blocks), Arrays.copyOf(times, blocks), keys);
+        }
+    }
+
+    /**
+     * Writes the index atomically (temp file + rename). The writer thread and a query may both do this for the same segment.
+     */
+    public void write(File file) throws IOException {
+        File tmp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(firstTime);
+            out.writeLong(lastTime);
+            out.writeLong(length);
+            out.writeInt(blockOffsets.length);
+            for (int i = 0; i < blockOffsets.length; i++) {
+                out.writeLong(blockOffsets[i]);
+                out.writeLong(blockTimes[i]);
+            }
+            out.writeInt(blocksByKey.size());
+            for (Map.Entry<UUID, int[]> e : blocksByKey.entrySet()) {
+                out.writeLong(e.getKey().getMostSignificantBits());
+                out.writeLong(e.getKey().getLeastSignificantBits());
+                int[] list = e.getValue();
+                out.writeInt(list.length);
+                for (int b : list) out.writeInt(b);
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static AuditIndex read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("Not an audit index: " + file.getName());
+            long first = in.readLong();
+            long last = in.readLong();
+            long length = in.readLong();
+            int blocks = in.readInt();
+            long[] offsets = new long[blocks];
+            long[] times = new long[blocks];
+            for (int i = 0; i < blocks; i++) {
+                offsets[i] = in.readLong();
+                times[i] = in.readLong();
+            }
+            int keys = in.readInt();
+            Map<UUID, int[]> map = new HashMap<>(keys * 2);
+            for (int i = 0; i < keys; i++) {
+                UUID key = new UUID(in.readLong(), in.readLong());
+                int[] list = new int[in.readInt()];
+                for (int j = 0; j < list.length; j++) list[j] = in.readInt();
+                map.put(key, list);
+            }
+            return new AuditIndex(first, last, length, offsets, times, map);
+        }
+    }
+
+    /**
+     * Rebuilds the index by reading the whole segment, e.g. after a crash left it without one.
+     * A torn last line is not indexed.
+     */
+    public static AuditIndex scan(File segment) throws IOException {
+        Builder builder = new Builder();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(segment), 64 * 1024)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long offset = 0L;
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c != '\n') {
+                    line.write(c);
+                    continue;
+                }
+                int bytes = line.size() + 1;
+                Record r = Record.parse(line.toString(StandardCharsets.UTF_8));
+                if (r != null) builder.add(offset, bytes, r.time(), r.actor(), r.subject());
+                offset += bytes;
+                line.reset();
+            }
+        }
+        return builder.build();
+    }
+
+    /** One parsed NDJSON audit line. */
+    public record Record(long time, String type, UUID actor, String name, UUID subject, String message) {
+
+        /**
+         * Parses a line written by {@link AuditLog}. Quotes inside strings are always escaped, so
+         * field names can be found with a plain search.
+         * @return null when the line is not a complete record
+         */
+        public static Record parse(String line) {
+            try {
+                if (line == null || !line.startsWith("{\"t\":") || !line.endsWith("}")) return null;
+                int tEnd = line.indexOf(',', 5);
+                long time = Long.parseLong(line.substring(5, tEnd));
+                return new Record(time, rawField(line, "type"), uuidField(line, "actor"),
+                        stringField(line, "name"), uuidField(line, "subject"), stringField(line, "msg"));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        private static String rawField(String line, String field) {
+            String key = "\"" + field + "\":\"";
+            int i = line.indexOf(key);
+            if (i < 0) return null;
+            int start = i + key.length();
+            return line.substring(start, line.indexOf('"', start));
+        }
+
+        private static UUID uuidField(String line, String field) {
+            String raw = rawField(line, field);
+            return raw == null ? null : UUID.fromString(raw);
+        }
+
+        private static String stringField(String line, String field) {
+            String key = "\"" + field + "\":\"";
+            int i = line.indexOf(key);
+            if (i < 0) return null;
+            StringBuilder sb = new StringBuilder();
+            for (int j = i + key.length(); j < line.length(); j++) {
+                char c = line.charAt(j);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char n = line.charAt(++j);
+                switch (n) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        sb.append((char) Integer.parseInt(line.substring(j + 1, j + 5), 16));
+                        j += 4;
+                    }
+                    default -> sb.append(n);
+                }
+            }
+            return null;
+        }
+    }
+}
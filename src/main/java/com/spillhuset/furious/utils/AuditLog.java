@@ -4,81 +4,185 @@ import com.spillhuset.furious.Furious;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.logging.FileHandler;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
 
 /**
- * Simple audit logger that writes command usages and responses to a dedicated audit.log file.
- * Minimal, static utility for easy use across the plugin.
+ * Audit log of command usages, responses and invsee actions.
+ * <p>
+ * Callers only put a small record into a bounded {@link MpscRing}; one background thread drains it,
+ * formats the records as NDJSON (one JSON object per line) and appends them to segment files in
+ * {@code audit/}. Segments rotate by size and age and old ones are deleted after the retention period.
+ * Each closed segment gets an {@link AuditIndex} next to it, which {@link AuditQuery} uses to seek.
+ * When the ring is full, records are dropped (or the caller waits briefly, with {@code overflow: block})
+ * and counted, so the main thread never waits on disk I/O.
+ * Static utility for easy use across the plugin.
  */
 public final class AuditLog {
-    private static Logger auditLogger;
+    /** What producers do when the queue is full. */
+    public enum Overflow {
+        DROP, BLOCK
+    }
+
+    /** One queued event. {@code message} is a String or a Component, serialized on the writer thread. */
+    private record Entry(long time, String type, UUID actor, String actorName, UUID subject, Object message) {}
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".ndjson";
+    private static final DateTimeFormatter SEGMENT_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final int BATCH = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
     private static Furious plugin;
-    private static final SimpleDateFormat TS = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static volatile MpscRing<Entry> ring;
+    private static volatile Writer writer;
+    private static Thread writerThread;
+    private static Overflow overflow = Overflow.DROP;
+    private static long blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+    // Metrics
+    private static final AtomicLong enqueued = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong blocked = new AtomicLong();
 
     private AuditLog() {}
 
     public static void init(Furious pl) {
         plugin = pl.getInstance();
+        shutdown();
+        ConfigurationSection cfg = plugin.getConfig().getConfigurationSection("audit");
+        String dirName = cfg == null ? "audit" : cfg.getString("directory", "audit");
+        int queueSize = cfg == null ? 65536 : Math.max(64, cfg.getInt("queue-size", 65536));
         try {
-            Path dataDir = plugin.getDataFolder().toPath();
-            if (Files.notExists(dataDir)) {
-                Files.createDirectories(dataDir);
-            }
-            if (auditLogger == null) {
-                auditLogger = Logger.getLogger("Furious-Audit");
-                auditLogger.setUseParentHandlers(false);
-                // Rotate at ~1MB with 3 backups for simplicity
-                FileHandler fh = new FileHandler(dataDir.resolve("audit.log").toString(), 1_000_000, 3, true);
-                fh.setFormatter(new SimpleFormatter());
-                auditLogger.addHandler(fh);
-            }
-            auditLogger.info("=== AuditLog initialized ===");
-        } catch (IOException ex) {
-            plugin.getLogger().log(Level.WARNING, "Failed to initialize AuditLog", ex);
+            overflow = Overflow.valueOf((cfg == null ? "drop" : cfg.getString("overflow", "drop")).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            overflow = Overflow.DROP;
         }
-    }
+        blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, cfg == null ? 5L : cfg.getLong("block-timeout-ms", 5L)));
+        long maxBytes = Math.max(1L, cfg == null ? 64L : cfg.getLong("segment-max-mb", 64L)) * 1024L * 1024L;
+        long maxAgeMs = TimeUnit.MINUTES.toMillis(Math.max(1L, cfg == null ? 60L : cfg.getLong("segment-max-minutes", 60L)));
+        long retentionMs = TimeUnit.DAYS.toMillis(Math.max(0L, cfg == null ? 30L : cfg.getLong("retention-days", 30L)));
+        long flushMs = Math.max(0L, cfg == null ? 1000L : cfg.getLong("flush-interval-ms", 1000L));
 
-    public static void logCommand(CommandSender sender, String rawCommand) {
-        if (auditLogger == null) {
-            fallback("CMD", sender, rawCommand);
+        File dir = new File(plugin.getDataFolder(), dirName);
+        if (!dir.exists() && !dir.mkdirs()) {
+            plugin.getLogger().warning("Failed to create audit directory " + dir + "; audit records go to the server log.");
             return;
         }
-        String who = safeName(sender);
-        String ts = TS.format(new Date());
-        auditLogger.info("[" + ts + "] CMD by " + who + ": /" + rawCommand);
+        MpscRing<Entry> r = new MpscRing<>(queueSize);
+        Writer w = new Writer(r, dir, maxBytes, maxAgeMs, retentionMs, flushMs);
+        Thread t = new Thread(w, "Furious-Audit");
+        t.setDaemon(true);
+        ring = r;
+        writer = w;
+        writerThread = t;
+        t.start();
     }
 
-    public static void logResponse(CommandSender sender, String message) {
-        if (message == null) message = "";
-        if (auditLogger == null) {
-            fallback("RSP", sender, message);
-            return;
+    /**
+     * Stops accepting records, writes everything queued and closes the current segment.
+     */
+    public static void shutdown() {
+        Writer w = writer;
+        Thread t = writerThread;
+        ring = null;
+        writer = null;
+        writerThread = null;
+        if (w == null || t == null) return;
+        w.running = false;
+        LockSupport.unpark(t);
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (t.isAlive() && plugin != null) {
+            plugin.getLogger().warning("Audit writer did not finish within 10s; some records may be missing.");
         }
-        String who = safeName(sender);
-        String ts = TS.format(new Date());
-        auditLogger.info("[" + ts + "] RSP to " + who + ": " + message);
+    }
+
+    public static void logCommand(CommandSender sender, String rawCommand) {
+        submit("CMD", sender, null, rawCommand == null ? "" : "/" + rawCommand);
+    }
+
+    public static void logResponse(CommandSender sender, String message) {
+        submit("RSP", sender, null, message == null ? "" : message);
     }
 
     public static void logResponse(CommandSender sender, Component component) {
-        String plain = component == null ? "" : PlainTextComponentSerializer.plainText().serialize(component);
-        logResponse(sender, plain);
+        submit("RSP", sender, null, component == null ? "" : component);
+    }
+
+    /**
+     * Logs an inventory action by {@code viewer} on {@code target}'s inventory.
+     */
+    public static void logInvsee(Player viewer, Player target, String message) {
+        submit("INV", viewer, target == null ? null : target.getUniqueId(), message == null ? "" : message);
+    }
+
+    private static void submit(String type, CommandSender sender, UUID subject, Object message) {
+        MpscRing<Entry> r = ring;
+        if (r == null) {
+            fallback(type, sender, message);
+            return;
+        }
+        UUID actor = null;
+        if (sender instanceof Entity entity) {
+            try { actor = entity.getUniqueId(); } catch (Throwable ignored) {}
+        }
+        Entry entry = new Entry(System.currentTimeMillis(), type, actor, safeName(sender), subject, message);
+        if (r.offer(entry)) {
+            enqueued.incrementAndGet();
+            return;
+        }
+        if (overflow == Overflow.BLOCK && blockTimeoutNanos > 0) {
+            blocked.incrementAndGet();
+            LockSupport.unpark(writerThread);
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(50_000L);
+                if (r.offer(entry)) {
+                    enqueued.incrementAndGet();
+                    return;
+                }
+            }
+        }
+        dropped.incrementAndGet();
     }
 
-    private static void fallback(String tag, CommandSender sender, String msg) {
+    private static void fallback(String tag, CommandSender sender, Object msg) {
         if (plugin != null) {
-            plugin.getLogger().info("[AUDIT " + tag + "] " + safeName(sender) + ": " + msg);
+            plugin.getLogger().info("[AUDIT " + tag + "] " + safeName(sender) + ": " + plain(msg));
         }
     }
 
+    private static String plain(Object message) {
+        if (message instanceof Component component) {
+            return PlainTextComponentSerializer.plainText().serialize(component);
+        }
+        return String.valueOf(message);
+    }
+
     private static String safeName(CommandSender sender) {
         try {
             return sender == null ? "<null>" : sender.getName();
@@ -86,4 +190,227 @@ public final class AuditLog {
             return "<unknown>";
         }
     }
+
+    public static File getDirectory() {
+        Writer w = writer;
+        return w == null ? null : w.dir;
+    }
+
+    /** @return the segment currently being written; it has no index yet */
+    public static File getActiveSegment() {
+        Writer w = writer;
+        return w == null ? null : w.current;
+    }
+
+    public static int getQueued() {
+        MpscRing<Entry> r = ring;
+        return r == null ? 0 : r.size();
+    }
+
+    public static long getEnqueued() {
+        return enqueued.get();
+    }
+
+    public static long getDropped() {
+        return dropped.get();
+    }
+
+    /** @return number of records whose producer had to wait for space (overflow: block) */
+    public static long getBlocked() {
+        return blocked.get();
+    }
+
+    public static long getWritten() {
+        Writer w = writer;
+        return w == null ? 0L : w.written;
+    }
+
+    public static long getWriteErrors() {
+        Writer w = writer;
+        return w == null ? 0L : w.errors;
+    }
+
+    /**
+     * Drains the ring on its own thread and owns the segment files.
+     */
+    private static final class Writer implements Runnable {
+        final MpscRing<Entry> ring;
+        final File dir;
+        final long maxBytes;
+        final long maxAgeMs;
+        final long retentionMs;
+        final long flushMs;
+        volatile boolean running = true;
+        // Written by this thread only; read by the getters
+        volatile long written = 0L;
+        volatile long errors = 0L;
+
+        private OutputStream out;
+        volatile File current;
+        private AuditIndex.Builder index;
+        private long segmentStart;
+        private long segmentBytes;
+        private long lastFlush;
+        private boolean unflushed;
+        private boolean failing;
+        private final StringBuilder line = new StringBuilder(256);
+
+        Writer(MpscRing<Entry> ring, File dir, long maxBytes, long maxAgeMs, long retentionMs, long flushMs) {
+            this.ring = ring;
+            this.dir = dir;
+            this.maxBytes = maxBytes;
+            this.maxAgeMs = maxAgeMs;
+            this.retentionMs = retentionMs;
+            this.flushMs = flushMs;
+        }
+
+        @Override
+        public void run() {
+            deleteExpired(System.currentTimeMillis());
+            List<Entry> batch = new ArrayList<>(BATCH);
+            while (true) {
+                batch.clear();
+                int n = ring.drain(batch, BATCH);
+                for (Entry e : batch) write(e);
+                long now = System.currentTimeMillis();
+                if (n == 0) {
+                    if (!running) break;
+                    if (unflushed && now - lastFlush >= flushMs) flush(now);
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                } else if (unflushed && now - lastFlush >= flushMs) {
+                    flush(now);
+                }
+            }
+            // Producers may have raced the stop flag
+            batch.clear();
+            ring.drain(batch, Integer.MAX_VALUE);
+            for (Entry e : batch) write(e);
+            closeSegment();
+        }
+
+        private void write(Entry e) {
+            try {
+                if (out == null || segmentBytes >= maxBytes || e.time() - segmentStart >= maxAgeMs) {
+                    openSegment(e.time());
+                }
+                byte[] bytes = format(e).getBytes(StandardCharsets.UTF_8);
+                out.write(bytes);
+                index.add(segmentBytes, bytes.length, e.time(), e.actor(), e.subject());
+                segmentBytes += bytes.length;
+                unflushed = true;
+                written++;
+                failing = false;
+            } catch (IOException ex) {
+                errors++;
+                closeSegment();
+                if (!failing) {
+                    failing = true;
+                    plugin.getLogger().log(Level.WARNING, "Failed writing audit log", ex);
+                }
+            }
+        }
+
+        private void flush(long now) {
+            lastFlush = now;
+            unflushed = false;
+            if (out == null) return;
+            try {
+                out.flush();
+            } catch (IOException ex) {
+                errors++;
+                closeSegment();
+            }
+        }
+
+        private void openSegment(long time) throws IOException {
+            closeSegment();
+            String base = SEGMENT_PREFIX + SEGMENT_NAME.format(Instant.ofEpochMilli(time));
+            File file = new File(dir, base + SEGMENT_SUFFIX);
+            // Size rotation can start several segments within one second
+            for (int i = 1; file.exists(); i++) file = new File(dir, base + "-" + i + SEGMENT_SUFFIX);
+            out = new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024);
+            current = file;
+            index = new AuditIndex.Builder();
+            segmentStart = time;
+            segmentBytes = 0L;
+            deleteExpired(time);
+        }
+
+        private void closeSegment() {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+            // A missing index is rebuilt by the first query that needs it
+            if (index != null && !index.isEmpty()) {
+                try {
+                    index.build().write(new File(current.getPath() + AuditIndex.SUFFIX));
+                } catch (IOException ex) {
+                    errors++;
+                }
+            }
+            out = null;
+            current = null;
+            index = null;
+            unflushed = false;
+        }
+
+        private void deleteExpired(long now) {
+            if (retentionMs <= 0) return;
+            File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+            if (files == null) return;
+            for (File f : files) {
+                if (now - f.lastModified() > retentionMs) {
+                    try {
+                        f.delete();
+                        new File(f.getPath() + AuditIndex.SUFFIX).delete();
+                    } catch (Throwable ignored) {}
+                }
+            }
+        }
+
+        private String format(Entry e) {
+            StringBuilder sb = line;
+            sb.setLength(0);
+            sb.append("{\"t\":").append(e.time());
+            sb.append(",\"ts\":\"").append(TS.format(Instant.ofEpochMilli(e.time()))).append('"');
+            sb.append(",\"type\":\"").append(e.type()).append('"');
+            if (e.actor() != null) sb.append(",\"actor\":\"").append(e.actor()).append('"');
+            sb.append(",\"name\":");
+            appendString(sb, e.actorName());
+            if (e.subject() != null) sb.append(",\"subject\":\"").append(e.subject()).append('"');
+            sb.append(",\"msg\":");
+            String msg;
+            try {
+                msg = plain(e.message());
+            } catch (Throwable t) {
+                msg = String.valueOf(e.message());
+            }
+            appendString(sb, msg);
+            sb.append("}\n");
+            return sb.toString();
+        }
+    }
+
+    static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        if (s != null) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                        else sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
 }
@@ -0,0 +1,165 @@
+package com.spillhuset.furious.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Searches the audit segments written by {@link AuditLog}.
+ * <p>
+ * Segments are picked by the start time in their file name, then only the blocks their
+ * {@link AuditIndex} lists for the player and time range are read. A closed segment without an
+ * index is scanned once and indexed; the segment still being written is always read in full.
+ * Runs on the calling thread; callers run it asynchronously.
+ */
+public final class AuditQuery {
+    private static final DateTimeFormatter SEGMENT_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int READ_BYTES = 256 * 1024;
+
+    /**
+     * What to look for. {@code actor} and {@code subject} are matched exactly when set;
+     * {@code types} is empty for all types.
+     */
+    public record Filter(UUID actor, UUID subject, Set<String> types, long from, long to) {
+        boolean matches(AuditIndex.Record r) {
+            if (r.time() < from || r.time() > to) return false;
+            if (actor != null && !actor.equals(r.actor())) return false;
+            if (subject != null && !subject.equals(r.subject())) return false;
+            return types.isEmpty() || types.contains(r.type());
+        }
+
+        UUID indexKey() {
+            return actor != null ? actor : subject;
+        }
+    }
+
+    /** Work done by one query. */
+    public record Stats(int segments, int indexed, long bytesRead, int hits, boolean truncated) {}
+
+    private AuditQuery() {}
+
+    /**
+     * Streams matching records, oldest first, to {@code sink} until it returns false or {@code limit} records were found.
+     */
+    public static Stats run(File dir, Filter filter, int limit, Predicate<AuditIndex.Record> sink) throws IOException {
+        List<File> segments = listSegments(dir);
+        // Asked after listing: a segment that rotated out in between is closed and gets its index written
+        File activeSegment = AuditLog.getActiveSegment();
+        int scanned = 0;
+        int indexed = 0;
+        long bytesRead = 0L;
+        int hits = 0;
+        byte[] buf = new byte[READ_BYTES];
+        for (int i = 0; i < segments.size(); i++) {
+            File segment = segments.get(i);
+            long start = segmentStart(segment);
+            // A segment ends where the next one starts
+            long end = i + 1 < segments.size() ? segmentStart(segments.get(i + 1)) : Long.MAX_VALUE;
+            // Written as subtractions so open-ended ranges (to = Long.MAX_VALUE) cannot overflow
+            if (start != Long.MIN_VALUE && start - 1000L > filter.to()) break;
+            if (end != Long.MAX_VALUE && end + 1000L < filter.from()) continue;
+
+            List<long[]> ranges;
+            if (segment.equals(activeSegment)) {
+                ranges = List.of(new long[]{0L, segment.length()});
+            } else {
+                AuditIndex index = loadIndex(segment);
+                if (index == null) continue;
+                indexed++;
+                ranges = index.ranges(filter.indexKey(), filter.from(), filter.to());
+            }
+            if (ranges.isEmpty()) continue;
+            scanned++;
+            try (RandomAccessFile raf = new RandomAccessFile(segment, "r")) {
+                for (long[] range : ranges) {
+                    long pos = range[0];
+                    long endPos = Math.min(range[1], raf.length());
+                    raf.seek(pos);
+                    int carry = 0;
+                    while (pos < endPos) {
+                        int n = (int) Math.min(buf.length - carry, endPos - pos);
+                        raf.readFully(buf, carry, n);
+                        pos += n;
+                        bytesRead += n;
+                        int len = carry + n;
+                        int lineStart = 0;
+                        for (int p = carry; p < len; p++) {
+                            if (buf[p] != '\n') continue;
+                            AuditIndex.Record r = AuditIndex.Record.parse(new String(buf, lineStart, p - lineStart, StandardCharsets.UTF_8));
+                            lineStart = p + 1;
+                            if (r == null || !filter.matches(r)) continue;
+                            if (hits >= limit) return new Stats(scanned, indexed, bytesRead, hits, true);
+                            hits++;
+                            if (!sink.test(r)) return new Stats(scanned, indexed, bytesRead, hits, true);
+                        }
+                        // Keep the unfinished line for the next read
+                        carry = len - lineStart;
+                        System.arraycopy(buf, lineStart, buf, 0, carry);
+                        if (carry == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+                    }
+                }
+            }
+        }
+        return new Stats(scanned, indexed, bytesRead, hits, false);
+    }
+
+    private static AuditIndex loadIndex(File segment) {
+        File idx = new File(segment.getPath() + AuditIndex.SUFFIX);
+        if (idx.exists()) {
+            try {
+                return AuditIndex.read(idx);
+            } catch (IOException ignored) {
+                // Rebuilt below
+            }
+        }
+        try {
+            AuditIndex index = AuditIndex.scan(segment);
+            try { index.write(idx); } catch (IOException ignored) {}
+            return index;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** @return segment files ordered by start time, then rotation number */
+    static List<File> listSegments(File dir) {
+        File[] files = dir == null ? null : dir.listFiles((d, name) -> name.startsWith(AuditLog.SEGMENT_PREFIX) && name.endsWith(AuditLog.SEGMENT_SUFFIX));
+        if (files == null) return new ArrayList<>();
+        List<File> list = new ArrayList<>(Arrays.asList(files));
+        list.sort(Comparator.comparing((File f) -> stamp(f.getName())).thenComparingInt(f -> rotation(f.getName())));
+        return list;
+    }
+
+    // "audit-20261018-065719-2.ndjson" -> "20261018-065719"
+    private static String stamp(String name) {
+        String core = name.substring(AuditLog.SEGMENT_PREFIX.length(), name.length() - AuditLog.SEGMENT_SUFFIX.length());
+        return core.length() > 15 ? core.substring(0, 15) : core;
+    }
+
+    // "audit-20261018-065719-2.ndjson" -> 2, no suffix -> 0
+    private static int rotation(String name) {
+        String core = name.substring(AuditLog.SEGMENT_PREFIX.length(), name.length() - AuditLog.SEGMENT_SUFFIX.length());
+        if (core.length() <= 16) return 0;
+        try {
+            return Integer.parseInt(core.substring(16));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** @return start time in millis from the file name, or Long.MIN_VALUE when it cannot be read */
+    static long segmentStart(File segment) {
+        try {
+            LocalDateTime t = LocalDateTime.parse(stamp(segment.getName()), SEGMENT_NAME);
+            return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (RuntimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.spillhuset.furious.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Writes batches of changes off the main thread, one batch at a time and in the order the
+ * snapshots were taken.
+ * <p>
+ * The owner takes snapshots on the main thread (where its maps live) and hands them to
+ * {@link #flush()}, which queues them for the async executor. {@link #flushNow()} waits for a
+ * running write, then writes everything still queued on the calling thread, so on shutdown an
+ * older async write can never land after the final one. A batch whose write throws is merged
+ * back into the queue, newer changes winning, and retried by the next flush.
+ *
+ * @param <B> an immutable batch of changes
+ */
+public class BackgroundWriter<B> {
+    /** Persists one batch. Called on the async executor or inside {@link #flushNow()}. */
+    public interface Sink<B> {
+        void write(B batch) throws Exception;
+    }
+
+    private final String name;
+    private final Logger logger;
+    private final Supplier<B> snapshot;
+    private final BinaryOperator<B> merge;
+    private final Predicate<B> isEmpty;
+    private final Sink<B> sink;
+    private final Executor async;
+
+    private final Object queueLock = new Object();
+    private B queued; // guarded by queueLock; null when nothing is queued
+    private boolean scheduled; // guarded by queueLock
+    // Held while a batch is taken from the queue and written, so batches land in snapshot order
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * @param name     used in log messages, e.g. the file name
+     * @param snapshot main thread: copies the changes and clears the owner's dirty state
+     * @param merge    (older, newer) -> one batch where newer changes win; must not modify its arguments
+     * @param sink     writes a batch; throw to have it retried
+     * @param async    runs the background writes
+     */
+    public BackgroundWriter(String name, Logger logger, Supplier<B> snapshot, BinaryOperator<B> merge,
+                            Predicate<B> isEmpty, Sink<B> sink, Executor async) {
+        this.name = name;
+        this.logger = logger;
+        this.snapshot = snapshot;
+        this.merge = merge;
+        this.isEmpty = isEmpty;
+        this.sink = sink;
+        this.async = async;
+    }
+
+    /**
+     * Writer for batches of rows keyed by id, where a newer row replaces an older one.
+     */
+    public static <K, R> BackgroundWriter<Map<K, R>> ofRows(String name, Logger logger, Supplier<Map<K, R>> snapshot,
+                                                            Sink<Map<K, R>> sink, Executor async) {
+        return new BackgroundWriter<>(name, logger, snapshot, (older, newer) -> {
+            Map<K, R> rows = new LinkedHashMap<>(older);
+            rows.putAll(newer);
+            return rows;
+        }, Map::isEmpty, sink, async);
+    }
+
+    /**
+     * Main thread: snapshots the changes and queues them for a background write.
+     */
+    public void flush() {
+        boolean schedule;
+        synchronized (queueLock) {
+            enqueue(snapshot.get());
+            // Also reschedules changes left over from a failed write
+            schedule = queued != null && !scheduled;
+            if (schedule) scheduled = true;
+        }
+        if (!schedule) return;
+        try {
+            async.execute(this::drainAsync);
+        } catch (RuntimeException e) {
+            // Executor refused (e.g. plugin disabling); flushNow() picks the changes up
+            synchronized (queueLock) {
+                scheduled = false;
+            }
+        }
+    }
+
+    /**
+     * Snapshots the changes and writes everything queued on the calling thread, after any
+     * background write that is already running. Used on shutdown.
+     */
+    public void flushNow() {
+        synchronized (queueLock) {
+            enqueue(snapshot.get());
+        }
+        writeLock.lock();
+        try {
+            writeQueued();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** @return true while changes are queued (including failed ones) or a write is running */
+    public boolean isBusy() {
+        synchronized (queueLock) {
+            if (queued != null) return true;
+        }
+        return writeLock.isLocked();
+    }
+
+    private void drainAsync() {
+        writeLock.lock();
+        try {
+            synchronized (queueLock) {
+                scheduled = false;
+            }
+            writeQueued();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Caller holds writeLock
+    private void writeQueued() {
+        B batch;
+        synchronized (queueLock) {
+            batch = queued;
+            queued = null;
+        }
+        if (batch == null) return;
+        try {
+            sink.write(batch);
+        } catch (Exception e) {
+            logger.warning("Failed to save " + name + ", will retry: " + e.getMessage());
+            synchronized (queueLock) {
+                // Changes queued since the batch was taken are newer and win
+                queued = queued == null ? batch : merge.apply(batch, queued);
+            }
+        }
+    }
+
+    // Caller holds queueLock
+    private void enqueue(B changes) {
+        if (changes == null || isEmpty.test(changes)) return;
+        queued = queued == null ? changes : merge.apply(queued, changes);
+    }
+}
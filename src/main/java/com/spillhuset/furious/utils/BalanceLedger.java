@@ -0,0 +1,160 @@
+package com.spillhuset.furious.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wallet balances in fixed-point cents, safe to use from any thread.
+ * <p>
+ * Reads are lock-free. Every write holds the account's stripe lock, and the {@link Recorder} is
+ * called under that lock, so the balance change and its journal record are ordered the same way
+ * for each account. Transfers take both stripes in index order, so two opposite payments cannot
+ * deadlock. Accounts are created with the initial balance on first access.
+ */
+public class BalanceLedger {
+    private static final int LOCK_STRIPES = 64; // power of two
+
+    /** Called under the account's stripe lock with the balance after the change. */
+    public interface Recorder {
+        void record(UUID account, long balanceCents, String entry);
+    }
+
+    private final Map<UUID, AtomicLong> balances = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[LOCK_STRIPES];
+    private final Recorder recorder;
+    private final long initialCents;
+
+    public BalanceLedger(long initialCents, Recorder recorder) {
+        this.initialCents = initialCents;
+        this.recorder = recorder;
+        for (int i = 0; i < LOCK_STRIPES; i++) stripes[i] = new Object();
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
+    public static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+
+    public boolean has(UUID uuid) {
+        return balances.containsKey(uuid);
+    }
+
+    /** Drops every account; used when (re)loading. */
+    public void clear() {
+        balances.clear();
+    }
+
+    /** Sets a loaded balance without recording it. */
+    public void restore(UUID uuid, long cents) {
+        balances.put(uuid, new AtomicLong(cents));
+    }
+
+    /** @return every account's balance at the time it was read */
+    public Map<UUID, Long> snapshot() {
+        Map<UUID, Long> out = new HashMap<>();
+        for (Map.Entry<UUID, AtomicLong> e : balances.entrySet()) out.put(e.getKey(), e.getValue().get());
+        return out;
+    }
+
+    public long get(UUID uuid) {
+        return account(uuid).get();
+    }
+
+    // Returns the account, creating it with the initial balance on first access
+    private AtomicLong account(UUID uuid) {
+        AtomicLong account = balances.get(uuid);
+        if (account != null) return account;
+        synchronized (stripe(uuid)) {
+            account = balances.get(uuid);
+            if (account == null) {
+                long init = initialCents;
+                account = new AtomicLong(init);
+                balances.put(uuid, account);
+                recorder.record(uuid, init, "INITIAL set to " + fromCents(init));
+            }
+            return account;
+        }
+    }
+
+    private static int stripeIndex(UUID uuid) {
+        int h = uuid.hashCode();
+        return (h ^ (h >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    private Object stripe(UUID uuid) {
+        return stripes[stripeIndex(uuid)];
+    }
+
+    public void set(UUID uuid, long cents, String entry) {
+        AtomicLong account = account(uuid);
+        synchronized (stripe(uuid)) {
+            account.set(cents);
+            recorder.record(uuid, cents, entry);
+        }
+    }
+
+    /** @return false when the balance would overflow */
+    public boolean add(UUID uuid, long cents, String entry) {
+        AtomicLong account = account(uuid);
+        synchronized (stripe(uuid)) {
+            long newBal;
+            try {
+                newBal = Math.addExact(account.get(), cents);
+            } catch (ArithmeticException e) {
+                return false;
+            }
+            account.set(newBal);
+            recorder.record(uuid, newBal, entry);
+        }
+        return true;
+    }
+
+    /** @return false when the account holds less than {@code cents} */
+    public boolean subtract(UUID uuid, long cents, String entry) {
+        AtomicLong account = account(uuid);
+        synchronized (stripe(uuid)) {
+            long cur = account.get();
+            if (cur < cents) return false;
+            account.set(cur - cents);
+            recorder.record(uuid, cur - cents, entry);
+        }
+        return true;
+    }
+
+    /**
+     * Moves {@code cents} between two different accounts, or nothing.
+     * @return false when the payer holds too little or the payee would overflow
+     */
+    public boolean transfer(UUID from, UUID to, long cents, String fromEntry, String toEntry) {
+        AtomicLong fromAccount = account(from);
+        AtomicLong toAccount = account(to);
+        int ia = stripeIndex(from);
+        int ib = stripeIndex(to);
+        Object a = stripes[Math.min(ia, ib)];
+        Object b = stripes[Math.max(ia, ib)];
+        synchronized (a) {
+            synchronized (b) {
+                long fromBal = fromAccount.get();
+                long toBal = toAccount.get();
+                if (fromBal < cents) return false;
+                long newTo;
+                try {
+                    newTo = Math.addExact(toBal, cents);
+                } catch (ArithmeticException e) {
+                    return false;
+                }
+                fromAccount.set(fromBal - cents);
+                toAccount.set(newTo);
+                recorder.record(from, fromBal - cents, fromEntry);
+                recorder.record(to, newTo, toEntry);
+            }
+        }
+        return true;
+    }
+}
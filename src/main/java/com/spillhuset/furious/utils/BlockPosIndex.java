@@ -0,0 +1,158 @@
+package com.spillhuset.furious.utils;
+
+import java.util.*;
+
+/**
+ * Spatial index from block positions to ids (homes, markers).
+ * <p>
+ * Worlds are interned to small indexes and entries are bucketed by a packed
+ * (world index, chunk x, chunk z) key, so exact-block, chunk and radius lookups only
+ * look at the chunks involved. Keys never hold a World reference or a Location, so
+ * unloading and reloading a world does not invalidate them.
+ * Not thread-safe; callers are expected to use it from the main thread.
+ */
+public class BlockPosIndex {
+    // Chunk key layout: world 20 bits | chunk x 22 bits | chunk z 22 bits
+    private static final int CHUNK_BITS = 22;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private static final class Entry {
+        final UUID id;
+        final int world;
+        final long pos;
+
+        Entry(UUID id, int world, long pos) {
+            this.id = id;
+            this.world = world;
+            this.pos = pos;
+        }
+    }
+
+    private final Map<UUID, Integer> worldIndex = new HashMap<>();
+    private final Map<Long, List<Entry>> chunks = new HashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public boolean contains(UUID id) {
+        return entries.containsKey(id);
+    }
+
+    /**
+     * Adds or moves {@code id} to the given block.
+     */
+    public void put(UUID id, UUID world, int x, int y, int z) {
+        if (id == null || world == null) return;
+        remove(id);
+        Entry e = new Entry(id, internWorld(world), packPos(x, y, z));
+        entries.put(id, e);
+        chunks.computeIfAbsent(chunkKey(e.world, x >> 4, z >> 4), k -> new ArrayList<>(2)).add(e);
+    }
+
+    /**
+     * @return true when the id was indexed
+     */
+    public boolean remove(UUID id) {
+        Entry e = entries.remove(id);
+        if (e == null) return false;
+        long key = chunkKey(e.world, unpackX(e.pos) >> 4, unpackZ(e.pos) >> 4);
+        List<Entry> bucket = chunks.get(key);
+        if (bucket != null) {
+            bucket.remove(e);
+            if (bucket.isEmpty()) chunks.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * @return the first id at exactly this block, or null
+     */
+    public UUID get(UUID world, int x, int y, int z) {
+        Integer w = worldIndex.get(world);
+        if (w == null) return null;
+        List<Entry> bucket = chunks.get(chunkKey(w, x >> 4, z >> 4));
+        if (bucket == null) return null;
+        long pos = packPos(x, y, z);
+        for (Entry e : bucket) {
+            if (e.pos == pos) return e.id;
+        }
+        return null;
+    }
+
+    /**
+     * @return ids of every entry inside the chunk
+     */
+    public List<UUID> inChunk(UUID world, int chunkX, int chunkZ) {
+        Integer w = worldIndex.get(world);
+        if (w == null) return Collections.emptyList();
+        List<Entry> bucket = chunks.get(chunkKey(w, chunkX, chunkZ));
+        if (bucket == null) return Collections.emptyList();
+        List<UUID> out = new ArrayList<>(bucket.size());
+        for (Entry e : bucket) out.add(e.id);
+        return out;
+    }
+
+    /**
+     * @return ids whose block lies within {@code radius} blocks of the given block (block-to-block distance);
+     * callers that need exact distances should check the candidates again
+     */
+    public List<UUID> withinRadius(UUID world, int x, int y, int z, double radius) {
+        Integer w = worldIndex.get(world);
+        if (w == null || radius < 0) return Collections.emptyList();
+        int r = (int) Math.ceil(radius);
+        double r2 = radius * radius;
+        List<UUID> out = new ArrayList<>();
+        for (int cx = (x - r) >> 4; cx <= (x + r) >> 4; cx++) {
+            for (int cz = (z - r) >> 4; cz <= (z + r) >> 4; cz++) {
+                List<Entry> bucket = chunks.get(chunkKey(w, cx, cz));
+                if (bucket == null) continue;
+                for (Entry e : bucket) {
+                    long dx = unpackX(e.pos) - x, dy = unpackY(e.pos) - y, dz = unpackZ(e.pos) - z;
+                    if (dx * dx + dy * dy + dz * dz <= r2) out.add(e.id);
+                }
+            }
+        }
+        return out;
+    }
+
+    public void clear() {
+        chunks.clear();
+        entries.clear();
+        // World indexes are kept; they are only ever used as keys within this index
+    }
+
+    private int internWorld(UUID world) {
+        Integer w = worldIndex.get(world);
+        if (w != null) return w;
+        int next = worldIndex.size() + 1;
+        worldIndex.put(world, next);
+        return next;
+    }
+
+    private static long chunkKey(int world, int chunkX, int chunkZ) {
+        return ((long) world << (2 * CHUNK_BITS)) | ((chunkX & CHUNK_MASK) << CHUNK_BITS) | (chunkZ & CHUNK_MASK);
+    }
+
+    // Block position packing: 26 bits x, 26 bits z, 12 bits y (same layout as vanilla BlockPos)
+    private static long packPos(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFFL);
+    }
+
+    private static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    private static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+}
@@ -0,0 +1,197 @@
+package com.spillhuset.furious.utils;
+
+/**
+ * Open-addressing hash table from packed chunk keys to small guild indexes.
+ * Keys use the same (x << 32 | z) packing as GuildService outposts; values are
+ * interned guild indexes where 0 means "no entry". Lookups never allocate.
+ * Not thread-safe; callers are expected to use it from the main thread.
+ */
+public class ChunkClaimTable {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /** Callback used by {@link #forEach(EntryConsumer)}. */
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    public ChunkClaimTable() {
+        this(MIN_CAPACITY);
+    }
+
+    public ChunkClaimTable(int expected) {
+        int cap = MIN_CAPACITY;
+        // Keep the load factor at or below 0.5 for short probe sequences
+        while (cap < expected * 2) cap <<= 1;
+        allocate(cap);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public static long key(int x, int z) {
+        return (((long) x) << 32) ^ (z & 0xffffffffL);
+    }
+
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int keyZ(long key) {
+        return (int) key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the stored value for the key, or 0 when absent
+     */
+    public int get(long key) {
+        int i = hash(key) & mask;
+        while (true) {
+            int v = values[i];
+            if (v == 0) return 0;
+            if (keys[i] == key) return v;
+            i = (i + 1) & mask;
+        }
+    }
+
+    public int get(int x, int z) {
+        return get(key(x, z));
+    }
+
+    /**
+     * Stores a value for the key.
+     * @param value a positive guild index
+     * @return the previous value, or 0 when the key was absent
+     */
+    public int put(long key, int value) {
+        if (value <= 0) throw new IllegalArgumentException("value must be positive");
+        int i = hash(key) & mask;
+        while (true) {
+            int v = values[i];
+            if (v == 0) break;
+            if (keys[i] == key) {
+                values[i] = value;
+                return v;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > values.length) rehash(values.length << 1);
+        return 0;
+    }
+
+    /**
+     * Removes the key using backward-shift deletion so no tombstones are left behind.
+     * @return the removed value, or 0 when the key was absent
+     */
+    public int remove(long key) {
+        int i = hash(key) & mask;
+        while (true) {
+            int v = values[i];
+            if (v == 0) return 0;
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return v;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void shiftBack(int hole) {
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            if (values[j] == 0) break;
+            int home = hash(keys[j]) & mask;
+            // Move the entry into the hole unless its home slot lies cyclically in (hole, j]
+            boolean stays = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!stays) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        values[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            int v = oldValues[i];
+            if (v == 0) continue;
+            int j = hash(oldKeys[i]) & mask;
+            while (values[j] != 0) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = v;
+        }
+    }
+
+    /**
+     * @return how many keys currently map to the given value
+     */
+    public int count(int value) {
+        int n = 0;
+        for (int v : values) {
+            if (v == value) n++;
+        }
+        return value == 0 ? 0 : n;
+    }
+
+    /**
+     * @return the keys currently mapped to the given value
+     */
+    public long[] keysOf(int value) {
+        long[] out = new long[count(value)];
+        int n = 0;
+        for (int i = 0; i < values.length && n < out.length; i++) {
+            if (values[i] == value) out[n++] = keys[i];
+        }
+        return out;
+    }
+
+    /**
+     * Removes every key mapped to the given value.
+     * @return number of removed entries
+     */
+    public int removeValue(int value) {
+        long[] doomed = keysOf(value);
+        for (long k : doomed) remove(k);
+        return doomed.length;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < values.length; i++) {
+            int v = values[i];
+            if (v != 0) consumer.accept(keys[i], v);
+        }
+    }
+
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.spillhuset.furious.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Values (shops, warps) keyed by the world and chunk they are anchored in, so a chunk load only
+ * looks at what is in that chunk instead of scanning every value. Each value is in at most one
+ * chunk; {@link #put} moves it.
+ */
+public class ChunkIndex<T> {
+    private record Pos(UUID worldId, long chunk) {}
+
+    // worldId -> packed (x,z) chunk key -> values anchored there
+    private final Map<UUID, Map<Long, List<T>>> cells = new HashMap<>();
+    private final Map<T, Pos> positions = new HashMap<>();
+
+    /** Anchors {@code value} at the chunk holding block coordinates (x, z), moving it if needed. */
+    public void put(T value, UUID worldId, double x, double z) {
+        put(value, worldId, (int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4);
+    }
+
+    public void put(T value, UUID worldId, int cx, int cz) {
+        if (value == null || worldId == null) return;
+        Pos pos = new Pos(worldId, ChunkClaimTable.key(cx, cz));
+        Pos old = positions.put(value, pos);
+        if (pos.equals(old)) return;
+        if (old != null) unlink(value, old);
+        cells.computeIfAbsent(worldId, w -> new HashMap<>())
+                .computeIfAbsent(pos.chunk(), k -> new ArrayList<>(1))
+                .add(value);
+    }
+
+    public void remove(T value) {
+        Pos old = positions.remove(value);
+        if (old != null) unlink(value, old);
+    }
+
+    /** @return a copy of the values anchored in the chunk, safe to iterate while changing the index */
+    public List<T> get(UUID worldId, int cx, int cz) {
+        Map<Long, List<T>> byChunk = worldId == null ? null : cells.get(worldId);
+        List<T> values = byChunk == null ? null : byChunk.get(ChunkClaimTable.key(cx, cz));
+        return values == null ? Collections.emptyList() : new ArrayList<>(values);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public void clear() {
+        cells.clear();
+        positions.clear();
+    }
+
+    private void unlink(T value, Pos pos) {
+        Map<Long, List<T>> byChunk = cells.get(pos.worldId());
+        if (byChunk == null) return;
+        List<T> values = byChunk.get(pos.chunk());
+        if (values == null) return;
+        values.remove(value);
+        if (values.isEmpty()) byChunk.remove(pos.chunk());
+        if (byChunk.isEmpty()) cells.remove(pos.worldId());
+    }
+}
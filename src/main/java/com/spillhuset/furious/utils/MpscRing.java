@@ -0,0 +1,96 @@
+package com.spillhuset.furious.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producer threads and a single consumer thread.
+ * <p>
+ * Fixed array of slots, each with a sequence number that says whether it is free for the
+ * producer claiming position {@code p} ({@code seq == p}) or filled for the consumer
+ * ({@code seq == p + 1}). Producers claim positions with one CAS; {@link #offer} never blocks and
+ * returns false when the ring is full. Only one thread may call {@link #poll} / {@link #drain}.
+ */
+public class MpscRing<E> {
+    private final AtomicReferenceArray<E> items;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the consumer thread
+    private long head = 0L;
+
+    public MpscRing(int capacity) {
+        int cap = 2;
+        while (cap < capacity) cap <<= 1;
+        items = new AtomicReferenceArray<>(cap);
+        sequence = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) sequence.set(i, i);
+        mask = cap - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return false when the ring is full; the item is not queued
+     */
+    public boolean offer(E item) {
+        if (item == null) throw new NullPointerException();
+        long pos = tail.get();
+        while (true) {
+            int idx = (int) (pos & mask);
+            long diff = sequence.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items.set(idx, item);
+                    // Publishes the item to the consumer
+                    sequence.set(idx, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // The consumer has not freed this slot yet
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Consumer thread only.
+     * @return the oldest item, or null when none is ready
+     */
+    public E poll() {
+        int idx = (int) (head & mask);
+        if (sequence.get(idx) != head + 1) return null;
+        E item = items.get(idx);
+        items.set(idx, null);
+        // Frees the slot for the producer one lap ahead
+        sequence.set(idx, head + mask + 1);
+        head++;
+        return item;
+    }
+
+    /**
+     * Consumer thread only. Moves up to {@code max} ready items into {@code out}.
+     * @return number of items moved
+     */
+    public int drain(java.util.Collection<? super E> out, int max) {
+        int n = 0;
+        E item;
+        while (n < max && (item = poll()) != null) {
+            out.add(item);
+            n++;
+        }
+        return n;
+    }
+
+    /** Approximate number of queued items; exact only when producers are idle. */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+}
@@ -0,0 +1,171 @@
+package com.spillhuset.furious.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Case-insensitive prefix tree from names to values, used for tab completion.
+ * <p>
+ * Keys are lower-cased with {@link Locale#ROOT}. Children are kept in sorted arrays, so
+ * {@link #complete} walks only the subtree under the typed prefix and returns values in
+ * alphabetical key order without sorting. Not thread-safe; callers synchronize.
+ */
+public class PrefixTrie<V> {
+    private static final char[] NO_CHARS = new char[0];
+
+    private static final class Node<V> {
+        char[] chars = NO_CHARS;
+        Node<V>[] children = newArray(0);
+        V value;
+
+        Node<V> child(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node<V> childOrCreate(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            int n = chars.length;
+            char[] nc = new char[n + 1];
+            Node<V>[] nn = newArray(n + 1);
+            System.arraycopy(chars, 0, nc, 0, at);
+            System.arraycopy(children, 0, nn, 0, at);
+            System.arraycopy(chars, at, nc, at + 1, n - at);
+            System.arraycopy(children, at, nn, at + 1, n - at);
+            Node<V> node = new Node<>();
+            nc[at] = c;
+            nn[at] = node;
+            chars = nc;
+            children = nn;
+            return node;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i < 0) return;
+            int n = chars.length;
+            char[] nc = new char[n - 1];
+            Node<V>[] nn = newArray(n - 1);
+            System.arraycopy(chars, 0, nc, 0, i);
+            System.arraycopy(children, 0, nn, 0, i);
+            System.arraycopy(chars, i + 1, nc, i, n - i - 1);
+            System.arraycopy(children, i + 1, nn, i, n - i - 1);
+            chars = nc;
+            children = nn;
+        }
+    }
+
+    private final Node<V> root = new Node<>();
+    private int size = 0;
+
+    public static String normalize(String key) {
+        return key == null ? "" : key.toLowerCase(Locale.ROOT);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root.chars = NO_CHARS;
+        root.children = newArray(0);
+        root.value = null;
+        size = 0;
+    }
+
+    /**
+     * @return the value previously stored under {@code key}, or null
+     */
+    public V put(String key, V value) {
+        if (value == null) throw new NullPointerException();
+        String k = normalize(key);
+        Node<V> node = root;
+        for (int i = 0; i < k.length(); i++) node = node.childOrCreate(k.charAt(i));
+        V old = node.value;
+        node.value = value;
+        if (old == null) size++;
+        return old;
+    }
+
+    public V get(String key) {
+        Node<V> node = find(normalize(key));
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Removes {@code key} and prunes the branches it leaves empty.
+     * @return the removed value, or null
+     */
+    public V remove(String key) {
+        String k = normalize(key);
+        // Remember the path so empty nodes can be unlinked bottom-up
+        Node<V>[] path = newArray(k.length() + 1);
+        Node<V> node = root;
+        path[0] = root;
+        for (int i = 0; i < k.length(); i++) {
+            node = node.child(k.charAt(i));
+            if (node == null) return null;
+            path[i + 1] = node;
+        }
+        V old = node.value;
+        if (old == null) return null;
+        node.value = null;
+        size--;
+        for (int i = k.length(); i > 0; i--) {
+            Node<V> n = path[i];
+            if (n.value != null || n.chars.length > 0) break;
+            path[i - 1].removeChild(k.charAt(i - 1));
+        }
+        return old;
+    }
+
+    /**
+     * @return up to {@code limit} values whose key starts with {@code prefix}, in key order
+     */
+    public List<V> complete(String prefix, int limit) {
+        return complete(prefix, limit, null);
+    }
+
+    /**
+     * @param filter values to skip are rejected here, without counting towards {@code limit}; null accepts all
+     * @return up to {@code limit} accepted values whose key starts with {@code prefix}, in key order
+     */
+    public List<V> complete(String prefix, int limit, Predicate<? super V> filter) {
+        List<V> out = new ArrayList<>(Math.min(Math.max(limit, 0), 16));
+        if (limit <= 0) return out;
+        Node<V> start = find(normalize(prefix));
+        if (start != null) collect(start, limit, filter, out);
+        return out;
+    }
+
+    private Node<V> find(String k) {
+        Node<V> node = root;
+        for (int i = 0; i < k.length() && node != null; i++) node = node.child(k.charAt(i));
+        return node;
+    }
+
+    // Depth-first, smallest child first, so values come out in key order
+    private void collect(Node<V> start, int limit, Predicate<? super V> filter, List<V> out) {
+        List<Node<V>> stack = new ArrayList<>();
+        stack.add(start);
+        while (!stack.isEmpty()) {
+            Node<V> node = stack.remove(stack.size() - 1);
+            if (node.value != null && (filter == null || filter.test(node.value))) {
+                out.add(node.value);
+                if (out.size() >= limit) return;
+            }
+            // Pushed in reverse so the smallest child is popped first
+            for (int i = node.children.length - 1; i >= 0; i--) stack.add(node.children[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newArray(int n) {
+        return (Node<V>[]) new Node<?>[n];
+    }
+}
@@ -0,0 +1,74 @@
+package com.spillhuset.furious.utils;
+
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of who owns a chunk and what protections apply there.
+ * Resolved by GuildService in a single lookup so listeners do not have to
+ * repeat owner and guild resolution for every check within one event.
+ */
+public final class ProtectionContext {
+    public static final int FLAG_CLAIMED = 1;
+    public static final int FLAG_SAFE = 1 << 1;
+    public static final int FLAG_WAR = 1 << 2;
+    public static final int FLAG_OWNED = 1 << 3;
+
+    /** Shared context for unclaimed chunks. */
+    public static final ProtectionContext WILDERNESS = new ProtectionContext(null, null, 0);
+
+    private final UUID guildId;
+    private final GuildType type;
+    private final int flags;
+
+    private ProtectionContext(UUID guildId, GuildType type, int flags) {
+        this.guildId = guildId;
+        this.type = type;
+        this.flags = flags;
+    }
+
+    public static ProtectionContext of(Guild guild) {
+        if (guild == null) return WILDERNESS;
+        GuildType type = guild.getType();
+        int flags = FLAG_CLAIMED;
+        if (type == GuildType.SAFE) flags |= FLAG_SAFE;
+        else if (type == GuildType.WAR) flags |= FLAG_WAR;
+        else if (type == GuildType.OWNED) flags |= FLAG_OWNED;
+        return new ProtectionContext(guild.getUuid(), type, flags);
+    }
+
+    public UUID getGuildId() {
+        return guildId;
+    }
+
+    public GuildType getType() {
+        return type;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public boolean isClaimed() {
+        return (flags & FLAG_CLAIMED) != 0;
+    }
+
+    public boolean isSafe() {
+        return (flags & FLAG_SAFE) != 0;
+    }
+
+    public boolean isWar() {
+        return (flags & FLAG_WAR) != 0;
+    }
+
+    public boolean isOwned() {
+        return (flags & FLAG_OWNED) != 0;
+    }
+
+    public boolean isSafeOrWar() {
+        return (flags & (FLAG_SAFE | FLAG_WAR)) != 0;
+    }
+
+    public boolean isSameGuild(ProtectionContext other) {
+        return other != null && guildId != null && guildId.equals(other.guildId);
+    }
+}
@@ -15,11 +15,15 @@ import java.util.*;
  * - Biomes
  * - Hostile entity types (Enemy)
  * - Tameable entity types (Tameable)
+ * Biome keys are also interned to dense indexes (0..count-1) for bitset tracking.
  */
 public class RegistryCache {
     private final Furious plugin;
 
     private List<String> biomeKeysLower = Collections.emptyList();
+    private Map<String, Integer> biomeIndex = Collections.emptyMap();
+    // Biome instances are registry singletons; caches key lookups for the move listener
+    private final Map<Biome, Integer> biomeIndexByBiome = Collections.synchronizedMap(new IdentityHashMap<>());
     private List<String> hostileKeysLower = Collections.emptyList();
     private List<String> tameableKeysLower = Collections.emptyList();
     private List<EntityType> tameableTypes = Collections.emptyList();
@@ -70,6 +74,10 @@ public class RegistryCache {
                 }
             }
             biomeKeysLower = Collections.unmodifiableList(biomes);
+            Map<String, Integer> index = new HashMap<>(biomes.size() * 2);
+            for (int i = 0; i < biomes.size(); i++) index.putIfAbsent(biomes.get(i), i);
+            biomeIndex = Collections.unmodifiableMap(index);
+            biomeIndexByBiome.clear();
         } catch (Throwable ignored) {
         }
 
@@ -117,6 +125,41 @@ public class RegistryCache {
         return biomeKeysLower;
     }
 
+    /** @return number of interned biomes */
+    public int getBiomeCount() {
+        return biomeKeysLower.size();
+    }
+
+    /**
+     * @param keyLower namespaced lowercase biome key, e.g. "minecraft:plains"
+     * @return the dense biome index, or -1 when the key is not in the registry
+     */
+    public int biomeIndexOf(String keyLower) {
+        if (keyLower == null) return -1;
+        Integer idx = biomeIndex.get(keyLower);
+        return idx == null ? -1 : idx;
+    }
+
+    /** @return the dense biome index, or -1 when the biome is not in the registry */
+    public int biomeIndexOf(Biome biome) {
+        if (biome == null) return -1;
+        Integer idx = biomeIndexByBiome.get(biome);
+        if (idx != null) return idx;
+        int found;
+        try {
+            found = biomeIndexOf(biome.key().asString().toLowerCase(Locale.ROOT));
+        } catch (Throwable t) {
+            found = -1;
+        }
+        biomeIndexByBiome.put(biome, found);
+        return found;
+    }
+
+    /** @return the lowercase key for a dense biome index */
+    public String biomeKeyAt(int index) {
+        return biomeKeysLower.get(index);
+    }
+
     public List<String> getHostileKeysLower() {
         return hostileKeysLower;
     }
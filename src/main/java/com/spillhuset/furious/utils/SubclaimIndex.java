@@ -0,0 +1,168 @@
+package com.spillhuset.furious.utils;
+
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Spatial index of subclaims (shops, banks and auctions) keyed by world and chunk.
+ * ShopsService, BanksService and AuctionsService keep it in sync when they claim or
+ * unclaim, so "what is at this chunk" is a single map probe instead of a scan.
+ * Several shops or banks may claim the same chunk; a cell keeps all of them, in claim order,
+ * so removing one leaves the others findable.
+ */
+public class SubclaimIndex {
+
+    /** Subclaims registered for a single chunk. */
+    public static final class Cell {
+        private final List<Shop> shops = new ArrayList<>(1);
+        private final List<Bank> banks = new ArrayList<>(1);
+        private boolean auctions;
+
+        /** @return the earliest shop still claiming this chunk, or null */
+        public Shop getShop() {
+            return shops.isEmpty() ? null : shops.get(0);
+        }
+
+        /** @return the earliest bank still claiming this chunk, or null */
+        public Bank getBank() {
+            return banks.isEmpty() ? null : banks.get(0);
+        }
+
+        public boolean isAuctions() {
+            return auctions;
+        }
+
+        private boolean isEmpty() {
+            return shops.isEmpty() && banks.isEmpty() && !auctions;
+        }
+    }
+
+    // worldId -> packed (x,z) chunk key -> cell
+    private final Map<UUID, Map<Long, Cell>> cells = new HashMap<>();
+
+    public Cell get(UUID worldId, int cx, int cz) {
+        if (worldId == null) return null;
+        Map<Long, Cell> byChunk = cells.get(worldId);
+        return byChunk == null ? null : byChunk.get(ChunkClaimTable.key(cx, cz));
+    }
+
+    // Chunk coordinates come from block coordinates so the lookup never loads a chunk
+    public Cell get(Location loc) {
+        if (loc == null || loc.getWorld() == null) return null;
+        return get(loc.getWorld().getUID(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+    }
+
+    public Shop getShopAt(Location loc) {
+        Cell c = get(loc);
+        return c == null ? null : c.getShop();
+    }
+
+    public Bank getBankAt(Location loc) {
+        Cell c = get(loc);
+        return c == null ? null : c.getBank();
+    }
+
+    public boolean isAuctionsAt(Location loc) {
+        Cell c = get(loc);
+        return c != null && c.auctions;
+    }
+
+    private Cell cell(UUID worldId, int cx, int cz) {
+        return cells.computeIfAbsent(worldId, w -> new HashMap<>())
+                .computeIfAbsent(ChunkClaimTable.key(cx, cz), k -> new Cell());
+    }
+
+    private void prune(UUID worldId, int cx, int cz) {
+        Map<Long, Cell> byChunk = cells.get(worldId);
+        if (byChunk == null) return;
+        long key = ChunkClaimTable.key(cx, cz);
+        Cell c = byChunk.get(key);
+        if (c != null && c.isEmpty()) byChunk.remove(key);
+        if (byChunk.isEmpty()) cells.remove(worldId);
+    }
+
+    // ===== Shops =====
+    public void addShopClaim(Shop shop, UUID worldId, int cx, int cz) {
+        if (shop == null || worldId == null) return;
+        List<Shop> shops = cell(worldId, cx, cz).shops;
+        if (!shops.contains(shop)) shops.add(shop);
+    }
+
+    public void addShop(Shop shop) {
+        if (shop == null) return;
+        for (Shop.Claim c : shop.getClaims()) addShopClaim(shop, c.worldId, c.chunkX, c.chunkZ);
+    }
+
+    // Call before the shop's claims are cleared
+    public void removeShop(Shop shop) {
+        if (shop == null) return;
+        for (Shop.Claim c : shop.getClaims()) {
+            Cell cell = get(c.worldId, c.chunkX, c.chunkZ);
+            if (cell != null && cell.shops.remove(shop)) prune(c.worldId, c.chunkX, c.chunkZ);
+        }
+    }
+
+    public void clearShops() {
+        for (Map<Long, Cell> byChunk : cells.values()) {
+            for (Cell c : byChunk.values()) c.shops.clear();
+            byChunk.values().removeIf(Cell::isEmpty);
+        }
+        cells.values().removeIf(Map::isEmpty);
+    }
+
+    // ===== Banks =====
+    public void addBankClaim(Bank bank, UUID worldId, int cx, int cz) {
+        if (bank == null || worldId == null) return;
+        List<Bank> banks = cell(worldId, cx, cz).banks;
+        if (!banks.contains(bank)) banks.add(bank);
+    }
+
+    public void addBank(Bank bank) {
+        if (bank == null) return;
+        for (Bank.Claim c : bank.getClaims()) addBankClaim(bank, c.worldId, c.chunkX, c.chunkZ);
+    }
+
+    // Call before the bank's claims are cleared
+    public void removeBank(Bank bank) {
+        if (bank == null) return;
+        for (Bank.Claim c : bank.getClaims()) {
+            Cell cell = get(c.worldId, c.chunkX, c.chunkZ);
+            if (cell != null && cell.banks.remove(bank)) prune(c.worldId, c.chunkX, c.chunkZ);
+        }
+    }
+
+    public void clearBanks() {
+        for (Map<Long, Cell> byChunk : cells.values()) {
+            for (Cell c : byChunk.values()) c.banks.clear();
+            byChunk.values().removeIf(Cell::isEmpty);
+        }
+        cells.values().removeIf(Map::isEmpty);
+    }
+
+    // ===== Auctions =====
+    public void setAuctions(UUID worldId, int cx, int cz, boolean claimed) {
+        if (worldId == null) return;
+        if (claimed) {
+            cell(worldId, cx, cz).auctions = true;
+        } else {
+            Cell cell = get(worldId, cx, cz);
+            if (cell != null) {
+                cell.auctions = false;
+                prune(worldId, cx, cz);
+            }
+        }
+    }
+
+    public void clearAuctions() {
+        for (Map<Long, Cell> byChunk : cells.values()) {
+            for (Cell c : byChunk.values()) c.auctions = false;
+            byChunk.values().removeIf(Cell::isEmpty);
+        }
+        cells.values().removeIf(Map::isEmpty);
+    }
+}
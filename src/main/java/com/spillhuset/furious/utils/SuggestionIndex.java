@@ -0,0 +1,80 @@
+package com.spillhuset.furious.utils;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Name tries for tab completion, one per domain (guilds, warps, shops, auctions, banks).
+ * The owning services publish names when they load, create, rename or delete, so a
+ * completion walks only the names under the typed prefix and returns at most
+ * {@link #LIMIT} of them, already sorted, instead of copying and filtering a whole collection.
+ */
+public class SuggestionIndex {
+    public static final int LIMIT = 50;
+
+    public enum Domain {GUILDS, WARPS, SHOPS, AUCTIONS, BANKS}
+
+    private final Map<Domain, PrefixTrie<String>> tries = new EnumMap<>(Domain.class);
+
+    public SuggestionIndex() {
+        for (Domain d : Domain.values()) tries.put(d, new PrefixTrie<>());
+    }
+
+    /** Drops every name of the domain; used when a service (re)loads. */
+    public void clear(Domain domain) {
+        PrefixTrie<String> trie = tries.get(domain);
+        synchronized (trie) {
+            trie.clear();
+        }
+    }
+
+    public void add(Domain domain, String name) {
+        if (name == null || name.isEmpty()) return;
+        PrefixTrie<String> trie = tries.get(domain);
+        synchronized (trie) {
+            trie.put(name, name);
+        }
+    }
+
+    public void remove(Domain domain, String name) {
+        if (name == null) return;
+        PrefixTrie<String> trie = tries.get(domain);
+        synchronized (trie) {
+            trie.remove(name);
+        }
+    }
+
+    public void rename(Domain domain, String oldName, String newName) {
+        PrefixTrie<String> trie = tries.get(domain);
+        synchronized (trie) {
+            if (oldName != null) trie.remove(oldName);
+            if (newName != null && !newName.isEmpty()) trie.put(newName, newName);
+        }
+    }
+
+    public int size(Domain domain) {
+        PrefixTrie<String> trie = tries.get(domain);
+        synchronized (trie) {
+            return trie.size();
+        }
+    }
+
+    /**
+     * @return up to {@link #LIMIT} names starting with {@code prefix} (case-insensitive), sorted
+     */
+    public List<String> complete(Domain domain, String prefix) {
+        return complete(domain, prefix, null);
+    }
+
+    /**
+     * @param filter names to include, or null for all; rejected names do not count towards the limit
+     */
+    public List<String> complete(Domain domain, String prefix, Predicate<String> filter) {
+        PrefixTrie<String> trie = tries.get(domain);
+        synchronized (trie) {
+            return trie.complete(prefix, LIMIT, filter);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.spillhuset.furious.utils;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Checks drained a fixed number per tick, so one tick of a sweep costs the same however many
+ * markers are queued. Not thread-safe; used from the main thread.
+ */
+public class SweepQueue {
+    private final Deque<Runnable> queue = new ArrayDeque<>();
+    private final int perTick;
+
+    public SweepQueue(int perTick) {
+        this.perTick = Math.max(1, perTick);
+    }
+
+    public int getPerTick() {
+        return perTick;
+    }
+
+    public void addAll(Collection<? extends Runnable> checks) {
+        queue.addAll(checks);
+    }
+
+    /**
+     * Runs up to {@code perTick} checks. A check that throws is reported and counts towards the budget.
+     * @return how many checks ran
+     */
+    public int tick(Consumer<Throwable> onFailure) {
+        int ran = 0;
+        while (ran < perTick && !queue.isEmpty()) {
+            Runnable check = queue.pollFirst();
+            ran++;
+            try {
+                check.run();
+            } catch (Throwable t) {
+                onFailure.accept(t);
+            }
+        }
+        return ran;
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public void clear() {
+        queue.clear();
+    }
+}
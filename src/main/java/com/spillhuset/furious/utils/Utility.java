@@ -1,8 +1,11 @@
 package com.spillhuset.furious.utils;
 
+import com.spillhuset.furious.Furious;
+import com.spillhuset.furious.services.PlayerDirectory;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.UUID;
@@ -16,10 +19,16 @@ public class Utility {
         Player online = Bukkit.getPlayerExact(name);
         if (online != null && self != null && online.getUniqueId().equals(self)) return null;
         if (online != null) return online;
-        // try offline matching by exact name
-        for (OfflinePlayer p : Bukkit.getOfflinePlayers()) {
-            if (p.getName() != null && p.getName().equalsIgnoreCase(name)) return p;
+        // Offline: the name index, never Bukkit.getOfflinePlayers() (reads every player file)
+        PlayerDirectory directory = directory();
+        return directory == null ? null : directory.find(name);
+    }
+
+    private static @Nullable PlayerDirectory directory() {
+        try {
+            return JavaPlugin.getPlugin(Furious.class).playerDirectory;
+        } catch (Throwable ignored) {
+            return null;
         }
-        return null;
     }
 }
@@ -0,0 +1,152 @@
+package com.spillhuset.furious.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimpleConnectionPoolTest {
+    private static final int THREADS = 16;
+    private static final int BORROWS = 500;
+
+    @TempDir
+    File dir;
+
+    private SimpleConnectionPool pool;
+
+    @BeforeAll
+    static void driver() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+    }
+
+    @AfterEach
+    void close() {
+        if (pool != null) pool.close();
+    }
+
+    private SimpleConnectionPool open(int maxPoolSize, long connectionTimeoutMs) {
+        String url = "jdbc:sqlite:" + new File(dir, "pool.db").getAbsolutePath();
+        pool = new SimpleConnectionPool(url, null, null, maxPoolSize, 0, connectionTimeoutMs, 600_000L, 1_800_000L, null);
+        return pool;
+    }
+
+    @Test
+    void concurrentBorrowersNeverExceedThePoolSize() throws Exception {
+        int max = 4;
+        SimpleConnectionPool p = open(max, 30_000L);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(threads.submit(() -> {
+                start.await();
+                for (int i = 0; i < BORROWS; i++) {
+                    try (Connection c = p.getConnection(); Statement st = c.createStatement()) {
+                        peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        st.execute("SELECT 1");
+                        assertTrue(p.getStats().total() <= max);
+                        active.decrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(120, TimeUnit.SECONDS);
+        threads.shutdown();
+
+        SimpleConnectionPool.Stats stats = p.getStats();
+        assertTrue(peak.get() <= max, "peak " + peak.get());
+        assertTrue(stats.total() <= max);
+        assertEquals(0, stats.active());
+        assertEquals(0, stats.waiting());
+        assertEquals(0, stats.timeouts());
+        assertEquals((long) THREADS * BORROWS, stats.borrows());
+    }
+
+    @Test
+    void waitersAreServedInArrivalOrderAheadOfNewBorrowers() throws Exception {
+        SimpleConnectionPool p = open(1, 30_000L);
+        Connection held = p.getConnection();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        ExecutorService threads = Executors.newCachedThreadPool();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int id = i;
+            futures.add(threads.submit(() -> {
+                try (Connection c = p.getConnection()) {
+                    order.add(id);
+                }
+                return null;
+            }));
+            // Make sure each one is queued before the next arrives
+            awaitWaiting(p, i + 1);
+        }
+        held.close();
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        threads.shutdown();
+        assertEquals(List.of(0, 1, 2), order);
+    }
+
+    @Test
+    void returnedConnectionGoesToTheWaiterNotTheIdleStack() throws Exception {
+        SimpleConnectionPool p = open(1, 30_000L);
+        Connection held = p.getConnection();
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        CountDownLatch got = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Future<?> waiter = threads.submit(() -> {
+            try (Connection c = p.getConnection()) {
+                got.countDown();
+                done.await();
+            }
+            return null;
+        });
+        awaitWaiting(p, 1);
+        held.close();
+        assertTrue(got.await(10, TimeUnit.SECONDS));
+        // Handed over directly: nothing was left idle for a newcomer to take
+        assertEquals(0, p.getStats().idle());
+        done.countDown();
+        waiter.get(10, TimeUnit.SECONDS);
+        threads.shutdown();
+    }
+
+    @Test
+    void borrowTimesOutWhenThePoolStaysFull() throws Exception {
+        SimpleConnectionPool p = open(1, 1_000L);
+        try (Connection held = p.getConnection()) {
+            long start = System.nanoTime();
+            assertThrows(SQLTimeoutException.class, p::getConnection);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+        }
+        SimpleConnectionPool.Stats stats = p.getStats();
+        assertEquals(1, stats.timeouts());
+        assertEquals(0, stats.waiting());
+        // The slot is still usable after the timeout
+        try (Connection c = p.getConnection()) {
+            assertTrue(c.isValid(1));
+        }
+    }
+
+    private static void awaitWaiting(SimpleConnectionPool p, int waiting) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (p.getStats().waiting() < waiting) {
+            if (System.nanoTime() > deadline) fail("expected " + waiting + " waiting, " + p.getStats());
+            Thread.sleep(5);
+        }
+    }
+}
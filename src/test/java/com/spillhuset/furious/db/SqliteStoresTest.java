@@ -0,0 +1,272 @@
+package com.spillhuset.furious.db;
+
+import com.spillhuset.furious.utils.Bank;
+import com.spillhuset.furious.utils.BankAccount;
+import com.spillhuset.furious.utils.BankType;
+import com.spillhuset.furious.utils.GuildRole;
+import com.spillhuset.furious.utils.GuildType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every SQL store against a real SQLite file, opened with the same URL and pool the plugin uses.
+ * Each test writes, closes the pool and reads back through a fresh one, so nothing is served from memory.
+ */
+class SqliteStoresTest {
+    private static final UUID WORLD = UUID.randomUUID();
+
+    @TempDir
+    File dir;
+
+    private SimpleConnectionPool pool;
+
+    @BeforeAll
+    static void driver() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+    }
+
+    @AfterEach
+    void close() {
+        if (pool != null) pool.close();
+    }
+
+    private SimpleConnectionPool reopen() {
+        if (pool != null) pool.close();
+        String url = DatabaseManager.sqliteUrl(new File(dir, "furious.db"), 5_000L);
+        pool = new SimpleConnectionPool(url, null, null, 4, 1, 10_000L, 600_000L, 1_800_000L, "SELECT 1");
+        return pool;
+    }
+
+    @Test
+    void connectionsUseWalAndForeignKeys() throws Exception {
+        try (Connection c = reopen().getConnection(); Statement st = c.createStatement()) {
+            try (ResultSet rs = st.executeQuery("PRAGMA journal_mode")) {
+                assertTrue(rs.next());
+                assertEquals("wal", rs.getString(1));
+            }
+            try (ResultSet rs = st.executeQuery("PRAGMA foreign_keys")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void homesRoundTrip() throws Exception {
+        UUID player = UUID.randomUUID();
+        HomesStore.HomeRow a = new HomesStore.HomeRow(UUID.randomUUID(), player, "a", WORLD, 1.5, 64, -2.5, 90f, 10f, UUID.randomUUID());
+        HomesStore.HomeRow b = new HomesStore.HomeRow(UUID.randomUUID(), player, "b", WORLD, 10, 70, 20, 0f, 0f, null);
+        HomesStore store = new HomesRepository(reopen(), null);
+        store.init();
+        store.applyChanges(List.of(a, b), Map.of(), Map.of(player, 3));
+
+        // Swapping names in one batch must not trip UNIQUE(player_id, name)
+        HomesStore.HomeRow a2 = new HomesStore.HomeRow(a.id(), player, "b", WORLD, a.x(), a.y(), a.z(), a.yaw(), a.pitch(), a.armorStand());
+        HomesStore.HomeRow b2 = new HomesStore.HomeRow(b.id(), player, "a", WORLD, b.x(), b.y(), b.z(), b.yaw(), b.pitch(), null);
+        store.applyChanges(List.of(a2, b2), Map.of(), Map.of());
+
+        store = new HomesRepository(reopen(), null);
+        store.init();
+        Map<UUID, HomesStore.HomeRow> byId = new HashMap<>();
+        for (HomesStore.HomeRow row : store.loadHomes(player)) byId.put(row.id(), row);
+        assertEquals(Map.of(a.id(), a2, b.id(), b2), byId);
+        assertEquals(3, store.loadPurchased(player));
+
+        store.applyChanges(List.of(), Map.of(a.id(), player), Map.of());
+        List<HomesStore.HomeRow> all = new ArrayList<>();
+        store.forEachHome(all::add);
+        assertEquals(List.of(b2), all);
+    }
+
+    @Test
+    void banksRoundTrip() throws Exception {
+        Bank bank = new Bank(UUID.randomUUID(), "Central");
+        bank.setType(BankType.values()[0]);
+        bank.setInterest(0.25);
+        bank.setOpen(false);
+        bank.addClaim(WORLD, 3, -4);
+        bank.addClaim(WORLD, 4, -4);
+        bank.setInterestHistory(List.of(0.1, 0.25));
+        UUID player = UUID.randomUUID();
+        BankAccount account = new BankAccount(bank.getId(), player);
+        account.setBalance(123.45);
+
+        BanksStore store = new BanksRepository(reopen());
+        store.init();
+        store.saveAll(List.of(bank), Map.of(player, Map.of(bank.getId(), account)), Map.of(bank.getId(), 1_700_000_000_000L));
+
+        Map<UUID, Bank> banks = new HashMap<>();
+        Map<String, UUID> names = new HashMap<>();
+        Map<UUID, Map<UUID, BankAccount>> accounts = new HashMap<>();
+        Map<UUID, Long> accrual = new HashMap<>();
+        new BanksRepository(reopen()).loadAll(banks, names, accounts, accrual);
+
+        Bank loaded = banks.get(bank.getId());
+        assertNotNull(loaded);
+        assertEquals(bank.getId(), names.get("central"));
+        assertEquals(0.25, loaded.getInterest());
+        assertFalse(loaded.isOpen());
+        assertEquals(new HashSet<>(bank.getClaims()), new HashSet<>(loaded.getClaims()));
+        assertEquals(List.of(0.1, 0.25), loaded.getInterestHistory());
+        assertEquals(123.45, accounts.get(player).get(bank.getId()).getBalance());
+        assertEquals(1_700_000_000_000L, accrual.get(bank.getId()));
+    }
+
+    @Test
+    void walletSnapshotIsSeededOnceThenReplaced() throws Exception {
+        UUID player = UUID.randomUUID();
+        WalletStore seed = new MemoryWalletStore(new WalletStore.Snapshot(Map.of(player, 1_050L), 7L));
+        WalletStore store = new WalletRepository(reopen(), seed);
+        store.init();
+        assertEquals(new WalletStore.Snapshot(Map.of(player, 1_050L), 7L), store.load());
+
+        UUID other = UUID.randomUUID();
+        store.save(new WalletStore.Snapshot(Map.of(other, 1L), 9L));
+
+        // A second start must not copy accounts.yml over newer balances
+        store = new WalletRepository(reopen(), seed);
+        store.init();
+        assertEquals(new WalletStore.Snapshot(Map.of(other, 1L), 9L), store.load());
+    }
+
+    @Test
+    void locksRoundTrip() throws Exception {
+        UUID owner = UUID.randomUUID();
+        LocksStore store = new LocksRepository(reopen(), null);
+        store.init();
+        store.saveAll(Map.of(WORLD, Map.of("1,64,2", owner, "-5,70,9", owner)));
+        store.saveAll(Map.of(WORLD, Map.of("1,64,2", owner)));
+
+        store = new LocksRepository(reopen(), null);
+        store.init();
+        assertEquals(Map.of(WORLD, Map.of("1,64,2", owner)), store.loadAll());
+    }
+
+    @Test
+    void lockChangesOnlyTouchTheirBlocks() throws Exception {
+        UUID owner = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        LocksStore store = new LocksRepository(reopen(), null);
+        store.init();
+        store.saveAll(Map.of(WORLD, Map.of("1,64,2", owner, "-5,70,9", owner)));
+        store.applyChanges(List.of(new LocksStore.LockRow(WORLD, "-5,70,9", null), new LocksStore.LockRow(WORLD, "3,3,3", other)));
+
+        store = new LocksRepository(reopen(), null);
+        store.init();
+        assertEquals(Map.of(WORLD, Map.of("1,64,2", owner, "3,3,3", other)), store.loadAll());
+    }
+
+    @Test
+    void professionsKeepPointsWhenARowHasNone() throws Exception {
+        UUID player = UUID.randomUUID();
+        ProfessionsStore store = new ProfessionsRepository(reopen(), null);
+        store.init();
+        store.applyChanges(Map.of(player, new ProfessionsStore.PlayerRow("MINER", null, Map.of("MINER", 12, "FARMER", 3))));
+        store.applyChanges(Map.of(player, new ProfessionsStore.PlayerRow("MINER", "FARMER", null)));
+
+        store = new ProfessionsRepository(reopen(), null);
+        store.init();
+        Map<UUID, ProfessionsStore.PlayerRow> rows = new HashMap<>();
+        store.forEachPlayer(rows::put);
+        assertEquals(Map.of(player, new ProfessionsStore.PlayerRow("MINER", "FARMER", Map.of("MINER", 12, "FARMER", 3))), rows);
+    }
+
+    @Test
+    void guildsRoundTripAndAFailedSaveKeepsThePreviousSnapshot() throws Exception {
+        UUID owner = UUID.randomUUID();
+        UUID member = UUID.randomUUID();
+        GuildsStore.GuildRow guild = new GuildsStore.GuildRow(UUID.randomUUID(), "Riders", GuildType.values()[0], owner, true, 2,
+                Map.of(owner, GuildRole.values()[0], member, GuildRole.values()[GuildRole.values().length - 1]));
+        GuildsStore.GuildRow unmanned = new GuildsStore.GuildRow(UUID.randomUUID(), "WILDLIFE", GuildType.values()[0], null, false, 0, Map.of());
+        GuildsStore.Snapshot snapshot = new GuildsStore.Snapshot(List.of(guild, unmanned),
+                List.of(new GuildsStore.ChunkRow(WORLD, 0, 0, guild.id()), new GuildsStore.ChunkRow(WORLD, -1, 5, guild.id())),
+                List.of(new GuildsStore.ChunkRow(WORLD, 40, 40, guild.id())));
+
+        GuildsStore store = new GuildsRepository(reopen(), null);
+        store.init();
+        store.saveAll(snapshot);
+
+        // An outpost of a guild that is not in the snapshot violates the foreign key; nothing may be half-written
+        GuildsStore.Snapshot broken = new GuildsStore.Snapshot(List.of(unmanned), List.of(),
+                List.of(new GuildsStore.ChunkRow(WORLD, 1, 1, UUID.randomUUID())));
+        assertThrows(Exception.class, () -> store.saveAll(broken));
+
+        GuildsStore reopened = new GuildsRepository(reopen(), null);
+        reopened.init();
+        GuildsStore.Snapshot loaded = reopened.loadAll();
+        assertEquals(Set.copyOf(snapshot.guilds()), Set.copyOf(loaded.guilds()));
+        assertEquals(Set.copyOf(snapshot.claims()), Set.copyOf(loaded.claims()));
+        assertEquals(Set.copyOf(snapshot.outposts()), Set.copyOf(loaded.outposts()));
+    }
+
+    @Test
+    void guildChangesOnlyTouchTheirGuildsAndChunks() throws Exception {
+        UUID owner = UUID.randomUUID();
+        UUID joined = UUID.randomUUID();
+        GuildsStore.GuildRow riders = new GuildsStore.GuildRow(UUID.randomUUID(), "Riders", GuildType.values()[0], owner, true, 1,
+                Map.of(owner, GuildRole.values()[0]));
+        GuildsStore.GuildRow gone = new GuildsStore.GuildRow(UUID.randomUUID(), "Gone", GuildType.values()[0], null, false, 0, Map.of());
+        GuildsStore.GuildRow kept = new GuildsStore.GuildRow(UUID.randomUUID(), "Kept", GuildType.values()[0], null, false, 0, Map.of());
+        GuildsStore store = new GuildsRepository(reopen(), null);
+        store.init();
+        store.saveAll(new GuildsStore.Snapshot(List.of(riders, gone, kept),
+                List.of(new GuildsStore.ChunkRow(WORLD, 0, 0, riders.id()), new GuildsStore.ChunkRow(WORLD, 1, 0, riders.id()),
+                        new GuildsStore.ChunkRow(WORLD, 9, 9, kept.id())),
+                List.of(new GuildsStore.ChunkRow(WORLD, 0, 0, riders.id()), new GuildsStore.ChunkRow(WORLD, 9, 9, gone.id()))));
+
+        // A member joins and the outpost moves; one chunk is unclaimed, one claimed, one guild removed
+        GuildsStore.GuildRow riders2 = new GuildsStore.GuildRow(riders.id(), "Riders", riders.type(), owner, true, 1,
+                Map.of(owner, GuildRole.values()[0], joined, GuildRole.values()[GuildRole.values().length - 1]));
+        store.applyChanges(List.of(riders2), List.of(new GuildsStore.ChunkRow(WORLD, 5, 5, riders.id())), List.of(gone.id()),
+                List.of(new GuildsStore.ChunkRow(WORLD, 1, 0, null), new GuildsStore.ChunkRow(WORLD, 5, 5, riders.id())));
+
+        store = new GuildsRepository(reopen(), null);
+        store.init();
+        GuildsStore.Snapshot loaded = store.loadAll();
+        assertEquals(Set.of(riders2, kept), Set.copyOf(loaded.guilds()));
+        assertEquals(Set.of(new GuildsStore.ChunkRow(WORLD, 0, 0, riders.id()), new GuildsStore.ChunkRow(WORLD, 5, 5, riders.id()),
+                new GuildsStore.ChunkRow(WORLD, 9, 9, kept.id())), Set.copyOf(loaded.claims()));
+        assertEquals(List.of(new GuildsStore.ChunkRow(WORLD, 5, 5, riders.id())), loaded.outposts());
+    }
+
+    @Test
+    void guildsAreSeededFromTheYamlStoreWhenTheTablesAreEmpty() throws Exception {
+        GuildsStore.GuildRow guild = new GuildsStore.GuildRow(UUID.randomUUID(), "Seeded", GuildType.values()[0], null, false, 0, Map.of());
+        GuildsStore.Snapshot yaml = new GuildsStore.Snapshot(List.of(guild), List.of(new GuildsStore.ChunkRow(WORLD, 2, 2, guild.id())), List.of());
+        GuildsStore seed = new GuildsStore() {
+            @Override public void init() {}
+            @Override public Snapshot loadAll() { return yaml; }
+            @Override public void saveAll(Snapshot snapshot) { fail("the seed is only read"); }
+            @Override public void applyChanges(Collection<GuildRow> guilds, Collection<ChunkRow> outposts, Collection<UUID> deleted,
+                                               Collection<ChunkRow> claims) { fail("the seed is only read"); }
+        };
+        GuildsStore store = new GuildsRepository(reopen(), seed);
+        store.init();
+        GuildsStore.Snapshot loaded = store.loadAll();
+        assertEquals(yaml.guilds(), loaded.guilds());
+        assertEquals(yaml.claims(), loaded.claims());
+    }
+
+    /** Stands in for accounts.yml. */
+    private static final class MemoryWalletStore implements WalletStore {
+        private Snapshot snapshot;
+
+        MemoryWalletStore(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override public void init() {}
+        @Override public Snapshot load() { return snapshot; }
+        @Override public void save(Snapshot snapshot) { this.snapshot = snapshot; }
+    }
+}
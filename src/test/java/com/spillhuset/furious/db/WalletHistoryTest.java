@@ -0,0 +1,92 @@
+package com.spillhuset.furious.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletHistoryTest {
+    @TempDir
+    File dir;
+
+    private WalletHistory history;
+
+    @AfterEach
+    void close() {
+        if (history != null) history.close();
+    }
+
+    private WalletHistory open() throws Exception {
+        history = new WalletHistory(new File(dir, "history.db"));
+        history.open();
+        return history;
+    }
+
+    @Test
+    void archivesEveryOldRowAcrossBatchesAndKeepsTheRest() throws Exception {
+        WalletHistory h = open();
+        UUID player = UUID.randomUUID();
+        List<WalletJournal.Record> rows = new ArrayList<>();
+        // More than two archive batches before the cutoff, a few after it
+        for (int i = 0; i < 2_500; i++) rows.add(new WalletJournal.Record(1, i, 1_000L + i, player, 1.0 * i, "old " + i));
+        for (int i = 0; i < 10; i++) rows.add(new WalletJournal.Record(2, i, 10_000L + i, player, null, "new " + i));
+        h.insert(rows);
+
+        File archiveDir = new File(dir, "archive");
+        assertEquals(2_500, h.archiveBefore(5_000L, archiveDir));
+
+        List<String> archived = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                new FileInputStream(new File(archiveDir, "history-5000.log.gz"))), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) archived.add(line);
+        }
+        assertEquals(2_500, archived.size());
+        // Oldest first, nothing repeated at batch boundaries
+        for (int i = 0; i < archived.size(); i++) assertTrue(archived.get(i).endsWith("old " + i), archived.get(i));
+
+        List<WalletJournal.Record> left = h.latest(player, 0, 100);
+        assertEquals(10, left.size());
+        assertEquals("new 9", left.get(0).entry());
+        assertEquals(0, h.archiveBefore(5_000L, archiveDir));
+    }
+
+    @Test
+    void readsAreNotBlockedForTheWholeArchiveRun() throws Exception {
+        WalletHistory h = open();
+        UUID player = UUID.randomUUID();
+        List<WalletJournal.Record> rows = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) rows.add(new WalletJournal.Record(1, i, 1_000L + i, i % 2 == 0 ? player : null, null, "entry " + i));
+        h.insert(rows);
+
+        Thread archiver = new Thread(() -> {
+            try {
+                h.archiveBefore(Long.MAX_VALUE, new File(dir, "archive"));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        archiver.start();
+        // A reader gets in between batches while the archive is still being written
+        int reads = 0;
+        while (archiver.isAlive()) {
+            h.latest(player, 0, 10);
+            reads++;
+        }
+        archiver.join();
+        assertTrue(reads > 1, "reads during archive: " + reads);
+        assertTrue(h.latest(player, 0, 10).isEmpty());
+        assertTrue(h.latest(null, 0, 10).isEmpty());
+    }
+}
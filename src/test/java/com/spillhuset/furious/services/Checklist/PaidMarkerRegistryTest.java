@@ -0,0 +1,56 @@
+package com.spillhuset.furious.services.Checklist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaidMarkerRegistryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void markersSurviveReload() throws Exception {
+        File file = dir.resolve("biomes-paid.log").toFile();
+        UUID player = UUID.randomUUID();
+        PaidMarkerRegistry registry = new PaidMarkerRegistry(file);
+        registry.load();
+        assertTrue(registry.markOnce(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, player, "minecraft:plains"));
+        assertFalse(registry.markOnce(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, player, "minecraft:plains"));
+        assertTrue(registry.markOnce("player-first:Biomes:" + player + ":minecraft:desert"));
+        registry.close();
+
+        PaidMarkerRegistry reloaded = new PaidMarkerRegistry(file);
+        reloaded.load();
+        assertTrue(reloaded.isPaid(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, player, "minecraft:plains"));
+        assertTrue(reloaded.isPaid(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, player, "minecraft:desert"));
+        assertEquals(2, reloaded.size());
+    }
+
+    @Test
+    void failedAppendIsRetriedWithTheNextMarker() throws Exception {
+        File file = dir.resolve("monsters-paid.log").toFile();
+        UUID player = UUID.randomUUID();
+        PaidMarkerRegistry registry = new PaidMarkerRegistry(file);
+        registry.load();
+
+        // A directory in the file's place makes the append fail
+        Files.createDirectory(file.toPath());
+        assertTrue(registry.markOnce(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, player, "minecraft:zombie"));
+        Files.delete(file.toPath());
+
+        // Reuses the player index interned by the failed append; its definition must still reach the file
+        assertTrue(registry.markOnce(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, player, "minecraft:skeleton"));
+        registry.close();
+
+        PaidMarkerRegistry reloaded = new PaidMarkerRegistry(file);
+        reloaded.load();
+        assertTrue(reloaded.isPaid(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, player, "minecraft:zombie"));
+        assertTrue(reloaded.isPaid(PaidMarkerRegistry.Kind.PLAYER_FIRST, 0, player, "minecraft:skeleton"));
+    }
+}
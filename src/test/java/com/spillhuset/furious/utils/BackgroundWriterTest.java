@@ -0,0 +1,140 @@
+package com.spillhuset.furious.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackgroundWriterTest {
+    private static final Logger LOGGER = Logger.getLogger("BackgroundWriterTest");
+
+    /** Stands in for the owner's dirty map; only touched by the test thread, like the main thread. */
+    private final Map<String, Integer> dirty = new HashMap<>();
+    /** What has reached "disk", in write order. */
+    private final Map<String, Integer> disk = new ConcurrentHashMap<>();
+
+    private Map<String, Integer> snapshot() {
+        Map<String, Integer> rows = new HashMap<>(dirty);
+        dirty.clear();
+        return rows;
+    }
+
+    @Test
+    void flushNowWaitsForTheRunningWriteSoTheFinalValueWins() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService async = Executors.newSingleThreadExecutor();
+        BackgroundWriter<Map<String, Integer>> writer = BackgroundWriter.ofRows("test", LOGGER, this::snapshot, rows -> {
+            if (rows.get("a") == 1) {
+                // The async write stalls until the shutdown write is waiting on it
+                writing.countDown();
+                release.await();
+            }
+            disk.putAll(rows);
+        }, async);
+
+        dirty.put("a", 1);
+        writer.flush();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        dirty.put("a", 2);
+        Thread shutdown = new Thread(writer::flushNow);
+        shutdown.start();
+        shutdown.join(200);
+        assertTrue(shutdown.isAlive(), "flushNow must wait for the running write");
+
+        release.countDown();
+        shutdown.join(5_000);
+        assertFalse(shutdown.isAlive());
+        assertEquals(2, disk.get("a"));
+
+        async.shutdown();
+        assertTrue(async.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, disk.get("a"));
+    }
+
+    @Test
+    void unstartedAsyncWriteCannotOverwriteTheShutdownWrite() throws Exception {
+        // The async task is held back until after flushNow, as when the scheduler runs it late
+        List<Runnable> held = new ArrayList<>();
+        BackgroundWriter<Map<String, Integer>> writer = BackgroundWriter.ofRows("test", LOGGER, this::snapshot, disk::putAll, held::add);
+
+        dirty.put("a", 1);
+        writer.flush();
+        dirty.put("a", 2);
+        writer.flushNow();
+        assertEquals(2, disk.get("a"));
+
+        for (Runnable task : held) task.run();
+        assertEquals(2, disk.get("a"));
+    }
+
+    @Test
+    void failedBatchIsRetriedWithoutOverwritingNewerRows() {
+        List<Runnable> tasks = new ArrayList<>();
+        boolean[] fail = {true};
+        List<BackgroundWriter<Map<String, Integer>>> self = new ArrayList<>();
+        BackgroundWriter<Map<String, Integer>> writer = BackgroundWriter.ofRows("test", LOGGER, this::snapshot, rows -> {
+            if (fail[0]) {
+                fail[0] = false;
+                // "a" changes again and is queued while this write is failing; the newer value must survive the requeue
+                dirty.put("a", 2);
+                self.get(0).flush();
+                throw new IOException("disk full");
+            }
+            disk.putAll(rows);
+        }, tasks::add);
+        self.add(writer);
+
+        dirty.put("a", 1);
+        dirty.put("b", 1);
+        writer.flush();
+        tasks.remove(0).run();
+        assertTrue(disk.isEmpty());
+        assertTrue(writer.isBusy());
+
+        runAll(tasks); // the flush made during the failed write retries the merged rows
+        assertEquals(Map.of("a", 2, "b", 1), disk);
+        assertFalse(writer.isBusy());
+    }
+
+    @Test
+    void nextFlushRetriesAFailedBatchWithNothingNewDirty() {
+        List<Runnable> tasks = new ArrayList<>();
+        boolean[] fail = {true};
+        BackgroundWriter<Map<String, Integer>> writer = BackgroundWriter.ofRows("test", LOGGER, this::snapshot, rows -> {
+            if (fail[0]) throw new IOException("disk full");
+            disk.putAll(rows);
+        }, tasks::add);
+
+        dirty.put("a", 1);
+        writer.flush();
+        runAll(tasks);
+        assertTrue(disk.isEmpty());
+
+        fail[0] = false;
+        writer.flush();
+        runAll(tasks);
+        assertEquals(1, disk.get("a"));
+    }
+
+    @Test
+    void rejectedExecutorLeavesRowsForFlushNow() {
+        BackgroundWriter<Map<String, Integer>> writer = BackgroundWriter.ofRows("test", LOGGER, this::snapshot, disk::putAll, task -> {
+            throw new RejectedExecutionException("disabled");
+        });
+        dirty.put("a", 1);
+        writer.flush();
+        assertTrue(disk.isEmpty());
+        writer.flushNow();
+        assertEquals(1, disk.get("a"));
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+        while (!tasks.isEmpty()) tasks.remove(0).run();
+    }
+}
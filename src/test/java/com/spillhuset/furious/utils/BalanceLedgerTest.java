@@ -0,0 +1,112 @@
+package com.spillhuset.furious.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceLedgerTest {
+    private static final int ACCOUNTS = 32;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 50_000;
+    private static final long INITIAL = 100_000L;
+
+    @Test
+    void concurrentPaymentsAndDepositsConserveTheTotal() throws Exception {
+        // Last balance journaled per account; records for an account are made under its lock, so this must end equal
+        Map<UUID, Long> journaled = new ConcurrentHashMap<>();
+        BalanceLedger ledger = new BalanceLedger(INITIAL, (uuid, cents, entry) -> journaled.put(uuid, cents));
+        UUID[] ids = new UUID[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) ids[i] = UUID.randomUUID();
+
+        AtomicLong minted = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] futures = new Future<?>[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            futures[t] = pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int n = 0; n < OPERATIONS; n++) {
+                    UUID a = ids[random.nextInt(ACCOUNTS)];
+                    UUID b = ids[random.nextInt(ACCOUNTS)];
+                    long cents = 1 + random.nextInt(5_000);
+                    switch (random.nextInt(10)) {
+                        case 0 -> {
+                            if (ledger.add(a, cents, "deposit")) minted.addAndGet(cents);
+                        }
+                        case 1 -> {
+                            if (ledger.subtract(a, cents, "withdraw")) minted.addAndGet(-cents);
+                        }
+                        default -> {
+                            // Opposite payments between the same pair run at the same time, which would deadlock without lock ordering
+                            if (!a.equals(b)) ledger.transfer(a, b, cents, "paid", "received");
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS), "deadlock or starvation");
+        for (Future<?> f : futures) f.get();
+
+        long total = 0;
+        for (UUID id : ids) {
+            long balance = ledger.get(id);
+            assertTrue(balance >= 0, "negative balance " + balance);
+            assertEquals(balance, (long) journaled.get(id), "journal out of order for " + id);
+            total += balance;
+        }
+        assertEquals(ACCOUNTS * INITIAL + minted.get(), total);
+    }
+
+    @Test
+    void failedOperationsChangeNothing() {
+        BalanceLedger ledger = new BalanceLedger(500L, (uuid, cents, entry) -> {});
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+
+        assertFalse(ledger.transfer(a, b, 501L, "paid", "received"));
+        assertFalse(ledger.subtract(a, 501L, "withdraw"));
+        ledger.set(b, Long.MAX_VALUE - 10, "set");
+        assertFalse(ledger.transfer(a, b, 11L, "paid", "received"));
+        assertFalse(ledger.add(b, 11L, "deposit"));
+
+        assertEquals(500L, ledger.get(a));
+        assertEquals(Long.MAX_VALUE - 10, ledger.get(b));
+    }
+
+    @Test
+    void newAccountsStartWithTheInitialBalanceOnce() {
+        Map<UUID, Integer> created = new ConcurrentHashMap<>();
+        BalanceLedger ledger = new BalanceLedger(1_000L, (uuid, cents, entry) -> {
+            if (entry.startsWith("INITIAL")) created.merge(uuid, 1, Integer::sum);
+        });
+        UUID a = UUID.randomUUID();
+        assertFalse(ledger.has(a));
+        assertEquals(1_000L, ledger.get(a));
+        assertEquals(1_000L, ledger.get(a));
+        assertTrue(ledger.has(a));
+        assertEquals(1, created.get(a));
+
+        ledger.restore(a, 42L);
+        assertEquals(42L, ledger.get(a));
+        assertEquals(42L, ledger.snapshot().get(a));
+    }
+
+    @Test
+    void amountsRoundToWholeCents() {
+        assertEquals(0L, BalanceLedger.toCents(0.004));
+        assertEquals(1L, BalanceLedger.toCents(0.005));
+        assertEquals(1999L, BalanceLedger.toCents(19.99));
+        assertEquals(19.99, BalanceLedger.fromCents(1999L), 0.0);
+    }
+}
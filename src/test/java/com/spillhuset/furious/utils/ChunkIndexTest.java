@@ -0,0 +1,50 @@
+package com.spillhuset.furious.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkIndexTest {
+    private final UUID world = UUID.randomUUID();
+
+    @Test
+    void valuesAreFoundOnlyInTheirChunk() {
+        ChunkIndex<String> index = new ChunkIndex<>();
+        index.put("a", world, 15.9, -0.5);   // chunk (0, -1)
+        index.put("b", world, 16.0, -16.0);  // chunk (1, -1)
+        index.put("c", world, 3.0, -7.0);    // chunk (0, -1)
+
+        assertEquals(List.of("a", "c"), index.get(world, 0, -1));
+        assertEquals(List.of("b"), index.get(world, 1, -1));
+        assertTrue(index.get(world, 0, 0).isEmpty());
+        assertTrue(index.get(UUID.randomUUID(), 0, -1).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void putMovesAndRemoveForgets() {
+        ChunkIndex<String> index = new ChunkIndex<>();
+        index.put("a", world, 0, 0);
+        index.put("a", world, 5, 5);
+        assertTrue(index.get(world, 0, 0).isEmpty());
+        assertEquals(List.of("a"), index.get(world, 5, 5));
+
+        index.remove("a");
+        assertTrue(index.get(world, 5, 5).isEmpty());
+        assertEquals(0, index.size());
+        index.remove("a"); // unknown values are ignored
+    }
+
+    @Test
+    void getReturnsACopy() {
+        ChunkIndex<String> index = new ChunkIndex<>();
+        index.put("a", world, 0, 0);
+        index.put("b", world, 0, 0);
+        // Reconciling may move or remove values while the chunk's list is iterated
+        for (String value : index.get(world, 0, 0)) index.remove(value);
+        assertEquals(0, index.size());
+    }
+}
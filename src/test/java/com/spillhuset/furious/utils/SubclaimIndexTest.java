@@ -0,0 +1,165 @@
+package com.spillhuset.furious.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubclaimIndexTest {
+    private final UUID world = UUID.randomUUID();
+    private final SubclaimIndex index = new SubclaimIndex();
+
+    @Test
+    void shopClaimsAreFoundUntilRemoved() {
+        Shop shop = new Shop(UUID.randomUUID(), "market");
+        shop.addClaim(world, 3, -4);
+        shop.addClaim(world, 4, -4);
+        index.addShop(shop);
+
+        assertSame(shop, index.get(world, 3, -4).getShop());
+        assertSame(shop, index.get(world, 4, -4).getShop());
+        assertNull(index.get(world, 5, -4));
+        assertNull(index.get(UUID.randomUUID(), 3, -4));
+
+        index.removeShop(shop);
+        assertNull(index.get(world, 3, -4));
+        assertNull(index.get(world, 4, -4));
+    }
+
+    @Test
+    void sharedChunkKeepsTheOtherSubclaims() {
+        Shop shop = new Shop(UUID.randomUUID(), "market");
+        shop.addClaim(world, 0, 0);
+        Bank bank = new Bank(UUID.randomUUID(), "vault");
+        bank.addClaim(world, 0, 0);
+        index.addShop(shop);
+        index.addBank(bank);
+        index.setAuctions(world, 0, 0, true);
+
+        index.removeShop(shop);
+        SubclaimIndex.Cell cell = index.get(world, 0, 0);
+        assertNotNull(cell);
+        assertNull(cell.getShop());
+        assertSame(bank, cell.getBank());
+        assertTrue(cell.isAuctions());
+
+        index.setAuctions(world, 0, 0, false);
+        assertSame(bank, index.get(world, 0, 0).getBank());
+        assertFalse(index.get(world, 0, 0).isAuctions());
+
+        index.removeBank(bank);
+        assertNull(index.get(world, 0, 0));
+    }
+
+    @Test
+    void removingAStaleShopLeavesTheNewOwner() {
+        Shop old = new Shop(UUID.randomUUID(), "old");
+        old.addClaim(world, 1, 1);
+        index.addShop(old);
+        // The chunk was claimed again by another shop
+        Shop current = new Shop(UUID.randomUUID(), "current");
+        current.addClaim(world, 1, 1);
+        index.addShop(current);
+
+        index.removeShop(old);
+        assertSame(current, index.get(world, 1, 1).getShop());
+    }
+
+    @Test
+    void twoOwnersShareAChunkAndOneIsRemoved() {
+        Shop first = new Shop(UUID.randomUUID(), "first");
+        first.addClaim(world, 2, 2);
+        Shop second = new Shop(UUID.randomUUID(), "second");
+        second.addClaim(world, 2, 2);
+        index.addShop(first);
+        index.addShop(second);
+        Bank vault = new Bank(UUID.randomUUID(), "vault");
+        vault.addClaim(world, 2, 2);
+        Bank reserve = new Bank(UUID.randomUUID(), "reserve");
+        reserve.addClaim(world, 2, 2);
+        index.addBank(vault);
+        index.addBank(reserve);
+
+        // Whichever one goes, the other still claims the chunk
+        index.removeShop(second);
+        assertSame(first, index.get(world, 2, 2).getShop());
+        index.removeBank(vault);
+        assertSame(reserve, index.get(world, 2, 2).getBank());
+
+        index.removeShop(first);
+        index.removeBank(reserve);
+        assertNull(index.get(world, 2, 2));
+    }
+
+    @Test
+    void clearDropsOnlyThatKind() {
+        for (int i = 0; i < 50; i++) {
+            Shop shop = new Shop(UUID.randomUUID(), "s" + i);
+            shop.addClaim(world, i, 0);
+            index.addShop(shop);
+            Bank bank = new Bank(UUID.randomUUID(), "b" + i);
+            bank.addClaim(world, i, 1);
+            index.addBank(bank);
+        }
+        index.setAuctions(world, 0, 0, true);
+
+        index.clearShops();
+        for (int i = 0; i < 50; i++) {
+            SubclaimIndex.Cell cell = index.get(world, i, 0);
+            if (i == 0) {
+                assertTrue(cell.isAuctions());
+                assertNull(cell.getShop());
+            } else {
+                assertNull(cell);
+            }
+            assertNotNull(index.get(world, i, 1).getBank());
+        }
+
+        index.clearBanks();
+        index.clearAuctions();
+        for (int i = 0; i < 50; i++) {
+            assertNull(index.get(world, i, 0));
+            assertNull(index.get(world, i, 1));
+        }
+    }
+
+    @Test
+    void matchesAScanAcrossClaimAndUnclaim() {
+        Random random = new Random(7);
+        List<long[]> chunks = new ArrayList<>();
+        for (int x = 0; x < 40; x++) {
+            for (int z = 0; z < 40; z++) chunks.add(new long[]{x, z});
+        }
+        Collections.shuffle(chunks, random);
+        List<Shop> shops = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Shop shop = new Shop(UUID.randomUUID(), "s" + i);
+            shop.addClaim(world, (int) chunks.get(i)[0], (int) chunks.get(i)[1]);
+            shops.add(shop);
+            index.addShop(shop);
+        }
+        // Unclaim a third of them
+        for (int i = 0; i < 100; i++) {
+            index.removeShop(shops.remove(random.nextInt(shops.size())));
+        }
+        int indexed = 0;
+        for (int x = 0; x < 40; x++) {
+            for (int z = 0; z < 40; z++) {
+                SubclaimIndex.Cell cell = index.get(world, x, z);
+                Shop found = cell == null ? null : cell.getShop();
+                Shop scanned = null;
+                for (Shop shop : shops) {
+                    if (shop.hasClaimAt(world, x, z)) scanned = shop;
+                }
+                assertSame(scanned, found, "chunk " + x + "," + z);
+                if (cell != null) indexed++;
+            }
+        }
+        assertEquals(200, indexed);
+    }
+}
@@ -0,0 +1,57 @@
+package com.spillhuset.furious.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SweepQueueTest {
+    @Test
+    void eachTickRunsAtMostTheBudgetWithManyMarkers() {
+        int markers = 100_000;
+        int perTick = 4;
+        SweepQueue queue = new SweepQueue(perTick);
+        AtomicInteger checked = new AtomicInteger();
+        List<Runnable> checks = new ArrayList<>(markers);
+        for (int i = 0; i < markers; i++) checks.add(checked::incrementAndGet);
+        queue.addAll(checks);
+
+        int ticks = 0;
+        while (!queue.isEmpty()) {
+            int before = checked.get();
+            int ran = queue.tick(t -> fail(t));
+            assertTrue(ran <= perTick, "tick ran " + ran);
+            assertEquals(ran, checked.get() - before);
+            ticks++;
+        }
+        assertEquals(markers, checked.get());
+        assertEquals((markers + perTick - 1) / perTick, ticks);
+    }
+
+    @Test
+    void failingCheckIsReportedAndCountsTowardsTheBudget() {
+        SweepQueue queue = new SweepQueue(2);
+        AtomicInteger checked = new AtomicInteger();
+        List<Throwable> failures = new ArrayList<>();
+        queue.addAll(List.of(
+                () -> { throw new IllegalStateException("gone"); },
+                checked::incrementAndGet,
+                checked::incrementAndGet));
+
+        assertEquals(2, queue.tick(failures::add));
+        assertEquals(1, failures.size());
+        assertEquals(1, checked.get());
+        assertEquals(1, queue.size());
+        assertEquals(1, queue.tick(failures::add));
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.tick(failures::add));
+    }
+
+    @Test
+    void budgetIsAtLeastOne() {
+        assertEquals(1, new SweepQueue(0).getPerTick());
+    }
+}